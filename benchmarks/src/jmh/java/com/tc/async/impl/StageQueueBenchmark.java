@@ -0,0 +1,169 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.async.impl;
+
+import com.tc.async.api.AbstractEventHandler;
+import com.tc.async.api.EventHandlerException;
+import com.tc.async.api.MultiThreadedEventContext;
+import com.tc.async.api.Sink;
+import com.tc.async.api.Source;
+import com.tc.async.api.Stage;
+import com.tc.logging.DefaultLoggerProvider;
+import com.tc.properties.TCPropertiesImpl;
+import com.tc.util.concurrent.QueueFactory;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SEDA enqueue/dequeue cycle.  {@code cycle} measures the cost of one addToSink plus
+ * one poll on the same thread so the queue never blocks, {@code pipeline} pushes events from
+ * several producers through a started {@link StageImpl} to measure the handoff under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StageQueueBenchmark {
+
+  @State(Scope.Thread)
+  public static class QueueCycle {
+    @Param({"1", "4"})
+    int queueCount;
+    @Param({"false", "true"})
+    boolean extraStats;
+    @Param({"default", QueueFactory.MPSC_QUEUE})
+    String queueType;
+
+    private StageQueue<BenchmarkContext> queue;
+    private Source[] sources;
+    private BenchmarkContext[] contexts;
+    private int next;
+
+    @Setup
+    public void setup() {
+      selectQueue("benchmark", queueType);
+      queue = StageQueue.FACTORY.factory(queueCount, new QueueFactory(), BenchmarkContext.class,
+          (c)->()->c.handled++, new DefaultLoggerProvider(), "benchmark", 1024);
+      queue.enableAdditionalStatistics(extraStats);
+      sources = new Source[queueCount];
+      contexts = new BenchmarkContext[queueCount];
+      for (int x = 0; x < queueCount; x++) {
+        sources[x] = queue.getSource(x);
+        contexts[x] = new BenchmarkContext(x);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      queue.close();
+    }
+  }
+
+  @Benchmark
+  public int cycle(QueueCycle state) throws Exception {
+    int lane = state.next++ % state.queueCount;
+    BenchmarkContext context = state.contexts[lane];
+    state.queue.addToSink(context);
+    state.sources[lane].poll(0).call();
+    return context.handled;
+  }
+
+  @State(Scope.Group)
+  public static class Pipeline {
+    @Param({"1", "4"})
+    int stageThreads;
+    @Param({"default", QueueFactory.MPSC_QUEUE})
+    String queueType;
+
+    private StageManagerImpl stageManager;
+    private Sink<BenchmarkContext> sink;
+    private final LongAdder handled = new LongAdder();
+
+    @Setup
+    public void setup() {
+      selectQueue("benchmark", queueType);
+      stageManager = new StageManagerImpl(new ThreadGroup("benchmark"), new QueueFactory());
+      Stage<BenchmarkContext> stage = stageManager.createStage("benchmark", BenchmarkContext.class, new AbstractEventHandler<BenchmarkContext>() {
+        @Override
+        public void handleEvent(BenchmarkContext context) throws EventHandlerException {
+          handled.increment();
+        }
+      }, stageThreads, 1024, false, false);
+      stageManager.startAll(new ConfigurationContextImpl("benchmark", stageManager), Collections.emptyList());
+      sink = stage.getSink();
+    }
+
+    @TearDown
+    public void tearDown() {
+      stageManager.stopAll();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Producer {
+    private final BenchmarkContext context = new BenchmarkContext(null);
+  }
+
+  @Benchmark
+  @Group("pipeline")
+  @GroupThreads(4)
+  public void pipeline(Pipeline pipeline, Producer producer) {
+    pipeline.sink.addToSink(producer.context);
+  }
+
+  private static void selectQueue(String stage, String queueType) {
+    if (QueueFactory.MPSC_QUEUE.equals(queueType)) {
+      TCPropertiesImpl.getProperties().setProperty("seda." + stage + ".queue", queueType);
+    }
+  }
+
+  static class BenchmarkContext implements MultiThreadedEventContext {
+    private final Object key;
+    private int handled;
+
+    BenchmarkContext(Object key) {
+      this.key = key;
+    }
+
+    @Override
+    public Object getSchedulingKey() {
+      return key;
+    }
+
+    @Override
+    public boolean flush() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.io;
+
+import com.tc.bytes.TCByteBuffer;
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.bytes.TCReference;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encode cost of {@link TCByteBufferOutputStream} for a message shaped like a voltron invoke:
+ * a handful of primitives, a string and an opaque entity payload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TCByteBufferOutputStreamBenchmark {
+
+  @Param({"64", "4096", "65536"})
+  int payloadSize;
+
+  private byte[] payload;
+  private TCByteBuffer wrapped;
+
+  @Setup
+  public void setup() {
+    payload = new byte[payloadSize];
+    new Random(42).nextBytes(payload);
+    wrapped = TCByteBufferFactory.wrap(payload);
+  }
+
+  @Benchmark
+  public long encodeBytes() {
+    TCByteBufferOutputStream out = new TCByteBufferOutputStream();
+    writeHeader(out);
+    out.writeInt(payload.length);
+    out.write(payload);
+    return release(out);
+  }
+
+  @Benchmark
+  public long encodeBuffer() {
+    TCByteBufferOutputStream out = new TCByteBufferOutputStream();
+    writeHeader(out);
+    out.writeInt(wrapped.remaining());
+    out.write(wrapped.duplicate());
+    return release(out);
+  }
+
+  private static void writeHeader(TCByteBufferOutput out) {
+    out.writeLong(1L);
+    out.writeLong(2L);
+    out.writeByte(3);
+    out.writeBoolean(true);
+    out.writeString("org.terracotta.entity.map.ConcurrentClusteredMap");
+  }
+
+  private static long release(TCByteBufferOutputStream out) {
+    try (TCReference ref = out.accessBuffers()) {
+      return ref.available();
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.net.core;
+
+import com.tc.net.basic.BasicConnectionManager;
+import com.tc.net.protocol.transport.ConnectionID;
+import com.tc.net.protocol.transport.TransportMessageFactoryImpl;
+import com.tc.net.protocol.transport.WireProtocolAdaptorFactoryImpl;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Client transport round trip: a health check ping written on a client connection and the
+ * reply read back, against an NIO listener on loopback.  {@code nio} is the shared selector
+ * {@link TCConnectionImpl} path, {@code platform} and {@code virtual} are {@code BasicConnection}
+ * with a blocking reader on a platform or a virtual thread.
+ * <p>
+ * Sampled so the JMH output carries p99.  The extra connections sit idle to show what each
+ * transport costs per connection; the live platform thread count and the process RSS after
+ * connecting are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ClientTransportBenchmark {
+
+  @Param({"nio", "platform", "virtual"})
+  String transport;
+
+  @Param({"1", "256"})
+  int connections;
+
+  private final TransportMessageFactoryImpl messages = new TransportMessageFactoryImpl();
+  private final AtomicInteger nextConnection = new AtomicInteger();
+  private TCConnectionManager server;
+  private TCConnectionManager client;
+  private Pinger[] pingers;
+  private int baseThreads;
+  private int threads;
+  private long rssKiB;
+
+  @Setup
+  public void setup() throws Exception {
+    baseThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+    WireProtocolAdaptorFactoryImpl adaptors = new WireProtocolAdaptorFactoryImpl();
+    server = new TCConnectionManagerImpl("bench-server", null, 1, new ClearTextSocketEndpointFactory());
+    TCListener listener = server.createListener(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+        ()->adaptors.newWireProtocolAdaptor(msg->{
+          TCConnection source = msg.getSource();
+          source.putMessage(messages.createPingReply(ConnectionID.NULL_ID, source));
+        }));
+    switch (transport) {
+      case "nio":
+        client = new TCConnectionManagerImpl("bench-client", null, 0, new ClearTextSocketEndpointFactory());
+        break;
+      case "platform":
+        client = new BasicConnectionManager("bench-client", new ClearTextSocketEndpointFactory(), false);
+        break;
+      case "virtual":
+        client = new BasicConnectionManager("bench-client", new ClearTextSocketEndpointFactory(), true);
+        break;
+      default:
+        throw new IllegalArgumentException(transport);
+    }
+    pingers = new Pinger[connections];
+    for (int x = 0; x < connections; x++) {
+      Semaphore replies = new Semaphore(0);
+      TCConnection connection = client.createConnection(adaptors.newWireProtocolAdaptor(msg->replies.release()));
+      connection.connect(listener.getBindSocketAddress(), 10000);
+      pingers[x] = new Pinger(connection, replies);
+    }
+    threads = ManagementFactory.getThreadMXBean().getThreadCount();
+    rssKiB = residentSetKiB();
+  }
+
+  @TearDown
+  public void tearDown() {
+    System.out.println();
+    System.out.println("transport=" + transport + " connections=" + connections
+        + " threads=" + threads + " (+" + (threads - baseThreads) + ") rssKiB=" + rssKiB);
+    client.shutdown();
+    server.shutdown();
+  }
+
+  @State(Scope.Thread)
+  public static class Caller {
+    Pinger pinger;
+
+    @Setup(Level.Trial)
+    public void setup(ClientTransportBenchmark bench) {
+      pinger = bench.pingers[bench.nextConnection.getAndIncrement() % bench.pingers.length];
+    }
+  }
+
+  @Benchmark
+  public void roundTrip(Caller caller) throws InterruptedException {
+    caller.pinger.ping(messages);
+  }
+
+  private static long residentSetKiB() throws IOException {
+    // linux only, reported as -1 elsewhere
+    if (!Files.exists(Paths.get("/proc/self/status"))) {
+      return -1;
+    }
+    try (Stream<String> lines = Files.lines(Paths.get("/proc/self/status"))) {
+      return lines.filter(l->l.startsWith("VmRSS:"))
+          .mapToLong(l->Long.parseLong(l.replaceAll("[^0-9]", "")))
+          .findFirst().orElse(-1L);
+    }
+  }
+
+  private static class Pinger {
+    private final TCConnection connection;
+    private final Semaphore replies;
+
+    Pinger(TCConnection connection, Semaphore replies) {
+      this.connection = connection;
+      this.replies = replies;
+    }
+
+    synchronized void ping(TransportMessageFactoryImpl messages) throws InterruptedException {
+      connection.putMessage(messages.createPing(ConnectionID.NULL_ID, connection));
+      replies.acquire();
+    }
+  }
+}
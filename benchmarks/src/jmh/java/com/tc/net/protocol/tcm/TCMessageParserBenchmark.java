@@ -0,0 +1,189 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.net.protocol.tcm;
+
+import com.tc.bytes.TCByteBuffer;
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.bytes.TCReference;
+import com.tc.bytes.TCReferenceSupport;
+import com.tc.entity.MessageCodecSupplier;
+import com.tc.entity.NetworkVoltronEntityMessage;
+import com.tc.entity.NetworkVoltronEntityMessageImpl;
+import com.tc.entity.VoltronEntityMessage;
+import com.tc.io.TCByteBufferOutputStream;
+import com.tc.net.ClientID;
+import com.tc.net.protocol.TCNetworkHeader;
+import com.tc.net.protocol.TCNetworkMessage;
+import com.tc.object.ClientInstanceID;
+import com.tc.object.EntityDescriptor;
+import com.tc.object.EntityID;
+import com.tc.object.FetchID;
+import com.tc.object.session.SessionID;
+import com.tc.object.tx.TransactionID;
+import java.lang.reflect.Proxy;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.EntityResponse;
+import org.terracotta.entity.MessageCodec;
+
+/**
+ * Receive side of the TC messaging layer: {@link TCMessageParser} header decode plus the
+ * hydrate of a voltron invoke, as done by the comm and hydrate stages for every client request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TCMessageParserBenchmark {
+  // the hydrate stage sets the codec of the target entity before hydrating, this one only wraps the bytes
+  private static final MessageCodecSupplier CODECS = descriptor -> new MessageCodec<EntityMessage, EntityResponse>() {
+    @Override
+    public byte[] encodeMessage(EntityMessage message) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public EntityMessage decodeMessage(byte[] payload) {
+      return new EntityMessage() {};
+    }
+
+    @Override
+    public byte[] encodeResponse(EntityResponse response) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public EntityResponse decodeResponse(byte[] payload) {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  @Param({"64", "4096"})
+  int payloadSize;
+
+  private TCMessageParser parser;
+  private MessageChannel channel;
+  private byte[] wire;
+
+  @Setup
+  public void setup() {
+    TCMessageFactoryImpl factory = new TCMessageFactoryImpl(new NullMessageMonitor());
+    factory.addClassMapping(TCMessageType.VOLTRON_ENTITY_MESSAGE, NetworkVoltronEntityMessageImpl.class);
+    parser = new TCMessageParser(factory);
+    channel = (MessageChannel)Proxy.newProxyInstance(MessageChannel.class.getClassLoader(), new Class<?>[] {MessageChannel.class},
+        (proxy, method, args)->method.getName().equals("getSessionID") ? SessionID.NULL_ID : null);
+
+    byte[] payload = new byte[payloadSize];
+    new Random(42).nextBytes(payload);
+    NetworkVoltronEntityMessageImpl message = new NetworkVoltronEntityMessageImpl(SessionID.NULL_ID, new NullMessageMonitor(),
+        new TCByteBufferOutputStream(), null, TCMessageType.VOLTRON_ENTITY_MESSAGE);
+    message.setContents(new ClientID(1), new TransactionID(2), EntityID.NULL_ID,
+        EntityDescriptor.createDescriptorForInvoke(new FetchID(1), new ClientInstanceID(1)), VoltronEntityMessage.Type.INVOKE_ACTION,
+        true, TCByteBufferFactory.wrap(payload), new TransactionID(1), EnumSet.of(VoltronEntityMessage.Acks.RECEIVED));
+    TCActionNetworkMessage network = message.convertToNetworkMessage();
+    network.load();
+    try (TCReference data = network.getEntireMessageData().duplicate()) {
+      wire = new byte[(int)data.available()];
+      int offset = 0;
+      for (TCByteBuffer buf : data) {
+        int len = buf.remaining();
+        buf.get(wire, offset, len);
+        offset += len;
+      }
+    }
+    network.complete();
+  }
+
+  @Benchmark
+  public TCAction parse() {
+    return parser.parseMessage(channel, new RawMessage(wire));
+  }
+
+  @Benchmark
+  public TCAction parseAndHydrate() throws Exception {
+    TCAction action = parser.parseMessage(channel, new RawMessage(wire));
+    ((NetworkVoltronEntityMessage)action).setMessageCodecSupplier(CODECS);
+    action.hydrate();
+    return action;
+  }
+
+  private static class RawMessage implements TCNetworkMessage {
+    private final TCReference payload;
+    private final int length;
+
+    RawMessage(byte[] data) {
+      this.payload = TCReferenceSupport.createGCReference(TCByteBufferFactory.wrap(data));
+      this.length = data.length;
+    }
+
+    @Override
+    public TCNetworkHeader getHeader() {
+      return null;
+    }
+
+    @Override
+    public TCReference getPayload() {
+      return payload;
+    }
+
+    @Override
+    public TCReference getEntireMessageData() {
+      return payload;
+    }
+
+    @Override
+    public int getDataLength() {
+      return length;
+    }
+
+    @Override
+    public int getHeaderLength() {
+      return 0;
+    }
+
+    @Override
+    public int getTotalLength() {
+      return length;
+    }
+
+    @Override
+    public void complete() {
+      payload.close();
+    }
+
+    @Override
+    public void addCompleteCallback(Runnable r) {
+      r.run();
+    }
+  }
+}
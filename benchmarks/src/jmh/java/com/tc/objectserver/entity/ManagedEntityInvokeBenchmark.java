@@ -0,0 +1,153 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.entity;
+
+import com.tc.async.api.DirectExecutionMode;
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.l2.state.StateManager;
+import com.tc.net.ClientID;
+import com.tc.object.ClientInstanceID;
+import com.tc.object.EntityID;
+import com.tc.object.tx.TransactionID;
+import com.tc.objectserver.api.ManagedEntity;
+import com.tc.objectserver.api.ServerEntityAction;
+import com.tc.objectserver.core.impl.ManagementTopologyEventCollector;
+import com.tc.services.InternalServiceRegistry;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.EntityResponse;
+import org.terracotta.entity.EntityServerService;
+import org.terracotta.entity.ServiceConfiguration;
+import org.terracotta.entity.map.common.ClusteredMapCodec;
+import org.terracotta.entity.map.common.GetOperation;
+import org.terracotta.entity.map.common.MapConfig;
+import org.terracotta.entity.map.common.MapOperation;
+import org.terracotta.entity.map.common.PutOperation;
+import org.terracotta.entity.map.server.TerracottaClusteredMapService;
+
+/**
+ * In-process invoke loop through {@link ManagedEntityImpl} using the clustered-map example entity.
+ * The request processor sink runs requests inline so the measurement covers decode, concurrency
+ * key selection, scheduling, {@code performAction}, response encode and retirement without any
+ * stage handoff.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ManagedEntityInvokeBenchmark {
+
+  @Param({"16", "4096"})
+  int valueSize;
+
+  private ManagedEntityImpl entity;
+  private ClientID client;
+  private ClientInstanceID instance;
+  private MessagePayload[] payloads;
+  private long transaction;
+  private long completed;
+
+  @Setup
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void setup() throws Exception {
+    // scheduling asserts the calling stage unless the thread is running requests directly
+    DirectExecutionMode.activate(true);
+    ManagementTopologyEventCollector collector = new ManagementTopologyEventCollector(null);
+    collector.serverDidEnterState(StateManager.ACTIVE_COORDINATOR, System.currentTimeMillis());
+    RequestProcessor processor = new RequestProcessor(RequestProcessor.EntityRequest::run);
+    processor.setReplication(new NoReplicationBroker());
+    processor.enterActiveState();
+
+    EntityServerService<EntityMessage, EntityResponse> service = (EntityServerService)new TerracottaClusteredMapService();
+    entity = new ManagedEntityImpl(new EntityID("org.terracotta.entity.map.ConcurrentClusteredMap", "benchmark"), service.getVersion(), 1L,
+        (id, fetch, action)->{}, new MapServiceRegistry(), new ClientEntityStateManagerImpl(), collector,
+        (msg)->{}, processor, service, true, true);
+
+    client = new ClientID(1);
+    instance = new ClientInstanceID(1);
+    byte[] config = new MapConfig(16, "benchmark").getBytes();
+    entity.addRequestMessage(new ServerEntityRequestImpl(instance, ServerEntityAction.CREATE_ENTITY, client, new TransactionID(nextTransaction()), TransactionID.NULL_ID, true),
+        MessagePayload.commonMessagePayloadNotBusy(TCByteBufferFactory.wrap(config), null, true),
+        new ResultCaptureImpl(null, (r)->{}, null, (e)->{ throw new IllegalStateException(e); }));
+    if (entity.isDestroyed()) {
+      throw new IllegalStateException("benchmark entity was not created");
+    }
+
+    ClusteredMapCodec codec = new ClusteredMapCodec();
+    char[] value = new char[valueSize];
+    Arrays.fill(value, 'v');
+    payloads = new MessagePayload[256];
+    for (int x = 0; x < payloads.length; x++) {
+      MapOperation message = (x & 1) == 0 ? new PutOperation("key-" + x, new String(value)) : new GetOperation("key-" + (x - 1));
+      payloads[x] = MessagePayload.commonMessagePayloadBusy(TCByteBufferFactory.wrap(codec.encodeMessage(message)), null, true);
+    }
+  }
+
+  private long nextTransaction() {
+    return ++transaction;
+  }
+
+  @Benchmark
+  public long invoke() {
+    long tid = nextTransaction();
+    MessagePayload raw = payloads[(int)(tid & (payloads.length - 1))];
+    // payloads cache the decoded message, hand each invoke a fresh copy so decode is measured
+    MessagePayload payload = MessagePayload.commonMessagePayloadBusy(raw.getByteBufferPayload(), null, true);
+    entity.addRequestMessage(new ServerEntityRequestImpl(instance, ServerEntityAction.INVOKE_ACTION, client, new TransactionID(tid), new TransactionID(tid), true),
+        payload, new ResultCaptureImpl(null, (r)->completed++, null, (e)->{ throw new IllegalStateException(e); }));
+    return completed;
+  }
+
+  private static class MapServiceRegistry implements InternalServiceRegistry {
+    private final Map<Object, Object> root = new ConcurrentHashMap<>();
+
+    @Override
+    public void setOwningEntity(ManagedEntity entity) {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getService(ServiceConfiguration<T> configuration) {
+      return Map.class.isAssignableFrom(configuration.getServiceType()) ? (T)root : null;
+    }
+
+    @Override
+    public <T> Collection<T> getServices(ServiceConfiguration<T> configuration) {
+      T service = getService(configuration);
+      return service == null ? Collections.emptyList() : Collections.singletonList(service);
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -17,12 +17,16 @@
  */
 package com.tc.async.api;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  *
  */
 public class DirectExecutionMode {
   
   private static final ThreadLocal<Thread> ACTIVATED = new ThreadLocal<>();
+  private static final ThreadLocal<List<Runnable>> DEFERRED = new ThreadLocal<>();
 
   public static void activate(boolean activate) {
     if (activate) {
@@ -34,5 +38,59 @@ public class DirectExecutionMode {
   
   public static boolean isActivated() {
     return ACTIVATED.get() == Thread.currentThread();
-  }  
+  }
+
+  /**
+   * Runs {@code schedule} with any event it would run directly held back until it returns, so
+   * the caller can schedule under its own locks without running handlers while holding them.
+   * The held back events run on this thread, in the order they were scheduled, even if
+   * {@code schedule} throws.
+   */
+  public static void deferDirect(Runnable schedule) {
+    if (!isActivated() || DEFERRED.get() != null) {
+      schedule.run();
+      return;
+    }
+    List<Runnable> deferred = new ArrayList<>(1);
+    DEFERRED.set(deferred);
+    try {
+      schedule.run();
+    } finally {
+      DEFERRED.remove();
+      RuntimeException failure = null;
+      for (Runnable r : deferred) {
+        try {
+          r.run();
+        } catch (RuntimeException re) {
+          // the rest still have to run, they hold the lanes they were claimed on
+          if (failure == null) {
+            failure = re;
+          } else {
+            failure.addSuppressed(re);
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Holds {@code run} back until the enclosing {@link #deferDirect(Runnable)} returns.
+   *
+   * @return false if this thread is not inside {@link #deferDirect(Runnable)}
+   */
+  public static boolean defer(Runnable run) {
+    List<Runnable> deferred = DEFERRED.get();
+    if (deferred == null) {
+      return false;
+    }
+    deferred.add(run);
+    return true;
+  }
+
+  public static boolean isDeferring() {
+    return DEFERRED.get() != null;
+  }
 }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@
 package com.tc.async.api;
 
 import com.tc.async.impl.Event;
+import java.util.Collection;
 
 /**
  * This is used by the internals to manage the process of processing EventContexts in the manner that makes sense for
@@ -29,6 +30,13 @@ public interface Source {
 
   public Event poll(long period) throws InterruptedException;
 
+  /**
+   * Move up to max already queued events into batch without waiting.
+   *
+   * @return the number of events added to batch
+   */
+  public int drainTo(Collection<Event> batch, int max);
+
   public String getSourceName();
 
   public boolean isEmpty();
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -57,7 +57,14 @@ public abstract class AbstractStageQueueImpl<EC> implements StageQueue<EC> {
   }
   
   final Event createEvent(EC context) {
-    return (extraStats) ? this.monitoring.createEvent(context) : creator.createEvent(context);
+    PipelineTrace running = PipelineTracer.current();
+    if (running == null) {
+      return (extraStats) ? this.monitoring.createEvent(context) : creator.createEvent(context);
+    }
+    // a sampled request follows its events into this stage whether or not stats are kept
+    PipelineTracer.record(running, stageName, PipelineTracer.Type.ENQUEUE, context);
+    Event event = (extraStats) ? this.monitoring.createEvent(context) : creator.createEvent(context);
+    return (event == null) ? null : PipelineTracer.follow(running, stageName, context, event);
   }
     
   Logger getLogger() {
@@ -117,6 +124,11 @@ public abstract class AbstractStageQueueImpl<EC> implements StageQueue<EC> {
     public void call() throws EventHandlerException {
       event.call();
     }
+
+    @Override
+    public boolean isHandlerEvent() {
+      return false;
+    }
   }
   
   
@@ -130,5 +142,10 @@ public abstract class AbstractStageQueueImpl<EC> implements StageQueue<EC> {
 
     }
 
+    @Override
+    public boolean isHandlerEvent() {
+      return false;
+    }
+
   }
 }
@@ -0,0 +1,86 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.async.impl;
+
+/**
+ * Decides how many lanes of a multi-threaded stage take events.  Keyed events hash over the active lanes too, so all
+ * work is concentrated and lanes past the active count idle on their queue.  When the count changes the stage queue
+ * keeps a key which moves lanes on its old lane until that lane has run what it held, so the key keeps its order.
+ * <p>
+ * Each sample looks at how busy the active lanes were since the last one and at the backlog queued on them.  A stalled
+ * or backed up stage doubles its active lanes, a stage with no backlog drops one lane at a time but only while the
+ * remaining lanes would stay under the grow threshold, so it does not flap.
+ * <p>
+ * Not thread safe, samples are taken from a single thread.
+ */
+class AdaptiveLanes {
+  static final double GROW_BUSY = 0.75;
+  static final double SHRINK_BUSY = 0.25;
+
+  private final int min;
+  private final int max;
+  private long[] lastRun;
+  private long[] lastIdle;
+
+  AdaptiveLanes(int min, int max) {
+    this.max = max;
+    this.min = Math.max(1, Math.min(min, max));
+  }
+
+  int getMin() {
+    return min;
+  }
+
+  int getMax() {
+    return max;
+  }
+
+  /**
+   * @param active the lanes currently taking events
+   * @param run accumulated run time of every lane, in nanoseconds
+   * @param idle accumulated idle time of every lane, in nanoseconds
+   * @param backlog events queued on the active lanes
+   * @param stalled whether the stage reported a stall since the last sample
+   * @return the lanes which should take events from now on
+   */
+  int sample(int active, long[] run, long[] idle, int backlog, boolean stalled) {
+    if (lastRun == null) {
+      // nothing to compare against yet
+      lastRun = run.clone();
+      lastIdle = idle.clone();
+      return active;
+    }
+    long ran = 0;
+    long idled = 0;
+    for (int x = 0; x < active; x++) {
+      ran += run[x] - lastRun[x];
+      idled += idle[x] - lastIdle[x];
+    }
+    lastRun = run.clone();
+    lastIdle = idle.clone();
+
+    double busy = (ran + idled) > 0 ? (double) ran / (ran + idled) : 0;
+    if (stalled || backlog > active || busy > GROW_BUSY) {
+      return Math.min(max, active * 2);
+    } else if (active > min && backlog == 0 && busy < SHRINK_BUSY && busy * active / (active - 1) < GROW_BUSY) {
+      return active - 1;
+    } else {
+      return active;
+    }
+  }
+}
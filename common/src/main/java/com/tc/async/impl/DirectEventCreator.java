@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -64,6 +64,10 @@ public class DirectEventCreator<EC> implements EventCreator<EC> {
   }
   
   private boolean isSingleThreaded() {
+    // an inline run cannot be held back past the caller's locks, nothing would keep later events behind it
+    if (DirectExecutionMode.isDeferring()) {
+      return false;
+    }
     if (LOGGER.isDebugEnabled()) {
       if (DirectExecutionMode.isActivated()) {
         if (!this.isIdle.get()) {
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -25,4 +25,13 @@ import com.tc.async.api.EventHandlerException;
    */
 public interface Event {
   public void call() throws EventHandlerException;
+
+  /**
+   * @return true if calling this only gives its context to the stage's handler, a batching worker collects those
+   * and hands them over together.  Anything else, a flush moving to the next queue say, runs after the contexts
+   * collected ahead of it are handled.
+   */
+  default boolean isHandlerEvent() {
+    return true;
+  }
 }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -24,69 +24,32 @@ import java.util.concurrent.atomic.LongAdder;
 import org.terracotta.tripwire.TripwireFactory;
 
 /**
+ * Times the events of a stage.
  */
 public class MonitoringEventCreator<EC> implements EventCreator<EC> {
   private final String name;
   private final EventCreator<EC> next;
-  private static final ThreadLocal<PipelineMonitor> CURRENT = new ThreadLocal<>();
   private final LongAdder queueTime = new LongAdder();
   private final LongAdder runTime = new LongAdder();
   private final LongAdder queued = new LongAdder();
-  private static PipelineMonitoringConsumer pipelineConsumer;
 
   public MonitoringEventCreator(String name, EventCreator<EC> next) {
     this.name = name;
     this.next = next;
   }
-  
-  public static void setPipelineMonitor(PipelineMonitoringConsumer consumer) {
-    pipelineConsumer = consumer;
-  }
-  
-  public static void finish() {
-    if (pipelineConsumer != null) {
-      PipelineMonitor mon = CURRENT.get();
-      if (mon != null) {
-        mon.close();
-        CURRENT.remove();
-        pipelineConsumer.record(mon);
-      }
-    }
-  }
-  
-  public static void start() {
-    if (pipelineConsumer != null) {
-      CURRENT.set(new PipelineMonitor());
-    }    
-  }
-  
+
   @Override
   public Event createEvent(EC event) {
-    MonitorStats stats = new MonitorStats(name, event.toString());
-    PipelineMonitor running = CURRENT.get();
-    if (running != null) {
-      running.action(name, PipelineMonitor.Type.ENQUEUE, event);
-    }
+    MonitorStats stats = new MonitorStats(name, event);
     Event nextEvent = next.createEvent(event);
     if (nextEvent != null) {
       return () -> {
-        if (running != null) {
-          CURRENT.set(running.action(name, PipelineMonitor.Type.RUN, event));
-        }
         stats.run();
         nextEvent.call();
         stats.end();
         addStats(stats);
-        if (running != null) {
-          CURRENT.remove();
-          running.action(name, PipelineMonitor.Type.END, event);
-        }
       };
     } else {
-      if (running != null) {
-        running.action(name, PipelineMonitor.Type.RUN, event);
-        running.action(name, PipelineMonitor.Type.END, event);
-      }
       return null;
     }
   }
@@ -110,15 +73,18 @@ public class MonitoringEventCreator<EC> implements EventCreator<EC> {
     return stats;
   }
 
-  private static class MonitorStats<EC> {
+  private static class MonitorStats {
     private long queue = 0;
     private long run = 0;
     private long end = 0;
+    private final Object subject;
     private final org.terracotta.tripwire.Event event;
-    
-    public MonitorStats(String name, String debugging) {
+
+    public MonitorStats(String name, Object subject) {
       queue();
-      event = TripwireFactory.createStageEvent(name, debugging);
+      // the context may be released or recycled by the time the event ends, keep only what cannot change
+      this.subject = PipelineTracer.snapshot(subject);
+      event = TripwireFactory.createStageEvent(name, (String)null);
     }
     
     void run() {
@@ -133,7 +99,11 @@ public class MonitoringEventCreator<EC> implements EventCreator<EC> {
     void end() {
       end = System.nanoTime();
       event.end();
-      event.commit();
+      // only events over the threshold are recorded, render the description for those alone
+      if (event.shouldCommit()) {
+        event.setDescription(PipelineTracer.describe(subject));
+        event.commit();
+      }
     }
     
     long queueTime() {
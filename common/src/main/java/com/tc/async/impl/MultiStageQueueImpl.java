@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -17,16 +17,25 @@
  */
 package com.tc.async.impl;
 
+import com.tc.async.api.DirectExecutionMode;
 import com.tc.async.api.EventHandlerException;
 import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.async.api.Source;
 import com.tc.logging.TCLoggerProvider;
 import com.tc.util.Assert;
+import com.tc.util.concurrent.CpuPlacement;
 import com.tc.util.concurrent.QueueFactory;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 
 /**
@@ -62,6 +71,13 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
   final int PARTITION_MAX_MASK;
   private final MultiSourceQueueImpl[] sourceQueues;
   private volatile int fcheck = 0;  // used to start the shortest queue search
+  private volatile Lanes lanes;  // queues taking events
+  private volatile boolean adaptiveSources;  // the active queues may change while events are added
+  private final ReentrantReadWriteLock laneChange = new ReentrantReadWriteLock();
+  private volatile int[] sourceNodes;  // null unless the worker of each queue is placed on a node
+  private volatile boolean directSources;  // events may run on the adding thread when their queue is idle
+  private volatile boolean directWhenIdle;  // only when every queue is idle
+  private final LongAdder directRuns = new LongAdder();
   AtomicInteger partitionHand =new AtomicInteger(0);
 
   /**
@@ -92,6 +108,7 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
     PARTITION_MAX_MASK = (1 << (31 - PARTITION_SHIFT)) - 1;
     this.sourceQueues = new MultiSourceQueueImpl[queueCount];
     createWorkerQueues(queueCount, queueFactory, type, queueSize, stageName);
+    this.lanes = new Lanes(0, queueCount, queueCount);
 
     if (Integer.bitCount(queueCount) == 1) {
       this.moduloAnd = true;
@@ -132,7 +149,7 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
     }
 
     for (int i = 0; i < queueCount; i++) {
-      this.sourceQueues[i] = new MultiSourceQueueImpl(queueFactory.createInstance(type, queueSize), v->this.fcheck = v, i);
+      this.sourceQueues[i] = new MultiSourceQueueImpl(queueFactory.createInstance(stage, type, queueSize), v->this.fcheck = v, i);
     }
   }
 
@@ -152,25 +169,60 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
     }
     Event event = createEvent(context);
     if (event != null) {
-      // NOTE:  We don't currently consult the predicate for multi-threaded events (the only implementation always returns true, in any case).
-      boolean interrupted = Thread.interrupted();
-      int index = getSourceQueueFor(context);
-      Event wrapper = (context.flush()) ? new FlushingHandledContext(event, index) : event;
-      try {
-        while (true) {
-          try {
-            updateDepth(this.sourceQueues[index].put(wrapper));
-            break;
-          } catch (InterruptedException e) {
-            this.logger.debug("StageQueue Add: " + e);
-            interrupted = true;
-          }
+      if (adaptiveSources) {
+        // a lane change is only made while no add is between routing and queueing, see setActiveSources
+        laneChange.readLock().lock();
+        try {
+          routeToSink(context, event);
+        } finally {
+          laneChange.readLock().unlock();
         }
-      } finally {
-        if (interrupted) {
-          Thread.currentThread().interrupt();
+      } else {
+        routeToSink(context, event);
+      }
+    }
+  }
+
+  private void routeToSink(EC context, Event event) {
+    // NOTE:  We don't currently consult the predicate for multi-threaded events (the only implementation always returns true, in any case).
+    Object schedulingKey = context.getSchedulingKey();
+    Lanes active = this.lanes;
+    int index = getSourceQueueFor(schedulingKey, active);
+    boolean held = false;
+    if (schedulingKey != null && active.previous != active.count) {
+      // a key which moved with the last lane change stays behind what its old queue still holds
+      int from = hashCodeToArrayIndex(schedulingKey.hashCode(), active.previous);
+      if (from != index && this.sourceQueues[from].isHolding()) {
+        index = from;
+        held = true;
+      }
+    }
+    if (directSources && !context.flush() && DirectExecutionMode.isActivated() && runDirect(index, event)) {
+      return;
+    }
+    boolean interrupted = Thread.interrupted();
+    int[] nodes = this.sourceNodes;
+    if (nodes != null) {
+      CpuPlacement.fed(nodes[index]);
+    }
+    Event wrapper = (context.flush()) ? new FlushingHandledContext(event, index) : event;
+    try {
+      while (true) {
+        try {
+          updateDepth(this.sourceQueues[index].put(wrapper));
+          if (held) {
+            this.sourceQueues[index].holdThrough();
+          }
+          break;
+        } catch (InterruptedException e) {
+          this.logger.debug("StageQueue Add: " + e);
+          interrupted = true;
         }
       }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
     }
   }
 
@@ -216,6 +268,137 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
     throw new IllegalStateException();
   }
 
+  @Override
+  public int getActiveSources() {
+    return this.lanes.count;
+  }
+
+  /**
+   * Limits events to the first {@code count} queues, keyed events hash over those queues only.  A key which moves
+   * to another queue with the new count is still added to its old queue until that queue has run everything it held
+   * at the change, other keys and the workers are not held up.  The change is skipped, for the caller to try again
+   * later, while an add is being queued or the previous change has not settled.  Needs
+   * {@link #setAdaptiveSources(boolean)}.
+   */
+  @Override
+  public void setActiveSources(int count) {
+    Assert.assertTrue(adaptiveSources);
+    int next = Math.max(1, Math.min(count, this.sourceQueues.length));
+    Lanes current = this.lanes;
+    if (next == current.count || isClosed()) {
+      return;
+    }
+    // adds hold the read lock while queueing, possibly blocked on a full queue, never wait for them
+    if (!laneChange.writeLock().tryLock()) {
+      return;
+    }
+    try {
+      for (MultiSourceQueueImpl q : this.sourceQueues) {
+        if (q.isHolding()) {
+          return;
+        }
+      }
+      // no add is between routing and queueing, what each queue holds now is everything routed with the old count
+      for (MultiSourceQueueImpl q : this.sourceQueues) {
+        q.hold();
+      }
+      this.lanes = new Lanes(current.epoch + 1, next, current.count);
+    } finally {
+      laneChange.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Lets {@link #setActiveSources(int)} change the active queues while events are being added, adds then
+   * route under a shared lock.  Must be set before events are added.
+   */
+  @Override
+  public void setAdaptiveSources(boolean adaptive) {
+    this.adaptiveSources = adaptive;
+    for (MultiSourceQueueImpl q : this.sourceQueues) {
+      q.counted = adaptive;
+    }
+  }
+
+  @Override
+  public void setSourceNodes(int[] nodes) {
+    Assert.assertTrue(nodes == null || nodes.length == this.sourceQueues.length);
+    this.sourceNodes = nodes;
+  }
+
+  /**
+   * Lets an event run on the adding thread, when that thread is in {@link DirectExecutionMode}, if the
+   * queue it is headed for has nothing queued or running.  Once a queue is busy its events are queued
+   * as usual, behind whatever the queue already holds.  Must be set before events are added.
+   */
+  @Override
+  public void setDirectSources(boolean direct) {
+    for (MultiSourceQueueImpl q : this.sourceQueues) {
+      Assert.assertTrue(q.pending.get() == 0);
+    }
+    this.directSources = direct;
+    for (MultiSourceQueueImpl q : this.sourceQueues) {
+      q.direct = direct;
+    }
+  }
+
+  @Override
+  public void setDirectOnlyWhenIdle(boolean idle) {
+    this.directWhenIdle = idle;
+  }
+
+  private boolean runDirect(int index, Event event) {
+    if (directWhenIdle) {
+      // the stage wide rule, nothing queued or running on any source
+      for (MultiSourceQueueImpl q : this.sourceQueues) {
+        if (!q.isIdle()) {
+          return false;
+        }
+      }
+    }
+    if (this.sourceQueues[index].runDirect(event)) {
+      directRuns.increment();
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public Map<String, ?> getState() {
+    Map<String, ?> base = super.getState();
+    if (!directSources && !adaptiveSources) {
+      return base;
+    }
+    Map<String, Object> state = new LinkedHashMap<>(base);
+    if (directSources) {
+      state.put("directRuns", directRuns.sum());
+    }
+    if (adaptiveSources) {
+      state.put("laneEpoch", this.lanes.epoch);
+    }
+    return state;
+  }
+
+  private int findShortestActiveIndex(int active) {
+    final int pointer = fcheck;
+    int min = Integer.MAX_VALUE;
+    int can = 0;
+    for (int x = 0; x < active; x++) {
+      int index = (pointer + x) % active;
+      MultiSourceQueueImpl impl = this.sourceQueues[index];
+      if (impl.isEmpty()) {
+        return index;
+      } else {
+        int checkMin = impl.size(); // best efforts, as above
+        if (checkMin < min) {
+          can = index;
+          min = checkMin;
+        }
+      }
+    }
+    return can;
+  }
+
   private int nextPartition() {
     int p = partitionHand.get();
     int newP = (p + 1) & PARTITION_MAX_MASK;
@@ -225,13 +408,12 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
     } return newP;
   }
 
-  private int getSourceQueueFor(EC context) {
-    EC multi = context;
-    Object schedulingKey = multi.getSchedulingKey();
+  private int getSourceQueueFor(Object schedulingKey, Lanes lanes) {
+    int active = lanes.count;
     if (null == schedulingKey) {
-      return findShortestQueueIndex();
+      return active < this.sourceQueues.length ? findShortestActiveIndex(active) : findShortestQueueIndex();
     } else {
-      return hashCodeToArrayIndex(schedulingKey.hashCode(), this.sourceQueues.length);
+      return hashCodeToArrayIndex(schedulingKey.hashCode(), active);
     }
   }
 
@@ -249,6 +431,16 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
     private final Consumer<Integer> hint;
     private final BlockingQueue<Event> queue;
     private final int                      sourceIndex;
+    // with direct sources, the events queued or running on this queue and the lock held while one runs
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReentrantLock running = new ReentrantLock();
+    private volatile boolean direct;
+    // with adaptive sources, the events queued and run so far and the count run before keys which left stop
+    // being added here
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong ran = new AtomicLong();
+    private final AtomicLong holdUntil = new AtomicLong();
+    private volatile boolean counted;
 
     public MultiSourceQueueImpl(BlockingQueue<Event> queue, Consumer<Integer> hint, int sourceIndex) {
       this.queue = queue;
@@ -280,12 +472,96 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
       return rv;
     }
 
+    @Override
+    public int drainTo(Collection<Event> batch, int max) {
+      int count = this.queue.drainTo(batch, max);
+      if (queue.isEmpty()) {
+        hint.accept(this.sourceIndex);
+      }
+      return count;
+    }
+
     @Override
     public int put(Event context) throws InterruptedException {
-      this.queue.put(context);
+      if (direct || counted) {
+        if (direct) {
+          pending.incrementAndGet();
+        }
+        if (counted) {
+          // counted before queueing, once an event is queued everything ahead of it has been counted
+          added.incrementAndGet();
+        }
+        try {
+          this.queue.put(new LaneEvent(context));
+        } catch (InterruptedException ie) {
+          if (direct) {
+            pending.decrementAndGet();
+          }
+          if (counted) {
+            added.decrementAndGet();
+          }
+          throw ie;
+        }
+      } else {
+        this.queue.put(context);
+      }
       return this.queue.size();
     }
 
+    /**
+     * Runs the event here if nothing is queued or running on this queue.  The worker waits on the lock
+     * for anything queued meanwhile, so those still run after this event.  Inside
+     * {@link DirectExecutionMode#deferDirect(Runnable)} the queue is claimed now and the event runs once
+     * the caller is done scheduling, the claim keeps later events behind it in the meantime.
+     */
+    private boolean runDirect(Event event) {
+      if (pending.get() != 0 || !running.tryLock()) {
+        return false;
+      }
+      if (!pending.compareAndSet(0, 1)) {
+        running.unlock();
+        return false;
+      }
+      if (!DirectExecutionMode.defer(()->runClaimed(event))) {
+        runClaimed(event);
+      }
+      return true;
+    }
+
+    private void runClaimed(Event event) {
+      try {
+        event.call();
+      } catch (EventHandlerException ee) {
+        throw new RuntimeException(ee);
+      } finally {
+        pending.decrementAndGet();
+        running.unlock();
+      }
+    }
+
+    private boolean isIdle() {
+      return pending.get() == 0;
+    }
+
+    /**
+     * Keys leaving this queue stay on it until what it holds now has run.
+     */
+    private void hold() {
+      holdUntil.set(added.get());
+    }
+
+    /**
+     * Extends the hold over an event just added here for a key which is leaving.
+     */
+    private void holdThrough() {
+      long through = added.get();
+      holdUntil.accumulateAndGet(through, Math::max);
+    }
+
+    private boolean isHolding() {
+      return ran.get() < holdUntil.get();
+    }
+
     @Override
     public int size() {
       return this.queue.size();
@@ -296,6 +572,53 @@ public class MultiStageQueueImpl<EC extends MultiThreadedEventContext> extends A
       return Integer.toString(this.sourceIndex);
     }
 
+    private final class LaneEvent implements Event {
+      private final Event event;
+
+      private LaneEvent(Event event) {
+        this.event = event;
+      }
+
+      @Override
+      public void call() throws EventHandlerException {
+        if (direct) {
+          running.lock();
+        }
+        try {
+          event.call();
+        } finally {
+          if (direct) {
+            running.unlock();
+            pending.decrementAndGet();
+          }
+          if (counted) {
+            ran.incrementAndGet();
+          }
+        }
+      }
+
+      @Override
+      public boolean isHandlerEvent() {
+        return event.isHandlerEvent();
+      }
+    }
+
+  }
+
+  /**
+   * The queues taking events, published as a whole so an add routes with one count.  Previous is the count before
+   * the last change, keys which moved with it may still be held on their old queue.
+   */
+  private static final class Lanes {
+    private final long epoch;
+    private final int count;
+    private final int previous;
+
+    private Lanes(long epoch, int count, int previous) {
+      this.epoch = epoch;
+      this.count = count;
+      this.previous = previous;
+    }
   }
 
   private class FlushingHandledContext<T extends EC> extends HandledEvent<EC> {
@@ -0,0 +1,60 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.async.impl;
+
+/**
+ * A request sampled by {@link PipelineTracer}.  Only sampled requests carry one, it follows the
+ * request from stage to stage and every point it reaches is recorded on the thread that reached it.
+ */
+public final class PipelineTrace {
+  private final long id;
+  private final long start;
+
+  PipelineTrace(long id, long start) {
+    this.id = id;
+    this.start = start;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  long getStart() {
+    return start;
+  }
+
+  /**
+   * Records that the request reached the named point.  The subject is kept as is and only
+   * rendered when the point is exported.
+   */
+  public void record(String point, Object subject) {
+    PipelineTracer.record(this, point, PipelineTracer.Type.POINT, subject);
+  }
+
+  /**
+   * Records the end of the request.
+   */
+  public void finish(Object subject) {
+    PipelineTracer.record(this, "finish", PipelineTracer.Type.FINISH, subject);
+  }
+
+  @Override
+  public String toString() {
+    return "PipelineTrace{" + id + '}';
+  }
+}
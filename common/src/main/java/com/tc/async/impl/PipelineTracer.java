@@ -0,0 +1,231 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.async.impl;
+
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.tripwire.TripwireFactory;
+
+/**
+ * Samples one in {@link TCPropertiesConsts#L2_SEDA_TRACE_SAMPLE} requests and traces them through
+ * the stages.  A sampled request carries a {@link PipelineTrace} which is current on a thread while
+ * the thread works on it and is passed along to the events it enqueues.  Points are recorded into
+ * preallocated rings, one per thread, so a traced request costs no allocation beyond its trace and
+ * one that is not sampled costs a thread local lookup.  A daemon thread exports the rings to JFR
+ * through tripwire every second, rendering the subject of a point only if the event is recorded.
+ * The rings only keep a snapshot of each subject, see {@link #snapshot(Object)}.
+ */
+public final class PipelineTracer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PipelineTracer.class);
+  private static final long EXPORT_INTERVAL = 1000;
+
+  enum Type {
+    ENQUEUE, RUN, END, POINT, FINISH
+  }
+
+  private static final ThreadLocal<PipelineTrace> CURRENT = new ThreadLocal<>();
+  private static final ThreadLocal<TraceRing> RING = ThreadLocal.withInitial(PipelineTracer::register);
+  private static final List<TraceRing> RINGS = new CopyOnWriteArrayList<>();
+  private static final AtomicLong TRACES = new AtomicLong();
+  private static final LongAdder EXPORTED = new LongAdder();
+  private static final LongAdder RETIRED_DROPS = new LongAdder();
+  private static volatile int sampleRate = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_SEDA_TRACE_SAMPLE, 0);
+  private static volatile boolean exporting;
+
+  private PipelineTracer() {
+  }
+
+  public static void setSampleRate(int rate) {
+    sampleRate = rate;
+  }
+
+  public static int getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Decides whether a new request is traced.
+   *
+   * @return the trace of the request or null if it is not sampled
+   */
+  public static PipelineTrace sample() {
+    int rate = sampleRate;
+    if (rate <= 0 || (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0)) {
+      return null;
+    }
+    if (!exporting) {
+      startExporter();
+    }
+    return new PipelineTrace(TRACES.incrementAndGet(), System.nanoTime());
+  }
+
+  /**
+   * @return the trace the calling thread is working on, null for requests that are not sampled
+   */
+  public static PipelineTrace current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Makes the trace current on the calling thread.
+   *
+   * @return the trace that was current, to be resumed when the caller is done
+   */
+  public static PipelineTrace resume(PipelineTrace trace) {
+    PipelineTrace previous = CURRENT.get();
+    if (previous != trace) {
+      if (trace == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(trace);
+      }
+    }
+    return previous;
+  }
+
+  static void record(PipelineTrace trace, String point, Type type, Object subject) {
+    RING.get().record(trace, point, type, snapshot(subject), System.nanoTime());
+  }
+
+  /**
+   * What a ring keeps of the subject of a point.  Values that cannot change are kept, anything else
+   * only by its class so the rings hold on to no messages or buffers and nothing is rendered after
+   * it has been released or recycled.
+   */
+  static Object snapshot(Object subject) {
+    if (subject == null || subject instanceof String || subject instanceof Number || subject instanceof Enum) {
+      return subject;
+    }
+    return subject.getClass();
+  }
+
+  /**
+   * Wraps an event enqueued on behalf of a sampled request so the trace is current on whichever
+   * thread runs it, then hands the previous trace back to that thread.
+   */
+  static Event follow(PipelineTrace trace, String stage, Object context, Event event) {
+    return () -> {
+      PipelineTrace previous = resume(trace);
+      try {
+        record(trace, stage, Type.RUN, context);
+        event.call();
+        record(trace, stage, Type.END, context);
+      } finally {
+        resume(previous);
+      }
+    };
+  }
+
+  private static TraceRing register() {
+    TraceRing ring = new TraceRing(Thread.currentThread());
+    RINGS.add(ring);
+    return ring;
+  }
+
+  /**
+   * Hands every point recorded since the last drain to the sink.  Only one thread may drain at a
+   * time, the rings of threads that have exited are drained one last time and dropped.
+   */
+  static int drain(TraceSink sink) {
+    int count = 0;
+    for (TraceRing ring : RINGS) {
+      boolean alive = ring.isAlive();
+      count += ring.drain(sink);
+      if (!alive) {
+        RINGS.remove(ring);
+        RETIRED_DROPS.add(ring.dropped());
+      }
+    }
+    return count;
+  }
+
+  private static synchronized void startExporter() {
+    if (!exporting) {
+      Thread exporter = new Thread(PipelineTracer::export, "pipeline-trace-exporter");
+      exporter.setDaemon(true);
+      exporter.start();
+      exporting = true;
+    }
+  }
+
+  private static void export() {
+    while (true) {
+      try {
+        Thread.sleep(EXPORT_INTERVAL);
+      } catch (InterruptedException ie) {
+        return;
+      }
+      try {
+        EXPORTED.add(drain(PipelineTracer::export));
+      } catch (RuntimeException e) {
+        LOGGER.warn("unable to export pipeline traces", e);
+      }
+    }
+  }
+
+  private static void export(PipelineTrace trace, String point, Type type, String thread, long time, Object subject) {
+    org.terracotta.tripwire.Event event = TripwireFactory.createTraceEvent(trace.getId(), point, type.name(), thread, time - trace.getStart());
+    if (event.shouldCommit()) {
+      event.setDescription(describe(subject));
+      event.commit();
+    }
+  }
+
+  static String describe(Object subject) {
+    if (subject == null) {
+      return null;
+    }
+    if (subject instanceof Class) {
+      return ((Class<?>)subject).getName();
+    }
+    try {
+      return subject.toString();
+    } catch (RuntimeException e) {
+      // the subject may have moved on since the point was recorded
+      return subject.getClass().getName() + " " + e;
+    }
+  }
+
+  public static Map<String, ?> getState() {
+    Map<String, Object> state = new LinkedHashMap<>();
+    state.put("sampleRate", sampleRate);
+    state.put("traces", TRACES.get());
+    state.put("threads", RINGS.size());
+    state.put("exported", EXPORTED.sum());
+    long dropped = RETIRED_DROPS.sum();
+    for (TraceRing ring : RINGS) {
+      dropped += ring.dropped();
+    }
+    state.put("dropped", dropped);
+    return state;
+  }
+
+  @FunctionalInterface
+  interface TraceSink {
+    void accept(PipelineTrace trace, String point, Type type, String thread, long time, Object subject);
+  }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import com.tc.logging.TCLoggerProvider;
 import com.tc.util.Assert;
 import com.tc.util.concurrent.QueueFactory;
 
+import java.util.Collection;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -56,7 +57,7 @@ public class SingletonStageQueueImpl<EC> extends AbstractStageQueueImpl<EC> {
 
   private SourceQueueImpl createWorkerQueue(QueueFactory queueFactory, Class<EC> type, 
                                                                 int queueSize) {
-    return new SourceQueueImpl(queueFactory.createInstance(type, queueSize));
+    return new SourceQueueImpl(queueFactory.createInstance(stageName, type, queueSize));
   }
 
   @Override
@@ -132,6 +133,11 @@ public class SingletonStageQueueImpl<EC> extends AbstractStageQueueImpl<EC> {
       return rv;
     }
 
+    @Override
+    public int drainTo(Collection<Event> batch, int max) {
+      return this.queue.drainTo(batch, max);
+    }
+
     @Override
     public int put(Event context) throws InterruptedException {
       this.queue.put(context);
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ import com.tc.exception.TCShutdownServerException;
 import com.tc.logging.TCLoggerProvider;
 import com.tc.properties.TCPropertiesConsts;
 import com.tc.properties.TCPropertiesImpl;
+import com.tc.util.concurrent.CpuPlacement;
 import com.tc.util.concurrent.QueueFactory;
 import com.tc.util.concurrent.ThreadUtil;
 import java.util.ArrayList;
@@ -44,6 +45,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
 import org.terracotta.tripwire.StageMonitor;
 import org.terracotta.tripwire.TripwireFactory;
 
@@ -62,6 +64,8 @@ public class StageImpl<EC> implements Stage<EC> {
   private final Logger logger;
   private final int            sleepMs;
   private final boolean        pausable;
+  private final int            batchSize;
+  private final ThreadLocal<List<EC>> batching;
   private volatile boolean     paused;
   private volatile boolean     shutdown = true;
   private final LongAdder  inflight = new LongAdder();
@@ -69,6 +73,13 @@ public class StageImpl<EC> implements Stage<EC> {
                                                      .getLong(TCPropertiesConsts.L2_SEDA_STAGE_STALL_WARNING, 500);
   private volatile long lastWarnTime = 0;
   private int spinning = 0;
+  // null unless events are concentrated on as few lanes as the load needs
+  private final AdaptiveLanes lanes;
+  private volatile boolean stalled;
+  // node each lane is bound to, null unless the stage is placed
+  private final int[] laneNodes;
+  // events run with the placement feed of the thread which added them
+  private final boolean carryFeeds = CpuPlacement.getPlacement().isEnabled();
   
   private StageMonitor event;
   /**
@@ -93,9 +104,18 @@ public class StageImpl<EC> implements Stage<EC> {
     if (queueCount > 1 && !MultiThreadedEventContext.class.isAssignableFrom(type)) {
       throw new IllegalArgumentException("the requested queue count is greater than one but the event type is not multi-threaded for stage:" + this.name);
     }
-    this.threads = new WorkerThread[queueCount];
+    this.threads = new StageImpl.WorkerThread[queueCount];
     this.handler = handler;
-    this.stageQueue = StageQueue.FACTORY.factory(queueCount, queueFactory, type, eventCreator(canBeDirect), loggerProvider, name, queueSize);
+    // multi-threaded stages run events directly by claiming their lane so anything added meanwhile queues
+    // behind them, a batching worker hands events to the handler after the lane is released so those stay
+    // with the stage wide check.  without direct lanes a lane is only claimed while the whole stage is idle
+    boolean directLanes = canBeDirect && MultiThreadedEventContext.class.isAssignableFrom(type)
+        && TCPropertiesImpl.getProperties().getInt("seda." + name + ".batchSize", 0) <= 1;
+    this.stageQueue = StageQueue.FACTORY.factory(queueCount, queueFactory, type, eventCreator(canBeDirect && !directLanes), loggerProvider, name, queueSize);
+    if (directLanes) {
+      this.stageQueue.setDirectSources(true);
+      this.stageQueue.setDirectOnlyWhenIdle(!TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.L2_SEDA_STAGE_DIRECT_LANES, false));
+    }
     this.group = group;
     this.listener = listener;
     this.sleepMs = TCPropertiesImpl.getProperties().getInt("seda." + name + ".sleepMs", 0);
@@ -106,6 +126,37 @@ public class StageImpl<EC> implements Stage<EC> {
     if (this.pausable) {
       logger.warn("Stage pausing is enabled for stage " + name);
     }
+    this.batchSize = TCPropertiesImpl.getProperties().getInt("seda." + name + ".batchSize", 0);
+    if (this.batchSize > 1) {
+      logger.info("Draining up to " + this.batchSize + " events per batch for stage " + name);
+      this.batching = new ThreadLocal<>();
+    } else {
+      this.batching = null;
+    }
+    boolean adaptive = queueCount > 1 && TCPropertiesImpl.getProperties().getBoolean(String.format(TCPropertiesConsts.SEDA_STAGE_ADAPTIVE, name), false);
+    if (adaptive && this.batchSize > 1) {
+      // a key leaves its lane once the lane has run what it held, a batching worker only hands those to the handler
+      // at the end of its batch
+      logger.warn("Stage " + name + " drains batches, its lanes are not adapted");
+      this.lanes = null;
+    } else if (adaptive) {
+      this.lanes = new AdaptiveLanes(TCPropertiesImpl.getProperties().getInt(String.format(TCPropertiesConsts.SEDA_STAGE_MIN_LANES, name), 1), queueCount);
+      this.stageQueue.setAdaptiveSources(true);
+      logger.info("Adapting between " + this.lanes.getMin() + " and " + queueCount + " active lanes for stage " + name);
+    } else {
+      this.lanes = null;
+    }
+    CpuPlacement placement = CpuPlacement.getPlacement();
+    if (queueCount > 1 && placement.isEnabled() && TCPropertiesImpl.getProperties().getBoolean("seda." + name + ".placement", false)) {
+      this.laneNodes = new int[queueCount];
+      for (int x = 0; x < queueCount; x++) {
+        this.laneNodes[x] = placement.nodeFor(x, queueCount);
+      }
+      this.stageQueue.setSourceNodes(this.laneNodes);
+      logger.info("Placing lanes of stage " + name + " on nodes " + Arrays.toString(this.laneNodes));
+    } else {
+      this.laneNodes = null;
+    }
     this.event = TripwireFactory.createStageMonitor(name, queueCount);
     if (!stallLogging) {
       lastWarnTime = Long.MAX_VALUE;
@@ -120,25 +171,49 @@ public class StageImpl<EC> implements Stage<EC> {
     return (event) -> {
       long start = System.nanoTime();
       inflight.increment();
+      IntConsumer feed = carryFeeds ? CpuPlacement.currentFeed() : null;
       return ()-> {
-        long exec = System.nanoTime();
-        if (exec - start > TimeUnit.MILLISECONDS.toNanos(warnStallTime)) {
-          warnIfWarranted("queue", event, TimeUnit.NANOSECONDS.toMillis(exec-start));
-        }
+        // once handed to a batch, the worker settles the inflight count when the batch is handled
+        boolean handed = false;
         try {
-          handler.handleEvent(event);
+          long exec = System.nanoTime();
+          if (exec - start > TimeUnit.MILLISECONDS.toNanos(warnStallTime)) {
+            warnIfWarranted("queue", event, TimeUnit.NANOSECONDS.toMillis(exec-start));
+          }
+          List<EC> batch = (batching != null) ? batching.get() : null;
+          if (batch != null) {
+            // running on a batching worker of this stage, the worker hands the whole batch to the handler
+            batch.add(event);
+            handed = true;
+            return;
+          }
+          if (feed != null) {
+            // lanes this event feeds are reported to the connection it was read from
+            IntConsumer previous = CpuPlacement.currentFeed();
+            CpuPlacement.feeding(feed);
+            try {
+              handler.handleEvent(event);
+            } finally {
+              CpuPlacement.feeding(previous);
+            }
+          } else {
+            handler.handleEvent(event);
+          }
           long end = System.nanoTime();;
           if (end - exec > TimeUnit.MILLISECONDS.toNanos(warnStallTime)) {
             warnIfWarranted("executed", event, TimeUnit.NANOSECONDS.toMillis(end-exec));
           }
         } finally {
-          inflight.decrement();
+          if (!handed) {
+            inflight.decrement();
+          }
         }
       };
     };
   }
   
   private void warnIfWarranted(String type, Object event, long time) {
+    stalled = true;
     long now = System.currentTimeMillis();
     if (now - lastWarnTime > 1000) {
       lastWarnTime = now;
@@ -164,6 +239,45 @@ public class StageImpl<EC> implements Stage<EC> {
     spinning = spin;
   }
 
+  boolean isAdaptive() {
+    return lanes != null;
+  }
+
+  /**
+   * Samples the run and idle time of the worker threads and the backlog of the active lanes and
+   * resizes the set of lanes which take events.  Called periodically by
+   * the stage manager for adaptive stages.
+   */
+  synchronized void adapt() {
+    if (lanes == null || shutdown) {
+      return;
+    }
+    int active = stageQueue.getActiveSources();
+    long[] run = new long[threads.length];
+    long[] idle = new long[threads.length];
+    int backlog = 0;
+    for (int x = 0; x < threads.length; x++) {
+      WorkerThread t = threads[x];
+      if (t != null) {
+        run[x] = t.runTime;
+        idle[x] = t.idleTime;
+        if (x < active) {
+          backlog += t.source.size();
+        }
+      }
+    }
+    boolean stall = stalled;
+    stalled = false;
+    int next = lanes.sample(active, run, idle, backlog, stall);
+    if (next != active) {
+      // skipped while the last change is settling, the next sample tries again
+      stageQueue.setActiveSources(next);
+      if (stageQueue.getActiveSources() == next) {
+        logger.debug("Stage: {} active lanes {} -> {} backlog {}", name, active, next, backlog);
+      }
+    }
+  }
+
   public void trackExtraStatistics(boolean enable) {
     stageQueue.enableAdditionalStatistics(enable);
   }
@@ -227,7 +341,7 @@ public class StageImpl<EC> implements Stage<EC> {
       } else {
         threadName = threadName + ")";
       }
-      threads[i] = new WorkerThread<>(threadName, this.stageQueue.getSource(i));
+      threads[i] = new WorkerThread(threadName, this.stageQueue.getSource(i), i);
       threads[i].start();
     }
   }
@@ -275,23 +389,33 @@ public class StageImpl<EC> implements Stage<EC> {
     data.put("name", name);
     data.put("threadCount", threads.length);
     data.put("backlog", inflight.sum());
+    if (lanes != null) {
+      data.put("activeLanes", stageQueue.getActiveSources());
+    }
     data.put("sink", this.stageQueue.getState());
     data.put("threads", tl);
     return data;
   }
 
-  private class WorkerThread<EC> extends Thread {
+  private class WorkerThread extends Thread {
     private final Source       source;
+    private final int          index;
+    private final List<Event>  events;
+    private final List<EC>     contexts;
     private volatile boolean idle = false;
     // these are single threaded, don't need special handling
-    private long idleTime  = 0;
-    private long runTime = 0;
     private long count = 0;
+    // written only by this thread, read by the adaptive controller
+    private volatile long idleTime  = 0;
+    private volatile long runTime = 0;
 
-    public WorkerThread(String name, Source source) {
+    public WorkerThread(String name, Source source, int index) {
       super(group, name);
       setDaemon(true);
       this.source = source;
+      this.index = index;
+      this.events = (batching != null) ? new ArrayList<>(batchSize) : null;
+      this.contexts = (batching != null) ? new ArrayList<>(batchSize) : null;
     }
 
     private void handleStageDebugPauses() {
@@ -310,10 +434,89 @@ public class StageImpl<EC> implements Stage<EC> {
       return this.idle && this.source.isEmpty();
     }
 
+    /**
+     * Runs first plus whatever else is already queued, up to the batch size, back to back.
+     * Handler events are collected as they are called and delivered through one
+     * {@link EventHandler#handleEvents} call, any other event is run once those collected
+     * ahead of it are handled.
+     */
+    private int runBatch(Event first) throws InterruptedException, EventHandlerException {
+      events.add(first);
+      source.drainTo(events, batchSize - 1);
+      int drained = events.size();
+      Exception failure = null;
+      try {
+        // every drained event is called even after one fails, they are already off the queue
+        // and the batch is what settles their inflight count
+        for (Event e : events) {
+          if (!e.isHandlerEvent()) {
+            // a flush moving on to the next queue must not pass what this queue held ahead of it
+            try {
+              handleBatch();
+            } catch (EventHandlerException | RuntimeException ex) {
+              failure = suppress(failure, ex);
+            }
+          }
+          try {
+            e.call();
+          } catch (EventHandlerException | RuntimeException ex) {
+            failure = suppress(failure, ex);
+          }
+        }
+      } finally {
+        events.clear();
+      }
+      try {
+        handleBatch();
+      } catch (EventHandlerException | RuntimeException ex) {
+        if (failure != null) {
+          ex.addSuppressed(failure);
+        }
+        throw ex;
+      }
+      if (failure instanceof EventHandlerException) {
+        throw (EventHandlerException)failure;
+      } else if (failure != null) {
+        throw (RuntimeException)failure;
+      }
+      return drained;
+    }
+
+    private Exception suppress(Exception failure, Exception ex) {
+      if (failure == null) {
+        return ex;
+      }
+      failure.addSuppressed(ex);
+      return failure;
+    }
+
+    private void handleBatch() throws EventHandlerException {
+      if (contexts.isEmpty()) {
+        return;
+      }
+      long start = System.nanoTime();
+      try {
+        handler.handleEvents(contexts);
+      } finally {
+        inflight.add(-contexts.size());
+        long time = System.nanoTime() - start;
+        if (time > TimeUnit.MILLISECONDS.toNanos(warnStallTime)) {
+          warnIfWarranted("executed", "batch of " + contexts.size(), TimeUnit.NANOSECONDS.toMillis(time));
+        }
+        contexts.clear();
+      }
+    }
+
     @Override
     public void run() {
+      if (laneNodes != null) {
+        CpuPlacement.getPlacement().bind(laneNodes[index]);
+      }
+      if (batching != null) {
+        batching.set(contexts);
+      }
       int spinCount = 0;
-      boolean spinner = spinning > 0;
+      boolean spinner = shouldSpin();
       while (!shutdown || !source.isEmpty()) {
         Event ctxt = null;
         try {
@@ -325,13 +528,18 @@ public class StageImpl<EC> implements Stage<EC> {
             long running = System.nanoTime();
             handleStageDebugPauses();
             idleTime += (running - stopped);
-            ctxt.call();
+            int processed = 1;
+            if (events == null) {
+              ctxt.call();
+            } else {
+              processed = runBatch(ctxt);
+            }
             long finishRun = System.nanoTime();
             runTime += (finishRun - running);
-            count += 1;
+            count += processed;
             event.eventOccurred(size(), (finishRun - running));
             spinCount = 0;
-            spinner = spinning > 0;
+            spinner = shouldSpin();
           } else {
             idleTime += (System.nanoTime() - stopped);
             if (spinCount++ >= spinning) {
@@ -366,6 +574,11 @@ public class StageImpl<EC> implements Stage<EC> {
       }
     }
     
+    private boolean shouldSpin() {
+      // lanes parked by the adaptive controller only see flushes and keys held by a lane change, block on them instead of spinning
+      return spinning > 0 && (lanes == null || index < stageQueue.getActiveSources());
+    }
+
     private Map<String, ?> getStats() {
       Map<String, Object> state = new LinkedHashMap<>();
       state.put("idle", idleTime);
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -52,6 +52,8 @@ public class StageManagerImpl implements StageManager {
                                                      .getBoolean(TCPropertiesConsts.TC_STAGE_MONITOR_ENABLED);
   private static final long        MONITOR_DELAY = TCPropertiesImpl.getProperties()
                                                      .getLong(TCPropertiesConsts.TC_STAGE_MONITOR_DELAY);
+  private static final int         ADAPT_INTERVAL = TCPropertiesImpl.getProperties()
+                                                     .getInt(TCPropertiesConsts.L2_SEDA_STAGE_ADAPT_INTERVAL, 1000);
 
   private final Map<String, Stage<?>>   stages        = new ConcurrentHashMap<>();
   private final Map<String, Class<?>> classVerifications = new ConcurrentHashMap<>();
@@ -61,6 +63,7 @@ public class StageManagerImpl implements StageManager {
   private final QueueFactory queueFactory;
   private final StageListener listener;
   private volatile boolean           started;
+  private Thread                     adapter;
 
   public StageManagerImpl(ThreadGroup threadGroup, QueueFactory queueFactory) {
     this.loggerProvider = new DefaultLoggerProvider();
@@ -112,6 +115,51 @@ public class StageManagerImpl implements StageManager {
     t.start();
   }
 
+  /**
+   * Periodically resizes the active lanes of the stages configured as adaptive, only started when
+   * there is at least one.
+   */
+  private void startAdapter() {
+    List<StageImpl<?>> adaptive = new ArrayList<>();
+    for (Stage<?> s : stages.values()) {
+      if (s instanceof StageImpl && ((StageImpl<?>) s).isAdaptive()) {
+        adaptive.add((StageImpl<?>) s);
+      }
+    }
+    if (adaptive.isEmpty()) {
+      return;
+    }
+    final Logger logger = loggerProvider.getLogger(getClass());
+    adapter = new Thread(group, "SEDA Stage Adapter") {
+      @Override
+      public void run() {
+        while (!isInterrupted()) {
+          try {
+            Thread.sleep(ADAPT_INTERVAL);
+          } catch (InterruptedException ie) {
+            return;
+          }
+          for (StageImpl<?> stage : adaptive) {
+            try {
+              stage.adapt();
+            } catch (Throwable th) {
+              logger.error("Exception :", th);
+            }
+          }
+        }
+      }
+    };
+    adapter.setDaemon(true);
+    adapter.start();
+  }
+
+  private synchronized void stopAdapter() {
+    if (adapter != null) {
+      adapter.interrupt();
+      adapter = null;
+    }
+  }
+
   @Override
   public void setLoggerProvider(TCLoggerProvider loggerProvider) {
     this.loggerProvider = loggerProvider;
@@ -154,10 +202,12 @@ public class StageManagerImpl implements StageManager {
       }
     }
     started = true;
+    startAdapter();
   }
 
   @Override
   public void stopAll() {
+    stopAdapter();
     for (Stage<?> s : stages.values()) {
       s.stop();
     }
@@ -205,6 +255,7 @@ public class StageManagerImpl implements StageManager {
     Map<String,Object> map = new LinkedHashMap<>();
     map.put("className", this.getClass().getName());
     map.put("monitor", MONITOR);
+    map.put("trace", PipelineTracer.getState());
     List<Object> list = new ArrayList<>(stages.size());
     for (Stage<?> stage : stages.values()) {
       if (stage.isStarted()) {
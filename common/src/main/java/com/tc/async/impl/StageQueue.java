@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -42,6 +42,53 @@ public interface StageQueue<EC> extends Sink<EC> {
   
   void enableAdditionalStatistics(boolean track);
 
+  /**
+   * @return the number of sources which take events
+   */
+  default int getActiveSources() {
+    return 1;
+  }
+
+  /**
+   * Restricts events to the first {@code count} sources, keyed events included.  Only meaningful
+   * for queues with more than one source.
+   */
+  default void setActiveSources(int count) {
+
+  }
+
+  /**
+   * Allows the active sources to change while events are added, the change keeps per key order.
+   * Must be set before events are added.
+   */
+  default void setAdaptiveSources(boolean adaptive) {
+
+  }
+
+  /**
+   * Sets the node each source is placed on, so adding to a source can be reported through
+   * {@link com.tc.util.concurrent.CpuPlacement#fed(int)}.
+   */
+  default void setSourceNodes(int[] nodes) {
+
+  }
+
+  /**
+   * Lets events run on the adding thread, when it is in {@link com.tc.async.api.DirectExecutionMode},
+   * while the source they are headed for is idle.  Only meaningful for queues with a source per worker.
+   */
+  default void setDirectSources(boolean direct) {
+
+  }
+
+  /**
+   * With direct sources, only lets an event run on the adding thread while every source is idle
+   * rather than just the one it is headed for.
+   */
+  default void setDirectOnlyWhenIdle(boolean idle) {
+
+  }
+
   class StageQueueFactory {
     /**
      * The StageQueue factory.
@@ -0,0 +1,107 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.async.impl;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Trace points recorded by one thread.  The arrays are allocated once and reused as a ring, the
+ * owning thread is the only writer and publishes each point by moving the head.  The exporter reads
+ * behind the head and drops any point the writer lapped while it was being read.
+ */
+final class TraceRing {
+  static final int CAPACITY = 256;
+  private static final int MASK = CAPACITY - 1;
+
+  private final Thread owner;
+  private final String thread;
+  private final PipelineTrace[] traces = new PipelineTrace[CAPACITY];
+  private final String[] points = new String[CAPACITY];
+  private final PipelineTracer.Type[] types = new PipelineTracer.Type[CAPACITY];
+  private final long[] times = new long[CAPACITY];
+  private final Object[] subjects = new Object[CAPACITY];
+  // next sequence to write, only moved by the owner
+  private volatile long head;
+  // next sequence to read, only touched by the exporter
+  private long tail;
+  private long dropped;
+
+  TraceRing(Thread owner) {
+    this.owner = owner;
+    this.thread = owner.getName();
+  }
+
+  void record(PipelineTrace trace, String point, PipelineTracer.Type type, Object subject, long time) {
+    long h = head;
+    int slot = (int)h & MASK;
+    // the head published by the last record must be visible before this slot is overwritten, otherwise the
+    // exporter could take a half written point as still good
+    VarHandle.storeStoreFence();
+    traces[slot] = trace;
+    points[slot] = point;
+    types[slot] = type;
+    times[slot] = time;
+    subjects[slot] = subject;
+    head = h + 1;
+  }
+
+  /**
+   * Hands the points written since the last drain to the sink, oldest first.
+   *
+   * @return the number of points handed over
+   */
+  int drain(PipelineTracer.TraceSink sink) {
+    long h = head;
+    // the oldest slot of a full ring is the next one the writer overwrites
+    if (h - tail >= CAPACITY) {
+      dropped += h - tail - CAPACITY + 1;
+      tail = h - CAPACITY + 1;
+    }
+    int count = 0;
+    while (tail < h) {
+      int slot = (int)tail & MASK;
+      PipelineTrace trace = traces[slot];
+      String point = points[slot];
+      PipelineTracer.Type type = types[slot];
+      long time = times[slot];
+      Object subject = subjects[slot];
+      // the copy is only good if the writer has not come around to this slot again
+      VarHandle.acquireFence();
+      if (head - tail < CAPACITY) {
+        sink.accept(trace, point, type, thread, time, subject);
+        count++;
+      } else {
+        dropped++;
+      }
+      tail++;
+    }
+    return count;
+  }
+
+  long dropped() {
+    return dropped;
+  }
+
+  boolean isAlive() {
+    return owner.isAlive();
+  }
+
+  String getThreadName() {
+    return thread;
+  }
+}
@@ -53,12 +53,16 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.tc.net.core.SocketEndpoint;
 import com.tc.net.core.SocketEndpointFactory;
 import com.tc.net.core.TCSocketEndpointReader;
+import com.tc.util.concurrent.VirtualThreads;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -85,17 +89,29 @@ public class BasicConnection implements TCConnection {
   private volatile Thread serviceThread;
   private volatile ExecutorService readerExec;
   private final String id;
+  private final boolean virtualThreads;
 
 
   public BasicConnection(String id, TCProtocolAdaptor adapter, SocketEndpointFactory buffers, Consumer<TCConnection> close) {
+    this(id, adapter, buffers, false, close);
+  }
+
+  /**
+   * @param virtualThreads read from the socket on a virtual thread rather than a dedicated platform thread.
+   *        Ignored, with platform threads used, when the JVM does not provide virtual threads.
+   */
+  public BasicConnection(String id, TCProtocolAdaptor adapter, SocketEndpointFactory buffers, boolean virtualThreads, Consumer<TCConnection> close) {
     this.id = id;
     this.socketEndpointFactory = buffers;
-    Object writeMutex = new Object();
+    this.virtualThreads = virtualThreads && VirtualThreads.isSupported();
+    // not a monitor, a virtual thread blocked in the socket write must not pin its carrier
+    Lock writeLock = new ReentrantLock();
     this.write = (message)->{
       if (!message.prepareToSend()) {
         return;
       }
-      synchronized (writeMutex) {
+      writeLock.lock();
+      try {
         try {
           if (this.src != null) {
             boolean interrupted = Thread.interrupted();
@@ -137,6 +153,8 @@ public class BasicConnection implements TCConnection {
         } finally {
           message.complete();
         }
+      } finally {
+        writeLock.unlock();
       }
     };
     this.closeRunnable = close;
@@ -363,9 +381,16 @@ public class BasicConnection implements TCConnection {
 
   private void readMessages() {
     Assert.assertNull(readerExec);
+    ThreadFactory threads = virtualThreads ? VirtualThreads.factory() : null;
     readerExec = Executors.newFixedThreadPool(1, (r) -> {
-      serviceThread = new Thread(r, id + " - BasicConnectionReader-" + this.src.getLocalSocketAddress() + "<-" + this.src.getRemoteSocketAddress() + " for (" + System.identityHashCode(this) + ")");
-      serviceThread.setDaemon(true);
+      String name = id + " - BasicConnectionReader-" + this.src.getLocalSocketAddress() + "<-" + this.src.getRemoteSocketAddress() + " for (" + System.identityHashCode(this) + ")";
+      if (threads != null) {
+        serviceThread = threads.newThread(r);
+        serviceThread.setName(name);
+      } else {
+        serviceThread = new Thread(r, name);
+        serviceThread.setDaemon(true);
+      }
       return serviceThread;
     });
     LOGGER.debug("CREATED {} reader connected:{} established:{} reader:{}", System.identityHashCode(this), connected, established, readerExec);
@@ -443,6 +468,7 @@ public class BasicConnection implements TCConnection {
     state.put("closed", isClosed());
     state.put("connected", isConnected());
     state.put("transportConnected", isTransportEstablished());
+    state.put("virtualThreads", virtualThreads);
     if (socket instanceof PrettyPrintable) {
       state.put("buffer", ((PrettyPrintable)this.socket).getStateMap());
     } else {
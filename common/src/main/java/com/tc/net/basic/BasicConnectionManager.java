@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import java.util.Set;
 import com.tc.net.protocol.TCProtocolAdaptor;
 import java.net.InetSocketAddress;
 import java.util.Arrays;
+import com.tc.util.concurrent.VirtualThreads;
 
 /**
  *
@@ -39,16 +40,26 @@ public class BasicConnectionManager implements TCConnectionManager {
   private final Set<TCConnection>       connections            = new HashSet<>();
   private final SocketEndpointFactory buffers;
   private final String id;
+  private final boolean virtualThreads;
 
   public BasicConnectionManager(String id, SocketEndpointFactory buffers) {
+    this(id, buffers, false);
+  }
+
+  /**
+   * @param virtualThreads service each connection from a virtual thread instead of a platform thread
+   *        per connection, when the JVM supports it
+   */
+  public BasicConnectionManager(String id, SocketEndpointFactory buffers, boolean virtualThreads) {
     this.buffers = buffers;
     this.id = id;
+    this.virtualThreads = virtualThreads;
   }
 
   @Override
   public TCConnection createConnection(TCProtocolAdaptor adaptor) {
     synchronized (connections) {
-      TCConnection basic = new BasicConnection(id, adaptor, buffers, (conn)->{
+      TCConnection basic = new BasicConnection(id, adaptor, buffers, virtualThreads, (conn)->{
         synchronized (connections) {
           connections.remove(conn);
         }
@@ -106,7 +117,10 @@ public class BasicConnectionManager implements TCConnectionManager {
 
   @Override
   public Map<String, ?> getStateMap() {
-    return new LinkedHashMap<>();
+    Map<String, Object> state = new LinkedHashMap<>();
+    state.put("virtualThreads", virtualThreads && VirtualThreads.isSupported());
+    state.put("connections", getAllConnections().length);
+    return state;
   }
   
   @Override
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import com.tc.net.core.event.TCListenerEvent;
 import com.tc.net.core.event.TCListenerEventListener;
 import com.tc.util.Assert;
 import com.tc.util.Util;
+import com.tc.util.concurrent.CpuPlacement;
 import com.tc.util.concurrent.SetOnceFlag;
 import com.tc.util.runtime.Os;
 
@@ -72,6 +73,8 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
   private final CommThread                     readerComm;
   private final CommThread                     writerComm;
   private final SetOnceFlag                    stopRequested = new SetOnceFlag();
+  // node the comm threads are bound to, -1 when not placed
+  private final int                            node;
 
   // maintains weight of all L1 Connections which is handled by this WorkerComm
   private final AtomicInteger                                  clientWeights = new AtomicInteger();
@@ -84,9 +87,14 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
   }
 
   public CoreNIOServices(String commThreadName, TCWorkerCommManager workerCommManager, SocketParams socketParams) {
+    this(commThreadName, workerCommManager, socketParams, -1);
+  }
+
+  public CoreNIOServices(String commThreadName, TCWorkerCommManager workerCommManager, SocketParams socketParams, int node) {
     this.commThreadName = commThreadName;
     this.workerCommMgr = workerCommManager;
     this.socketParams = socketParams;
+    this.node = node;
     this.readerComm = new CommThread(COMM_THREAD_MODE.NIO_READER);
     this.writerComm = new CommThread(COMM_THREAD_MODE.NIO_WRITER);
   }
@@ -235,6 +243,10 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
     return this.clientWeights.get();
   }
 
+  int getNode() {
+    return this.node;
+  }
+
   protected CommThread getReaderComm() {
     return this.readerComm;
   }
@@ -253,10 +265,18 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
    * @param channel : SocketChannel for the passed in connection
    */
   public void addConnection(TCConnectionImpl connection, SocketChannel channel) {
+    addConnection(connection, channel, -1);
+  }
+
+  /**
+   * Same as {@link #addConnection(TCConnectionImpl, SocketChannel)} but prefers a worker comm thread placed on the
+   * node, -1 for any.
+   */
+  void addConnection(TCConnectionImpl connection, SocketChannel channel, int toNode) {
     // MainComm Thread
     if (workerCommMgr == null) { return; }
 
-    final CoreNIOServices workerComm = workerCommMgr.getNextWorkerComm();
+    final CoreNIOServices workerComm = workerCommMgr.getNextWorkerComm(toNode);
     try {
       if (connection.setCommWorker(workerComm)) {
         readerComm.unregister(channel);
@@ -313,6 +333,9 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
     Map<String, Object> state = new LinkedHashMap<>();
     state.put("name", this.commThreadName);
     state.put("weights", this.clientWeights);
+    if (this.node >= 0) {
+      state.put("node", this.node);
+    }
     state.put("writer", this.writerComm.getCommState());
     state.put("reader", this.readerComm.getCommState());
     return state;
@@ -381,6 +404,9 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
 
     @Override
     public void run() {
+      if (node >= 0) {
+        CpuPlacement.getPlacement().bind(node);
+      }
       try {
         selectLoop();
       } catch (Throwable t) {
@@ -670,6 +696,7 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
         if ((0 == numKeys) && (selectedKeys.isEmpty())) {
           continue;
         }
+        Map<TCConnectionImpl, Integer> misplaced = null;
 
         for (Iterator<SelectionKey> iter = selectedKeys.iterator(); iter.hasNext();) {
           SelectionKey key = iter.next();
@@ -695,10 +722,31 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
             if (isReader() && key.isValid() && key.isReadable()) {
               long read;
               TCChannelReader reader = (TCChannelReader) key.attachment();
-              do {
-                read = reader.doRead();
-                bytesMoved += read;
-              } while ((read != 0) && key.isReadable());
+              NodeFeeds feeds = null;
+              if (node >= 0 && reader instanceof TCConnectionImpl) {
+                // learn which node the lanes fed by this connection are on
+                feeds = ((TCConnectionImpl) reader).getNodeFeeds(workerCommMgr.getNodeCount());
+                CpuPlacement.feeding(feeds);
+              }
+              try {
+                do {
+                  read = reader.doRead();
+                  bytesMoved += read;
+                } while ((read != 0) && key.isReadable());
+              } finally {
+                if (feeds != null) {
+                  CpuPlacement.feeding(null);
+                }
+              }
+              if (feeds != null) {
+                int preferred = feeds.preferred();
+                if (preferred >= 0 && preferred != node) {
+                  if (misplaced == null) {
+                    misplaced = new LinkedHashMap<>();
+                  }
+                  misplaced.put((TCConnectionImpl) reader, preferred);
+                }
+              }
             }
 
             if (key.isValid() && !isReader() && key.isWritable()) {
@@ -723,6 +771,10 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
             }
           }
         } // for
+        if (misplaced != null) {
+          // move connections to a worker on the node their requests are executed on
+          misplaced.forEach(TCConnectionImpl::migrate);
+        }
         if (isReader() && 
                 congestionScore > 100 && System.nanoTime() - lastIdleNanos > Duration.ofSeconds(2).toNanos() &&
                 workerCommMgr != null && workerCommMgr.isOverweight(getWeight())) {
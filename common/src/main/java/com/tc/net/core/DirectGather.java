@@ -0,0 +1,138 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.net.core;
+
+import com.tc.bytes.TCByteBuffer;
+import com.tc.bytes.TCDirectByteBufferPool;
+import java.nio.ByteBuffer;
+
+/**
+ * The buffers of one write context as handed to a gathering write.  Message bodies encoded into
+ * pooled direct buffers go out as they are.  The small heap buffers in between, the wire, group and
+ * message headers, are packed into one pooled direct buffer so the JDK does not copy each of them
+ * into a temporary direct buffer of its own on every write.  Packing is still a copy and is counted
+ * as one.  Heap buffers bigger than a header are left in place and counted as copied since the JDK
+ * copies those.
+ * <p>
+ * Only used by the writer thread of a connection.
+ */
+final class DirectGather implements AutoCloseable {
+  static final int HEADER_LIMIT = 256;
+
+  private final TCDirectByteBufferPool pool;
+  private final ByteBuffer[] gather;
+  private TCByteBuffer staged;
+  private ByteBuffer stagedBuffer;
+  private int stagedBytes;
+  private long copiedBytes;
+
+  /**
+   * @param pool source of the header buffer, null to write the buffers as they are
+   * @param buffers the buffers of the message, not modified
+   */
+  DirectGather(TCDirectByteBufferPool pool, ByteBuffer[] buffers) {
+    this.pool = pool;
+    int headers = 0;
+    if (pool != null) {
+      for (ByteBuffer b : buffers) {
+        if (isHeader(b)) {
+          headers += b.remaining();
+        }
+      }
+    }
+    if (headers > 0) {
+      staged = pool.acquire(headers);
+      if (!staged.isDirect()) {
+        // pool is exhausted, no point copying into another heap buffer
+        pool.release(staged);
+        staged = null;
+      }
+    }
+    if (staged == null) {
+      this.gather = buffers;
+    } else {
+      this.gather = buffers.clone();
+      stagedBuffer = staged.getNioBuffer();
+      for (int x = 0; x < gather.length; x++) {
+        if (isHeader(gather[x])) {
+          int start = stagedBuffer.position();
+          stagedBuffer.put(gather[x].duplicate());
+          ByteBuffer header = stagedBuffer.duplicate();
+          header.limit(stagedBuffer.position()).position(start);
+          gather[x] = header.slice();
+        }
+      }
+      stagedBytes = headers;
+      copiedBytes = headers;
+    }
+    for (ByteBuffer b : gather) {
+      if (!b.isDirect()) {
+        copiedBytes += b.remaining();
+      }
+    }
+  }
+
+  private static boolean isHeader(ByteBuffer b) {
+    return !b.isDirect() && b.hasRemaining() && b.remaining() <= HEADER_LIMIT;
+  }
+
+  ByteBuffer[] buffers() {
+    return gather;
+  }
+
+  boolean hasRemaining() {
+    for (ByteBuffer b : gather) {
+      if (b.hasRemaining()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  long remaining() {
+    long remaining = 0;
+    for (ByteBuffer b : gather) {
+      remaining += b.remaining();
+    }
+    return remaining;
+  }
+
+  /**
+   * @return header bytes packed into the direct buffer
+   */
+  int getStagedBytes() {
+    return stagedBytes;
+  }
+
+  /**
+   * @return bytes copied to direct memory to write them, the packed headers as well as the bytes
+   *     still on the heap which the JDK copies
+   */
+  long getCopiedBytes() {
+    return copiedBytes;
+  }
+
+  @Override
+  public void close() {
+    if (staged != null) {
+      staged.returnNioBuffer(stagedBuffer);
+      pool.release(staged.reInit());
+      staged = null;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.net.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Counts the nodes of the stage lanes the messages read from one connection were handed to.  Once
+ * a sample is complete, the node fed by a clear majority of it is the node the connection is best
+ * read on.
+ * <p>
+ * Fed by whichever stage thread hands the work of the connection to a placed lane, the work carries
+ * the feed with it from the reader thread.  Only the reader thread of the connection samples it.
+ */
+class NodeFeeds implements IntConsumer {
+  static final int SAMPLE = 1024;
+
+  private final AtomicIntegerArray counts;
+  private final AtomicInteger total = new AtomicInteger();
+
+  NodeFeeds(int nodes) {
+    this.counts = new AtomicIntegerArray(nodes);
+  }
+
+  @Override
+  public void accept(int node) {
+    counts.incrementAndGet(node);
+    total.incrementAndGet();
+  }
+
+  /**
+   * @return the node fed by a majority of the completed sample, -1 if there is none or the sample
+   *     is not complete yet
+   */
+  int preferred() {
+    if (total.get() < SAMPLE) {
+      return -1;
+    }
+    // feeds landing while the sample is taken go to either sample, it is only a heuristic
+    int sampled = 0;
+    int best = 0;
+    int bestCount = 0;
+    for (int x = 0; x < counts.length(); x++) {
+      int count = counts.getAndSet(x, 0);
+      sampled += count;
+      if (count > bestCount) {
+        best = x;
+        bestCount = count;
+      }
+    }
+    total.addAndGet(-sampled);
+    return bestCount * 2 > sampled ? best : -1;
+  }
+}
@@ -21,7 +21,8 @@ import com.tc.bytes.TCByteBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.tc.bytes.TCDirectByteBufferCache;
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.bytes.TCDirectByteBufferPool;
 import com.tc.bytes.TCReference;
 import com.tc.bytes.TCReferenceSupport;
 import com.tc.io.TCByteBufferOutputStream;
@@ -94,12 +95,14 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
   private final AtomicBoolean transportEstablished = new AtomicBoolean(false);
   private final BlockingQueue<TCNetworkMessage> writeMessages = new ArrayBlockingQueue<>(MSG_GROUPING_MAX_COUNT);
   private final TCConnectionManagerImpl parent;
-  private final TCDirectByteBufferCache buffers;
+  private final TCDirectByteBufferPool buffers;
   private final TCSocketEndpointReader readAllocator;
   private final TCConnectionEventCaller eventCaller = new TCConnectionEventCaller(logger);
   private final AtomicLong lastDataWriteTime = new AtomicLong(System.currentTimeMillis());
   private final LongAdder messagesWritten = new LongAdder();
   private final LongAdder messageBatch = new LongAdder();
+  private final LongAdder bytesCopied = new LongAdder();
+  private final LongAdder headerBytesStaged = new LongAdder();
   private final AtomicLong lastDataReceiveTime = new AtomicLong(System.currentTimeMillis());
   private final LongAdder messagesRead = new LongAdder();
   private final AtomicLong connectTime = new AtomicLong(NO_CONNECT_TIME);
@@ -132,6 +135,8 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
                           .getBoolean(TCPropertiesConsts.TC_MESSAGE_PACKUP_ENABLED,
                                       false);
   private final Object readerLock = new Object();
+  // nodes fed by messages read from this connection, only when comm threads are placed
+  private NodeFeeds nodeFeeds;
   private final Object writerLock = new Object();
 
   static {
@@ -171,7 +176,7 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
     this.socketParams = socketParams;
     this.commWorker = nioServiceThread;
 
-    this.buffers = MESSAGE_PACKUP ? new TCDirectByteBufferCache(parent.getBufferCache()) : null;
+    this.buffers = MESSAGE_PACKUP ? parent.getBufferPool() : null;
     this.readAllocator = MESSAGE_PACKUP ? new TCSocketEndpointReader(buffers) : new TCSocketEndpointReader();
   }
 
@@ -187,6 +192,9 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
     state.put("idleTime", this.getIdleTime());
     state.put("messageWritten", this.messagesWritten.longValue());
     state.put("messageBatch", this.messageBatch.longValue());
+    state.put("bytesCopied", this.bytesCopied.longValue());
+    state.put("bytesCopiedPerMessage", this.bytesCopied.longValue() / Math.max(1L, this.messagesWritten.longValue()));
+    state.put("headerBytesStaged", this.headerBytesStaged.longValue());
     state.put("messageRead", this.messagesRead.longValue());
     state.put("worker", commWorker.getName());
     state.put("closed", isClosed());
@@ -194,8 +202,6 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
     state.put("transportConnected", isTransportEstablished());
     if (buffers != null) {
         state.put("buffers.type", "direct");
-        state.put("buffers.cached", buffers.size());
-        state.put("buffers.referenced", buffers.referenced());
     } else {
         state.put("buffers.type", "heap");
     }
@@ -559,10 +565,6 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
         if (fireClose) {
           TCConnectionImpl.this.eventCaller.fireCloseEvent(TCConnectionImpl.this.eventListeners, TCConnectionImpl.this);
         }
-
-        if (buffers != null) {
-          buffers.close();
-        }
       }
     };
   }
@@ -824,7 +826,7 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
 
   @Override
   public TCByteBufferOutputStream createOutput() {
-    return MESSAGE_PACKUP ? new TCDirectByteBufferOutputStream(buffers) : new TCByteBufferOutputStream();
+    return MESSAGE_PACKUP ? new TCDirectByteBufferOutputStream(buffers.asQueue(TCByteBufferFactory.getFixedBufferSize())) : new TCByteBufferOutputStream();
   }
 
   protected class WriteContext {
@@ -866,9 +868,13 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
       try (TCReference msgRef = prep()) {
         long msgSize = msgRef.available();
         ByteBuffer[] compat = msgRef.toByteBufferArray();
-        try {
-          while (msgRef.hasRemaining()) {
-            switch (socket.writeFrom(compat)) {
+        // with direct buffers the headers are packed into a direct buffer of their own
+        try (DirectGather gather = new DirectGather(buffers, compat)) {
+          // staged headers are part of the copied bytes, headerBytesStaged breaks them out
+          bytesCopied.add(gather.getCopiedBytes());
+          headerBytesStaged.add(gather.getStagedBytes());
+          while (gather.hasRemaining()) {
+            switch (socket.writeFrom(gather.buffers())) {
               case SUCCESS:
               case ZERO:
                 break;
@@ -887,7 +893,7 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
             }
           }
           sent = true;
-          written = msgSize - msgRef.available();
+          written = msgSize - gather.remaining();
         } finally {
           msgRef.returnByteBufferArray(compat);
         }
@@ -902,6 +908,21 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
     this.transportEstablished.set(true);
   }
 
+  NodeFeeds getNodeFeeds(int nodes) {
+    if (nodeFeeds == null) {
+      nodeFeeds = new NodeFeeds(nodes);
+    }
+    return nodeFeeds;
+  }
+
+  /**
+   * Moves the connection to a comm worker placed on the node, must be called on the current
+   * reader thread.
+   */
+  void migrate(int node) {
+    this.commWorker.addConnection(this, this.channel, node);
+  }
+
   public void migrate() {
     if (this.commWorker.getReaderComm() == Thread.currentThread()) {
       this.commWorker.addConnection(this, this.channel);
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -18,7 +18,7 @@
 package com.tc.net.core;
 
 import com.tc.bytes.TCByteBufferFactory;
-import com.tc.bytes.TCDirectByteBufferCache;
+import com.tc.bytes.TCDirectByteBufferPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,7 +69,7 @@ public class TCConnectionManagerImpl implements TCConnectionManager {
   private final SocketParams            socketParams;
   private final SocketEndpointFactory    socketEndpointFactory;
 
-  private final TCDirectByteBufferCache buffers = new TCDirectByteBufferCache(TCByteBufferFactory.getFixedBufferSize(), 16 * 1024);
+  private final TCDirectByteBufferPool buffers = TCByteBufferFactory.getDirectBufferPool();
 
   public TCConnectionManagerImpl() {
     this("ConnectionMgr", null, 0, new ClearTextSocketEndpointFactory());
@@ -91,8 +91,7 @@ public class TCConnectionManagerImpl implements TCConnectionManager {
       state.put("connections", connections.stream().map(connection->connection.getState()).collect(Collectors.toList()));
     }
     state.put("processors", comm.getState());
-    state.put("buffers.cached", buffers.size());
-    state.put("buffers.referenced", buffers.referenced());
+    state.put("buffers", buffers.getState());
     if (socketEndpointFactory instanceof PrettyPrintable) {
       state.put("bufferManager", ((PrettyPrintable)socketEndpointFactory).getStateMap());
     } else {
@@ -237,7 +236,6 @@ public class TCConnectionManagerImpl implements TCConnectionManager {
     if (shutdown.attemptSet()) {
       closeAllListeners();
       asynchCloseAllConnections();
-      this.buffers.close();
       comm.stop();
     }
   }
@@ -337,13 +335,13 @@ public class TCConnectionManagerImpl implements TCConnectionManager {
     }
   }
 
-  TCDirectByteBufferCache getBufferCache() {
+  TCDirectByteBufferPool getBufferPool() {
     return buffers;
   }
   
   @Override
   public int getBufferCount() {
-    return buffers.referenced();
+    return buffers.getOutstandingBuffers();
   }
   
   void distribute() {
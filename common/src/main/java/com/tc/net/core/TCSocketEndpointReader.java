@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -19,7 +19,7 @@ package com.tc.net.core;
 
 import com.tc.bytes.TCByteBuffer;
 import com.tc.bytes.TCByteBufferFactory;
-import com.tc.bytes.TCDirectByteBufferCache;
+import com.tc.bytes.TCDirectByteBufferPool;
 import com.tc.bytes.TCReference;
 import com.tc.bytes.TCReferenceSupport;
 import static com.tc.net.core.SocketEndpoint.ResultType.EOF;
@@ -58,9 +58,12 @@ public class TCSocketEndpointReader implements AutoCloseable {
     this.returns = (b)->{};
   }
 
-  public TCSocketEndpointReader(TCDirectByteBufferCache cache) {
-    this.allocator = (s)->cache.poll();
-    this.returns = cache::offer;
+  public TCSocketEndpointReader(TCDirectByteBufferPool pool) {
+    // never smaller than the fixed size so small reads share a buffer, never larger than the
+    // biggest class so large messages span several direct buffers rather than one heap buffer
+    int min = TCByteBufferFactory.getFixedBufferSize();
+    this.allocator = (s)->pool.acquire(Math.min(Math.max(s, min), TCDirectByteBufferPool.MAX_CLASS_SIZE));
+    this.returns = pool::release;
   }
 
   // for testing
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import com.tc.logging.LossyTCLogger;
 import com.tc.logging.LossyTCLogger.LossyTCLoggerType;
 import com.tc.util.Assert;
+import com.tc.util.concurrent.CpuPlacement;
 import com.tc.util.concurrent.SetOnceFlag;
 import java.io.IOException;
 import java.io.InterruptedIOException;
@@ -45,6 +46,7 @@ public class TCWorkerCommManager {
 
   private final int               totalWorkerComm;
   private final CoreNIOServices[] workerCommThreads;
+  private final CpuPlacement      placement;
   private final SetOnceFlag       started            = new SetOnceFlag();
   private final SetOnceFlag       stopped            = new SetOnceFlag();
   
@@ -55,16 +57,28 @@ public class TCWorkerCommManager {
     logger.info("Creating " + workerCommCount + " worker comm threads for " + name);
     this.totalWorkerComm = workerCommCount;
     this.workerCommThreads = new CoreNIOServices[workerCommCount];
+    this.placement = CpuPlacement.getPlacement();
     for (int i = 0; i < this.workerCommThreads.length; i++) {
-      this.workerCommThreads[i] = new CoreNIOServices(name + " - " + WORKER_NAME_PREFIX + i, this, socketParams);
+      int node = placement.isEnabled() ? placement.nodeFor(i, workerCommCount) : -1;
+      this.workerCommThreads[i] = new CoreNIOServices(name + " - " + WORKER_NAME_PREFIX + i, this, socketParams, node);
     }
   }
 
   public CoreNIOServices getNextWorkerComm() {
+    return getNextWorkerComm(-1);
+  }
+
+  /**
+   * @param node the node the worker should be placed on, -1 for any
+   */
+  public CoreNIOServices getNextWorkerComm(int node) {
     CoreNIOServices leastWeightWorkerComm = null;
-    
+    if (!isPlacedOn(node)) {
+      node = -1;
+    }
+
     while (leastWeightWorkerComm == null) {
-      leastWeightWorkerComm = getLeastWeightWorkerComm();
+      leastWeightWorkerComm = getLeastWeightWorkerComm(node);
     }
     // We can't fail to get the least.
     Assert.assertTrue(null != leastWeightWorkerComm);
@@ -78,22 +92,37 @@ public class TCWorkerCommManager {
   }
 
   /**
-   * Finds the underlying {@link CoreNIOServices} worker comm thread with the lowest weight.  Note that this might be
+   * Finds the underlying {@link CoreNIOServices} worker comm thread with the lowest weight, on the node unless it is -1.  Note that this might be
    * called, concurrently, so it is really just a best-efforts attempt (since 2 threads could get the same answer or
    * a previously-requesting thread changes the result underneath the currently-requesting thread).
    * 
    * @return The CoreNIOServices with the least weight (at least when scanned).
    */
-  private CoreNIOServices getLeastWeightWorkerComm() {
+  private CoreNIOServices getLeastWeightWorkerComm(int node) {
     CoreNIOServices selectedWorkerComm = null;
     for (CoreNIOServices workerComm : workerCommThreads) {
-      if (workerComm.compareWeights(selectedWorkerComm)) {
+      if ((node < 0 || workerComm.getNode() == node) && workerComm.compareWeights(selectedWorkerComm)) {
         selectedWorkerComm = workerComm;
       }
     }
     return selectedWorkerComm;
   }
 
+  private boolean isPlacedOn(int node) {
+    if (node >= 0) {
+      for (CoreNIOServices workerComm : workerCommThreads) {
+        if (workerComm.getNode() == node) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  int getNodeCount() {
+    return placement.getNodeCount();
+  }
+
   public synchronized void start() {
     if (this.started.attemptSet()) {
       for (CoreNIOServices workerCommThread : this.workerCommThreads) {
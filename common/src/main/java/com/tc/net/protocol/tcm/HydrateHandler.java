@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -21,6 +21,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.tc.async.api.AbstractEventHandler;
+import com.tc.async.impl.PipelineTrace;
+import com.tc.async.impl.PipelineTracer;
 
 public class HydrateHandler extends AbstractEventHandler<HydrateContext> {
   private static Logger logger = LoggerFactory.getLogger(HydrateHandler.class);
@@ -40,6 +42,10 @@ public class HydrateHandler extends AbstractEventHandler<HydrateContext> {
       message.getChannel().close();
       return;
     }
+    PipelineTrace trace = PipelineTracer.current();
+    if (trace != null) {
+      trace.record("hydrate", message);
+    }
       
     hc.getDestSink().addToSink(message);
   }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@
 package com.tc.net.protocol.tcm;
 
 import com.tc.async.api.Sink;
+import com.tc.async.impl.PipelineTrace;
+import com.tc.async.impl.PipelineTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +35,10 @@ public class TCMessageHydrateSink<T> implements TCMessageSink {
   public void putMessage(TCAction message) {    
       try {
         message.hydrate();
+        PipelineTrace trace = PipelineTracer.current();
+        if (trace != null) {
+          trace.record("hydrate", message);
+        }
         this.destSink.addToSink((T)message);
       } catch (Throwable t) {
         try {
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -27,7 +27,9 @@ import com.tc.util.Assert;
 import java.net.InetSocketAddress;
 
 import java.util.Iterator;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -168,9 +170,18 @@ public class ConnectionHealthCheckerImpl implements ConnectionHealthChecker {
     // NOP
   }
 
+  /**
+   * Runs once per ping interval.  Rather than walking every connection on each run, connections sit in a timer wheel
+   * slotted by when they next need looking at:  a connection which has received data recently is not due until its
+   * receive-idle time could reach the ping idle time, while a connection already idle is looked at every interval so its
+   * probe cycle advances as before.  The work per run is proportional to the connections due on it.
+   */
   static class HealthCheckerMonitorThreadEngine implements Runnable {
-    private final ConcurrentMap<ConnectionID, MessageTransportBase> connectionMap =
+    private final ConcurrentMap<ConnectionID, Monitored> connectionMap =
         new ConcurrentHashMap<>();
+    // connections added since the last run, handed to the monitor thread which owns the wheel
+    private final Queue<Monitored>    addedConnections = new ConcurrentLinkedQueue<>();
+    private final HealthCheckerTimerWheel<Monitored> wheel;
     private final long                pingIdleTime;
     private final long                pingInterval;
     private final int                 pingProbes;
@@ -200,16 +211,20 @@ public class ConnectionHealthCheckerImpl implements ConnectionHealthChecker {
         logger.info("Disabling HealthChecker for this CommsMgr");
         throw new AssertionError("HealthChecker Config Error");
       }
-
+      // one lap of the wheel covers the longest a connection can wait between looks
+      this.wheel = new HealthCheckerTimerWheel<>((int) Math.min(1 << 16, ticksUntil(pingIdleTime) + 1));
     }
 
     private void addConnection(MessageTransport transport) {
       MessageTransportBase mtb = (MessageTransportBase) transport;
       mtb.setHealthCheckerContext(getHealthCheckerContext(mtb, config, connectionManager));
-      connectionMap.put(transport.getConnectionID(), mtb);
+      Monitored monitored = new Monitored(mtb);
+      connectionMap.put(transport.getConnectionID(), monitored);
+      addedConnections.add(monitored);
     }
 
     private boolean removeConnection(MessageTransport transport) {
+      // the wheel drops the connection the next time it comes due
       return (connectionMap.remove(transport.getConnectionID())) != null;
     }
 
@@ -225,42 +240,17 @@ public class ConnectionHealthCheckerImpl implements ConnectionHealthChecker {
       final boolean canCheckTime = canCheckTime();
 
       if (reachable.get()) {
-        Iterator<MessageTransportBase> connectionIterator = connectionMap.values().iterator();
-        while (connectionIterator.hasNext()) {
-          MessageTransportBase mtb = connectionIterator.next();
-
-          TCConnection conn = mtb.getConnection();
-          if (conn == null || !mtb.isConnected()) {
-            logger.info("[" + (conn == null ? null : conn.getRemoteAddress().toString())
-                        + "] is not connected. Health Monitoring for this node is now disabled.");
-            connectionIterator.remove();
-            continue;
-          }
-
-          if (mtb.getReceiveLayer() == null) {
-            logger.info("[" + (conn == null ? null : conn.getRemoteAddress().toString())
-                        + "] is no longer referenced.  Closing the connection");
-            mtb.disconnect();
-            connectionIterator.remove();
-            continue;
-          }
+        Monitored added = addedConnections.poll();
+        while (added != null) {
+          check(added);
+          added = addedConnections.poll();
+        }
+        wheel.advance(this::check);
 
-          ConnectionHealthCheckerContext connContext = mtb.getHealthCheckerContext();
-          if ((conn.getIdleReceiveTime() >= this.pingIdleTime)) {
-
-            if (!connContext.probeIfAlive()) {
-              // Connection is dead. Disconnect the transport.
-              logger.error("Declared connection dead " + mtb.getConnectionID() + " idle time "
-                           + conn.getIdleReceiveTime() + "ms");
-              mtb.disconnect();
-              connectionIterator.remove();
-            }
-          } else {
-            connContext.refresh();
-          }
-          // is there any significant time difference between hosts ?
-          if (canCheckTime) {
-            connContext.checkTime();
+        // is there any significant time difference between hosts ?
+        if (canCheckTime) {
+          for (Monitored monitored : connectionMap.values()) {
+            monitored.transport.getHealthCheckerContext().checkTime();
           }
         }
       }
@@ -271,6 +261,54 @@ public class ConnectionHealthCheckerImpl implements ConnectionHealthChecker {
       }
     }
 
+    private void check(Monitored monitored) {
+      MessageTransportBase mtb = monitored.transport;
+      ConnectionID id = mtb.getConnectionID();
+      if (connectionMap.get(id) != monitored) {
+        // removed, or replaced by a newer registration of the same connection
+        return;
+      }
+
+      TCConnection conn = mtb.getConnection();
+      if (conn == null || !mtb.isConnected()) {
+        logger.info("[" + (conn == null ? null : conn.getRemoteAddress().toString())
+                    + "] is not connected. Health Monitoring for this node is now disabled.");
+        connectionMap.remove(id, monitored);
+        return;
+      }
+
+      if (mtb.getReceiveLayer() == null) {
+        logger.info("[" + (conn == null ? null : conn.getRemoteAddress().toString())
+                    + "] is no longer referenced.  Closing the connection");
+        mtb.disconnect();
+        connectionMap.remove(id, monitored);
+        return;
+      }
+
+      ConnectionHealthCheckerContext connContext = mtb.getHealthCheckerContext();
+      long idle = conn.getIdleReceiveTime();
+      if (idle >= this.pingIdleTime) {
+        if (!connContext.probeIfAlive()) {
+          // Connection is dead. Disconnect the transport.
+          logger.error("Declared connection dead " + id + " idle time "
+                       + conn.getIdleReceiveTime() + "ms");
+          mtb.disconnect();
+          connectionMap.remove(id, monitored);
+          return;
+        }
+        // probing, look again next interval
+        wheel.schedule(monitored, 1);
+      } else {
+        connContext.refresh();
+        // nothing to do until the connection could have been idle for the ping idle time
+        wheel.schedule(monitored, ticksUntil(this.pingIdleTime - idle));
+      }
+    }
+
+    private long ticksUntil(long millis) {
+      return Math.max(1, (millis + pingInterval - 1) / pingInterval);
+    }
+
     boolean canCheckTime() {
       return config.isCheckTimeEnabled() &&
              (System.currentTimeMillis() - this.lastCheckTime.get() >= this.checkTimeInterval);
@@ -282,16 +320,24 @@ public class ConnectionHealthCheckerImpl implements ConnectionHealthChecker {
     }
 
     long getTotalProbesSentOnAllConnections() {
-      Iterator<MessageTransportBase> connIterator = connectionMap.values().iterator();
+      Iterator<Monitored> connIterator = connectionMap.values().iterator();
       long totalProbeSent = 0;
       while (connIterator.hasNext()) {
-        MessageTransportBase mtb = connIterator.next();
+        MessageTransportBase mtb = connIterator.next().transport;
         ConnectionHealthCheckerContextImpl connContext = (ConnectionHealthCheckerContextImpl) mtb
             .getHealthCheckerContext();
         totalProbeSent += connContext.getTotalProbesSent();
       }
       return totalProbeSent;
     }
+
+    private static class Monitored {
+      private final MessageTransportBase transport;
+
+      Monitored(MessageTransportBase transport) {
+        this.transport = transport;
+      }
+    }
   }
 
   /* For testing only */
@@ -0,0 +1,95 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.net.protocol.transport;
+
+import com.tc.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timer wheel counted in ticks.  Items are hashed into the slot of the tick they are due on, so advancing the
+ * wheel by one tick only visits the items in a single slot instead of everything being timed.  Items due more than a lap
+ * away wait out the extra laps in their slot.
+ * <p>
+ * Not thread safe, the owner advances the wheel and schedules items from a single thread.
+ */
+class HealthCheckerTimerWheel<T> {
+  private final ArrayDeque<Timeout<T>>[] slots;
+  private final int mask;
+  private long tick;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  HealthCheckerTimerWheel(int minimumSlots) {
+    Assert.assertTrue(minimumSlots > 0);
+    int length = Integer.highestOneBit(minimumSlots);
+    if (length < minimumSlots) {
+      length <<= 1;
+    }
+    this.slots = new ArrayDeque[length];
+    for (int x = 0; x < length; x++) {
+      this.slots[x] = new ArrayDeque<>();
+    }
+    this.mask = length - 1;
+  }
+
+  /**
+   * Schedules the item to be handed out after the wheel has advanced the given number of ticks.
+   */
+  void schedule(T item, long ticks) {
+    Assert.assertTrue(ticks > 0);
+    long deadline = tick + ticks;
+    slots[(int) (deadline & mask)].add(new Timeout<>(item, (ticks - 1) / slots.length));
+    size += 1;
+  }
+
+  /**
+   * Moves the wheel on by one tick and hands every item now due to the consumer.  The consumer may schedule items again.
+   */
+  void advance(Consumer<T> due) {
+    tick += 1;
+    ArrayDeque<Timeout<T>> slot = slots[(int) (tick & mask)];
+    // only visit what was in the slot on arrival, anything put back during the pass goes on the tail
+    int count = slot.size();
+    for (int x = 0; x < count; x++) {
+      Timeout<T> timeout = slot.poll();
+      if (timeout.rounds == 0) {
+        size -= 1;
+        due.accept(timeout.item);
+      } else {
+        timeout.rounds -= 1;
+        slot.add(timeout);
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  private static class Timeout<T> {
+    private final T item;
+    private long rounds;
+
+    Timeout(T item, long rounds) {
+      this.item = item;
+      this.rounds = rounds;
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -31,4 +31,18 @@ public interface ClientHandshakeCallback {
   public void initializeHandshake(ClientHandshakeMessage handshakeMessage);
 
   public void shutdown();
+
+  /**
+   * The server granted this client a window of invokes, and of invoke payload bytes, it may have
+   * in flight.  Zero messages means the server does not limit the client.
+   */
+  public default void grantCredits(int messages, long bytes) {
+  }
+
+  /**
+   * The server answered whether it accepts the invokes of an invokeAll as one batched message.
+   * Told on every handshake, a failover may land on a server which does not.
+   */
+  public default void acceptBatchedInvokes(boolean accepted) {
+  }
 }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -32,6 +32,11 @@ import java.util.Set;
  */
 public interface DSOChannelManager {
 
+  /**
+   * Channel attachment set when the client asked for batched invokes in its handshake
+   */
+  public static final String BATCHED_INVOKES_ATTACHMENT = "BatchedInvokes";
+
   public void closeAll(Collection<? extends NodeID> clientIDs);
 
   public MessageChannel getActiveChannel(NodeID id) throws NoSuchChannelException;
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -61,6 +61,8 @@ public class DSOChannelManagerImpl implements DSOChannelManager, DSOChannelManag
 
   private final ChannelManager       genericChannelManager;
   private final String               serverVersion;
+  private volatile int               creditMessages;
+  private volatile long              creditBytes;
 
   public DSOChannelManagerImpl(ChannelManager genericChannelManager, String serverVersion) {
     this.genericChannelManager = genericChannelManager;
@@ -68,6 +70,14 @@ public class DSOChannelManagerImpl implements DSOChannelManager, DSOChannelManag
     this.serverVersion = serverVersion;
   }
 
+  /**
+   * Sets the invoke window advertised to clients in the handshake ack, 0 messages sends no grant.
+   */
+  public void setClientCredits(int messages, long bytes) {
+    this.creditMessages = messages;
+    this.creditBytes = bytes;
+  }
+
   @Override
   public MessageChannel getActiveChannel(NodeID id) throws NoSuchChannelException {
     final MessageChannel rv = activeChannels.get(id);
@@ -134,6 +144,8 @@ public class DSOChannelManagerImpl implements DSOChannelManager, DSOChannelManag
       synchronized (activeChannels) {
         activeChannels.put(clientID, channel);
         ackMsg.initialize(getAllActiveClientIDs(), clientID, serverVersion);
+        ackMsg.setCredits(creditMessages, creditBytes);
+        ackMsg.setBatchedInvokes(channel.getAttachment(BATCHED_INVOKES_ATTACHMENT) != null);
         if (ackMsg.send() == null) {
           logger.warn("Not sending handshake message to disconnected client: " + clientID);
         }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -43,6 +43,25 @@ public interface TCPropertiesConsts {
    *                                      seda stage
    * stage.sink.capacity                : Capacity of seda stage queue, Integer.MAX_VALUE if not set
    *                                      (experimental, do not change)
+   * stage.adapt.interval               : Milliseconds between resizing the active lanes of stages with
+   *                                      seda.<stage>.adaptive set
+   * seda.<stage>.adaptive              : Run a multi-threaded stage on as few of its lanes as its load
+   *                                      needs, keyed events included (formatted with the stage name)
+   * seda.<stage>.minLanes              : Lanes an adaptive stage keeps active, 1 if not set
+   * cpu.placement.enabled              : Bind comm worker threads, and the lanes of stages with
+   *                                      seda.<stage>.placement set, to the nodes reported by the
+   *                                      installed CpuAffinityProvider.  None ships with the server,
+   *                                      without one on the classpath this does nothing
+   * stage.direct.lanes                 : Run invokes on the handing off thread while their lane of a
+   *                                      multi-threaded stage is idle, with any number of clients,
+   *                                      off by default
+   * stage.voltron.credits              : Invokes each client may have in flight before waiting for
+   *                                      retirements, the server holds back messages of a client past
+   *                                      its grant, 0 leaves clients unbounded
+   * stage.voltron.credits.bytes        : Invoke payload bytes each client may have in flight, 0 for
+   *                                      no byte limit
+   * trace.sample                       : Trace one in this many requests through the stages and
+   *                                      export the trace points to JFR, 0 turns tracing off
    * </code>
    ********************************************************************************************************************/
   public static final String ENTITY_PROCESSOR_THREADS                                    = "server.entity.processor.threads";
@@ -53,6 +72,14 @@ public interface TCPropertiesConsts {
   public static final String L2_SEDA_STAGE_USE_BACKOFF                                    = "l2.seda.stage.voltron.backoff";
   public static final String L2_SEDA_STAGE_STALL_WARNING                                    = "l2.seda.stage.stall.warning";
   public static final String L2_SEDA_STAGE_ALWAYS_HYDRATE                                    = "l2.seda.stage.always.hydrate";
+  public static final String L2_SEDA_STAGE_ADAPT_INTERVAL                                    = "l2.seda.stage.adapt.interval";
+  public static final String SEDA_STAGE_ADAPTIVE                                    = "seda.%s.adaptive";
+  public static final String SEDA_STAGE_MIN_LANES                                    = "seda.%s.minLanes";
+  public static final String L2_CPU_PLACEMENT_ENABLED                                    = "l2.cpu.placement.enabled";
+  public static final String L2_SEDA_STAGE_DIRECT_LANES                                    = "l2.seda.stage.direct.lanes";
+  public static final String L2_SEDA_STAGE_VOLTRON_CREDITS                                    = "l2.seda.stage.voltron.credits";
+  public static final String L2_SEDA_STAGE_VOLTRON_CREDIT_BYTES                                    = "l2.seda.stage.voltron.credits.bytes";
+  public static final String L2_SEDA_TRACE_SAMPLE                                    = "l2.seda.trace.sample";
   public static final String L2_TCCOM_WORKERTHREADS                                                          = "l2.tccom.workerthreads";
   public static final String L2_SEDA_STAGE_WORKERTHREADS                                                     = "l2.seda.stage.workerthreads";
 
@@ -75,6 +102,36 @@ public interface TCPropertiesConsts {
   public static final String L2_NHA_DIRTYDB_AUTODELETE                                      = "l2.nha.dirtydb.autoDelete";
   public static final String L2_NHA_AUTORESTART                                             = "l2.nha.autoRestart";
 
+  /*********************************************************************************************************************
+   * <code>
+   * Section : Passive Sync
+   * Description : Synchronization of a new passive by the active
+   * active-passive.sync.window   - Sync messages sent to a passive ahead of its acknowledgements, 0 waits for
+   *                                each message
+   * active-passive.sync.entities - Entities synced to a passive at the same time, the concurrency keys of each
+   *                                entity sync at the same time too.  Passives that do not ask for an
+   *                                interleaved sync are synced one entity and key at a time
+   * </code>
+   ********************************************************************************************************************/
+  public static final String ACTIVE_PASSIVE_SYNC_WINDOW                                     = "active-passive.sync.window";
+  public static final String ACTIVE_PASSIVE_SYNC_ENTITIES                                   = "active-passive.sync.entities";
+
+  /*********************************************************************************************************************
+   * <code>
+   * Section : Replication
+   * Description : Replication of activities from the active to its passives
+   * active-passive.encodeonce           - Serialize each replicated activity once for all of the passives
+   * passive-active.cumulative           - Acknowledge replicated activities with cumulative watermarks.  Offered by
+   *                                       the passive when it asks for sync and only used when the active accepts,
+   *                                       otherwise activities are acknowledged one by one
+   * passive-active.cumulative.pending   - Activities a passive tracks for the watermarks before it goes back to
+   *                                       acknowledging activities one by one
+   * </code>
+   ********************************************************************************************************************/
+  public static final String ACTIVE_PASSIVE_ENCODEONCE                                      = "active-passive.encodeonce";
+  public static final String PASSIVE_ACTIVE_CUMULATIVE                                      = "passive-active.cumulative";
+  public static final String PASSIVE_ACTIVE_CUMULATIVE_PENDING                              = "passive-active.cumulative.pending";
+
   /*********************************************************************************************************************
    * <code>
    * Section : Misc L2 Properties
@@ -83,10 +140,27 @@ public interface TCPropertiesConsts {
    *                                 instance in a cluster with no passives present
    * startuplock.retries.enabled   : If true then L2s will try to lock indefinitely on the data
    *                                 directory while starting up
+   * entity.promotion.threads      : Threads promoting entities of the same type in parallel when a
+   *                                 server becomes active, 1 (the default) promotes them one at a time.
+   *                                 Only raise it when every deployed entity type tolerates it: the
+   *                                 server code of a type must be thread-safe across instances and no
+   *                                 instance may depend on another instance of its own type during
+   *                                 promotion.  Entities of different types are never promoted together
+   * plugin.index                  : File keeping the results of plugin discovery so a restart with
+   *                                 unchanged plugin jars skips scanning them
+   * cds.archive                   : File the server writes a class data sharing archive to once it
+   *                                 has started, for use with -XX:SharedArchiveFile on later starts
+   * platform.storage              : Directory the server keeps its platform state in, journaled, when
+   *                                 no IPlatformPersistence service is configured.  Unset keeps it in
+   *                                 memory
    * </code>
    ********************************************************************************************************************/
   public static final String PLUGIN_CLASSLOADER_COMPATIBILITY                               = "server.classloader.compatibility";
   public static final String ENTITY_DEFERMENT_QUEUE_SIZE                                    = "server.entity.deferment.queue.size";
+  public static final String ENTITY_PROMOTION_THREADS                                       = "server.entity.promotion.threads";
+  public static final String PLUGIN_INDEX                                                   = "server.plugin.index";
+  public static final String SERVER_CDS_ARCHIVE                                             = "server.cds.archive";
+  public static final String SERVER_PLATFORM_STORAGE                                        = "server.platform.storage";
   
   /*********************************************************************************************************************
    * <code>
@@ -122,6 +196,18 @@ public interface TCPropertiesConsts {
   public static final String L1_SOCKET_RECONNECT_WAIT_INTERVAL                              = "l1.socket.reconnect.waitInterval";
   public static final String L2_L1REDIRECT_ENABLED                                          = "l2.l1redirect.enabled";
 
+  /*********************************************************************************************************************
+   * <code>
+   * Section: L1 Entity Properties
+   * entity.inflight.window            - Most invocations an entity endpoint has in flight before invoking waits
+   *                                     for one to retire (0 for no limit)
+   * entity.invoke.batching            - Send the invokes of an invokeAll as one network message, asked for in the
+   *                                     handshake and only done once the server accepts it
+   * </code>
+   ********************************************************************************************************************/
+  public static final String L1_ENTITY_INFLIGHT_WINDOW                                      = "l1.entity.inflight.window";
+  public static final String L1_ENTITY_INVOKE_BATCHING                                      = "l1.entity.invoke.batching";
+
   /*********************************************************************************************************************
    * <code>
    * Section : Common Logging properties for both L1 and L2
@@ -144,6 +230,7 @@ public interface TCPropertiesConsts {
    * bytebuffer.pooling.enabled           : Enable/disable tc byte buffer pooling
    * bytebuffer.common.pool.maxcount      : Max size of pool for tc byte buffer
    * bytebuffer.threadlocal.pool.maxcount : Thread pool size
+   * bytebuffer.direct.pool.max           : long            - Bytes of direct memory the shared buffer pool may hold
    * </code>
    ********************************************************************************************************************/
   
@@ -155,6 +242,7 @@ public interface TCPropertiesConsts {
   public static final String TC_MESSAGE_GROUPING_MAXSIZE_KB                                 = "tc.messages.grouping.maxSizeKiloBytes";
   public static final String TC_MESSAGE_GROUPING_MAX_COUNT                                  = "tc.messages.grouping.maxCount";
   public static final String TC_MESSAGE_PACKUP_ENABLED                                      = "tc.messages.packup.enabled";
+  public static final String BYTEBUFFER_DIRECT_POOL_MAX                                     = "bytebuffer.direct.pool.max";
 
   /*********************************************************************************************************************
    * <code>
@@ -253,11 +341,19 @@ public interface TCPropertiesConsts {
    * <code>
    * l2.dump.on.exception.timeout - After get an uncaught exception, the server takes a dump. If the dump doesn't
    * happen within this timeout the server will exit (in seconds).
+   * l2.election.early - End a failover election as soon as every server connected to the group has
+   * voted, rather than waiting out the election timeout for configured servers which are down.
+   * l2.election.quorum - End a failover election as soon as this many servers, counting this one,
+   * have voted.  0 waits for the votes of all configured servers or the election timeout.
+   * Neither applies to elections at startup, and neither ends an election before a majority of the
+   * configured servers has voted, a smaller quorum is raised to the majority.
    * </code>
    ********************************************************************************************************************/
   public static final String L2_DUMP_ON_EXCEPTION_TIMEOUT                                   = "l2.dump.on.exception.timeout";
   public static final String L2_LOGS_STORE                                                  = "l2.logs.store";
   public static final String L2_ELECTION_TIMEOUT                                            = "l2.election.timeout";
+  public static final String L2_ELECTION_EARLY                                              = "l2.election.early";
+  public static final String L2_ELECTION_QUORUM                                             = "l2.election.quorum";
   public static final String L2_CLASSLOADER_COMPATIBILITY                                   = "l2.classloader.compatibility";
 
   /*********************************************************************************************************************
@@ -293,6 +389,17 @@ public interface TCPropertiesConsts {
       L2_SEDA_STAGE_SINGLE_THREAD,
       L2_SEDA_STAGE_STALL_WARNING,
       L2_SEDA_STAGE_ALWAYS_HYDRATE,
+      L2_SEDA_STAGE_ADAPT_INTERVAL,
+      SEDA_STAGE_ADAPTIVE,
+      SEDA_STAGE_MIN_LANES,
+      L2_CPU_PLACEMENT_ENABLED,
+      L2_SEDA_STAGE_DIRECT_LANES,
+      L2_SEDA_STAGE_VOLTRON_CREDITS,
+      L2_SEDA_STAGE_VOLTRON_CREDIT_BYTES,
+      L2_SEDA_TRACE_SAMPLE,
+      PLUGIN_INDEX,
+      SERVER_CDS_ARCHIVE,
+      SERVER_PLATFORM_STORAGE,
       L2_NHA_TCGROUPCOMM_RECONNECT_L2PROXY_TO_PORT,
   };
 
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -20,7 +20,6 @@ package com.tc.util;
 import com.tc.classloader.OverrideService;
 import com.tc.classloader.OverrideServiceType;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.lang.reflect.InvocationTargetException;
@@ -32,6 +31,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.Charset;
 import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -90,85 +90,57 @@ public class ManagedServiceLoader implements TCServiceLoader.Provider {
    */
   protected Collection<Class<?>> discoverImplementations(String interfaceName, ClassLoader loader) {
     try {
-      Set<String> processed = new HashSet<>();
       HashMap<String, ClassWithLocation> urls = new HashMap<>();
       HashMap<String, String> overrides = new HashMap<>();
-      Enumeration<URL> urlEnumeration = loader.getResources(
-          METAINFCONST + interfaceName);
-      StringBuilder sb = new StringBuilder();
-      while (urlEnumeration.hasMoreElements()) {
-        URL x = urlEnumeration.nextElement();
-        String urlString = parseURLString(x, interfaceName);
-        if (!processed.add(urlString)) {
-          LOG.debug("already processed " + urlString);
-          continue;
-        } else {
-          LOG.debug("reading " + urlString + " for " + interfaceName);
-        }
-        InputStream s = x.openStream();
-        LineNumberReader reader = new LineNumberReader(new InputStreamReader(s, Charset.forName("UTF-8")));
-        String split = reader.readLine();
-        while (split != null) {
-          LOG.debug(reader.getLineNumber() + ":processing " + split);
-          String[] trim = split.trim().split("\\#");
-          split = reader.readLine();
-          for (int c=0;c<trim.length;c++) {
-            trim[c] = trim[c].trim();
-          }
-          if(trim.length == 0 || trim[0].isEmpty()) {
-            continue;
-          }
+      for (ServiceEntry entry : findServiceEntries(interfaceName, loader)) {
+        String name = entry.getClassName();
+        String urlString = entry.getLocation();
   //  make sure the class is loadable         
-          Class<?> type = loadClass(trim[0], urlString, loader);          
-          if (type != null) {
-            //  overrides in the manifest
-            if (trim.length > 1) {
-              String[] overridesClasses = checkForOverride(trim[1]);
-              for (String override : overridesClasses) {
-                LOG.debug("overriding class " + override + " with " + trim[0]);
-                urls.remove(override);
-                overrides.put(override, trim[0]);
+        Class<?> type = loadClass(name, urlString, loader);          
+        if (type != null) {
+          //  overrides in the manifest
+          for (String override : entry.getOverrides()) {
+            LOG.debug("overriding class " + override + " with " + name);
+            urls.remove(override);
+            overrides.put(override, name);
+          }
+          // overrides based on OverrideServices
+          if (type.isAnnotationPresent(OverrideService.class)) {
+            for (OverrideService override : type.getAnnotationsByType(OverrideService.class)) {
+              LOG.debug("overriding class " + override.value() + " with annotation on " + name);
+              String value = override.value();
+              String[] types = override.types();
+              if (value != null && value.length() > 0) {
+                urls.remove(value);
+                overrides.put(value, name);
               }
-            }
-            // overrides based on OverrideServices
-            if (type.isAnnotationPresent(OverrideService.class)) {
-              for (OverrideService override : type.getAnnotationsByType(OverrideService.class)) {
-                LOG.debug("overriding class " + override.value() + " with annotation on " + trim[0]);
-                String value = override.value();
-                String[] types = override.types();
-                if (value != null && value.length() > 0) {
-                  urls.remove(value);
-                  overrides.put(value, trim[0]);
-                }
-                for (String typeName : types) {
-                  urls.remove(typeName);
-                  overrides.put(typeName, trim[0]);
-                }
+              for (String typeName : types) {
+                urls.remove(typeName);
+                overrides.put(typeName, name);
               }
             }
-            // overrides based on OverrideServiceTypes
-            if (type.isAnnotationPresent(OverrideServiceType.class)) {
-              for (OverrideServiceType override : type.getAnnotationsByType(OverrideServiceType.class)) {
-                LOG.debug("overriding class " + override.value() + " with annotation on " + trim[0]);
-                Class<?> value = override.value();
-                if (value != null) {
-                  urls.remove(value.getName());
-                  overrides.put(value.getName(), trim[0]);
-                }
+          }
+          // overrides based on OverrideServiceTypes
+          if (type.isAnnotationPresent(OverrideServiceType.class)) {
+            for (OverrideServiceType override : type.getAnnotationsByType(OverrideServiceType.class)) {
+              LOG.debug("overriding class " + override.value() + " with annotation on " + name);
+              Class<?> value = override.value();
+              if (value != null) {
+                urls.remove(value.getName());
+                overrides.put(value.getName(), name);
               }
             }
-            // only add the service if it is not part of the override graph
-            if (!overrides.containsKey(trim[0])) {
-              ClassWithLocation previous = urls.putIfAbsent(trim[0], new ClassWithLocation(type, urlString));
-              if (previous != null) {
-                LOG.info("MULTIPLE instances of " + trim[0] + " found, ignoring:" + urlString + " keeping:" + previous.location + " using classloader:" + type.getClassLoader());
-              }
+          }
+          // only add the service if it is not part of the override graph
+          if (!overrides.containsKey(name)) {
+            ClassWithLocation previous = urls.putIfAbsent(name, new ClassWithLocation(type, urlString));
+            if (previous != null) {
+              LOG.info("MULTIPLE instances of " + name + " found, ignoring:" + urlString + " keeping:" + previous.location + " using classloader:" + type.getClassLoader());
             }
-          } else {
-            LOG.info(trim[0] + " is not loadable from " + urlString + " skipping");
           }
+        } else {
+          LOG.info(name + " is not loadable from " + urlString + " skipping");
         }
-        sb.setLength(0);
       }
       if(LOG.isDebugEnabled()) {
         LOG.debug("implementations:" + urls.toString());
@@ -181,6 +153,46 @@ public class ManagedServiceLoader implements TCServiceLoader.Provider {
     }
     return null;
   }
+
+  /**
+   * Reads the service files of an interface without loading any of the implementations
+   *
+   * @param interfaceName service interface name to be queried
+   * @param loader        classloader used to discover the resources
+   * @return the implementations named in the service files, in the order the loader finds them
+   */
+  protected List<ServiceEntry> findServiceEntries(String interfaceName, ClassLoader loader) throws IOException {
+    Set<String> processed = new HashSet<>();
+    List<ServiceEntry> entries = new ArrayList<>();
+    Enumeration<URL> urlEnumeration = loader.getResources(
+        METAINFCONST + interfaceName);
+    while (urlEnumeration.hasMoreElements()) {
+      URL x = urlEnumeration.nextElement();
+      String urlString = parseURLString(x, interfaceName);
+      if (!processed.add(urlString)) {
+        LOG.debug("already processed " + urlString);
+        continue;
+      } else {
+        LOG.debug("reading " + urlString + " for " + interfaceName);
+      }
+      try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(x.openStream(), Charset.forName("UTF-8")))) {
+        String split = reader.readLine();
+        while (split != null) {
+          LOG.debug(reader.getLineNumber() + ":processing " + split);
+          String[] trim = split.trim().split("\\#");
+          split = reader.readLine();
+          for (int c=0;c<trim.length;c++) {
+            trim[c] = trim[c].trim();
+          }
+          if(trim.length == 0 || trim[0].isEmpty()) {
+            continue;
+          }
+          entries.add(new ServiceEntry(trim[0], urlString, trim.length > 1 ? checkForOverride(trim[1]) : new String[0]));
+        }
+      }
+    }
+    return entries;
+  }
   
   private static String parseURLString(URL src, String interfaceName) {
     String urlString = src.toExternalForm();
@@ -268,6 +280,34 @@ public class ManagedServiceLoader implements TCServiceLoader.Provider {
     return null;
   }
   
+  /**
+   * An implementation named in a service file, the location it is loaded from and the
+   * implementations it overrides
+   */
+  public static final class ServiceEntry {
+    private final String className;
+    private final String location;
+    private final String[] overrides;
+
+    public ServiceEntry(String className, String location, String[] overrides) {
+      this.className = className;
+      this.location = location;
+      this.overrides = overrides;
+    }
+
+    public String getClassName() {
+      return className;
+    }
+
+    public String getLocation() {
+      return location;
+    }
+
+    public String[] getOverrides() {
+      return overrides;
+    }
+  }
+
   private static class ClassWithLocation {
     private final Class<?> impl;
     private final String location;
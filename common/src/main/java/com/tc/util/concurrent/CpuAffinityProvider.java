@@ -0,0 +1,39 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.util.concurrent;
+
+/**
+ * Binds threads to the CPUs of a node, usually a socket.  The JVM has no portable way to do this so
+ * implementations are supplied as services, typically wrapping a native library, and found through
+ * {@link com.tc.util.TCServiceLoader}.  The server does not ship one; without one on the classpath
+ * {@link CpuPlacement} places nothing and {@code l2.cpu.placement.enabled} has no effect.
+ */
+public interface CpuAffinityProvider {
+  /**
+   * @return the number of nodes threads can be placed on
+   */
+  int getNodeCount();
+
+  /**
+   * Restricts the calling thread to the CPUs of the node.
+   *
+   * @param node between zero and {@link #getNodeCount()} exclusive
+   * @return false if the thread could not be bound
+   */
+  boolean bindCurrentThread(int node);
+}
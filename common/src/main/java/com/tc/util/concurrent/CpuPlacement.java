@@ -0,0 +1,131 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.util.concurrent;
+
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+import com.tc.util.TCServiceLoader;
+import java.util.Iterator;
+import java.util.function.IntConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Placement of comm threads and stage lanes on the nodes of the host.  Placement is off unless
+ * {@code l2.cpu.placement.enabled} is set and a {@link CpuAffinityProvider} reports more than one
+ * node, otherwise everything is on node zero and {@link #bind(int)} does nothing.  No provider
+ * ships with the server, so without one supplied on the server classpath the property is inert.
+ * <p>
+ * Threads handing work to placed lanes report the node of the lane they fed through
+ * {@link #fed(int)}, which is passed to whatever the thread registered with {@link #feeding}.  A
+ * comm thread registers the connection it reads from, and stages carry the registered target of
+ * the thread adding an event to the thread running it, see {@link #currentFeed()}.  So the lane
+ * an invoke finally lands on is reported to the connection it was read from, however many stages
+ * it passed through.  This is how a comm thread learns which node the requests of a connection
+ * end up on.
+ */
+public final class CpuPlacement {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CpuPlacement.class);
+  private static final CpuPlacement NONE = new CpuPlacement(null);
+  private static final ThreadLocal<IntConsumer> FEED = new ThreadLocal<>();
+  private static volatile CpuPlacement placement;
+
+  private final CpuAffinityProvider provider;
+  private final int nodes;
+
+  CpuPlacement(CpuAffinityProvider provider) {
+    this.provider = provider;
+    this.nodes = provider == null ? 1 : Math.max(1, provider.getNodeCount());
+  }
+
+  public static CpuPlacement getPlacement() {
+    CpuPlacement current = placement;
+    if (current == null) {
+      synchronized (CpuPlacement.class) {
+        current = placement;
+        if (current == null) {
+          current = placement = loadPlacement();
+        }
+      }
+    }
+    return current;
+  }
+
+  private static CpuPlacement loadPlacement() {
+    if (!TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.L2_CPU_PLACEMENT_ENABLED, false)) {
+      return NONE;
+    }
+    Iterator<? extends CpuAffinityProvider> providers = TCServiceLoader.loadServices(CpuAffinityProvider.class).iterator();
+    if (!providers.hasNext()) {
+      LOGGER.warn("cpu placement is enabled but no affinity provider was found, none ships with the server so threads will not be placed");
+      return NONE;
+    }
+    CpuPlacement loaded = new CpuPlacement(providers.next());
+    LOGGER.info("placing threads on {} nodes with {}", loaded.nodes, loaded.provider.getClass().getName());
+    return loaded;
+  }
+
+  public boolean isEnabled() {
+    return nodes > 1;
+  }
+
+  public int getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Spreads {@code count} threads over the nodes in contiguous blocks.
+   */
+  public int nodeFor(int index, int count) {
+    return nodes == 1 ? 0 : (int) ((long) index * nodes / count);
+  }
+
+  /**
+   * Binds the calling thread to the node, a no-op when placement is off.
+   */
+  public void bind(int node) {
+    if (isEnabled() && !provider.bindCurrentThread(node)) {
+      LOGGER.warn("unable to bind {} to node {}", Thread.currentThread().getName(), node);
+    }
+  }
+
+  /**
+   * Registers the target of {@link #fed(int)} calls made on this thread, null to clear it.
+   */
+  public static void feeding(IntConsumer target) {
+    FEED.set(target);
+  }
+
+  /**
+   * @return the target registered on this thread, for work handed off to carry to the thread
+   *     which runs it, null if there is none
+   */
+  public static IntConsumer currentFeed() {
+    return FEED.get();
+  }
+
+  /**
+   * Reports that the calling thread handed work to a lane placed on the node.
+   */
+  public static void fed(int node) {
+    IntConsumer target = FEED.get();
+    if (target != null) {
+      target.accept(node);
+    }
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, array backed, multi-producer single-consumer blocking queue.
+ * <p>
+ * Producers claim a slot with a CAS on the tail and publish into a preallocated ring so no
+ * node is allocated per element.  Only one thread may ever remove elements (poll, take,
+ * drainTo); this matches a SEDA source queue which is drained by exactly one worker thread.
+ * Blocking waits spin briefly before parking.  The consumer is unparked by the producer that
+ * makes the queue non-empty, producers waiting on a full queue park for short intervals and
+ * re-check.
+ */
+public class MpscArrayBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+  private static final int SPINS = 256;
+  private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final AtomicReferenceArray<E> buffer;
+  private final int mask;
+  private final int capacity;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong head = new AtomicLong();
+  private volatile Thread waiter;
+
+  public MpscArrayBlockingQueue(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    int ring = Integer.highestOneBit(capacity);
+    if (ring < capacity) {
+      ring <<= 1;
+    }
+    this.buffer = new AtomicReferenceArray<>(ring);
+    this.mask = ring - 1;
+    this.capacity = capacity;
+  }
+
+  @Override
+  public boolean offer(E e) {
+    Objects.requireNonNull(e);
+    long t;
+    do {
+      t = tail.get();
+      if (t - head.get() >= capacity) {
+        return false;
+      }
+    } while (!tail.compareAndSet(t, t + 1));
+    // volatile store so the waiter read below cannot be reordered ahead of the publish
+    buffer.set((int)t & mask, e);
+    Thread w = waiter;
+    if (w != null) {
+      LockSupport.unpark(w);
+    }
+    return true;
+  }
+
+  @Override
+  public void put(E e) throws InterruptedException {
+    int spins = 0;
+    while (!offer(e)) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      if (spins++ < SPINS) {
+        Thread.onSpinWait();
+      } else {
+        LockSupport.parkNanos(this, PRODUCER_PARK_NANOS);
+      }
+    }
+  }
+
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int spins = 0;
+    while (!offer(e)) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      if (spins++ < SPINS) {
+        Thread.onSpinWait();
+      } else {
+        LockSupport.parkNanos(this, Math.min(remaining, PRODUCER_PARK_NANOS));
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public E poll() {
+    long h = head.get();
+    int index = (int)h & mask;
+    E e = buffer.get(index);
+    if (e == null) {
+      if (h == tail.get()) {
+        return null;
+      }
+      // a producer has claimed the slot but not published yet, it is about to
+      do {
+        Thread.onSpinWait();
+        e = buffer.get(index);
+      } while (e == null);
+    }
+    buffer.lazySet(index, null);
+    head.lazySet(h + 1);
+    return e;
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    return awaitElement(0, false);
+  }
+
+  @Override
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    return awaitElement(unit.toNanos(timeout), true);
+  }
+
+  private E awaitElement(long nanos, boolean timed) throws InterruptedException {
+    E e = poll();
+    for (int spin = 0; e == null && spin < SPINS; spin++) {
+      Thread.onSpinWait();
+      e = poll();
+    }
+    if (e != null) {
+      return e;
+    }
+    long deadline = System.nanoTime() + nanos;
+    waiter = Thread.currentThread();
+    try {
+      while (true) {
+        e = poll();
+        if (e != null) {
+          return e;
+        }
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        if (timed) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return null;
+          }
+          LockSupport.parkNanos(this, remaining);
+        } else {
+          LockSupport.park(this);
+        }
+      }
+    } finally {
+      waiter = null;
+    }
+  }
+
+  @Override
+  public E peek() {
+    long h;
+    while ((h = head.get()) != tail.get()) {
+      E e = buffer.get((int)h & mask);
+      if (e != null) {
+        return e;
+      }
+      Thread.onSpinWait();
+    }
+    return null;
+  }
+
+  @Override
+  public int size() {
+    // read head first so a concurrent poll can only make the answer larger, then clamp
+    long h = head.get();
+    long size = tail.get() - h;
+    return (int)Math.max(0, Math.min(size, capacity));
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return head.get() == tail.get();
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return capacity - size();
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    Objects.requireNonNull(c);
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+    int count = 0;
+    E e;
+    while (count < maxElements && (e = poll()) != null) {
+      c.add(e);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Weakly consistent snapshot of the queued elements, removal is not supported.
+   */
+  @Override
+  public Iterator<E> iterator() {
+    long h = head.get();
+    long t = tail.get();
+    List<E> snapshot = new ArrayList<>((int)Math.max(0, Math.min(t - h, capacity)));
+    for (long x = h; x < t; x++) {
+      E e = buffer.get((int)x & mask);
+      if (e != null) {
+        snapshot.add(e);
+      }
+    }
+    return Collections.unmodifiableList(snapshot).iterator();
+  }
+
+  @Override
+  public String toString() {
+    return "MpscArrayBlockingQueue{capacity=" + capacity + ", size=" + size() + '}';
+  }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -20,14 +20,46 @@ package com.tc.util.concurrent;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import com.tc.async.impl.Event;
+import com.tc.properties.TCPropertiesImpl;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class QueueFactory {
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueueFactory.class);
+  /**
+   * {@code seda.<stage>.queue} value selecting the bounded lock-free ring for a stage
+   */
+  public static final String MPSC_QUEUE = "mpsc";
+  private static final int DEFAULT_MPSC_CAPACITY = 16 * 1024;
+
   public <E> BlockingQueue<Event> createInstance(Class<E> type, int capacity) {
-    return (capacity == 0) ? new SynchronousQueue<>() : 
+    return (capacity == 0) ? new SynchronousQueue<>() :
             (capacity == Integer.MAX_VALUE || capacity < 0) ? new LinkedBlockingQueue<>() :
             (capacity <= 1024) ? new ArrayBlockingQueue<>(capacity) :
             new LinkedBlockingQueue<>(capacity);
   }
+
+  /**
+   * Creates a source queue for the named stage.  Setting {@code seda.<stage>.queue=mpsc} selects
+   * a {@link MpscArrayBlockingQueue}; the queue must only be drained by a single thread, which
+   * holds for every stage queue.  The ring is always bounded, stages without a capacity use
+   * {@code seda.<stage>.queue.capacity} (default 16384).
+   */
+  public <E> BlockingQueue<Event> createInstance(String stage, Class<E> type, int capacity) {
+    String queue = TCPropertiesImpl.getProperties().getProperty("seda." + stage + ".queue", true);
+    if (queue == null || capacity == 0) {
+      return createInstance(type, capacity);
+    } else if (MPSC_QUEUE.equalsIgnoreCase(queue.trim())) {
+      if (capacity == Integer.MAX_VALUE || capacity < 0) {
+        capacity = TCPropertiesImpl.getProperties().getInt("seda." + stage + ".queue.capacity", DEFAULT_MPSC_CAPACITY);
+      }
+      LOGGER.info("using mpsc queue of capacity {} for stage {}", capacity, stage);
+      return new MpscArrayBlockingQueue<>(capacity);
+    } else {
+      LOGGER.warn("unknown queue type {} for stage {}, using the default queue", queue, stage);
+      return createInstance(type, capacity);
+    }
+  }
 }
@@ -0,0 +1,59 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.util.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Access to virtual threads without requiring them at compile time.  On a JVM without
+ * virtual threads (or with them behind a preview flag) {@link #isSupported()} is false
+ * and {@link #factory()} returns null so callers can fall back to platform threads.
+ */
+public final class VirtualThreads {
+  private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+  private static final ThreadFactory FACTORY = lookupFactory();
+
+  private VirtualThreads() {
+  }
+
+  public static boolean isSupported() {
+    return FACTORY != null;
+  }
+
+  /**
+   * @return a factory of unstarted virtual threads, null if virtual threads are not available
+   */
+  public static ThreadFactory factory() {
+    return FACTORY;
+  }
+
+  private static ThreadFactory lookupFactory() {
+    try {
+      Method ofVirtual = Thread.class.getMethod("ofVirtual");
+      Object builder = ofVirtual.invoke(null);
+      Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+      return (ThreadFactory)factory.invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOGGER.debug("virtual threads are not available", e);
+      return null;
+    }
+  }
+}
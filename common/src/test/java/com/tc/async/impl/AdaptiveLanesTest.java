@@ -0,0 +1,120 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.async.impl;
+
+import com.tc.async.api.MultiThreadedEventContext;
+import com.tc.logging.DefaultLoggerProvider;
+import com.tc.util.concurrent.QueueFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveLanesTest {
+
+  @Test
+  public void testShrinksWhenIdle() {
+    AdaptiveLanes lanes = new AdaptiveLanes(1, 4);
+    long[] run = new long[4];
+    long[] idle = new long[4];
+    assertEquals(4, lanes.sample(4, run, idle, 0, false));
+    advance(run, idle, 1, 99);
+    assertEquals(3, lanes.sample(4, run, idle, 0, false));
+    advance(run, idle, 1, 99);
+    assertEquals(2, lanes.sample(3, run, idle, 0, false));
+    advance(run, idle, 1, 99);
+    assertEquals(1, lanes.sample(2, run, idle, 0, false));
+    advance(run, idle, 1, 99);
+    // never below the minimum
+    assertEquals(1, lanes.sample(1, run, idle, 0, false));
+  }
+
+  @Test
+  public void testGrowsWhenBusyBackedUpOrStalled() {
+    AdaptiveLanes lanes = new AdaptiveLanes(1, 8);
+    long[] run = new long[8];
+    long[] idle = new long[8];
+    lanes.sample(1, run, idle, 0, false);
+    advance(run, idle, 90, 10);
+    assertEquals(2, lanes.sample(1, run, idle, 0, false));
+    advance(run, idle, 10, 90);
+    assertEquals(4, lanes.sample(2, run, idle, 3, false));
+    advance(run, idle, 10, 90);
+    assertEquals(8, lanes.sample(4, run, idle, 0, true));
+    advance(run, idle, 90, 10);
+    // never above the maximum
+    assertEquals(8, lanes.sample(8, run, idle, 100, true));
+  }
+
+  @Test
+  public void testHoldsWhenRemainingLanesWouldBeBusy() {
+    AdaptiveLanes lanes = new AdaptiveLanes(1, 4);
+    long[] run = new long[4];
+    long[] idle = new long[4];
+    lanes.sample(2, run, idle, 0, false);
+    advance(run, idle, 50, 50);
+    assertEquals(2, lanes.sample(2, run, idle, 0, false));
+  }
+
+  @Test
+  public void testEventsStayOnActiveQueues() throws Exception {
+    MultiStageQueueImpl<MultiThreadedEventContext> queue = new MultiStageQueueImpl<>(4, new QueueFactory(),
+        MultiThreadedEventContext.class, (event)->()->{}, new DefaultLoggerProvider(), "adaptive", 100);
+    queue.setAdaptiveSources(true);
+    queue.setActiveSources(2);
+    assertEquals(2, queue.getActiveSources());
+    // the change queues nothing
+    for (int x = 0; x < 4; x++) {
+      assertEquals(0, queue.getSources()[x].size());
+    }
+    for (int x = 0; x < 10; x++) {
+      queue.addToSink(context(null));
+    }
+    assertEquals(0, queue.getSources()[2].size() + queue.getSources()[3].size());
+    assertEquals(10, queue.getSources()[0].size() + queue.getSources()[1].size());
+    // keyed events hash over the active queues as well
+    int onThree = queue.getSources()[3].size();
+    int onOne = queue.getSources()[1].size();
+    queue.addToSink(context(3));
+    assertEquals(onThree, queue.getSources()[3].size());
+    assertEquals(onOne + 1, queue.getSources()[1].size());
+    queue.setActiveSources(0);
+    assertEquals(1, queue.getActiveSources());
+    queue.close();
+  }
+
+  private static void advance(long[] run, long[] idle, long ran, long idled) {
+    for (int x = 0; x < run.length; x++) {
+      run[x] += ran;
+      idle[x] += idled;
+    }
+  }
+
+  private static MultiThreadedEventContext context(Object key) {
+    return new MultiThreadedEventContext() {
+      @Override
+      public Object getSchedulingKey() {
+        return key;
+      }
+
+      @Override
+      public boolean flush() {
+        return false;
+      }
+    };
+  }
+}
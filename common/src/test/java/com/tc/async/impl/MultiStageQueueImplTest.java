@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
  */
 package com.tc.async.impl;
 
+import com.tc.async.api.DirectExecutionMode;
 import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.logging.DefaultLoggerProvider;
 import com.tc.logging.TCLoggerProvider;
@@ -33,11 +34,14 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -86,11 +90,11 @@ public class MultiStageQueueImplTest {
     final List<BlockingQueue<Object>> cxts = new ArrayList<BlockingQueue<Object>>();
 
     QueueFactory context = mock(QueueFactory.class);
-    when(context.createInstance(ArgumentMatchers.any(), ArgumentMatchers.anyInt())).thenAnswer(new Answer<BlockingQueue<Object>>() {
+    when(context.createInstance(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.anyInt())).thenAnswer(new Answer<BlockingQueue<Object>>() {
 
       @Override
       public BlockingQueue<Object> answer(InvocationOnMock invocation) throws Throwable {
-        BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>((Integer) invocation.getArguments()[1]);
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>((Integer) invocation.getArguments()[2]);
         cxts.add(queue);
         return queue;
       }
@@ -144,6 +148,140 @@ public class MultiStageQueueImplTest {
     assertNotNull(cxts.get(rand % cxts.size()).poll());
   }
 
+  @Test
+  public void testKeyKeepsOrderAcrossLaneChange() throws Exception {
+    List<Object> ran = Collections.synchronizedList(new ArrayList<>());
+    StageQueue<Keyed> impl = new MultiStageQueueImpl<>(4, new QueueFactory(), Keyed.class,
+        (event)->()->{
+          if (event.pause > 0) {
+            try {
+              Thread.sleep(event.pause);
+            } catch (InterruptedException ie) {
+              throw new RuntimeException(ie);
+            }
+          }
+          ran.add(event);
+        },
+        new DefaultLoggerProvider(), "fenced", Integer.MAX_VALUE);
+    impl.setAdaptiveSources(true);
+    Keyed before = new Keyed(3, 200);
+    Keyed after = new Keyed(3, 0);
+    impl.addToSink(before);
+    impl.setActiveSources(2);
+    assertEquals(2, impl.getActiveSources());
+    // the key now hashes onto an active lane but stays behind what its old lane holds
+    impl.addToSink(after);
+    assertTrue(impl.getSource(3).size() == 2 && impl.getSource(1).size() == 0);
+
+    AtomicBoolean done = new AtomicBoolean();
+    List<Thread> workers = new ArrayList<>();
+    for (int x = 0; x < 4; x++) {
+      com.tc.async.api.Source source = impl.getSource(x);
+      Thread worker = new Thread(()->{
+        try {
+          while (!done.get()) {
+            Event e = source.poll(10);
+            if (e != null) {
+              e.call();
+            }
+          }
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      });
+      worker.start();
+      workers.add(worker);
+    }
+    long until = System.currentTimeMillis() + 10_000;
+    while (ran.size() < 2 && System.currentTimeMillis() < until) {
+      Thread.sleep(10);
+    }
+    done.set(true);
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertEquals(Arrays.asList(before, after), ran);
+  }
+
+  @Test
+  public void testKeyMovesOnceItsLaneHasRun() throws Exception {
+    StageQueue<Keyed> impl = new MultiStageQueueImpl<>(4, new QueueFactory(), Keyed.class, (event)->()->{},
+        new DefaultLoggerProvider(), "moving", 8);
+    impl.setAdaptiveSources(true);
+    impl.addToSink(new Keyed(3, 0));
+    impl.addToSink(new Keyed(2, 0));
+    impl.setActiveSources(2);
+    assertEquals(2, impl.getActiveSources());
+    // keys which keep their lane are not held
+    impl.addToSink(new Keyed(1, 0));
+    assertEquals(1, impl.getSource(1).size());
+    impl.addToSink(new Keyed(3, 0));
+    assertEquals(2, impl.getSource(3).size());
+    // no change while a lane holds keys which left it
+    impl.setActiveSources(4);
+    assertEquals(2, impl.getActiveSources());
+    impl.getSource(3).poll(0).call();
+    impl.addToSink(new Keyed(3, 0));
+    assertEquals(2, impl.getSource(3).size());
+    impl.getSource(3).poll(0).call();
+    impl.getSource(3).poll(0).call();
+    impl.addToSink(new Keyed(3, 0));
+    assertEquals(0, impl.getSource(3).size());
+    assertEquals(2, impl.getSource(1).size());
+    // lane 2 still holds the event added before the change
+    impl.setActiveSources(4);
+    assertEquals(2, impl.getActiveSources());
+    impl.getSource(2).poll(0).call();
+    impl.setActiveSources(4);
+    assertEquals(4, impl.getActiveSources());
+  }
+
+  @Test
+  public void testLaneChangeDoesNotWaitOnFullQueues() throws Exception {
+    StageQueue<Keyed> impl = new MultiStageQueueImpl<>(2, new QueueFactory(), Keyed.class, (event)->()->{},
+        new DefaultLoggerProvider(), "full", 2);
+    impl.setAdaptiveSources(true);
+    impl.addToSink(new Keyed(0, 0));
+    impl.addToSink(new Keyed(1, 0));
+    impl.setActiveSources(1);
+    assertEquals(1, impl.getActiveSources());
+    impl.getSource(0).poll(0).call();
+    impl.getSource(1).poll(0).call();
+    // an add blocked on the full queue holds off the change without blocking it
+    impl.addToSink(new Keyed(0, 0));
+    Thread blocked = new Thread(()->impl.addToSink(new Keyed(0, 0)));
+    blocked.start();
+    while (blocked.getState() != Thread.State.WAITING) {
+      Thread.sleep(10);
+    }
+    impl.setActiveSources(2);
+    assertEquals(1, impl.getActiveSources());
+    impl.getSource(0).poll(0).call();
+    blocked.join();
+    impl.setActiveSources(2);
+    assertEquals(2, impl.getActiveSources());
+  }
+
+  private static class Keyed implements MultiThreadedEventContext {
+    private final Object key;
+    private final long pause;
+
+    Keyed(Object key, long pause) {
+      this.key = key;
+      this.pause = pause;
+    }
+
+    @Override
+    public Object getSchedulingKey() {
+      return key;
+    }
+
+    @Override
+    public boolean flush() {
+      return false;
+    }
+  }
+
   @Test
   public void testBruteShortestRollover() throws Exception {
     if (!MultiStageQueueImpl.SHORTEST_FIND_STRATEGY.equals(MultiStageQueueImpl.ShortestFindStrategy.BRUTE)) {
@@ -153,11 +291,11 @@ public class MultiStageQueueImplTest {
     final List<BlockingQueue<Object>> cxts = new ArrayList<BlockingQueue<Object>>();
 
     QueueFactory context = mock(QueueFactory.class);
-    when(context.createInstance(ArgumentMatchers.any(), ArgumentMatchers.anyInt())).thenAnswer(new Answer<BlockingQueue<Object>>() {
+    when(context.createInstance(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.anyInt())).thenAnswer(new Answer<BlockingQueue<Object>>() {
 
       @Override
       public BlockingQueue<Object> answer(InvocationOnMock invocation) throws Throwable {
-        BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>((Integer) invocation.getArguments()[1]);
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>((Integer) invocation.getArguments()[2]);
         cxts.add(queue);
         return queue;
       }
@@ -235,6 +373,140 @@ public class MultiStageQueueImplTest {
     assertTrue(impl.partitionHand.get() < prior);
   }
 
+  @Test
+  public void testDirectRunsOnlyOnIdleLane() throws Exception {
+    List<String> ran = new ArrayList<>();
+    MultiStageQueueImpl<MultiThreadedEventContext> impl = new MultiStageQueueImpl<>(2, new QueueFactory(), MultiThreadedEventContext.class,
+        (event)->()->ran.add(event.getSchedulingKey() + "@" + Thread.currentThread().getName()), new DefaultLoggerProvider(), "direct", 100);
+    impl.setDirectSources(true);
+    String here = Thread.currentThread().getName();
+    // not in direct mode, queued
+    impl.addToSink(keyed(0));
+    assertEquals(1, impl.getSource(0).size());
+    DirectExecutionMode.activate(true);
+    try {
+      // lane 0 is busy, queued behind the first
+      impl.addToSink(keyed(0));
+      assertEquals(2, impl.getSource(0).size());
+      // lane 1 is idle, runs here
+      impl.addToSink(keyed(1));
+      assertEquals(0, impl.getSource(1).size());
+      assertEquals(Collections.singletonList("1@" + here), ran);
+    } finally {
+      DirectExecutionMode.activate(false);
+    }
+    impl.getSource(0).poll(0).call();
+    impl.getSource(0).poll(0).call();
+    assertEquals(Arrays.asList("1@" + here, "0@" + here, "0@" + here), ran);
+    DirectExecutionMode.activate(true);
+    try {
+      // lane 0 drained, runs here again
+      impl.addToSink(keyed(0));
+      assertEquals(0, impl.getSource(0).size());
+      assertEquals(4, ran.size());
+    } finally {
+      DirectExecutionMode.activate(false);
+    }
+    impl.close();
+  }
+
+  @Test
+  public void testLaneIsBusyWhileDirectRunIsInProgress() throws Exception {
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    MultiStageQueueImpl<MultiThreadedEventContext> impl = new MultiStageQueueImpl<>(2, new QueueFactory(), MultiThreadedEventContext.class,
+        (event)->()->{
+          if ("block".equals(event.getSchedulingKey())) {
+            running.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException ie) {
+              throw new RuntimeException(ie);
+            }
+          }
+        }, new DefaultLoggerProvider(), "direct", 100);
+    impl.setDirectSources(true);
+    Thread direct = new Thread(()->{
+      DirectExecutionMode.activate(true);
+      impl.addToSink(keyed("block"));
+    });
+    direct.start();
+    assertTrue(running.await(10, TimeUnit.SECONDS));
+    int lane = Math.abs("block".hashCode() % 2);
+    DirectExecutionMode.activate(true);
+    try {
+      impl.addToSink(keyed("block"));
+    } finally {
+      DirectExecutionMode.activate(false);
+    }
+    assertEquals(1, impl.getSource(lane).size());
+    release.countDown();
+    direct.join();
+    impl.close();
+  }
+
+  @Test
+  public void testDeferredDirectRunHoldsItsLane() throws Exception {
+    List<String> ran = new ArrayList<>();
+    MultiStageQueueImpl<MultiThreadedEventContext> impl = new MultiStageQueueImpl<>(2, new QueueFactory(), MultiThreadedEventContext.class,
+        (event)->()->ran.add(event.getSchedulingKey().toString()), new DefaultLoggerProvider(), "direct", 100);
+    impl.setDirectSources(true);
+    DirectExecutionMode.activate(true);
+    try {
+      DirectExecutionMode.deferDirect(()->{
+        impl.addToSink(keyed(0));
+        // claimed but not run until the scheduling is done, the next one queues behind it
+        assertTrue(ran.isEmpty());
+        impl.addToSink(keyed(0));
+        assertEquals(1, impl.getSource(0).size());
+      });
+      assertEquals(Collections.singletonList("0"), ran);
+    } finally {
+      DirectExecutionMode.activate(false);
+    }
+    impl.getSource(0).poll(0).call();
+    assertEquals(Arrays.asList("0", "0"), ran);
+    impl.close();
+  }
+
+  @Test
+  public void testDirectOnlyWhenIdle() throws Exception {
+    List<String> ran = new ArrayList<>();
+    MultiStageQueueImpl<MultiThreadedEventContext> impl = new MultiStageQueueImpl<>(2, new QueueFactory(), MultiThreadedEventContext.class,
+        (event)->()->ran.add(event.getSchedulingKey().toString()), new DefaultLoggerProvider(), "direct", 100);
+    impl.setDirectSources(true);
+    impl.setDirectOnlyWhenIdle(true);
+    impl.addToSink(keyed(0));
+    DirectExecutionMode.activate(true);
+    try {
+      // lane 1 is idle but lane 0 is not
+      impl.addToSink(keyed(1));
+      assertEquals(1, impl.getSource(1).size());
+      assertTrue(ran.isEmpty());
+      impl.getSource(0).poll(0).call();
+      impl.getSource(1).poll(0).call();
+      impl.addToSink(keyed(1));
+      assertEquals(Arrays.asList("0", "1", "1"), ran);
+    } finally {
+      DirectExecutionMode.activate(false);
+    }
+    impl.close();
+  }
+
+  private static MultiThreadedEventContext keyed(Object key) {
+    return new MultiThreadedEventContext() {
+      @Override
+      public Object getSchedulingKey() {
+        return key;
+      }
+
+      @Override
+      public boolean flush() {
+        return false;
+      }
+    };
+  }
+
   @Test
   @Ignore
   public void testThroughput8() throws InterruptedException {
@@ -0,0 +1,149 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.async.impl;
+
+import com.tc.async.api.AbstractEventHandler;
+import com.tc.logging.DefaultLoggerProvider;
+import com.tc.util.concurrent.QueueFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineTracerTest {
+
+  @After
+  public void tearDown() {
+    PipelineTracer.setSampleRate(0);
+    PipelineTracer.resume(null);
+  }
+
+  @Test
+  public void testNothingSampledWhenOff() {
+    PipelineTracer.setSampleRate(0);
+    for (int x = 0; x < 100; x++) {
+      assertNull(PipelineTracer.sample());
+    }
+  }
+
+  @Test
+  public void testTraceFollowsRequestThroughStages() throws Exception {
+    PipelineTracer.setSampleRate(1);
+    PipelineTrace trace = PipelineTracer.sample();
+    assertNotNull(trace);
+    List<PipelineTrace> seen = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+    StageImpl<String> second = new StageImpl<>(new DefaultLoggerProvider(), "second", String.class, new AbstractEventHandler<String>() {
+      @Override
+      public void handleEvent(String context) {
+        seen.add(PipelineTracer.current());
+        PipelineTracer.current().finish(context);
+        done.countDown();
+      }
+    }, 1, null, new QueueFactory(), null, 16, false, true);
+    StageImpl<String> first = new StageImpl<>(new DefaultLoggerProvider(), "first", String.class, new AbstractEventHandler<String>() {
+      @Override
+      public void handleEvent(String context) {
+        seen.add(PipelineTracer.current());
+        second.getSink().addToSink(context);
+      }
+    }, 1, null, new QueueFactory(), null, 16, false, true);
+    // the trace crosses stages with or without the extra statistics
+    first.trackExtraStatistics(false);
+    second.start(new ConfigurationContextImpl("second", null));
+    first.start(new ConfigurationContextImpl("first", null));
+    try {
+      PipelineTrace previous = PipelineTracer.resume(trace);
+      trace.record("comm read", "message");
+      first.getSink().addToSink("message");
+      PipelineTracer.resume(previous);
+      assertNull(PipelineTracer.current());
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+    } finally {
+      first.destroy();
+      second.destroy();
+    }
+    assertEquals(2, seen.size());
+    assertSame(trace, seen.get(0));
+    assertSame(trace, seen.get(1));
+
+    List<String> points = new ArrayList<>();
+    PipelineTracer.drain((t, point, type, thread, time, subject)->{
+      if (t == trace) {
+        points.add(point + ":" + type);
+      }
+    });
+    // points are drained ring by ring, each ring in the order its thread recorded them
+    assertTrue(points.containsAll(Arrays.asList("comm read:POINT", "first:ENQUEUE", "first:RUN", "first:END",
+        "second:ENQUEUE", "second:RUN", "second:END", "finish:FINISH")));
+    assertEquals(8, points.size());
+  }
+
+  @Test
+  public void testLappedPointsAreDropped() {
+    TraceRing ring = new TraceRing(Thread.currentThread());
+    PipelineTrace trace = new PipelineTrace(1L, System.nanoTime());
+    for (int x = 0; x < TraceRing.CAPACITY + 10; x++) {
+      ring.record(trace, "point", PipelineTracer.Type.POINT, x, System.nanoTime());
+    }
+    List<Object> subjects = new ArrayList<>();
+    // the writer may be about to overwrite the oldest point of a full ring, that one goes too
+    assertEquals(TraceRing.CAPACITY - 1, ring.drain((t, point, type, thread, time, subject)->subjects.add(subject)));
+    assertEquals(11L, ring.dropped());
+    assertEquals(11, subjects.get(0));
+    assertEquals(0, ring.drain((t, point, type, thread, time, subject)->subjects.add(subject)));
+  }
+
+  @Test
+  public void testRingsOnlyKeepSnapshots() {
+    PipelineTrace trace = new PipelineTrace(1L, System.nanoTime());
+    StringBuilder message = new StringBuilder("message");
+    PipelineTracer.record(trace, "point", PipelineTracer.Type.POINT, message);
+    PipelineTracer.record(trace, "point", PipelineTracer.Type.POINT, 42L);
+    List<Object> subjects = new ArrayList<>();
+    PipelineTracer.drain((t, point, type, thread, time, subject)->{
+      if (t == trace) {
+        subjects.add(subject);
+      }
+    });
+    assertEquals(Arrays.asList(StringBuilder.class, 42L), subjects);
+    assertEquals(StringBuilder.class.getName(), PipelineTracer.describe(subjects.get(0)));
+  }
+
+  @Test
+  public void testDescribeSurvivesBrokenSubject() {
+    Object broken = new Object() {
+      @Override
+      public String toString() {
+        throw new IllegalStateException("released");
+      }
+    };
+    assertNotNull(PipelineTracer.describe(broken));
+    assertNull(PipelineTracer.describe(null));
+  }
+}
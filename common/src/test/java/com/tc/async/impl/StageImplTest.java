@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -21,8 +21,12 @@ import com.tc.async.api.ConfigurationContext;
 import com.tc.async.api.EventHandler;
 import com.tc.async.api.EventHandlerException;
 import com.tc.async.api.MultiThreadedEventContext;
+import com.tc.async.api.StageListener;
+import com.tc.exception.TCNotRunningException;
 import com.tc.logging.DefaultLoggerProvider;
 import com.tc.logging.TCLoggerProvider;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.concurrent.QueueFactory;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -34,14 +38,20 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -70,6 +80,9 @@ public class StageImplTest {
   
   @After
   public void tearDown() {
+    // stage properties are global, leave them as the next test expects them
+    TCPropertiesImpl.getProperties().setProperty("seda.batched.batchSize", null);
+    TCPropertiesImpl.getProperties().setProperty(TCPropertiesConsts.L2_SEDA_STAGE_STALL_WARNING, null);
   }
   
   @Test
@@ -83,7 +96,7 @@ public class StageImplTest {
   public void testRapidTeardown() throws Exception {
     TCLoggerProvider logger = new DefaultLoggerProvider();
     QueueFactory context = mock(QueueFactory.class);
-    when(context.createInstance(ArgumentMatchers.any(), anyInt())).thenReturn(new ArrayBlockingQueue<>(16));
+    when(context.createInstance(ArgumentMatchers.anyString(), ArgumentMatchers.any(), anyInt())).thenReturn(new ArrayBlockingQueue<>(16));
     EventHandler handler = mock(EventHandler.class);
 
     StageImpl<Object> instance = new StageImpl<Object>(logger, "mock", Object.class, handler, 1, null, context, null, 16, false, true);
@@ -101,6 +114,154 @@ public class StageImplTest {
     
   }
   
+  @Test
+  public void testBatchDrain() throws Exception {
+    TCPropertiesImpl.getProperties().setProperty("seda.batched.batchSize", "4");
+    List<Integer> batches = new ArrayList<>();
+    AtomicInteger single = new AtomicInteger();
+    CyclicBarrier done = new CyclicBarrier(2);
+    EventHandler<Object> handler = new EventHandler<Object>() {
+      @Override
+      public void handleEvent(Object context) throws EventHandlerException {
+        single.incrementAndGet();
+      }
+      @Override
+      public void handleEvents(Collection<Object> context) throws EventHandlerException {
+        batches.add(context.size());
+        if (batches.stream().mapToInt(Integer::intValue).sum() == 6) {
+          try {
+            done.await();
+          } catch (BrokenBarrierException | InterruptedException e) {
+            throw new EventHandlerException(e);
+          }
+        }
+      }
+      @Override
+      public void destroy() { }
+      @Override
+      public void initializeContext(ConfigurationContext context) { }
+    };
+    StageImpl<Object> instance = new StageImpl<>(new DefaultLoggerProvider(), "batched", Object.class, handler, 1, null, new QueueFactory(), null, 16, false, true);
+    // queue everything before the worker starts so the drain sees a backlog
+    for (int x = 0; x < 6; x++) {
+      instance.getSink().addToSink(x);
+    }
+    instance.start(mock(ConfigurationContext.class));
+    done.await(10, TimeUnit.SECONDS);
+    assertEquals(0, single.get());
+    assertEquals(2, batches.size());
+    assertEquals(4, (int)batches.get(0));
+    assertEquals(2, (int)batches.get(1));
+    instance.destroy();
+  }
+
+  @Test
+  public void testBatchRunsPastFailedEvent() throws Exception {
+    TCPropertiesImpl.getProperties().setProperty("seda.batched.batchSize", "4");
+    // every event counts as stalled, the listener fails the first event of the first batch
+    TCPropertiesImpl.getProperties().setProperty(TCPropertiesConsts.L2_SEDA_STAGE_STALL_WARNING, "0");
+    AtomicBoolean failed = new AtomicBoolean();
+    StageListener listener = (name, delay, depth)->{
+      if (failed.compareAndSet(false, true)) {
+        throw new TCNotRunningException();
+      }
+    };
+    List<Object> handled = new CopyOnWriteArrayList<>();
+    EventHandler<Object> handler = new EventHandler<Object>() {
+      @Override
+      public void handleEvent(Object context) throws EventHandlerException {
+        handled.add(context);
+      }
+      @Override
+      public void handleEvents(Collection<Object> context) throws EventHandlerException {
+        handled.addAll(context);
+      }
+      @Override
+      public void destroy() { }
+      @Override
+      public void initializeContext(ConfigurationContext context) { }
+    };
+    StageImpl<Object> instance = new StageImpl<>(new DefaultLoggerProvider(), "batched", Object.class, handler, 1, null, new QueueFactory(), listener, 16, false, true);
+    for (int x = 0; x < 6; x++) {
+      instance.getSink().addToSink(x);
+    }
+    instance.start(mock(ConfigurationContext.class));
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!instance.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    // only the failed event is lost, the rest of its batch is still handled
+    assertTrue(failed.get());
+    assertTrue(instance.isEmpty());
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), handled);
+    instance.destroy();
+  }
+
+  @Test
+  public void testBatchHandledBeforeFlushMovesOn() throws Exception {
+    TCPropertiesImpl.getProperties().setProperty("seda.batched.batchSize", "4");
+    List<Object> handled = new CopyOnWriteArrayList<>();
+    EventHandler<Lane> handler = new EventHandler<Lane>() {
+      @Override
+      public void handleEvent(Lane context) throws EventHandlerException {
+        handled.add(context);
+      }
+      @Override
+      public void handleEvents(Collection<Lane> context) throws EventHandlerException {
+        if (context.stream().anyMatch(c->c.name.equals("slow"))) {
+          try {
+            Thread.sleep(200);
+          } catch (InterruptedException ie) {
+            throw new EventHandlerException(ie);
+          }
+        }
+        handled.addAll(context);
+      }
+      @Override
+      public void destroy() { }
+      @Override
+      public void initializeContext(ConfigurationContext context) { }
+    };
+    StageImpl<Lane> instance = new StageImpl<>(new DefaultLoggerProvider(), "batched", Lane.class, handler, 2, null, new QueueFactory(), null, 16, false, true);
+    Lane slow = new Lane("slow", 0, false);
+    Lane other = new Lane("other", 1, false);
+    Lane flush = new Lane("flush", 0, true);
+    instance.getSink().addToSink(slow);
+    instance.getSink().addToSink(other);
+    instance.getSink().addToSink(flush);
+    instance.start(mock(ConfigurationContext.class));
+    long deadline = System.currentTimeMillis() + 10000;
+    while (handled.size() < 3 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    // the flush only moves to the next lane once the slow batch ahead of it is handled
+    assertEquals(3, handled.size());
+    assertEquals(flush, handled.get(2));
+    instance.destroy();
+  }
+
+  private static class Lane implements MultiThreadedEventContext {
+    private final String name;
+    private final Object key;
+    private final boolean flush;
+
+    Lane(String name, Object key, boolean flush) {
+      this.name = name;
+      this.key = key;
+      this.flush = flush;
+    }
+
+    @Override
+    public Object getSchedulingKey() {
+      return key;
+    }
+
+    @Override
+    public boolean flush() {
+      return flush;
+    }
+  }
+
   private void testMultiContextFlush(int size) throws Exception {
     System.out.println("test a multi context flush");
     TCLoggerProvider logger = new DefaultLoggerProvider();
@@ -125,9 +286,9 @@ public class StageImplTest {
     };
     
     QueueFactory context = mock(QueueFactory.class);
-    when(context.createInstance(ArgumentMatchers.any(), ArgumentMatchers.anyInt())).thenAnswer((InvocationOnMock invocation) -> {
+    when(context.createInstance(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.anyInt())).thenAnswer((InvocationOnMock invocation) -> {
       //  spy each call to put of the queue to make sure each queue is getting hit.
-      BlockingQueue<Object> queue = Mockito.spy(new ArrayBlockingQueue<>((Integer)invocation.getArguments()[1]));
+      BlockingQueue<Object> queue = Mockito.spy(new ArrayBlockingQueue<>((Integer)invocation.getArguments()[2]));
       cxts.add(queue);
       return queue;
     });
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import com.tc.net.core.event.TCConnectionEventListener;
 import com.tc.net.protocol.TCProtocolAdaptor;
 import com.tc.net.protocol.transport.WireProtocolHeader;
 import com.tc.net.protocol.transport.WireProtocolMessage;
+import com.tc.util.concurrent.VirtualThreads;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
@@ -179,4 +180,28 @@ public class BasicConnectionTest {
       }
     }
   }
+
+  @Test
+  public void testVirtualThreadReader() throws Exception {
+    try (PortManager.PortRef portRef = PortManager.getInstance().reservePort()) {
+      try (ServerSocket server = openServerSocket(portRef.port())) {
+        TCProtocolAdaptor adapter = mock(TCProtocolAdaptor.class);
+        SocketEndpointFactory buffer = mock(SocketEndpointFactory.class);
+        when(buffer.createSocketEndpoint(any(SocketChannel.class), any(boolean.class))).thenReturn(mock(SocketEndpoint.class));
+        Consumer<TCConnection> close = s -> {};
+        BasicConnection instance = new BasicConnection("", adapter, buffer, true, close);
+        instance.connect(new InetSocketAddress(server.getLocalPort()), 0);
+        // falls back to a platform reader when the JVM has no virtual threads
+        assertEquals(VirtualThreads.isSupported(), instance.getState().get("virtualThreads"));
+        WireProtocolMessage msg = mock(WireProtocolMessage.class);
+        when(msg.prepareToSend()).thenReturn(true);
+        when(msg.getHeader()).thenReturn(mock(WireProtocolHeader.class));
+        when(msg.getEntireMessageData()).thenReturn(mock(TCReference.class));
+        instance.putMessage(msg);
+        verify(msg).complete();
+        instance.close();
+        assertTrue(instance.isClosed());
+      }
+    }
+  }
 }
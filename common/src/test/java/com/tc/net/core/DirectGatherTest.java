@@ -0,0 +1,84 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.net.core;
+
+import com.tc.bytes.TCDirectByteBufferPool;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DirectGatherTest {
+
+  @Test
+  public void testHeadersArePackedIntoDirectBuffer() {
+    TCDirectByteBufferPool pool = new TCDirectByteBufferPool(1024 * 1024);
+    ByteBuffer[] buffers = message();
+    try (DirectGather gather = new DirectGather(pool, buffers)) {
+      ByteBuffer[] written = gather.buffers();
+      assertEquals(buffers.length, written.length);
+      assertTrue(written[0].isDirect());
+      assertSame(buffers[1], written[1]);
+      assertTrue(written[2].isDirect());
+      assertSame(buffers[3], written[3]);
+      assertEquals(16, gather.getStagedBytes());
+      // packing the headers is a copy too
+      assertEquals(1016, gather.getCopiedBytes());
+      assertEquals(1116, gather.remaining());
+      for (int x = 0; x < buffers.length; x++) {
+        assertEquals(buffers[x], written[x]);
+      }
+      // drain as a write would, the buffers of the message are untouched
+      for (ByteBuffer b : written) {
+        b.position(b.limit());
+      }
+      assertFalse(gather.hasRemaining());
+      assertEquals(10, buffers[0].remaining());
+      assertEquals(1, pool.getOutstandingBuffers());
+    }
+    assertEquals(0, pool.getOutstandingBuffers());
+  }
+
+  @Test
+  public void testWithoutPoolNothingIsPacked() {
+    ByteBuffer[] buffers = message();
+    try (DirectGather gather = new DirectGather(null, buffers)) {
+      assertSame(buffers, gather.buffers());
+      assertEquals(0, gather.getStagedBytes());
+      assertEquals(1016, gather.getCopiedBytes());
+    }
+  }
+
+  private static ByteBuffer[] message() {
+    ByteBuffer body = ByteBuffer.allocateDirect(100);
+    body.put(new byte[100]).flip();
+    return new ByteBuffer[] {filled(10), body, filled(6), filled(1000)};
+  }
+
+  private static ByteBuffer filled(int size) {
+    ByteBuffer b = ByteBuffer.allocate(size);
+    for (int x = 0; x < size; x++) {
+      b.put((byte) x);
+    }
+    b.flip();
+    return b;
+  }
+}
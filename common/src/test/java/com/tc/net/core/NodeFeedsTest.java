@@ -0,0 +1,66 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.net.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class NodeFeedsTest {
+
+  @Test
+  public void testMajorityOfCompleteSample() {
+    NodeFeeds feeds = new NodeFeeds(2);
+    for (int x = 0; x < NodeFeeds.SAMPLE - 1; x++) {
+      feeds.accept(1);
+    }
+    assertEquals(-1, feeds.preferred());
+    feeds.accept(0);
+    assertEquals(1, feeds.preferred());
+    // the sample starts over
+    assertEquals(-1, feeds.preferred());
+  }
+
+  @Test
+  public void testNoMajority() {
+    NodeFeeds feeds = new NodeFeeds(2);
+    for (int x = 0; x < NodeFeeds.SAMPLE; x++) {
+      feeds.accept(x & 1);
+    }
+    assertEquals(-1, feeds.preferred());
+  }
+
+  @Test
+  public void testFedFromStageThreads() throws Exception {
+    NodeFeeds feeds = new NodeFeeds(2);
+    Thread[] stages = new Thread[4];
+    for (int t = 0; t < stages.length; t++) {
+      stages[t] = new Thread(()->{
+        for (int x = 0; x < NodeFeeds.SAMPLE; x++) {
+          feeds.accept(1);
+        }
+      });
+      stages[t].start();
+    }
+    for (Thread stage : stages) {
+      stage.join();
+    }
+    assertEquals(1, feeds.preferred());
+    assertEquals(-1, feeds.preferred());
+  }
+}
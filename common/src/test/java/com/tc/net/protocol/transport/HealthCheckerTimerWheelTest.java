@@ -0,0 +1,79 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.net.protocol.transport;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HealthCheckerTimerWheelTest {
+
+  @Test
+  public void testItemsComeDueOnTheirTick() {
+    HealthCheckerTimerWheel<String> wheel = new HealthCheckerTimerWheel<>(8);
+    wheel.schedule("one", 1);
+    wheel.schedule("three", 3);
+    wheel.schedule("three again", 3);
+    assertEquals(3, wheel.size());
+
+    assertEquals(Collections.singletonList("one"), advance(wheel));
+    assertTrue(advance(wheel).isEmpty());
+    assertEquals(Arrays.asList("three", "three again"), advance(wheel));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void testItemsBeyondOneLapWaitForTheirRound() {
+    HealthCheckerTimerWheel<String> wheel = new HealthCheckerTimerWheel<>(3);
+    // rounded up to 4 slots
+    wheel.schedule("ten", 10);
+    for (int x = 1; x < 10; x++) {
+      assertTrue("tick " + x, advance(wheel).isEmpty());
+    }
+    assertEquals(Collections.singletonList("ten"), advance(wheel));
+  }
+
+  @Test
+  public void testRescheduleFromConsumer() {
+    HealthCheckerTimerWheel<String> wheel = new HealthCheckerTimerWheel<>(4);
+    wheel.schedule("repeat", 4);
+    List<Integer> dueOn = new ArrayList<>();
+    for (int tick = 1; tick <= 12; tick++) {
+      int current = tick;
+      wheel.advance(item -> {
+        dueOn.add(current);
+        // a full lap ahead lands back in the slot being visited
+        wheel.schedule(item, 4);
+      });
+    }
+    assertEquals(Arrays.asList(4, 8, 12), dueOn);
+    assertEquals(1, wheel.size());
+  }
+
+  private static List<String> advance(HealthCheckerTimerWheel<String> wheel) {
+    List<String> due = new ArrayList<>();
+    wheel.advance(due::add);
+    return due;
+  }
+}
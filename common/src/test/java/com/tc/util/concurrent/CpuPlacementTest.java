@@ -0,0 +1,88 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CpuPlacementTest {
+
+  @Test
+  public void testWithoutProviderNothingIsPlaced() {
+    CpuPlacement placement = new CpuPlacement(null);
+    assertFalse(placement.isEnabled());
+    assertEquals(1, placement.getNodeCount());
+    assertEquals(0, placement.nodeFor(7, 8));
+    placement.bind(0);
+  }
+
+  @Test
+  public void testThreadsAreSpreadInBlocks() {
+    List<Integer> bound = new ArrayList<>();
+    CpuPlacement placement = new CpuPlacement(new CpuAffinityProvider() {
+      @Override
+      public int getNodeCount() {
+        return 2;
+      }
+
+      @Override
+      public boolean bindCurrentThread(int node) {
+        bound.add(node);
+        return true;
+      }
+    });
+    assertTrue(placement.isEnabled());
+    int[] nodes = new int[6];
+    for (int x = 0; x < nodes.length; x++) {
+      nodes[x] = placement.nodeFor(x, nodes.length);
+    }
+    int[] expected = {0, 0, 0, 1, 1, 1};
+    for (int x = 0; x < nodes.length; x++) {
+      assertEquals(expected[x], nodes[x]);
+    }
+    placement.bind(1);
+    assertEquals(1, bound.size());
+    assertEquals(1, (int) bound.get(0));
+  }
+
+  @Test
+  public void testFedReachesTheRegisteredTarget() {
+    List<Integer> fed = new ArrayList<>();
+    CpuPlacement.fed(1);
+    CpuPlacement.feeding(fed::add);
+    try {
+      assertNotNull(CpuPlacement.currentFeed());
+      CpuPlacement.fed(1);
+      CpuPlacement.fed(0);
+    } finally {
+      CpuPlacement.feeding(null);
+    }
+    CpuPlacement.fed(1);
+    assertNull(CpuPlacement.currentFeed());
+    assertEquals(2, fed.size());
+    assertEquals(1, (int) fed.get(0));
+    assertEquals(0, (int) fed.get(1));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MpscArrayBlockingQueueTest {
+
+  @Test
+  public void testBoundedOfferAndFifo() {
+    MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(3);
+    assertTrue(queue.offer(1));
+    assertTrue(queue.offer(2));
+    assertTrue(queue.offer(3));
+    assertFalse(queue.offer(4));
+    assertEquals(3, queue.size());
+    assertEquals(0, queue.remainingCapacity());
+    assertEquals(1, (int)queue.peek());
+    assertEquals(1, (int)queue.poll());
+    assertTrue(queue.offer(4));
+    assertEquals(2, (int)queue.poll());
+    assertEquals(3, (int)queue.poll());
+    assertEquals(4, (int)queue.poll());
+    assertNull(queue.poll());
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testTimedPollExpires() throws Exception {
+    MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(4);
+    long start = System.nanoTime();
+    assertNull(queue.poll(100, TimeUnit.MILLISECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  @Test
+  public void testParkedConsumerIsWoken() throws Exception {
+    MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(4);
+    CountDownLatch polling = new CountDownLatch(1);
+    List<Integer> received = new ArrayList<>();
+    Thread consumer = new Thread(()->{
+      polling.countDown();
+      try {
+        received.add(queue.poll(30, TimeUnit.SECONDS));
+      } catch (InterruptedException ie) {
+        throw new RuntimeException(ie);
+      }
+    });
+    consumer.start();
+    polling.await();
+    Thread.sleep(200);
+    queue.put(42);
+    consumer.join(10000);
+    assertFalse(consumer.isAlive());
+    assertEquals(42, (int)received.get(0));
+  }
+
+  @Test
+  public void testConcurrentProducersKeepPerProducerOrder() throws Exception {
+    int producers = 4;
+    int perProducer = 100000;
+    MpscArrayBlockingQueue<long[]> queue = new MpscArrayBlockingQueue<>(128);
+    Thread[] threads = new Thread[producers];
+    for (int p = 0; p < producers; p++) {
+      int id = p;
+      threads[p] = new Thread(()->{
+        try {
+          for (int x = 0; x < perProducer; x++) {
+            queue.put(new long[] {id, x});
+          }
+        } catch (InterruptedException ie) {
+          throw new RuntimeException(ie);
+        }
+      });
+      threads[p].start();
+    }
+    long[] next = new long[producers];
+    for (int x = 0; x < producers * perProducer; x++) {
+      long[] item = queue.poll(10, TimeUnit.SECONDS);
+      assertEquals(next[(int)item[0]]++, item[1]);
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testDrainTo() {
+    MpscArrayBlockingQueue<Integer> queue = new MpscArrayBlockingQueue<>(8);
+    for (int x = 0; x < 5; x++) {
+      queue.offer(x);
+    }
+    List<Integer> out = new ArrayList<>();
+    assertEquals(3, queue.drainTo(out, 3));
+    assertEquals(2, queue.drainTo(out));
+    assertEquals(5, out.size());
+    assertEquals(4, (int)out.get(4));
+  }
+}
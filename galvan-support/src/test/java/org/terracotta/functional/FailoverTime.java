@@ -0,0 +1,83 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.terracotta.functional;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.terracotta.connection.Connection;
+import org.terracotta.connection.entity.EntityRef;
+import org.terracotta.entity.map.ConcurrentClusteredMap;
+import org.terracotta.entity.map.MapConfig;
+import org.terracotta.testing.rules.BasicExternalClusterBuilder;
+import org.terracotta.testing.rules.Cluster;
+
+/**
+ * Times failover of a three server stripe from termination of the active to the first request the
+ * new active serves.  Early elections and parallel promotion are set through the {@code electionEarly}
+ * and {@code promotionThreads} system properties so runs with the defaults and
+ * {@code -DelectionEarly=true -DpromotionThreads=8} can be compared.
+ */
+public class FailoverTime {
+
+  private static final int ENTITIES = 64;
+  private static final int ENTRIES = 1024;
+
+  @ClassRule
+  public static final Cluster CLUSTER = BasicExternalClusterBuilder.newCluster(3)
+          .withFailoverPriorityVoterCount(0)
+          .withClientReconnectWindowTime(30)
+          .withTcProperty("l2.election.early", System.getProperty("electionEarly", "false"))
+          .withTcProperty("server.entity.promotion.threads", System.getProperty("promotionThreads", "1"))
+      .build();
+
+  @Test @Ignore("not suitable for CI")
+  public void testFailoverTime() throws Exception {
+    CLUSTER.expectCrashes(true);
+    CLUSTER.getClusterControl().waitForRunningPassivesInStandby();
+    try (Connection c = CLUSTER.newConnection()) {
+      List<ConcurrentClusteredMap<String, String>> maps = new ArrayList<>();
+      for (int e = 0; e < ENTITIES; e++) {
+        EntityRef<ConcurrentClusteredMap, MapConfig, Void> map = c.getEntityRef(ConcurrentClusteredMap.class, 1L, "failover-" + e);
+        map.create(new MapConfig(8, "failover-" + e));
+        ConcurrentClusteredMap<String, String> cmap = map.fetchEntity(null);
+        cmap.setTypes(String.class, String.class);
+        for (int x = 0; x < ENTRIES; x++) {
+          cmap.put(Integer.toString(x), "the quick brown fox jumped over the goat");
+        }
+        maps.add(cmap);
+      }
+      long start = System.nanoTime();
+      CLUSTER.getClusterControl().terminateActive();
+      // blocks through the election, promotion and reconnect until the new active serves it
+      String value = maps.get(0).get("0");
+      long served = System.nanoTime() - start;
+      System.out.println("failover of " + ENTITIES + " entities with early election " + System.getProperty("electionEarly", "false")
+          + " and " + System.getProperty("promotionThreads", "1") + " promotion threads served " + value.length()
+          + " bytes in " + TimeUnit.NANOSECONDS.toMillis(served) + "ms");
+      for (ConcurrentClusteredMap<String, String> cmap : maps) {
+        cmap.close();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.terracotta.functional;
+
+
+import java.util.concurrent.TimeUnit;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.connection.Connection;
+import org.terracotta.connection.entity.EntityRef;
+import org.terracotta.entity.map.ConcurrentClusteredMap;
+import org.terracotta.entity.map.MapConfig;
+import org.terracotta.testing.rules.BasicExternalClusterBuilder;
+import org.terracotta.testing.rules.Cluster;
+
+/**
+ * Times passive sync of a populated active.  The sync window and the entities synced at
+ * once are taken from the {@code syncWindow} and {@code syncEntities} system properties so runs
+ * with {@code -DsyncWindow=0 -DsyncEntities=1} (one entity and key at a time, a round trip per
+ * sync message) and the defaults can be compared.
+ */
+public class PassiveSyncTime {
+
+  private static final int ENTITIES = 32;
+  private static final int ENTRIES = 16 * 1024;
+
+  Logger LOGGER = LoggerFactory.getLogger(PassiveSyncTime.class);
+
+  @ClassRule
+  public static final Cluster CLUSTER = BasicExternalClusterBuilder.newCluster(2)
+          .withFailoverPriorityVoterCount(0)
+          .withClientReconnectWindowTime(30)
+          .withTcProperty("active-passive.sync.window", System.getProperty("syncWindow", "64"))
+          .withTcProperty("active-passive.sync.entities", System.getProperty("syncEntities", "4"))
+      .build();
+
+  @Test @Ignore("not suitable for CI")
+  public void testSyncTime() throws Exception {
+    CLUSTER.expectCrashes(true);
+    CLUSTER.getClusterControl().waitForRunningPassivesInStandby();
+    CLUSTER.getClusterControl().terminateOnePassive();
+    try (Connection c = CLUSTER.newConnection()) {
+      for (int e = 0; e < ENTITIES; e++) {
+        EntityRef<ConcurrentClusteredMap, MapConfig, Void> map = c.getEntityRef(ConcurrentClusteredMap.class, 1L, "sync-" + e);
+        map.create(new MapConfig(8, "sync-" + e));
+        ConcurrentClusteredMap<String, String> cmap = map.fetchEntity(null);
+        cmap.setTypes(String.class, String.class);
+        for (int x = 0; x < ENTRIES; x++) {
+          cmap.put(Integer.toString(x), "the quick brown fox jumped over the goat");
+        }
+        cmap.close();
+      }
+    }
+    LOGGER.info("populated {} entities with {} entries each", ENTITIES, ENTRIES);
+    long start = System.nanoTime();
+    CLUSTER.getClusterControl().startOneServer();
+    CLUSTER.getClusterControl().waitForRunningPassivesInStandby();
+    System.out.println("passive sync of " + ENTITIES + "x" + ENTRIES + " entries with window "
+        + System.getProperty("syncWindow", "64") + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+  }
+
+}
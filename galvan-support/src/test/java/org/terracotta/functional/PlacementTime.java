@@ -0,0 +1,144 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.terracotta.functional;
+
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.terracotta.connection.Connection;
+import org.terracotta.connection.entity.EntityRef;
+import org.terracotta.entity.map.ConcurrentClusteredMap;
+import org.terracotta.entity.map.MapConfig;
+import org.terracotta.testing.rules.BasicExternalClusterBuilder;
+import org.terracotta.testing.rules.Cluster;
+
+/**
+ * Times a put load from several connections, each on its own entity, with cpu placement of the comm
+ * workers and request processor lanes on or off through the {@code placement} system property.
+ * Placement only takes effect with a {@code CpuAffinityProvider} on the server classpath, none ships
+ * with the server.  Next to the time, the run reports how the host's NUMA allocation counters from
+ * {@code /sys/devices/system/node} moved, compare the cross node share of {@code -Dplacement=true}
+ * and {@code -Dplacement=false} runs.  The counters are host wide and the cluster runs on this host.
+ */
+public class PlacementTime {
+
+  private static final int CLIENTS = 8;
+  private static final int ENTRIES = 128 * 1024;
+
+  @ClassRule
+  public static final Cluster CLUSTER = BasicExternalClusterBuilder.newCluster(1)
+          .withClientReconnectWindowTime(30)
+          .withTcProperty("l2.cpu.placement.enabled", System.getProperty("placement", "true"))
+          .withTcProperty("seda.request_processor_stage.placement", System.getProperty("placement", "true"))
+      .build();
+
+  @Test @Ignore("not suitable for CI")
+  public void testPlacedLoad() throws Exception {
+    ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+    Map<String, Long> before = numaStat();
+    try {
+      List<Future<Long>> runs = new ArrayList<>();
+      for (int c = 0; c < CLIENTS; c++) {
+        String name = "placement-" + c;
+        runs.add(clients.submit(()->load(name)));
+      }
+      long total = 0;
+      for (Future<Long> run : runs) {
+        total = Math.max(total, run.get());
+      }
+      System.out.println(CLIENTS + "x" + ENTRIES + " puts with placement " + System.getProperty("placement", "true")
+          + " in " + TimeUnit.NANOSECONDS.toMillis(total) + "ms");
+      reportCrossNode(before, numaStat());
+    } finally {
+      clients.shutdown();
+    }
+  }
+
+  private static void reportCrossNode(Map<String, Long> before, Map<String, Long> after) {
+    if (before.isEmpty() || after.isEmpty()) {
+      System.out.println("no NUMA counters on this host");
+      return;
+    }
+    Map<String, Long> moved = new TreeMap<>();
+    after.forEach((counter, value) -> moved.put(counter, value - before.getOrDefault(counter, 0L)));
+    long local = moved.getOrDefault("local_node", 0L);
+    long remote = moved.getOrDefault("other_node", 0L);
+    System.out.println("NUMA counters moved " + moved);
+    if (local + remote > 0) {
+      System.out.println("cross node allocations " + (remote * 100 / (local + remote)) + "% (" + remote + " of " + (local + remote) + ")");
+    }
+  }
+
+  /**
+   * Sums the allocation counters, numa_hit, numa_miss, local_node, other_node and so on, of every
+   * node.  Empty when the host does not expose them.
+   */
+  private static Map<String, Long> numaStat() {
+    Map<String, Long> counters = new TreeMap<>();
+    Path nodes = Paths.get("/sys/devices/system/node");
+    if (!Files.isDirectory(nodes)) {
+      return counters;
+    }
+    try (DirectoryStream<Path> dirs = Files.newDirectoryStream(nodes, "node[0-9]*")) {
+      for (Path node : dirs) {
+        Path stat = node.resolve("numastat");
+        if (Files.isReadable(stat)) {
+          for (String line : Files.readAllLines(stat)) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length == 2) {
+              counters.merge(parts[0], Long.parseLong(parts[1]), Long::sum);
+            }
+          }
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      counters.clear();
+    }
+    return counters;
+  }
+
+  private static long load(String name) throws Exception {
+    try (Connection c = CLUSTER.newConnection()) {
+      EntityRef<ConcurrentClusteredMap, MapConfig, Void> map = c.getEntityRef(ConcurrentClusteredMap.class, 1L, name);
+      map.create(new MapConfig(8, name));
+      ConcurrentClusteredMap<String, String> cmap = map.fetchEntity(null);
+      cmap.setTypes(String.class, String.class);
+      long start = System.nanoTime();
+      for (int x = 0; x < ENTRIES; x++) {
+        cmap.put(Integer.toString(x), "the quick brown fox jumped over the goat");
+      }
+      long time = System.nanoTime() - start;
+      cmap.close();
+      return time;
+    }
+  }
+}
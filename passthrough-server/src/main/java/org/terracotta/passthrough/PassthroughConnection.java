@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,10 +22,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Vector;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -70,13 +73,13 @@ public class PassthroughConnection implements Connection {
   // ivars related to message passing and client thread.
   private volatile State state = State.INIT;
   private Thread clientThread;
-  private final List<ServerToClientMessageRecord> messageQueue;
+  private final BlockingQueue<ServerToClientMessageRecord> messageQueue;
   // NOTE:  this queue exists to carry any Futures pushed in when the server-side injects a message to the client.
   // This approach is an ugly work-around for limitations imposed by running the server message processing and server
   // execution on a single thread.  Ideally, we would send another message to the server, in this case, to better emulate
   // the real implementation.
   // TODO:  Remove this in favor of splitting the server-side execution thread from its message processing thread.
-  private final List<Waiter> clientResponseWaitQueue;
+  private final Queue<Waiter> clientResponseWaitQueue;
   
   // This is only used during reconnect.
   private Map<Long, PassthroughInvocationCallback> invocationsToResend;
@@ -97,8 +100,9 @@ public class PassthroughConnection implements Connection {
     this.uniqueConnectionID = uniqueConnectionID;
     this.endpointConnector = endpointConnector;
     this.readerThreadName = readerThreadName;
-    this.messageQueue = new Vector<ServerToClientMessageRecord>();
-    this.clientResponseWaitQueue = new Vector<Waiter>();
+    // Both queues are written by server threads (possibly several invoke lanes) without taking the connection monitor.
+    this.messageQueue = new LinkedBlockingQueue<ServerToClientMessageRecord>();
+    this.clientResponseWaitQueue = new ConcurrentLinkedQueue<Waiter>();
   }
 
   @Override
@@ -193,12 +197,11 @@ public class PassthroughConnection implements Connection {
     return this.endpointConnector.connect(endpoint, service, userData);
   }
 
-  public synchronized void sendMessageToClient(PassthroughServerProcess sender, byte[] payload) {
+  public void sendMessageToClient(PassthroughServerProcess sender, byte[] payload) {
     // The sender is used to determine if this is a message coming in from a stale connection - checked on dequeue to avoid race conditions.
     if (this.connectionState.isConnected(sender)) {
       ServerToClientMessageRecord record = new ServerToClientMessageRecord(sender, payload);
       this.messageQueue.add(record);
-      notifyAll();
     }
   }
   
@@ -220,16 +223,16 @@ public class PassthroughConnection implements Connection {
     }
   }
   
-  private synchronized ServerToClientMessageRecord getNextClientMessage() {
+  private ServerToClientMessageRecord getNextClientMessage() {
     while (state == State.RUNNING) {
-      if (!this.messageQueue.isEmpty()) {
-        return this.messageQueue.remove(0);
-      } else {
-        try {
-          this.wait();
-        } catch (InterruptedException e) {
-          Assert.unexpected(e);
+      try {
+        ServerToClientMessageRecord record = this.messageQueue.take();
+        // The close marker only wakes us to re-check the state.
+        if (record != CLOSE_MARKER) {
+          return record;
         }
+      } catch (InterruptedException e) {
+        Assert.unexpected(e);
       }
     }
     return null;
@@ -289,7 +292,7 @@ public class PassthroughConnection implements Connection {
             // Now, we need to send this response as a sort of ack, to the server.  They typically don't wait for it but
             // they can.
             // TODO:  Remove this in favor of splitting the server-side execution thread from its message processing thread.
-            PassthroughConnection.this.clientResponseWaitQueue.remove(0).finish();
+            PassthroughConnection.this.clientResponseWaitQueue.remove().finish();
             break;
           }
           case CREATE_ENTITY:
@@ -381,10 +384,8 @@ public class PassthroughConnection implements Connection {
       this.connectionState.forceClose();
       
       // We are going to stop processing messages so set us not running and stop our thread.
-      synchronized (this) {
-        this.state = State.CLOSED;
-        this.notifyAll();
-      }
+      this.state = State.CLOSED;
+      this.messageQueue.add(CLOSE_MARKER);
       try {
         this.clientThread.join();
       } catch (InterruptedException e) {
@@ -457,7 +458,7 @@ public class PassthroughConnection implements Connection {
     return thisClientEndpointID;
   }
 
-  public synchronized Future<Void> createClientResponseFuture() {
+  public Future<Void> createClientResponseFuture() {
     Waiter waiter = new Waiter();
     this.clientResponseWaitQueue.add(waiter);
     return waiter;
@@ -574,6 +575,8 @@ public class PassthroughConnection implements Connection {
     this.connectionState.enterDisconnectedState();
   }
 
+  private static final ServerToClientMessageRecord CLOSE_MARKER = new ServerToClientMessageRecord(null, null);
+
   private static class ServerToClientMessageRecord {
     public final PassthroughServerProcess sender;
     public final byte[] payload;
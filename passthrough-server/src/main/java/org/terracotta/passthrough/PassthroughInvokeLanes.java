@@ -0,0 +1,165 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.passthrough;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.terracotta.entity.ConcurrencyStrategy;
+
+
+/**
+ * Runs the invokes of a server on a fixed set of lanes, chosen by the concurrency key of each message, so that the
+ * passthrough server shows the same concurrency as the real server:
+ * -messages with the same key, on the same entity, run in order on the same lane
+ * -messages on the UNIVERSAL_KEY run on whichever lane has the least work queued
+ * -messages on the MANAGEMENT_KEY wait for every lane to go idle and then run on the calling thread
+ * 
+ * Work is only ever submitted from the server thread so, once a flush returns, nothing can be running on a lane until the
+ * server thread submits more.
+ */
+public class PassthroughInvokeLanes {
+  private final Lane[] lanes;
+  // The number of submitted tasks which have not yet finished running.
+  private int outstanding;
+
+  public PassthroughInvokeLanes(String name, int count, Thread.UncaughtExceptionHandler handler, Runnable onLaneStart) {
+    Assert.assertTrue(count > 0);
+    this.lanes = new Lane[count];
+    for (int i = 0; i < count; i++) {
+      this.lanes[i] = new Lane(name + " invoke lane " + i, handler, onLaneStart);
+    }
+  }
+
+  public void start() {
+    for (Lane lane : this.lanes) {
+      lane.thread.start();
+    }
+  }
+
+  /**
+   * Schedules the given task according to its concurrency key.
+   * 
+   * @param concurrencyKey The concurrency key of the message
+   * @param entity The entity the message targets, used to spread the same key on different entities across lanes
+   * @param task The task which runs the message
+   * @throws InterruptedException If the calling thread was interrupted waiting for a MANAGEMENT_KEY flush
+   */
+  public void execute(int concurrencyKey, Object entity, Runnable task) throws InterruptedException {
+    if (ConcurrencyStrategy.MANAGEMENT_KEY == concurrencyKey) {
+      flush();
+      task.run();
+    } else {
+      Lane lane = (ConcurrencyStrategy.UNIVERSAL_KEY == concurrencyKey)
+          ? leastLoaded()
+          : this.lanes[Math.floorMod(concurrencyKey ^ entity.hashCode(), this.lanes.length)];
+      synchronized (this) {
+        this.outstanding += 1;
+      }
+      lane.queue.add(task);
+    }
+  }
+
+  /**
+   * Waits until every task submitted so far has finished running.
+   * 
+   * @throws InterruptedException If the calling thread was interrupted while waiting
+   */
+  public synchronized void flush() throws InterruptedException {
+    while (this.outstanding > 0) {
+      wait();
+    }
+  }
+
+  public boolean isLaneThread() {
+    Thread current = Thread.currentThread();
+    for (Lane lane : this.lanes) {
+      if (lane.thread == current) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Stops all the lanes, dropping any work still queued.  Called once the server thread has stopped.
+   */
+  public void stop() {
+    for (Lane lane : this.lanes) {
+      lane.thread.interrupt();
+    }
+    for (Lane lane : this.lanes) {
+      try {
+        lane.thread.join();
+      } catch (InterruptedException e) {
+        Assert.unexpected(e);
+      }
+      lane.queue.clear();
+    }
+    synchronized (this) {
+      this.outstanding = 0;
+      notifyAll();
+    }
+  }
+
+  private Lane leastLoaded() {
+    Lane least = this.lanes[0];
+    for (Lane lane : this.lanes) {
+      if (lane.queue.size() < least.queue.size()) {
+        least = lane;
+      }
+    }
+    return least;
+  }
+
+  private synchronized void taskDone() {
+    this.outstanding -= 1;
+    if (0 == this.outstanding) {
+      notifyAll();
+    }
+  }
+
+  private class Lane {
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    Lane(String name, Thread.UncaughtExceptionHandler handler, Runnable onLaneStart) {
+      this.thread = new Thread(() -> {
+        onLaneStart.run();
+        runLane();
+      }, name);
+      this.thread.setUncaughtExceptionHandler(handler);
+    }
+
+    private void runLane() {
+      while (true) {
+        Runnable task;
+        try {
+          task = this.queue.take();
+        } catch (InterruptedException e) {
+          // Interruption is how the lanes are stopped.
+          return;
+        }
+        try {
+          task.run();
+        } finally {
+          taskDone();
+        }
+      }
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -302,10 +302,7 @@ public class PassthroughMessageCodec {
 
       @Override
       public Type decode(Type type, boolean shouldReplicate, long transactionID, long oldestTransactionID, DataInputStream input) throws IOException {
-        // The type is an int ordinal after the transactionID.
-        input.readLong();
-        int ordinal = input.readInt();
-        return Type.values()[ordinal];
+        return type;
       }
     };
     return runRawDecoder(decoder, rawMessage);
@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,7 +37,7 @@ import org.terracotta.entity.EntityMessage;
 public class PassthroughRetirementManager {
 
   // This implementation is VERY simple and makes a few corresponding assumptions about how it is being used:
-  // -only one message is being run at any time
+  // -each message runs, and sends its retire, on a single thread (the server thread or one of its invoke lanes)
   // -it is acceptable to treat the logical ordering constraints as global, instead of just within a key
 
   // The list of blocked tuples.  These represent the "global logical ordering" of retirement.
@@ -45,7 +45,8 @@ public class PassthroughRetirementManager {
   // The messages which are still blocking _some_ tuple in the blockedTuples list.
   private final Set<EntityMessage> blockingMessages;
 
-  private final List<EntityMessage> blockCurrentMessageOn = new LinkedList<>();
+  // Per-thread since, with invoke lanes, more than one message can be running at a time.
+  private final ThreadLocal<List<EntityMessage>> blockCurrentMessageOn = ThreadLocal.withInitial(LinkedList::new);
 
   public PassthroughRetirementManager() {
     this.blockedTuples = new LinkedList<>();
@@ -59,17 +60,18 @@ public class PassthroughRetirementManager {
    * @param blockedOn The message on which the currently executing message must block its retirement
    */
   public synchronized void deferCurrentMessage(EntityMessage blockedOn) {
-    this.blockCurrentMessageOn.add(blockedOn);
+    this.blockCurrentMessageOn.get().add(blockedOn);
   }
   
   public synchronized boolean addRetirementTuple(RetirementTuple tuple) {
     boolean didBlockTuple = false;
-    if (!this.blockedTuples.isEmpty() || !this.blockCurrentMessageOn.isEmpty()) {
-      this.blockingMessages.addAll(this.blockCurrentMessageOn);
-      tuple.blockedOn.addAll(this.blockCurrentMessageOn);
+    List<EntityMessage> blockOn = this.blockCurrentMessageOn.get();
+    if (!this.blockedTuples.isEmpty() || !blockOn.isEmpty()) {
+      this.blockingMessages.addAll(blockOn);
+      tuple.blockedOn.addAll(blockOn);
       this.blockedTuples.add(tuple);
       didBlockTuple = true;
-      this.blockCurrentMessageOn.clear();
+      blockOn.clear();
     }
     return didBlockTuple;
   }
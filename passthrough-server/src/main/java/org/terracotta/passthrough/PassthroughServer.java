@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -56,6 +56,8 @@ public class PassthroughServer implements PassthroughDumper {
   private String serverName;
   private int bindPort;
   private int groupPort;
+  // 0 runs every invoke on the server thread, as the passthrough server always has.
+  private int invokeConcurrency;
   
   private boolean isActive;
     
@@ -106,6 +108,20 @@ public class PassthroughServer implements PassthroughDumper {
   public void setGroupPort(int groupPort) {
     this.groupPort = groupPort;
   }
+
+  /**
+   * Opts in to running invokes on a pool of lanes, chosen by the ConcurrencyStrategy of the entity, the way the real server
+   * schedules them:  messages on the same concurrency key run in order while other keys run concurrently, the UNIVERSAL_KEY
+   * runs on any lane and the MANAGEMENT_KEY (as well as every life-cycle message) waits for all other work to finish.
+   * This allows entities to be load-tested in-process.  By default, all invokes run on the single server thread.
+   * 
+   * @param invokeConcurrency The number of invoke lanes, or 0 to run invokes on the server thread
+   */
+  public void setInvokeConcurrency(int invokeConcurrency) {
+    assertFalse(()->this.hasStarted);
+    assertFalse(()->invokeConcurrency < 0);
+    this.invokeConcurrency = invokeConcurrency;
+  }
    
   public void registerServerEntityService(EntityServerService<?, ?> service) {
     assertFalse(()->this.hasStarted);
@@ -184,6 +200,7 @@ public class PassthroughServer implements PassthroughDumper {
 
   private void bootstrapProcess(boolean active) {
     this.serverProcess = new PassthroughServerProcess(serverName, bindPort, groupPort, this.extendedConfigurationObjects, active, this.crasher);
+    this.serverProcess.setInvokeConcurrency(this.invokeConcurrency);
 
     // Populate the server with its services.
     for (EntityServerService<?, ?> serverEntityService : this.savedServerEntityServices) {
@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -105,6 +105,9 @@ public class PassthroughServerProcess implements MessageHandler, PassthroughDump
   private final List<EntityServerService<?, ?>> entityServices;
   private Thread serverThread;
   private Thread.UncaughtExceptionHandler crashHandler;
+  // The number of invoke lanes to run invokes on, or 0 to run them on the server thread.
+  private int invokeConcurrency;
+  private PassthroughInvokeLanes invokeLanes;
   private final BlockingQueue<PassthroughMessageContainer> messageQueue;
   // Currently, for simplicity, we will resolve entities by name.
   // Technically, these should be resolved by class+name.
@@ -164,8 +167,20 @@ public class PassthroughServerProcess implements MessageHandler, PassthroughDump
     this.crashHandler = handler;
   }
   
+  /**
+   * Sets the number of lanes invokes are spread across, by concurrency key, instead of running them on the server thread.
+   * Only takes effect the next time the server thread is started.
+   * 
+   * @param invokeConcurrency The number of invoke lanes, or 0 to run invokes on the server thread
+   */
+  void setInvokeConcurrency(int invokeConcurrency) {
+    Assert.assertTrue(invokeConcurrency >= 0);
+    this.invokeConcurrency = invokeConcurrency;
+  }
+
   public boolean isServerThread() {
-    return serverThread == Thread.currentThread();
+    PassthroughInvokeLanes lanes = this.invokeLanes;
+    return serverThread == Thread.currentThread() || (null != lanes && lanes.isLaneThread());
   }
 
   public PassthroughRetirementManager getRetirementManager() {
@@ -301,10 +316,10 @@ public class PassthroughServerProcess implements MessageHandler, PassthroughDump
   private void startServerThreadRunning() {
     Assert.assertTrue(null == this.serverThread);
     this.serverThread = new Thread(this::runServerThread);
-    if (this.crashHandler != null) {
-      this.serverThread.setUncaughtExceptionHandler(this.crashHandler);
-    } else {
-      this.serverThread.setUncaughtExceptionHandler(PassthroughUncaughtExceptionHandler.sharedInstance);
+    Thread.UncaughtExceptionHandler handler = (this.crashHandler != null) ? this.crashHandler : PassthroughUncaughtExceptionHandler.sharedInstance;
+    this.serverThread.setUncaughtExceptionHandler(handler);
+    if (this.invokeConcurrency > 0) {
+      this.invokeLanes = new PassthroughInvokeLanes(getSafeServerName(), this.invokeConcurrency, handler, this::setServerEnv);
     }
 
     this.running.raise();
@@ -327,6 +342,9 @@ public class PassthroughServerProcess implements MessageHandler, PassthroughDump
       long timestamp = System.currentTimeMillis();
       this.serviceInterface.addNode(PlatformMonitoringConstants.PLATFORM_PATH, PlatformMonitoringConstants.STATE_NODE_NAME, new ServerState(stateValue, timestamp, (this.activeEntities != null) ? timestamp : -1));
     }
+    if (null != this.invokeLanes) {
+      this.invokeLanes.start();
+    }
     this.serverThread.start();
   }
 
@@ -369,6 +387,11 @@ public class PassthroughServerProcess implements MessageHandler, PassthroughDump
     } catch (InterruptedException e) {
       Assert.unexpected(e);
     }
+    // The lanes are only fed by the server thread so they can be stopped once it has exited.
+    if (null != this.invokeLanes) {
+      this.invokeLanes.stop();
+      this.invokeLanes = null;
+    }
     // We also want to clear the message queue, in case anything else is still sitting there.
     this.messageQueue.clear();
     this.serverThread = null;
@@ -754,32 +777,43 @@ public class PassthroughServerProcess implements MessageHandler, PassthroughDump
   
   private void serverThreadHandleMessage(IMessageSenderWrapper sender, byte[] message) {
     // Called on the server thread to handle a message.
+    // Anything other than an invoke is handled like the MANAGEMENT_KEY:  it waits for all the invokes in flight.
+    if (null != this.invokeLanes && PassthroughMessage.Type.INVOKE_ON_SERVER != PassthroughMessageCodec.decodeTransactionTypeFromRawMessage(message)) {
+      try {
+        this.invokeLanes.flush();
+      } catch (InterruptedException ie) {
+        if (running.isRaised()) {
+          Assert.unexpected(ie);
+        }
+        return;
+      }
+    }
     PassthroughMessageCodec.Decoder<Void> decoder = new PassthroughServerMessageDecoder(this, this, this.transactionOrderManager, this.lifeCycleMessageHandler, this.downstreamPassives, sender, this.crasher, message);
     PassthroughMessageCodec.decodeRawMessage(decoder, message);
   }
 
   @Override
-  public byte[] invoke(IMessageSenderWrapper sender,
-                       long clientInstanceID,
-                       long transactionId,
-                       long eldestTransactionId,
-                       String entityClassName,
-                       String entityName,
-                       byte[] payload) throws EntityException {
+  public void invoke(IMessageSenderWrapper sender,
+                     long clientInstanceID,
+                     long transactionId,
+                     long eldestTransactionId,
+                     String entityClassName,
+                     String entityName,
+                     byte[] payload,
+                     IInvokeResult onInvoke) throws EntityException {
     final PassthroughEntityTuple entityTuple = new PassthroughEntityTuple(entityClassName, entityName);
-    byte[] response = null;
     if (null != this.activeEntities) {
       // Invoke on active.
       CreationData<?, ?> data = this.activeEntities.get(entityTuple);
       if (null != data) {
         PassthroughClientDescriptor clientDescriptor = sender.clientDescriptorForID(clientInstanceID);
-        response = sendActiveInvocation(sender, entityClassName,
-                                        entityName,
-                                        clientDescriptor,
-                                        transactionId,
-                                        eldestTransactionId,
-                                        data,
-                                        payload);
+        sendActiveInvocation(sender, entityTuple,
+                             clientDescriptor,
+                             transactionId,
+                             eldestTransactionId,
+                             data,
+                             payload,
+                             onInvoke);
       } else {
         throw new EntityNotFoundException(entityClassName, entityName);
       }
@@ -792,66 +826,122 @@ public class PassthroughServerProcess implements MessageHandler, PassthroughDump
         PassthroughClientDescriptor clientDescriptor = sender.clientDescriptorForID(clientInstanceID);
 
         // There is no return type in the passive case.
-        sendPassiveInvocation(entityClassName,
-                              entityName,
+        sendPassiveInvocation(entityTuple,
                               clientDescriptor,
                               transactionId,
                               eldestTransactionId,
                               data,
-                              payload);
+                              payload,
+                              onInvoke);
       } else {
         throw new EntityNotFoundException(entityClassName, entityName);
       }
     }
-    return response;
   }
 
-  private <M extends EntityMessage, R extends EntityResponse> byte[] sendActiveInvocation(IMessageSenderWrapper sender, String className,
-                                                                                          String entityName,
-                                                                                          ClientDescriptor clientDescriptor,
-                                                                                          long transactionId,
-                                                                                          long eldestTransactionId,
-                                                                                          CreationData<M, R> data,
-                                                                                          byte[] payload) throws EntityException {
+  private <M extends EntityMessage, R extends EntityResponse> void sendActiveInvocation(IMessageSenderWrapper sender, PassthroughEntityTuple entityTuple,
+                                                                                        ClientDescriptor clientDescriptor,
+                                                                                        long transactionId,
+                                                                                        long eldestTransactionId,
+                                                                                        CreationData<M, R> data,
+                                                                                        byte[] payload,
+                                                                                        IInvokeResult onInvoke) throws EntityException {
+    String className = entityTuple.entityClassName;
+    String entityName = entityTuple.entityName;
     ActiveServerEntity<M, R> entity = data.getActive();
     MessageCodec<M, R> codec = data.messageCodec;
     M msg = deserialize(className, entityName, codec, payload);
     if (data.executionStrategy.getExecutionLocation(msg).runOnActive()) {
-      try {
-        int cKey = data.concurrency.concurrencyKey(msg);
-        R response = entity.invokeActive(new PassThroughServerActiveInvokeContext<>(msg, clientDescriptor,
-                                                                                  cKey,
-                                                                                  transactionId,
-                                                                                  eldestTransactionId, sender, retirementManager, codec),
-                                         msg);
-        return serializeResponse(className, entityName, codec, response);
-      } catch (EntityUserException eu) {
-        throw new EntityServerException(className, entityName, eu.getLocalizedMessage(), eu);
-      }
+      int cKey = data.concurrency.concurrencyKey(msg);
+      runInvoke(entityTuple, cKey, () -> {
+        try {
+          R response = entity.invokeActive(new PassThroughServerActiveInvokeContext<>(msg, clientDescriptor,
+                                                                                    cKey,
+                                                                                    transactionId,
+                                                                                    eldestTransactionId, sender, retirementManager, codec),
+                                           msg);
+          return serializeResponse(className, entityName, codec, response);
+        } catch (EntityUserException eu) {
+          throw new EntityServerException(className, entityName, eu.getLocalizedMessage(), eu);
+        }
+      }, onInvoke);
     } else {
-      return new byte[0];
+      onInvoke.onInvokeComplete(new byte[0], null);
     }
   }
 
-  private <M extends EntityMessage, R extends EntityResponse> void sendPassiveInvocation(String className,
-                                                                                         String entityName,
+  private <M extends EntityMessage, R extends EntityResponse> void sendPassiveInvocation(PassthroughEntityTuple entityTuple,
                                                                                          ClientDescriptor clientDescriptor,
                                                                                          long transactionId,
                                                                                          long eldestTransactionId,
                                                                                          CreationData<M, R> data,
-                                                                                         byte[] payload) throws EntityException {
+                                                                                         byte[] payload,
+                                                                                         IInvokeResult onInvoke) throws EntityException {
+    String className = entityTuple.entityClassName;
+    String entityName = entityTuple.entityName;
     PassiveServerEntity<M, R> entity = data.getPassive();
     MessageCodec<M, R> codec = data.messageCodec;
     M msg = deserialize(className, entityName, codec, payload);
     int cKey = data.concurrency.concurrencyKey(msg);
     if (data.executionStrategy.getExecutionLocation(msg).runOnPassive()) {
+      runInvoke(entityTuple, cKey, () -> {
+        try {
+          entity.invokePassive(new PassThroughServerInvokeContext(clientDescriptor.getSourceId(), cKey,
+                                                                  transactionId,
+                                                                  eldestTransactionId),
+                               msg);
+        } catch (EntityUserException eu) {
+          throw new EntityServerException(className, entityName, eu.getLocalizedMessage(), eu);
+        }
+        return null;
+      }, onInvoke);
+    } else {
+      onInvoke.onInvokeComplete(null, null);
+    }
+  }
+
+  private interface InvokeTask {
+    byte[] run() throws EntityException;
+  }
+  /**
+   * Runs the invoke on the lane for its concurrency key or, if there are no invoke lanes, directly on the server thread.
+   * Either way, the result is handed to onInvoke on the thread which ran the invoke.
+   */
+  private void runInvoke(PassthroughEntityTuple entityTuple, int concurrencyKey, InvokeTask task, IInvokeResult onInvoke) {
+    Runnable invoke = () -> {
+      byte[] response = null;
+      EntityException error = null;
+      try {
+        response = task.run();
+      } catch (EntityException e) {
+        error = e;
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+        // Just wrap this as a user exception since it was unexpected.
+        error = new EntityServerException(entityTuple.entityClassName, entityTuple.entityName, e.getLocalizedMessage(), e);
+      }
+      onInvoke.onInvokeComplete(response, error);
+    };
+    PassthroughInvokeLanes lanes = this.invokeLanes;
+    if (null == lanes) {
+      invoke.run();
+    } else {
       try {
-        entity.invokePassive(new PassThroughServerInvokeContext(clientDescriptor.getSourceId(), cKey,
-                                                                transactionId,
-                                                                eldestTransactionId),
-                             msg);
-      } catch (EntityUserException eu) {
-        throw new EntityServerException(className, entityName, eu.getLocalizedMessage(), eu);
+        lanes.execute(concurrencyKey, entityTuple, () -> {
+          try {
+            invoke.run();
+          } catch (Throwable t) {
+            // Same as the server thread:  a stopping server may upset entity code so only escalate while running.
+            if (running.isRaised()) {
+              throw t;
+            }
+          }
+        });
+      } catch (InterruptedException ie) {
+        // The server thread is only interrupted when the server is stopping.
+        if (running.isRaised()) {
+          Assert.unexpected(ie);
+        }
       }
     }
   }
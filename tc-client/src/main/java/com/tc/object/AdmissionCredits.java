@@ -0,0 +1,126 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.object;
+
+import com.tc.text.PrettyPrintable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The window of invokes, and of invoke payload bytes, the server granted this client in the
+ * handshake.  An invoke holds its credit from before it is sent until it retires, so the client
+ * never has more in flight than the server is prepared to queue for it.  Until a grant arrives,
+ * or when the server grants nothing, the window is unbounded.
+ * <p>
+ * A single invoke larger than the byte window is let through once nothing else is held.  Invokes
+ * made from an invocation callback never wait, they go over the window.
+ */
+class AdmissionCredits implements PrettyPrintable {
+  private int grantedMessages;
+  private long grantedBytes;
+  private int heldMessages;
+  private long heldBytes;
+  private boolean closed;
+
+  private long waits;
+  private long waitTime;
+  private long overdrawn;
+
+  synchronized void grant(int messages, long bytes) {
+    this.grantedMessages = Math.max(0, messages);
+    this.grantedBytes = Math.max(0, bytes);
+    notifyAll();
+  }
+
+  /**
+   * @return true if an invoke of this size can take its credit without waiting
+   */
+  synchronized boolean hasRoom(long size) {
+    return closed || grantedMessages == 0 || fits(size);
+  }
+
+  /**
+   * Takes the credit for an invoke, waiting for retirements to return credit if the window is
+   * full.  An invoke which may not wait, one made from an invocation callback whose thread delivers
+   * the retirements, takes its credit over the window instead.
+   *
+   * @return true if a credit was taken and must be released when the invoke retires, false if
+   *         the window is unbounded or closed
+   * @throws InterruptedException if interrupted while waiting, no credit is taken
+   */
+  synchronized boolean acquire(long size, boolean mayWait) throws InterruptedException {
+    if (closed || grantedMessages == 0) {
+      return false;
+    }
+    if (!fits(size)) {
+      if (mayWait) {
+        long start = System.nanoTime();
+        waits++;
+        try {
+          while (!closed && grantedMessages > 0 && !fits(size)) {
+            wait();
+          }
+        } finally {
+          waitTime += System.nanoTime() - start;
+        }
+        if (closed || grantedMessages == 0) {
+          return false;
+        }
+      } else {
+        overdrawn++;
+      }
+    }
+    heldMessages++;
+    heldBytes += size;
+    return true;
+  }
+
+  synchronized void release(long size) {
+    heldMessages--;
+    heldBytes -= size;
+    notifyAll();
+  }
+
+  /**
+   * Lets every waiter through, nothing is sent once the client shuts down.
+   */
+  synchronized void close() {
+    closed = true;
+    notifyAll();
+  }
+
+  private boolean fits(long size) {
+    if (heldMessages >= grantedMessages) {
+      return false;
+    }
+    return grantedBytes == 0 || heldMessages == 0 || heldBytes + size <= grantedBytes;
+  }
+
+  @Override
+  public synchronized Map<String, ?> getStateMap() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("grantedMessages", grantedMessages);
+    map.put("grantedBytes", grantedBytes);
+    map.put("heldMessages", heldMessages);
+    map.put("heldBytes", heldBytes);
+    map.put("waits", waits);
+    map.put("waitTime", waitTime);
+    map.put("overdrawn", overdrawn);
+    return map;
+  }
+}
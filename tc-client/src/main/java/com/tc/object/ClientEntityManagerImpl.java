@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -36,6 +36,7 @@ import org.terracotta.exception.ConnectionClosedException;
 import org.terracotta.exception.EntityException;
 
 import com.tc.entity.NetworkVoltronEntityMessage;
+import com.tc.entity.NetworkVoltronEntityMultiMessage;
 import com.tc.entity.ResendVoltronEntityMessage;
 import com.tc.entity.VoltronEntityMessage;
 import com.tc.entity.VoltronEntityMultiResponse;
@@ -53,14 +54,18 @@ import com.tc.object.msg.ClientEntityReferenceContext;
 import com.tc.object.msg.ClientHandshakeMessage;
 import com.tc.object.session.SessionID;
 import com.tc.object.tx.TransactionID;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.text.MapListPrettyPrint;
 import com.tc.text.PrettyPrintable;
 import com.tc.util.Assert;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -88,7 +93,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   private final Logger logger;
 
   private final ClientMessageChannel channel;
-  private final ConcurrentMap<TransactionID, InFlightMessage> inFlightMessages;
+  private final TransactionTable<InFlightMessage> inFlightMessages;
   private final TransactionSource transactionSource;
 
   private final ClientEntityStateManager stateManager;
@@ -99,11 +104,19 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   private final LongAdder msgCount = new LongAdder();
   private final LongAdder inflights = new LongAdder();
   private final LongAdder addWindow = new LongAdder();
+  // invocations each endpoint may have in flight, 0 for no limit
+  private final int endpointWindow = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L1_ENTITY_INFLIGHT_WINDOW, 0);
+  // ask the server to take batched invokes as one multi message
+  private final boolean batchInvokes = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.L1_ENTITY_INVOKE_BATCHING, true);
+  // the server accepted batched invokes in the last handshake
+  private volatile boolean serverBatches;
+  // invoke window granted by the server in the handshake
+  private final AdmissionCredits credits = new AdmissionCredits();
 
   public ClientEntityManagerImpl(ClientMessageChannel channel) {
     this.channel = channel;
     this.logger = new ClientIDLogger(() -> channel.getClientID(), LoggerFactory.getLogger(ClientEntityManager.class));
-    this.inFlightMessages = new ConcurrentHashMap<>();
+    this.inFlightMessages = new TransactionTable<>(m->m.getTransactionID().toLong());
     this.transactionSource = new TransactionSource();
     this.stateManager = new ClientEntityStateManager();
     this.objectStoreMap = new ConcurrentHashMap<>(10240, 0.75f, 128);
@@ -118,7 +131,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
     if (this.stateManager.isShutdown()) {
       return false;
     } else {
-      inFlightMessages.put(msg.getTransactionID(), msg);
+      inFlightMessages.put(msg);
       return true;
     }
   }
@@ -131,7 +144,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
 
   @Override
   public void handleMessage(TransactionID tid, byte[] message) {
-    InFlightMessage msg = this.inFlightMessages.get(tid);
+    InFlightMessage msg = this.inFlightMessages.get(tid.toLong());
     if (msg != null) {
       msg.handleMessage(message);
     } else {
@@ -141,7 +154,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
 
   @Override
   public void handleStatistics(TransactionID tid, long[] message) {
-    InFlightMessage msg = this.inFlightMessages.get(tid);
+    InFlightMessage msg = this.inFlightMessages.get(tid.toLong());
     if (msg != null) {
       msg.addServerStatistics(message);
     } else {
@@ -250,6 +263,63 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
     return invoke(eid, entityDescriptor, requestedCallbacks, callback, requiresReplication, VoltronEntityMessage.Type.INVOKE_ACTION, payload);
   }
 
+  @Override
+  public List<Invocation.Task> invokeActions(EntityID eid, EntityDescriptor entityDescriptor, Set<InvocationCallback.Types> requestedCallbacks,
+                                             List<SafeInvocationCallback<byte[]>> callbacks, boolean requiresReplication, List<byte[]> payloads) {
+    Set<VoltronEntityMessage.Acks> requestedAcks = makeServerAcks(requestedCallbacks);
+    Invocation.Task[] tasks = new Invocation.Task[payloads.size()];
+    InFlightMessage[] batch = new InFlightMessage[payloads.size()];
+    boolean[] queued = new boolean[payloads.size()];
+    // track the whole batch before sending any of it, it then goes out as one multi message or, with batching
+    // turned off, back to back so the connection packs it into as few writes as it can
+    int unsent = 0;
+    try {
+      for (int x = 0; x < batch.length; x++) {
+        byte[] payload = payloads.get(x);
+        try {
+          batch[x] = new InFlightMessage(eid, () -> createMessageWithDescriptor(eid, entityDescriptor, requiresReplication, payload, VoltronEntityMessage.Type.INVOKE_ACTION, requestedAcks), callbacks.get(x));
+          if (x > unsent && !credits.hasRoom(batch[x].getCreditSize())) {
+            // send what is tracked so far, the invoke window only opens up as those retire
+            sendTracked(batch, queued, callbacks, tasks, unsent, x);
+            unsent = x;
+          }
+          queued[x] = trackInFlightMessage(batch[x]);
+        } catch (ConnectionClosedException e) {
+          batch[x] = null;
+          tasks[x] = failUnsent(callbacks.get(x), e);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          batch[x] = null;
+          tasks[x] = failUnsent(callbacks.get(x), e);
+        }
+      }
+      sendTracked(batch, queued, callbacks, tasks, unsent, batch.length);
+    } catch (RuntimeException e) {
+      // whatever has no task was never sent, stop tracking it and fail it so nothing waits on a reply
+      for (int x = 0; x < tasks.length; x++) {
+        if (tasks[x] == null) {
+          if (batch[x] != null && queued[x]) {
+            untrackInFlightMessage(batch[x]);
+          }
+          tasks[x] = failUnsent(callbacks.get(x), e);
+        }
+      }
+    }
+    return Arrays.asList(tasks);
+  }
+
+  private void sendTracked(InFlightMessage[] batch, boolean[] queued, List<SafeInvocationCallback<byte[]>> callbacks, Invocation.Task[] tasks, int from, int to) {
+    if (serverBatches && to - from > 1) {
+      sendInFlightBatch(batch, queued, callbacks, tasks, from, to);
+    } else {
+      for (int x = from; x < to; x++) {
+        if (batch[x] != null) {
+          tasks[x] = sendInFlightMessage(batch[x], queued[x], callbacks.get(x));
+        }
+      }
+    }
+  }
+
   private Invocation.Task invoke(EntityID eid, EntityDescriptor entityDescriptor, Set<InvocationCallback.Types> requestedCallbacks,
                                  SafeInvocationCallback<byte[]> callback, boolean requiresReplication, VoltronEntityMessage.Type type, byte[] payload) {
     Set<VoltronEntityMessage.Acks> requestedAcks = makeServerAcks(requestedCallbacks);
@@ -281,6 +351,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
       sub.put("pendingMessages", inFlightMessages.size());
     }
     map.put("channel", sub);
+    map.put("credits", credits.getStateMap());
     if (stats instanceof PrettyPrintable) {
       sub.put("stats", ((PrettyPrintable)stats).getStateMap());
     }
@@ -291,7 +362,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   @Override
   public void received(TransactionID id) {
     // Note that this call comes the platform, potentially concurrently with complete()/failure().
-    InFlightMessage inFlight = inFlightMessages.get(id);
+    InFlightMessage inFlight = inFlightMessages.get(id.toLong());
     if (inFlight != null) {
       inFlight.received();
     } else {
@@ -308,7 +379,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   @Override
   public void complete(TransactionID id, byte[] value) {
     // Note that this call comes the platform, potentially concurrently with received().
-    InFlightMessage inFlight = inFlightMessages.get(id);
+    InFlightMessage inFlight = inFlightMessages.get(id.toLong());
     if (inFlight != null) {
       inFlight.setResult(value, null);
     } else {
@@ -319,7 +390,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   @Override
   public void failed(TransactionID id, Exception error) {
     // Note that this call comes the platform, potentially concurrently with received().
-    InFlightMessage inFlight = inFlightMessages.get(id);
+    InFlightMessage inFlight = inFlightMessages.get(id.toLong());
     if (inFlight != null) {
       inFlight.setResult(null, error);
     } else {
@@ -331,8 +402,9 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   public void retired(TransactionID id) {
     // We only retire the InFlightMessage from our mapping and release the request ticket once we get the retired ACK.
     try {
-      InFlightMessage inFlight = inFlightMessages.remove(id);
+      InFlightMessage inFlight = inFlightMessages.remove(id.toLong());
       if (inFlight != null) {
+        returnCredit(inFlight);
         inFlight.retired();
       } else {
         // resend result or stop
@@ -342,6 +414,16 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
     }
   }
 
+  @Override
+  public void grantCredits(int messages, long bytes) {
+    credits.grant(messages, bytes);
+  }
+
+  @Override
+  public void acceptBatchedInvokes(boolean accepted) {
+    serverBatches = batchInvokes && accepted;
+  }
+
   @Override
   public synchronized void pause() {
     stateManager.pause();
@@ -355,6 +437,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
 
   @Override
   public synchronized void initializeHandshake(ClientHandshakeMessage handshakeMessage) {
+    handshakeMessage.setBatchedInvokes(batchInvokes);
     // Walk the objectStoreMap and add reconnect references for any objects found there.
     for (EntityClientEndpointImpl<?, ?> endpoint : this.objectStoreMap.values()) {
       EntityDescriptor descriptor = endpoint.getEntityDescriptor();
@@ -386,6 +469,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
       } else {
         // not sending anymore, drain the permits
         stateManager.stop();
+        credits.close();
         notifyAll();
       }
     }
@@ -419,7 +503,8 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
     msg.setResult(null, closed);
     msg.retired();
     // may or may not be there.
-    inFlightMessages.remove(msg.getTransactionID());
+    inFlightMessages.remove(msg.getTransactionID().toLong());
+    returnCredit(msg);
     transactionSource.retire(msg.getTransactionID());
   }
 
@@ -451,7 +536,7 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
       // We can only fail to get the config if we threw an exception.
       Assert.assertTrue(null != raw);
 
-      resolvedEndpoint = new EntityClientEndpointImpl<>(entity, version, EntityDescriptor.createDescriptorForInvoke(fetch, instance), this, config, codec, closeCall, this.endpointCloser);
+      resolvedEndpoint = new EntityClientEndpointImpl<>(entity, version, EntityDescriptor.createDescriptorForInvoke(fetch, instance), this, config, codec, closeCall, this.endpointCloser, endpointWindow);
       
       if (this.objectStoreMap.putIfAbsent(instance, resolvedEndpoint) != null) {
         throw Assert.failure("Attempt to add an object that already exists: Object of class " + resolvedEndpoint.getClass()
@@ -504,45 +589,147 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   }
 
   private Invocation.Task queueInFlightMessage(EntityID eid, Supplier<NetworkVoltronEntityMessage> message, SafeInvocationCallback<byte[]> callback) {
-    boolean queued;
     try {
       InFlightMessage inFlight = new InFlightMessage(eid, message, callback);
+      boolean queued = trackInFlightMessage(inFlight);
       try {
-        msgCount.increment();
-        inflights.add(inFlightMessages.size());
-        // NOTE:  If we are already stop, the handler in outbound will fail this message for us.
-        queued = enqueueMessage(inFlight);
-      } catch (Throwable t) {
-        transactionSource.retire(inFlight.getTransactionID());
-        throw t;
+        return sendInFlightMessage(inFlight, queued, callback);
+      } catch (RuntimeException e) {
+        // not sent, nothing will retire it
+        if (queued) {
+          untrackInFlightMessage(inFlight);
+        }
+        throw e;
       }
+    } catch (ConnectionClosedException e) {
+      return failUnsent(callback, e);
+    } catch (InterruptedException e) {
+      // interrupted waiting for credit, nothing was sent
+      Thread.currentThread().interrupt();
+      return failUnsent(callback, e);
+    }
+  }
+
+  private boolean trackInFlightMessage(InFlightMessage inFlight) throws InterruptedException {
+    try {
+      takeCredit(inFlight);
+      msgCount.increment();
+      inflights.add(inFlightMessages.size());
+      // NOTE:  If we are already stop, the handler in outbound will fail this message for us.
+      return enqueueMessage(inFlight);
+    } catch (Throwable t) {
+      returnCredit(inFlight);
+      transactionSource.retire(inFlight.getTransactionID());
+      throw t;
+    }
+  }
 
+  private void untrackInFlightMessage(InFlightMessage inFlight) {
+    inFlightMessages.remove(inFlight.getTransactionID().toLong(), inFlight);
+    returnCredit(inFlight);
+    transactionSource.retire(inFlight.getTransactionID());
+  }
+
+  private void takeCredit(InFlightMessage inFlight) throws InterruptedException {
+    long size = inFlight.getCreditSize();
+    // never wait on a callback thread, the retirements which return credit are delivered on it
+    if (size >= 0 && credits.acquire(size, !EntityClientEndpointImpl.isInCallback())) {
+      inFlight.holdCredit(size);
+    }
+  }
+
+  private void returnCredit(InFlightMessage inFlight) {
+    long size = inFlight.releaseCredit();
+    if (size >= 0) {
+      credits.release(size);
+    }
+  }
+
+  private Invocation.Task sendInFlightMessage(InFlightMessage inFlight, boolean queued, SafeInvocationCallback<byte[]> callback) {
+    try {
       if (queued && !stateManager.isShutdown()) {
         inFlight.sent();
-        if (!inFlight.send()) {
-          logger.debug("message not sent.  Make sure resend happens " + inFlight);
-          if (!channel.getProductID().isReconnectEnabled()) {
-            throwClosedExceptionOnMessage(inFlight, "connection not capable of resend");
-          }
-        }
+        checkSent(inFlight, inFlight.send());
       } else {
         throwClosedExceptionOnMessage(inFlight, "Connection closed before sending message");
       }
-      return () -> {
-        if (inFlight.cancel()) {
-          inFlightMessages.remove(inFlight.getTransactionID(), inFlight);
-          return true;
-        } else {
-          return false;
-        }
-      };
+      return cancelTask(inFlight);
     } catch (ConnectionClosedException e) {
-      callback.sent();
-      callback.failure(e);
-      callback.complete();
-      callback.retired();
-      return () -> false;
+      return failUnsent(callback, e);
+    }
+  }
+
+  /**
+   * Sends the queued messages of a range of a batch as one network message.  Messages which are not queued are failed as they would
+   * be when sent on their own.
+   */
+  private void sendInFlightBatch(InFlightMessage[] batch, boolean[] queued, List<SafeInvocationCallback<byte[]>> callbacks, Invocation.Task[] tasks, int from, int to) {
+    NetworkVoltronEntityMultiMessage multi = (NetworkVoltronEntityMultiMessage) channel.createMessage(TCMessageType.VOLTRON_ENTITY_MULTI_MESSAGE);
+    for (int x = from; x < to; x++) {
+      if (batch[x] != null && queued[x]) {
+        multi.addMessage((NetworkVoltronEntityMessage) batch[x].getMessage());
+      } else if (batch[x] != null) {
+        tasks[x] = sendInFlightMessage(batch[x], false, callbacks.get(x));
+        batch[x] = null;
+      }
+    }
+    if (multi.getMessageCount() == 0) {
+      return;
+    }
+    if (stateManager.isShutdown()) {
+      for (int x = from; x < to; x++) {
+        if (batch[x] != null) {
+          tasks[x] = sendInFlightMessage(batch[x], false, callbacks.get(x));
+        }
+      }
+      return;
     }
+    for (int x = from; x < to; x++) {
+      if (batch[x] != null) {
+        batch[x].sent();
+      }
+    }
+    long send = System.nanoTime();
+    NetworkRecall sent = multi.send();
+    for (int x = from; x < to; x++) {
+      if (batch[x] != null) {
+        try {
+          checkSent(batch[x], batch[x].sentWith(sent, send));
+          tasks[x] = cancelTask(batch[x]);
+        } catch (ConnectionClosedException e) {
+          tasks[x] = failUnsent(callbacks.get(x), e);
+        }
+      }
+    }
+  }
+
+  private void checkSent(InFlightMessage inFlight, boolean sent) {
+    if (!sent) {
+      logger.debug("message not sent.  Make sure resend happens " + inFlight);
+      if (!channel.getProductID().isReconnectEnabled()) {
+        throwClosedExceptionOnMessage(inFlight, "connection not capable of resend");
+      }
+    }
+  }
+
+  private Invocation.Task cancelTask(InFlightMessage inFlight) {
+    return () -> {
+      if (inFlight.cancel()) {
+        inFlightMessages.remove(inFlight.getTransactionID().toLong(), inFlight);
+        returnCredit(inFlight);
+        return true;
+      } else {
+        return false;
+      }
+    };
+  }
+
+  private static Invocation.Task failUnsent(SafeInvocationCallback<byte[]> callback, Throwable e) {
+    callback.sent();
+    callback.failure(e);
+    callback.complete();
+    callback.retired();
+    return () -> false;
   }
 
   private NetworkVoltronEntityMessage createMessageWithoutClientInstance(EntityID entityID, long version, boolean requiresReplication, byte[] config, VoltronEntityMessage.Type type, Set<VoltronEntityMessage.Acks> acks) {
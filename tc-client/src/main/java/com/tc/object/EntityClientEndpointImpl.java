@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -28,12 +28,16 @@ import org.terracotta.entity.MessageCodecException;
 
 import com.tc.util.Assert;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +48,9 @@ import org.terracotta.exception.EntityException;
 public class EntityClientEndpointImpl<M extends EntityMessage, R extends EntityResponse> implements EntityClientEndpoint<M, R> {
 
   private static Logger LOGGER = LoggerFactory.getLogger(EntityClientEndpointImpl.class);
+  // set while an invocation callback runs.  retirements are delivered on the same thread so an invocation
+  // made from a callback must not wait for the window to open
+  private static final ThreadLocal<Boolean> IN_CALLBACK = ThreadLocal.withInitial(() -> false);
 
   private final InvocationHandler invocationHandler;
   private final byte[] configuration;
@@ -57,6 +64,8 @@ public class EntityClientEndpointImpl<M extends EntityMessage, R extends EntityR
   private boolean isOpen;
   private Future<Void> releaseFuture;
   private final InFlightStats stats = new InFlightStats();
+  // bounds the invocations in flight, null when unbounded
+  private final Semaphore window;
   /**
    * @param eid The type name name of the target entity
    * @param version the version of the entity targeted
@@ -66,6 +75,15 @@ public class EntityClientEndpointImpl<M extends EntityMessage, R extends EntityR
    * @param closeHook A Runnable which will be run last when the end-point is closed.
    */
   public EntityClientEndpointImpl(EntityID eid, long version, EntityDescriptor instance, InvocationHandler invocationHandler, byte[] entityConfiguration, MessageCodec<M, R> codec, Callable<Void> closeHook, ExecutorService closer) {
+    this(eid, version, instance, invocationHandler, entityConfiguration, codec, closeHook, closer, 0);
+  }
+
+  /**
+   * @param window The most invocations this end-point has in flight, an invocation waits for an earlier one to retire
+   * once there are this many.  0 for no limit.  The wait is interruptible, an interrupted invocation fails with the
+   * {@link InterruptedException}.  Invocations made from an invocation callback do not wait and go over the window.
+   */
+  public EntityClientEndpointImpl(EntityID eid, long version, EntityDescriptor instance, InvocationHandler invocationHandler, byte[] entityConfiguration, MessageCodec<M, R> codec, Callable<Void> closeHook, ExecutorService closer, int window) {
     this.entityID = eid;
     this.version = version;
     this.invokeDescriptor = instance;
@@ -74,6 +92,7 @@ public class EntityClientEndpointImpl<M extends EntityMessage, R extends EntityR
     this.codec = codec;
     this.closeHook = closeHook;
     this.closer = closer;
+    this.window = window > 0 ? new Semaphore(window) : null;
     // We start in the open state.
     this.isOpen = true;
   }
@@ -127,8 +146,89 @@ public class EntityClientEndpointImpl<M extends EntityMessage, R extends EntityR
     return new InvocationImpl(message);
   }
 
+  @Override
+  public List<Future<R>> invokeAll(List<? extends M> messages) {
+    checkEndpointOpen();
+    List<Future<R>> futures = new ArrayList<>(messages.size());
+    Batch batch = new Batch();
+    for (M message : messages) {
+      boolean holdsSlot = window != null && window.tryAcquire();
+      if (window != null && !holdsSlot) {
+        // send what is batched so far, the window only opens up as those retire
+        batch.flush();
+        try {
+          holdsSlot = acquireWindow();
+        } catch (InterruptedException ie) {
+          // the rest of the messages are not sent
+          Thread.currentThread().interrupt();
+          while (futures.size() < messages.size()) {
+            CompletableFuture<R> interrupted = new CompletableFuture<>();
+            interrupted.completeExceptionally(ie);
+            futures.add(interrupted);
+          }
+          return futures;
+        }
+      }
+      futures.add(new BatchedInvocation(message, batch, holdsSlot).invoke());
+    }
+    batch.flush();
+    return futures;
+  }
+
+  /**
+   * @return true if a window slot is held for the invocation, false if there is no window or the invocation is
+   * made from an invocation callback and goes over the window
+   */
+  private boolean acquireWindow() throws InterruptedException {
+    if (window == null) {
+      return false;
+    } else if (window.tryAcquire()) {
+      return true;
+    } else if (IN_CALLBACK.get()) {
+      // the retirements which would open the window are delivered on this thread
+      return false;
+    } else {
+      window.acquire();
+      return true;
+    }
+  }
+
+  /**
+   * @return true if the current thread is running an invocation callback, the thread which delivers the
+   * retirements any wait for an earlier invocation depends on
+   */
+  static boolean isInCallback() {
+    return IN_CALLBACK.get();
+  }
+
+  private static boolean enterCallback() {
+    if (IN_CALLBACK.get()) {
+      return false;
+    }
+    IN_CALLBACK.set(true);
+    return true;
+  }
+
+  private static void exitCallback(boolean entered) {
+    if (entered) {
+      IN_CALLBACK.set(false);
+    }
+  }
+
+  private byte[] encode(M request, SafeInvocationCallback<byte[]> callback) {
+    try {
+      return codec.encodeMessage(request);
+    } catch (MessageCodecException e) {
+      callback.failure(e);
+      callback.complete();
+      callback.retired();
+      return null;
+    }
+  }
+
   private class InvocationImpl implements Invocation<R> {
     private boolean invoked = false;
+    private boolean holdsSlot = false;
     private final M request;
 
     private InvocationImpl(M request) {
@@ -141,15 +241,43 @@ public class EntityClientEndpointImpl<M extends EntityMessage, R extends EntityR
     public Task invoke(InvocationCallback<R> callback, Set<InvocationCallback.Types> callbacks) {
       checkInvoked();
       invoked = true;
-      SafeInvocationCallback<byte[]> binaryCallback = new BinaryInvocationCallback<>(codec, safe(callback));
       try {
-        return invocationHandler.invokeAction(entityID, invokeDescriptor, callbacks, binaryCallback, true, codec.encodeMessage(request));
-      } catch (MessageCodecException e) {
-        binaryCallback.failure(e);
-        binaryCallback.complete();
-        binaryCallback.retired();
+        holdsSlot = acquireWindow();
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        SafeInvocationCallback<R> failed = safe(callback);
+        failed.failure(ie);
+        failed.complete();
+        failed.retired();
         return () -> false;
       }
+      return send(callback, callbacks);
+    }
+
+    @Override
+    public Task tryInvoke(InvocationCallback<R> callback, Set<InvocationCallback.Types> callbacks) {
+      checkInvoked();
+      if (window != null && !window.tryAcquire()) {
+        return null;
+      }
+      invoked = true;
+      holdsSlot = window != null;
+      return send(callback, callbacks);
+    }
+
+    private Task send(InvocationCallback<R> callback, Set<InvocationCallback.Types> callbacks) {
+      WindowedCallback windowed = new WindowedCallback(holdsSlot, new BinaryInvocationCallback<>(codec, safe(callback)));
+      byte[] payload = encode(request, windowed);
+      if (payload == null) {
+        return () -> false;
+      }
+      try {
+        return windowed.wrap(invocationHandler.invokeAction(entityID, invokeDescriptor, callbacks, windowed, true, payload));
+      } catch (RuntimeException | Error e) {
+        // never sent so it never retires
+        windowed.release();
+        throw e;
+      }
     }
 
     private void checkInvoked() {
@@ -159,6 +287,182 @@ public class EntityClientEndpointImpl<M extends EntityMessage, R extends EntityR
     }
   }
 
+  /**
+   * Collects the invocations of an {@link #invokeAll(List)} so they are handed to the invocation handler together.
+   */
+  private class Batch {
+    private final List<SafeInvocationCallback<byte[]>> callbacks = new ArrayList<>();
+    private final List<byte[]> payloads = new ArrayList<>();
+    private final List<DeferredTask> tasks = new ArrayList<>();
+    private Set<InvocationCallback.Types> interests;
+
+    private void add(Set<InvocationCallback.Types> interests, byte[] payload, DeferredTask task) {
+      Assert.assertTrue(this.interests == null || this.interests.equals(interests));
+      this.interests = interests;
+      callbacks.add(task.callback);
+      payloads.add(payload);
+      tasks.add(task);
+    }
+
+    private void flush() {
+      if (!payloads.isEmpty()) {
+        try {
+          List<Invocation.Task> sent = invocationHandler.invokeActions(entityID, invokeDescriptor, interests, callbacks, true, payloads);
+          for (int x = 0; x < sent.size(); x++) {
+            tasks.get(x).sent(sent.get(x));
+          }
+        } catch (RuntimeException | Error e) {
+          // the handler fails the invocations it could not send through their callbacks, anything thrown
+          //  past that leaves no way to tell which of them will retire
+          tasks.forEach(t -> t.callback.release());
+          throw e;
+        } finally {
+          callbacks.clear();
+          payloads.clear();
+          tasks.clear();
+        }
+      }
+    }
+  }
+
+  /**
+   * An invocation of an {@link #invokeAll(List)}.  Its window slot is already taken and it is only sent when the
+   * batch is flushed.
+   */
+  private class BatchedInvocation implements Invocation<R> {
+    private final M request;
+    private final Batch batch;
+    private final boolean holdsSlot;
+
+    private BatchedInvocation(M request, Batch batch, boolean holdsSlot) {
+      this.request = request;
+      this.batch = batch;
+      this.holdsSlot = holdsSlot;
+    }
+
+    @Override
+    public Task invoke(InvocationCallback<R> callback, Set<InvocationCallback.Types> callbacks) {
+      WindowedCallback windowed = new WindowedCallback(holdsSlot, new BinaryInvocationCallback<>(codec, safe(callback)));
+      byte[] payload = encode(request, windowed);
+      if (payload == null) {
+        return () -> false;
+      }
+      DeferredTask task = new DeferredTask(windowed);
+      batch.add(callbacks, payload, task);
+      return task;
+    }
+  }
+
+  private class DeferredTask implements Invocation.Task {
+    private final WindowedCallback callback;
+    private volatile Invocation.Task task;
+
+    private DeferredTask(WindowedCallback callback) {
+      this.callback = callback;
+    }
+
+    private void sent(Invocation.Task sent) {
+      this.task = callback.wrap(sent);
+    }
+
+    @Override
+    public boolean cancel() {
+      Invocation.Task sent = task;
+      return sent != null && sent.cancel();
+    }
+  }
+
+  /**
+   * Gives back the window slot of an invocation once it retires or is cancelled.
+   */
+  private class WindowedCallback implements SafeInvocationCallback<byte[]> {
+    private final SafeInvocationCallback<byte[]> delegate;
+    private final AtomicBoolean released;
+
+    private WindowedCallback(boolean holdsSlot, SafeInvocationCallback<byte[]> delegate) {
+      this.delegate = delegate;
+      this.released = new AtomicBoolean(!holdsSlot);
+    }
+
+    private Invocation.Task wrap(Invocation.Task task) {
+      return () -> {
+        if (task.cancel()) {
+          release();
+          return true;
+        } else {
+          return false;
+        }
+      };
+    }
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        window.release();
+      }
+    }
+
+    @Override
+    public void sent() {
+      boolean entered = enterCallback();
+      try {
+        delegate.sent();
+      } finally {
+        exitCallback(entered);
+      }
+    }
+
+    @Override
+    public void received() {
+      boolean entered = enterCallback();
+      try {
+        delegate.received();
+      } finally {
+        exitCallback(entered);
+      }
+    }
+
+    @Override
+    public void result(byte[] response) {
+      boolean entered = enterCallback();
+      try {
+        delegate.result(response);
+      } finally {
+        exitCallback(entered);
+      }
+    }
+
+    @Override
+    public void failure(Throwable failure) {
+      boolean entered = enterCallback();
+      try {
+        delegate.failure(failure);
+      } finally {
+        exitCallback(entered);
+      }
+    }
+
+    @Override
+    public void complete() {
+      boolean entered = enterCallback();
+      try {
+        delegate.complete();
+      } finally {
+        exitCallback(entered);
+      }
+    }
+
+    @Override
+    public void retired() {
+      release();
+      boolean entered = enterCallback();
+      try {
+        delegate.retired();
+      } finally {
+        exitCallback(entered);
+      }
+    }
+  }
+
   public byte[] getExtendedReconnectData() {
     // TODO:  Determine if we need to limit anything here on closed.  The call can come from another thread so it may not
     // yet know that we are closed when the call originated.
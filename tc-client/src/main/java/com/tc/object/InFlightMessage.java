@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -46,6 +46,7 @@ import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import com.tc.net.protocol.tcm.TCAction;
@@ -82,6 +83,8 @@ public class InFlightMessage implements PrettyPrintable {
   private long[] serverStats;
 
   private NetworkRecall networkMessage;
+  // payload bytes held against the invoke window granted by the server, -1 when no credit is held
+  private final AtomicLong credit = new AtomicLong(-1L);
 
   public InFlightMessage(EntityID eid, Supplier<? extends VoltronEntityMessage> message, SafeInvocationCallback<byte[]> callback) {
     this.eid = requireNonNull(eid);
@@ -178,6 +181,21 @@ public class InFlightMessage implements PrettyPrintable {
     }
   }
   
+  /**
+   * The message went out as part of a batch rather than on its own.  The batch is a single network message so the
+   * message can not be recalled from it.
+   */
+  public boolean sentWith(NetworkRecall batch, long send) {
+    this.send = send;
+    this.sent = System.nanoTime();
+    if (batch != null) {
+      this.networkMessage = () -> false;
+      return true;
+    } else {
+      return false;
+    }
+  }
+
   synchronized void sent() {
     if (ackDelivered(VoltronEntityMessage.Acks.SENT)) {
       this.notifySent = System.nanoTime();
@@ -248,6 +266,27 @@ public class InFlightMessage implements PrettyPrintable {
     }
   }
 
+  /**
+   * @return the payload bytes this message takes from the invoke window, -1 if it is not an invoke
+   */
+  long getCreditSize() {
+    if (message.getVoltronType() != VoltronEntityMessage.Type.INVOKE_ACTION) {
+      return -1L;
+    }
+    return message.getExtendedData() != null ? message.getExtendedData().remaining() : 0L;
+  }
+
+  void holdCredit(long size) {
+    credit.set(size);
+  }
+
+  /**
+   * @return the size of the credit this message held, -1 if it held none or it was already released
+   */
+  long releaseCredit() {
+    return credit.getAndSet(-1L);
+  }
+
   public void retired() {
     if (ackDelivered(VoltronEntityMessage.Acks.RETIRED)) {
       this.retired = System.nanoTime();
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -20,6 +20,8 @@ package com.tc.object;
 import org.terracotta.entity.Invocation;
 import org.terracotta.entity.InvocationCallback;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 
@@ -29,4 +31,15 @@ import java.util.Set;
  */
 public interface InvocationHandler {
   Invocation.Task invokeAction(EntityID eid, EntityDescriptor entityDescriptor, Set<InvocationCallback.Types> callbacks, SafeInvocationCallback<byte[]> callback, boolean requiresReplication, byte[] payload);
+
+  /**
+   * Sends several invocations against the same entity back to back.  The i-th callback belongs to the i-th payload.
+   */
+  default List<Invocation.Task> invokeActions(EntityID eid, EntityDescriptor entityDescriptor, Set<InvocationCallback.Types> callbacks, List<SafeInvocationCallback<byte[]>> callback, boolean requiresReplication, List<byte[]> payloads) {
+    List<Invocation.Task> tasks = new ArrayList<>(payloads.size());
+    for (int x = 0; x < payloads.size(); x++) {
+      tasks.add(invokeAction(eid, entityDescriptor, callbacks, callback.get(x), requiresReplication, payloads.get(x)));
+    }
+    return tasks;
+  }
 }
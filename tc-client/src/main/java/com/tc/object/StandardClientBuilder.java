@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.util.Properties;
 import org.slf4j.Logger;
 import org.terracotta.connection.ConnectionPropertyNames;
 
+import com.tc.net.basic.BasicConnectionManager;
 import com.tc.net.core.ProductID;
 import com.tc.net.core.SocketEndpointFactory;
 import com.tc.net.core.TCConnectionManager;
@@ -115,9 +116,16 @@ public class StandardClientBuilder implements ClientBuilder {
 
   @Override
   public TCConnectionManager createConnectionManager(String uuid, String name) {
+    if (useVirtualThreads()) {
+      return new BasicConnectionManager(name + "/" + uuid, getSocketEndpointFactory(), true);
+    }
     return new TCConnectionManagerImpl(name + "/" + uuid, null, 0, getSocketEndpointFactory());
   }
 
+  protected boolean useVirtualThreads() {
+    return Boolean.parseBoolean(connectionProperties.getProperty(ConnectionPropertyNames.CONNECTION_VIRTUAL_THREADS, "false"));
+  }
+
   protected SocketEndpointFactory getSocketEndpointFactory() {
     return buffers;
   }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -18,48 +18,143 @@
 package com.tc.object;
 
 import com.tc.object.tx.TransactionID;
-import java.util.BitSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Hands out transaction ids and tracks the oldest one not yet retired.
+ * <p>
+ * Retirement is recorded in a ring of words, each covering 32 consecutive transactions and
+ * tagged in its upper half with the index of the word it currently holds.  A retire is a CAS on
+ * one word; whoever retires the transaction at the low water mark advances it, and whoever moves
+ * it past the end of a word recycles that word's slot for the word one ring length ahead.  Retires
+ * too far ahead of the low water mark for the ring are parked in an overflow set and folded into
+ * the ring when their word's slot is recycled.
+ */
 public class TransactionSource {
+  private static final int WORD_SHIFT = 5;
+  private static final int WORD_BITS = 1 << WORD_SHIFT;
+  private static final long FULL = 0xFFFFFFFFL;
+  // 1M transactions (256KiB) in the ring before retires overflow
+  private static final int RING_SIZE = 32 * 1024;
+
 // older servers don't like zero transasction ids so start at 1L
   private final AtomicLong current = new AtomicLong(1L);
+  private final AtomicLong lowWaterMark = new AtomicLong(1L);
+  private final AtomicLongArray ring = new AtomicLongArray(RING_SIZE);
+  private final ConcurrentSkipListSet<Long> overflow = new ConcurrentSkipListSet<>();
   private volatile TransactionID oldestCache = new TransactionID(1L);
-  private long retiredBase = 1L;
-  private int retirePosition = 0;
-  private final long GC_THRESHOLD = 32 * 1024;
-  private BitSet retired = new BitSet();
+
+  public TransactionSource() {
+    for (int x = 0; x < RING_SIZE; x++) {
+      ring.set(x, pack(x, 0));
+    }
+  }
 
   public TransactionID create() {
     return new TransactionID(current.getAndIncrement());
   }
 
   public TransactionID oldest() {
-    return oldestCache;
+    TransactionID cached = oldestCache;
+    long oldest = lowWaterMark.get();
+    if (cached.toLong() != oldest) {
+      // only built when someone asks after the low water mark has moved
+      cached = new TransactionID(oldest);
+      oldestCache = cached;
+    }
+    return cached;
   }
 
-  private void updateOldest() {
-    retirePosition = retired.nextClearBit(retirePosition);
-    long transactionId = retirePosition + retiredBase;
-    if (oldestCache.toLong() != transactionId) {
-      oldestCache = new TransactionID(transactionId);
+  public boolean retire(TransactionID txnId) {
+    return retire(txnId.toLong());
+  }
+
+  private boolean retire(long txn) {
+    if (txn < lowWaterMark.get()) {
+      return false;
+    }
+    long word = txn >>> WORD_SHIFT;
+    long bit = 1L << (txn & (WORD_BITS - 1));
+    int slot = slot(word);
+    while (true) {
+      long value = ring.get(slot);
+      int age = (int)word - tag(value);
+      if (age < 0) {
+        // the slot has moved on, this transaction was retired long ago
+        return false;
+      } else if (age > 0) {
+        // the slot still holds an older word, park until the low water mark gets here
+        return retireToOverflow(txn, word, slot);
+      } else if ((value & bit) != 0) {
+        return false;
+      } else if (ring.compareAndSet(slot, value, value | bit)) {
+        advance();
+        return true;
+      }
     }
   }
 
-  private void gc() {
-    if (retirePosition > GC_THRESHOLD) {
-      retiredBase += retirePosition;
-      retired = retired.get(retirePosition, retired.size());
-      retirePosition = 0;
+  private boolean retireToOverflow(long txn, long word, int slot) {
+    if (!overflow.add(txn)) {
+      return false;
     }
+    // the slot may have been recycled before the add landed, fold it in here if nobody else has
+    if (tag(ring.get(slot)) == (int)word && overflow.remove(txn)) {
+      return retire(txn);
+    }
+    return true;
+  }
+
+  private void advance() {
+    while (true) {
+      long low = lowWaterMark.get();
+      long word = low >>> WORD_SHIFT;
+      int slot = slot(word);
+      long value = ring.get(slot);
+      if (tag(value) != (int)word) {
+        // slot for the low water mark is still being recycled, the recycler advances after
+        return;
+      }
+      long clear = ~value & FULL & (FULL << (low & (WORD_BITS - 1)));
+      long next = (clear == 0) ? (word + 1) << WORD_SHIFT : (word << WORD_SHIFT) + Long.numberOfTrailingZeros(clear);
+      if (next == low) {
+        return;
+      }
+      if (lowWaterMark.compareAndSet(low, next) && clear == 0) {
+        recycle(slot, word + RING_SIZE);
+      }
+    }
+  }
+
+  private void recycle(int slot, long word) {
+    ring.set(slot, pack(word, 0));
+    long first = word << WORD_SHIFT;
+    long bits = 0;
+    for (Long parked : overflow.subSet(first, first + WORD_BITS)) {
+      if (overflow.remove(parked)) {
+        bits |= 1L << (parked & (WORD_BITS - 1));
+      }
+    }
+    if (bits != 0) {
+      // the caller keeps advancing, so only the bits are folded in here
+      long value = ring.get(slot);
+      while (!ring.compareAndSet(slot, value, value | bits)) {
+        value = ring.get(slot);
+      }
+    }
+  }
+
+  private static int slot(long word) {
+    return (int)(word & (RING_SIZE - 1));
+  }
+
+  private static int tag(long value) {
+    return (int)(value >>> 32);
   }
 
-  public synchronized boolean retire(TransactionID txnId) {
-    int index = (int)(txnId.toLong() - retiredBase);
-    boolean last = !retired.get(index);
-    retired.set(index);
-    updateOldest();
-    gc();
-    return last;
+  private static long pack(long word, long bits) {
+    return (word << 32) | bits;
   }
 }
@@ -0,0 +1,123 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.object;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Concurrent map from transaction id to value, keyed by the primitive id.
+ * <p>
+ * Transaction ids are handed out sequentially and retired roughly in order so the live ids almost
+ * always fit a fixed window.  Each id has one slot in a ring, found by masking; the value stored
+ * there carries its own key so no entry object is needed and a lookup is one array read.  An id
+ * whose slot is still held by an older, unretired id goes to an overflow map.
+ */
+class TransactionTable<V> {
+  private static final int DEFAULT_SIZE = 16 * 1024;
+
+  private final AtomicReferenceArray<V> slots;
+  private final int mask;
+  private final ToLongFunction<V> keyOf;
+  private final ConcurrentHashMap<Long, V> overflow = new ConcurrentHashMap<>();
+  private final LongAdder size = new LongAdder();
+
+  TransactionTable(ToLongFunction<V> keyOf) {
+    this(DEFAULT_SIZE, keyOf);
+  }
+
+  TransactionTable(int size, ToLongFunction<V> keyOf) {
+    if (Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("size must be a power of two " + size);
+    }
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+    this.keyOf = keyOf;
+  }
+
+  /**
+   * @param value a value whose key is not yet in the table
+   */
+  void put(V value) {
+    long key = keyOf.applyAsLong(value);
+    if (!slots.compareAndSet(slot(key), null, value)) {
+      overflow.put(key, value);
+    }
+    size.increment();
+  }
+
+  V get(long key) {
+    V value = slots.get(slot(key));
+    if (value != null && keyOf.applyAsLong(value) == key) {
+      return value;
+    }
+    return overflow.isEmpty() ? null : overflow.get(key);
+  }
+
+  V remove(long key) {
+    int slot = slot(key);
+    V value = slots.get(slot);
+    if (value != null && keyOf.applyAsLong(value) == key) {
+      if (slots.compareAndSet(slot, value, null)) {
+        size.decrement();
+        return value;
+      }
+      return null;
+    }
+    value = overflow.isEmpty() ? null : overflow.remove(key);
+    if (value != null) {
+      size.decrement();
+    }
+    return value;
+  }
+
+  boolean remove(long key, V value) {
+    if (slots.compareAndSet(slot(key), value, null) || (!overflow.isEmpty() && overflow.remove(key, value))) {
+      size.decrement();
+      return true;
+    }
+    return false;
+  }
+
+  int size() {
+    return size.intValue();
+  }
+
+  /**
+   * @return a snapshot of the values currently in the table
+   */
+  List<V> values() {
+    List<V> values = new ArrayList<>();
+    for (int x = 0; x < slots.length(); x++) {
+      V value = slots.get(x);
+      if (value != null) {
+        values.add(value);
+      }
+    }
+    values.addAll(overflow.values());
+    return values;
+  }
+
+  private int slot(long key) {
+    return (int)(key & mask);
+  }
+}
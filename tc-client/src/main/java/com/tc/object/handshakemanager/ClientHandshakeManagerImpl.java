@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -156,6 +156,9 @@ public class ClientHandshakeManagerImpl implements ClientHandshakeManager {
 
   @Override
   public void acknowledgeHandshake(ClientHandshakeAckMessage handshakeAck) {
+    // the window is in place before invokes are let through again
+    this.callBacks.grantCredits(handshakeAck.getCreditMessages(), handshakeAck.getCreditBytes());
+    this.callBacks.acceptBatchedInvokes(handshakeAck.isBatchedInvokes());
     acknowledgeHandshake(handshakeAck.getThisNodeId(), handshakeAck.getAllNodes(),
         handshakeAck.getServerVersion());
   }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -47,6 +47,6 @@ public class DiagnosticClientBuilder extends StandardClientBuilder {
 
   @Override
   public TCConnectionManager createConnectionManager(String uuid, String name) {
-    return new BasicConnectionManager(name + "/" + uuid, getSocketEndpointFactory());
+    return new BasicConnectionManager(name + "/" + uuid, getSocketEndpointFactory(), useVirtualThreads());
   }
 }
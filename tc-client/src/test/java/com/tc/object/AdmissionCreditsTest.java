@@ -0,0 +1,126 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.object;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdmissionCreditsTest {
+
+  @Test
+  public void testUnboundedWithoutGrant() throws Exception {
+    AdmissionCredits credits = new AdmissionCredits();
+    assertTrue(credits.hasRoom(Long.MAX_VALUE));
+    assertFalse(credits.acquire(1024, true));
+  }
+
+  @Test
+  public void testMessageWindow() throws Exception {
+    AdmissionCredits credits = new AdmissionCredits();
+    credits.grant(2, 0);
+    assertTrue(credits.acquire(10, true));
+    assertTrue(credits.acquire(10, true));
+    assertFalse(credits.hasRoom(10));
+    CountDownLatch acquired = new CountDownLatch(1);
+    Thread waiter = new Thread(()->{
+      try {
+        credits.acquire(10, true);
+        acquired.countDown();
+      } catch (InterruptedException ie) {
+        throw new AssertionError(ie);
+      }
+    });
+    waiter.start();
+    assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+    credits.release(10);
+    assertTrue(acquired.await(10, TimeUnit.SECONDS));
+    waiter.join();
+  }
+
+  @Test
+  public void testByteWindowLetsOneOversizeInvokeThrough() throws Exception {
+    AdmissionCredits credits = new AdmissionCredits();
+    credits.grant(8, 100);
+    assertTrue(credits.acquire(1000, true));
+    assertFalse(credits.hasRoom(1));
+    credits.release(1000);
+    assertTrue(credits.acquire(60, true));
+    assertTrue(credits.hasRoom(40));
+    assertFalse(credits.hasRoom(41));
+  }
+
+  @Test
+  public void testCloseReleasesWaiters() throws Exception {
+    AdmissionCredits credits = new AdmissionCredits();
+    credits.grant(1, 0);
+    assertTrue(credits.acquire(0, true));
+    CountDownLatch done = new CountDownLatch(1);
+    Thread waiter = new Thread(()->{
+      try {
+        assertFalse(credits.acquire(0, true));
+        done.countDown();
+      } catch (InterruptedException ie) {
+        throw new AssertionError(ie);
+      }
+    });
+    waiter.start();
+    assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+    credits.close();
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    waiter.join();
+  }
+
+  @Test
+  public void testInvokeWhichMayNotWaitGoesOverTheWindow() throws Exception {
+    AdmissionCredits credits = new AdmissionCredits();
+    credits.grant(1, 0);
+    assertTrue(credits.acquire(10, true));
+    assertTrue(credits.acquire(10, false));
+    assertEquals(2, credits.getStateMap().get("heldMessages"));
+    assertEquals(1L, credits.getStateMap().get("overdrawn"));
+    credits.release(10);
+    credits.release(10);
+    assertTrue(credits.hasRoom(10));
+  }
+
+  @Test
+  public void testWaitIsInterruptible() throws Exception {
+    AdmissionCredits credits = new AdmissionCredits();
+    credits.grant(1, 0);
+    assertTrue(credits.acquire(10, true));
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread waiter = new Thread(()->{
+      try {
+        credits.acquire(10, true);
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    waiter.start();
+    waiter.interrupt();
+    waiter.join(10_000);
+    assertTrue(failure.get() instanceof InterruptedException);
+    assertEquals(1, credits.getStateMap().get("heldMessages"));
+  }
+}
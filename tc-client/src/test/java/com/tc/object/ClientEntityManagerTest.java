@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -36,6 +36,7 @@ import org.terracotta.exception.EntityException;
 import org.terracotta.exception.EntityNotFoundException;
 
 import com.tc.entity.NetworkVoltronEntityMessage;
+import com.tc.entity.NetworkVoltronEntityMultiMessage;
 import com.tc.entity.VoltronEntityMessage.Acks;
 import com.tc.net.ClientID;
 import com.tc.net.NodeID;
@@ -43,6 +44,7 @@ import com.tc.net.protocol.tcm.ClientMessageChannel;
 import com.tc.net.protocol.tcm.MessageChannel;
 import com.tc.net.protocol.tcm.TCMessageType;
 import com.tc.net.protocol.tcm.UnknownNameException;
+import com.tc.object.msg.ClientHandshakeMessage;
 import com.tc.object.session.SessionID;
 import com.tc.object.tx.TransactionID;
 import com.tc.net.core.ProductID;
@@ -54,6 +56,7 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -469,6 +472,67 @@ public class ClientEntityManagerTest extends TestCase {
     assertThat(callback.events.size(), is(5));
   }
 
+  public void testInvokeAllFailsWhatCouldNotBeSent() throws Exception {
+    final byte[] messageObject = new byte[8];
+    final byte[] resultObject = new byte[8];
+    when(channel.createMessage(Mockito.eq(TCMessageType.VOLTRON_ENTITY_MESSAGE))).then(new Answer<TCAction>() {
+      int counter = 0;
+      @Override
+      public TCAction answer(InvocationOnMock invocation) throws Throwable {
+        // the fetch and the first invoke of the batch get a message, the second invoke does not
+        if (counter++ == 2) {
+          throw new IllegalStateException("no message");
+        }
+        return new TestRequestBatchMessage(manager, resultObject, null, true);
+      }
+    });
+    EntityClientEndpoint endpoint = this.manager.fetchEntity(entityID, 1L, instance, new ByteArrayMessageCodec());
+
+    List<Future> futures = endpoint.invokeAll(Arrays.asList(new ByteArrayEntityMessage(messageObject),
+        new ByteArrayEntityMessage(messageObject), new ByteArrayEntityMessage(messageObject)));
+    assertEquals(3, futures.size());
+    for (Future future : futures) {
+      try {
+        future.get(5, TimeUnit.SECONDS);
+        fail("expected the invoke to fail");
+      } catch (ExecutionException ee) {
+        assertThat(ee.getCause(), instanceOf(IllegalStateException.class));
+      }
+    }
+    // the first invoke was tracked but never sent, it must not be left waiting for a reply
+    @SuppressWarnings("unchecked")
+    Map<String, Object> channelState = (Map<String, Object>) ((ClientEntityManagerImpl) manager).getStateMap().get("channel");
+    assertEquals(0, channelState.get("pendingMessages"));
+  }
+
+  public void testInvokeAllBatchesOnlyOnceAccepted() throws Exception {
+    final byte[] messageObject = new byte[8];
+    final byte[] resultObject = new byte[8];
+    when(channel.createMessage(Mockito.eq(TCMessageType.VOLTRON_ENTITY_MESSAGE))).then(new Answer<TCAction>() {
+      @Override
+      public TCAction answer(InvocationOnMock invocation) throws Throwable {
+        return new TestRequestBatchMessage(manager, resultObject, null, true);
+      }
+    });
+    when(channel.createMessage(Mockito.eq(TCMessageType.VOLTRON_ENTITY_MULTI_MESSAGE))).thenReturn(mock(NetworkVoltronEntityMultiMessage.class));
+    ClientHandshakeMessage handshake = mock(ClientHandshakeMessage.class);
+    ((ClientEntityManagerImpl) manager).initializeHandshake(handshake);
+    Mockito.verify(handshake).setBatchedInvokes(true);
+    EntityClientEndpoint endpoint = this.manager.fetchEntity(entityID, 1L, instance, new ByteArrayMessageCodec());
+
+    // a server which did not accept batching gets the invokes one by one
+    ((ClientEntityManagerImpl) manager).acceptBatchedInvokes(false);
+    List<Future> futures = endpoint.invokeAll(Arrays.asList(new ByteArrayEntityMessage(messageObject), new ByteArrayEntityMessage(messageObject)));
+    for (Future future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+    Mockito.verify(channel, Mockito.never()).createMessage(TCMessageType.VOLTRON_ENTITY_MULTI_MESSAGE);
+
+    ((ClientEntityManagerImpl) manager).acceptBatchedInvokes(true);
+    endpoint.invokeAll(Arrays.asList(new ByteArrayEntityMessage(messageObject), new ByteArrayEntityMessage(messageObject)));
+    Mockito.verify(channel).createMessage(TCMessageType.VOLTRON_ENTITY_MULTI_MESSAGE);
+  }
+
   public void testThreadInterruptsDontCauseSendIssues() throws Exception {
     // Set the target for success.
     final byte[] resultObject = new byte[8];
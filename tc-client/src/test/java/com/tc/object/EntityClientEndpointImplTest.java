@@ -0,0 +1,261 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.object;
+
+import org.junit.Test;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.EntityResponse;
+import org.terracotta.entity.Invocation;
+import org.terracotta.entity.InvocationCallback;
+import org.terracotta.entity.MessageCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EntityClientEndpointImplTest {
+
+  private static final Set<InvocationCallback.Types> INTERESTS = EnumSet.of(InvocationCallback.Types.COMPLETE);
+
+  @Test
+  public void testTryInvokeRespectsWindow() throws Exception {
+    RecordingHandler handler = new RecordingHandler(false);
+    EntityClientEndpointImpl<Message, Response> endpoint = endpoint(handler, 2);
+    assertNotNull(endpoint.message(new Message(1)).tryInvoke(new InvocationCallback<Response>() {}, INTERESTS));
+    assertNotNull(endpoint.message(new Message(2)).tryInvoke(new InvocationCallback<Response>() {}, INTERESTS));
+    Invocation<Response> third = endpoint.message(new Message(3));
+    assertNull(third.tryInvoke(new InvocationCallback<Response>() {}, INTERESTS));
+
+    handler.retire(0);
+    assertNotNull(third.tryInvoke(new InvocationCallback<Response>() {}, INTERESTS));
+    assertEquals(3, handler.callbacks.size());
+  }
+
+  @Test
+  public void testInvokeWaitsForWindow() throws Exception {
+    RecordingHandler handler = new RecordingHandler(false);
+    EntityClientEndpointImpl<Message, Response> endpoint = endpoint(handler, 1);
+    endpoint.message(new Message(1)).invoke(new InvocationCallback<Response>() {}, INTERESTS);
+    CountDownLatch sent = new CountDownLatch(1);
+    Thread invoker = new Thread(() -> {
+      endpoint.message(new Message(2)).invoke(new InvocationCallback<Response>() {}, INTERESTS);
+      sent.countDown();
+    });
+    invoker.start();
+    assertFalse(sent.await(200, TimeUnit.MILLISECONDS));
+    handler.retire(0);
+    assertTrue(sent.await(10, TimeUnit.SECONDS));
+    invoker.join();
+  }
+
+  @Test
+  public void testCancelGivesBackWindow() throws Exception {
+    RecordingHandler handler = new RecordingHandler(false);
+    EntityClientEndpointImpl<Message, Response> endpoint = endpoint(handler, 1);
+    Invocation.Task task = endpoint.message(new Message(1)).invoke(new InvocationCallback<Response>() {}, INTERESTS);
+    assertTrue(task.cancel());
+    assertNotNull(endpoint.message(new Message(2)).tryInvoke(new InvocationCallback<Response>() {}, INTERESTS));
+  }
+
+  @Test
+  public void testInvokeAllBatchesWithinWindow() throws Exception {
+    RecordingHandler handler = new RecordingHandler(true);
+    EntityClientEndpointImpl<Message, Response> endpoint = endpoint(handler, 2);
+    List<Message> messages = new ArrayList<>();
+    for (int x = 0; x < 5; x++) {
+      messages.add(new Message(x));
+    }
+    List<Future<Response>> futures = endpoint.invokeAll(messages);
+    assertEquals(Arrays.asList(2, 2, 1), handler.batches);
+    for (int x = 0; x < 5; x++) {
+      assertEquals(x, futures.get(x).get(10, TimeUnit.SECONDS).value);
+    }
+  }
+
+  @Test
+  public void testUnboundedInvokeAllIsOneBatch() throws Exception {
+    RecordingHandler handler = new RecordingHandler(true);
+    EntityClientEndpointImpl<Message, Response> endpoint = endpoint(handler, 0);
+    List<Future<Response>> futures = endpoint.invokeAll(Arrays.asList(new Message(7), new Message(8), new Message(9)));
+    assertEquals(Arrays.asList(3), handler.batches);
+    for (int x = 0; x < 3; x++) {
+      assertEquals(7 + x, futures.get(x).get(10, TimeUnit.SECONDS).value);
+    }
+  }
+
+  @Test
+  public void testFailedInvokeGivesBackWindow() throws Exception {
+    RecordingHandler handler = new RecordingHandler(false);
+    EntityClientEndpointImpl<Message, Response> endpoint = endpoint(handler, 1);
+    handler.fail = true;
+    try {
+      endpoint.message(new Message(1)).invoke(new InvocationCallback<Response>() {}, INTERESTS);
+      fail("expected the invoke to throw");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+    handler.fail = false;
+    assertNotNull(endpoint.message(new Message(2)).tryInvoke(new InvocationCallback<Response>() {}, INTERESTS));
+  }
+
+  @Test
+  public void testInvokeWaitIsInterruptible() throws Exception {
+    RecordingHandler handler = new RecordingHandler(false);
+    EntityClientEndpointImpl<Message, Response> endpoint = endpoint(handler, 1);
+    endpoint.message(new Message(1)).invoke(new InvocationCallback<Response>() {}, INTERESTS);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicBoolean stillInterrupted = new AtomicBoolean();
+    Thread invoker = new Thread(() -> {
+      endpoint.message(new Message(2)).invoke(new InvocationCallback<Response>() {
+        @Override
+        public void failure(Throwable t) {
+          failure.set(t);
+        }
+      }, INTERESTS);
+      stillInterrupted.set(Thread.currentThread().isInterrupted());
+    });
+    invoker.start();
+    invoker.interrupt();
+    invoker.join(10_000);
+    assertFalse(invoker.isAlive());
+    assertTrue(failure.get() instanceof InterruptedException);
+    assertTrue(stillInterrupted.get());
+    assertEquals(1, handler.callbacks.size());
+  }
+
+  @Test
+  public void testInvokeFromCallbackDoesNotWait() throws Exception {
+    RecordingHandler handler = new RecordingHandler(false);
+    EntityClientEndpointImpl<Message, Response> endpoint = endpoint(handler, 1);
+    endpoint.message(new Message(1)).invoke(new InvocationCallback<Response>() {
+      @Override
+      public void result(Response response) {
+        // the window is full until this invocation retires, which happens on this thread after the result
+        endpoint.message(new Message(2)).invoke(new InvocationCallback<Response>() {}, INTERESTS);
+      }
+    }, EnumSet.of(InvocationCallback.Types.RESULT));
+    Thread retirer = new Thread(() -> handler.retire(0));
+    retirer.start();
+    retirer.join(10_000);
+    assertFalse(retirer.isAlive());
+    assertEquals(2, handler.callbacks.size());
+
+    // the invocation made from the callback went over the window without taking a slot
+    handler.retire(1);
+    assertNotNull(endpoint.message(new Message(3)).tryInvoke(new InvocationCallback<Response>() {}, INTERESTS));
+    assertNull(endpoint.message(new Message(4)).tryInvoke(new InvocationCallback<Response>() {}, INTERESTS));
+  }
+
+  private static EntityClientEndpointImpl<Message, Response> endpoint(InvocationHandler handler, int window) {
+    return new EntityClientEndpointImpl<>(new EntityID("Test", "test"), 1L, EntityDescriptor.NULL_ID, handler, new byte[0], new Codec(), null, null, window);
+  }
+
+  /**
+   * Records the invocations, completing and retiring them right away when asked to.
+   */
+  private static class RecordingHandler implements InvocationHandler {
+    private final boolean retireImmediately;
+    private final List<SafeInvocationCallback<byte[]>> callbacks = new ArrayList<>();
+    private final List<Integer> batches = new ArrayList<>();
+    private volatile boolean fail;
+
+    RecordingHandler(boolean retireImmediately) {
+      this.retireImmediately = retireImmediately;
+    }
+
+    @Override
+    public synchronized Invocation.Task invokeAction(EntityID eid, EntityDescriptor entityDescriptor, Set<InvocationCallback.Types> requested, SafeInvocationCallback<byte[]> callback, boolean requiresReplication, byte[] payload) {
+      if (fail) {
+        throw new IllegalStateException("not sent");
+      }
+      callbacks.add(callback);
+      callback.sent();
+      if (retireImmediately) {
+        callback.result(payload);
+        callback.complete();
+        callback.retired();
+      }
+      return () -> true;
+    }
+
+    @Override
+    public List<Invocation.Task> invokeActions(EntityID eid, EntityDescriptor entityDescriptor, Set<InvocationCallback.Types> requested, List<SafeInvocationCallback<byte[]>> callbacks, boolean requiresReplication, List<byte[]> payloads) {
+      batches.add(payloads.size());
+      return InvocationHandler.super.invokeActions(eid, entityDescriptor, requested, callbacks, requiresReplication, payloads);
+    }
+
+    synchronized void retire(int index) {
+      SafeInvocationCallback<byte[]> callback = callbacks.get(index);
+      callback.result(new byte[] {0});
+      callback.complete();
+      callback.retired();
+    }
+  }
+
+  private static class Message implements EntityMessage {
+    private final int value;
+
+    Message(int value) {
+      this.value = value;
+    }
+  }
+
+  private static class Response implements EntityResponse {
+    private final int value;
+
+    Response(int value) {
+      this.value = value;
+    }
+  }
+
+  private static class Codec implements MessageCodec<Message, Response> {
+    @Override
+    public byte[] encodeMessage(Message message) {
+      return new byte[] {(byte) message.value};
+    }
+
+    @Override
+    public Message decodeMessage(byte[] payload) {
+      return new Message(payload[0]);
+    }
+
+    @Override
+    public byte[] encodeResponse(Response response) {
+      return new byte[] {(byte) response.value};
+    }
+
+    @Override
+    public Response decodeResponse(byte[] payload) {
+      return new Response(payload[0]);
+    }
+  }
+}
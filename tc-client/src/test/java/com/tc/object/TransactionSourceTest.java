@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -104,4 +104,24 @@ public class TransactionSourceTest {
     TransactionSource instance = new TransactionSource();
     Assert.assertTrue(new TransactionID(instance.oldest().toLong()).isValid());
   }
+
+  @Test
+  public void testRetireBeyondWindow() {
+    TransactionSource instance = new TransactionSource();
+    TransactionID first = instance.create();
+    long last = first.toLong();
+    for (int x = 0; x < 1200 * 1024; x++) {
+      last = instance.create().toLong();
+    }
+    // everything after the first goes out of order and well past the ring
+    for (long x = last; x > first.toLong(); x--) {
+      Assert.assertTrue(instance.retire(new TransactionID(x)));
+    }
+    Assert.assertEquals(first.toLong(), instance.oldest().toLong());
+    Assert.assertFalse(instance.retire(new TransactionID(last)));
+    Assert.assertTrue(instance.retire(first));
+    Assert.assertEquals(instance.create().toLong(), instance.oldest().toLong());
+    Assert.assertFalse(instance.retire(first));
+    Assert.assertFalse(instance.retire(new TransactionID(last)));
+  }
 }
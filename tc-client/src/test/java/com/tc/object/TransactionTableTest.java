@@ -0,0 +1,56 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.object;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransactionTableTest {
+
+  @Test
+  public void testCollidingKeysOverflow() {
+    TransactionTable<long[]> table = new TransactionTable<>(8, v->v[0]);
+    long[] a = {3};
+    long[] b = {11};
+    long[] c = {19};
+    table.put(a);
+    table.put(b);
+    table.put(c);
+    Assert.assertEquals(3, table.size());
+    Assert.assertSame(a, table.get(3));
+    Assert.assertSame(b, table.get(11));
+    Assert.assertSame(c, table.get(19));
+    Assert.assertNull(table.get(27));
+
+    Assert.assertSame(a, table.remove(3));
+    Assert.assertNull(table.remove(3));
+    Assert.assertFalse(table.remove(11, c));
+    Assert.assertTrue(table.remove(11, b));
+    Assert.assertEquals(1, table.size());
+    Assert.assertEquals(1, table.values().size());
+    Assert.assertSame(c, table.values().get(0));
+
+    // slot is free again
+    long[] d = {27};
+    table.put(d);
+    Assert.assertSame(d, table.get(27));
+    Assert.assertSame(c, table.remove(19));
+    Assert.assertSame(d, table.remove(27));
+    Assert.assertEquals(0, table.size());
+  }
+}
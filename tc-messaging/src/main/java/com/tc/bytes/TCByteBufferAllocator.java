@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -32,6 +32,9 @@ public class TCByteBufferAllocator {
   private final Supplier<TCByteBuffer> newBuffers;
   private final Queue<TCByteBuffer> returns;
   private final List<TCByteBuffer> items = new ArrayList<>();
+  // references appended as-is, each one lands in front of items.get(cuts.get(i))
+  private final List<TCReference> lent = new ArrayList<>();
+  private final List<Integer> cuts = new ArrayList<>();
   private final SetOnceFlag complete = new SetOnceFlag();
   
   public TCByteBufferAllocator(Supplier<TCByteBuffer> tracked) {
@@ -54,12 +57,30 @@ public class TCByteBufferAllocator {
     items.add(next);
     return next;
   }
+
+  /**
+   * Append the buffers of an existing reference without copying them.  The allocator takes
+   * ownership of the reference, it is closed along with the completed reference and its
+   * buffers are never handed back to this allocator's returns.
+   */
+  public void lend(TCReference ref) {
+    if (complete.isSet()) {
+      throw new IllegalStateException("buffers already accessed");
+    }
+    cuts.add(items.size());
+    lent.add(ref);
+  }
+
+  private List<TCByteBuffer> tail() {
+    // only the buffers after the last lent reference are ours to rewind
+    return cuts.isEmpty() ? items : items.subList(cuts.get(cuts.size() - 1), items.size());
+  }
   
   private void reset(int stop) {
     if (complete.isSet()) {
       throw new IllegalStateException("buffers already accessed");
     }
-    Iterator<TCByteBuffer> it = items.iterator();
+    Iterator<TCByteBuffer> it = tail().iterator();
     int pos = 0;
     while (it.hasNext()) {
       TCByteBuffer c = it.next();
@@ -75,12 +96,32 @@ public class TCByteBufferAllocator {
   }
   
   public void rewind(int r) {
-    int len = items.stream().mapToInt(TCByteBuffer::position).sum();
+    int len = tail().stream().mapToInt(TCByteBuffer::position).sum();
     reset(len - r);
   }
   
   public TCReference complete() {
     complete.set();
-    return TCReferenceSupport.createReference(items, returns::add);
+    if (lent.isEmpty()) {
+      return TCReferenceSupport.createReference(items, returns::add);
+    }
+    List<TCReference> parts = new ArrayList<>(lent.size() * 2 + 1);
+    int from = 0;
+    for (int x = 0; x < lent.size(); x++) {
+      int cut = cuts.get(x);
+      if (cut > from) {
+        parts.add(TCReferenceSupport.createReference(new ArrayList<>(items.subList(from, cut)), returns::add));
+      }
+      parts.add(lent.get(x));
+      from = cut;
+    }
+    if (from < items.size()) {
+      parts.add(TCReferenceSupport.createReference(new ArrayList<>(items.subList(from, items.size())), returns::add));
+    }
+    try {
+      return TCReferenceSupport.createAggregateReference(parts);
+    } finally {
+      parts.forEach(TCReference::close);
+    }
   }
 }
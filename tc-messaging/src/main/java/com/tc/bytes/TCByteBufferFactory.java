@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -33,8 +33,11 @@ public class TCByteBufferFactory {
   private static final int                 WARN_THRESHOLD          = 10 * 1024 * 1024;                                                // 10MiB
   private static final TCByteBuffer        ZERO_BYTE_BUFFER        = TCByteBufferImpl.wrap(new byte[0]);
   private static final Logger logger = LoggerFactory.getLogger(TCByteBufferFactory.class);
+  private static final TCDirectByteBufferPool DIRECT_POOL = new TCDirectByteBufferPool(64L * 1024 * 1024);      // 64MiB
   /**
-   * Get a single variable sized TCByteBuffer instance Note: These are not pooled (yet)
+   * Get a single variable sized heap TCByteBuffer instance.  These are not pooled, nothing hands them back and
+   * callers may use their backing array.  Pooled direct buffers come from {@link #getDirectBufferPool()} and are
+   * released to it.
    * 
    * @param size The desired minimum capacity of the buffer. The actual capacity may be higher. The buffer's limit will
    *        be equal to it's capacity.
@@ -65,6 +68,22 @@ public class TCByteBufferFactory {
     return FIXED_BUFFER_SIZE;
   }
 
+  /**
+   * Cap on the direct memory held by the shared pool, in use or cached.  Requests past the cap
+   * are served from the heap.
+   */
+  public static void setDirectBufferPoolLimit(long maxBytes) {
+    if (maxBytes >= 0) {
+      DIRECT_POOL.setMaxBytes(maxBytes);
+    } else {
+      logger.warn("direct buffer pool limit ignored, negative value {}", maxBytes);
+    }
+  }
+
+  public static TCDirectByteBufferPool getDirectBufferPool() {
+    return DIRECT_POOL;
+  }
+
   public static TCByteBuffer getDirectByteBuffer() {
     return new TCByteBufferImpl(FIXED_BUFFER_SIZE, true);
   }
@@ -93,6 +112,24 @@ public class TCByteBufferFactory {
     }
   }
 
+  /**
+   * Contents of all the buffers in the reference, from position to limit, as one array
+   */
+  public static byte[] unwrap(TCReference buffers) {
+    TCByteBuffer[] parts = buffers.toArray();
+    if (parts.length == 1) {
+      return unwrap(parts[0]);
+    }
+    byte[] array = new byte[(int)buffers.available()];
+    int offset = 0;
+    for (TCByteBuffer b : parts) {
+      int len = b.remaining();
+      b.duplicate().get(array, offset, len);
+      offset += len;
+    }
+    return array;
+  }
+
   public static TCByteBuffer copyAndWrap(byte[] buf) {
     TCByteBuffer rv;
     if (buf != null) {
@@ -0,0 +1,318 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.bytes;
+
+import java.lang.ref.Cleaner;
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared pool of direct buffers in power of two size classes from {@link #MIN_CLASS_SIZE} to
+ * {@link #MAX_CLASS_SIZE}.
+ * <p>
+ * Each thread keeps a small magazine of buffers per size class in front of the shared depot so
+ * the common acquire/release pair on one thread touches no shared state.  Only buffers released
+ * on the thread that acquired them go into its magazine, the rest go to the depot where any
+ * thread can pick them up.  Buffers are returned explicitly, normally when the last
+ * {@link TCReference} over them is closed (see
+ * {@link TCReferenceSupport#createReference(TCDirectByteBufferPool, int)}); one that is collected
+ * without being returned gives its bytes back to the cap.  The pool never holds more than the
+ * configured number of direct bytes, in use or cached; once the cap is reached, or for requests
+ * larger than the biggest class, plain heap buffers are handed out instead and are ignored on
+ * release.
+ */
+public class TCDirectByteBufferPool {
+  public static final int MIN_CLASS_SIZE = 512;
+  public static final int MAX_CLASS_SIZE = 1024 * 1024;
+  private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_CLASS_SIZE);
+  private static final int CLASS_COUNT = Integer.numberOfTrailingZeros(MAX_CLASS_SIZE) - MIN_SHIFT + 1;
+  // per thread, per class.  only classes up to 64KiB are kept in magazines
+  private static final int MAGAZINE_SIZE = 4;
+  private static final int MAGAZINE_MAX_CLASS = Integer.numberOfTrailingZeros(64 * 1024) - MIN_SHIFT;
+  private static final Cleaner CLEANER = Cleaner.create();
+  private static final Logger LOGGER = LoggerFactory.getLogger(TCDirectByteBufferPool.class);
+
+  private volatile long maxBytes;
+  private final Queue<PooledByteBuffer>[] depots;
+  private final ThreadLocal<Magazine> magazines = ThreadLocal.withInitial(this::createMagazine);
+  private final AtomicLong reservedBytes = new AtomicLong();
+  private final AtomicLong outstandingBytes = new AtomicLong();
+  private final AtomicLong outstandingBuffers = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder overflows = new LongAdder();
+  private final LongAdder lost = new LongAdder();
+  private final AtomicBoolean warned = new AtomicBoolean();
+
+  @SuppressWarnings("unchecked")
+  public TCDirectByteBufferPool(long maxBytes) {
+    this.maxBytes = maxBytes;
+    this.depots = new Queue[CLASS_COUNT];
+    for (int x = 0; x < depots.length; x++) {
+      depots[x] = new ConcurrentLinkedQueue<>();
+    }
+  }
+
+  public void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * @param size minimum capacity required
+   * @return a cleared buffer with at least size capacity, the limit is set to the capacity
+   */
+  public TCByteBuffer acquire(int size) {
+    if (size > MAX_CLASS_SIZE) {
+      overflows.increment();
+      return new TCByteBufferImpl(size, false);
+    }
+    int sizeClass = sizeClass(size);
+    PooledByteBuffer buffer = (sizeClass <= MAGAZINE_MAX_CLASS) ? magazines.get().stock.pop(sizeClass) : null;
+    if (buffer == null) {
+      buffer = depots[sizeClass].poll();
+    }
+    if (buffer != null) {
+      hits.increment();
+      buffer.unlock();
+    } else {
+      int capacity = classCapacity(sizeClass);
+      if (!reserve(capacity)) {
+        overflows.increment();
+        if (warned.compareAndSet(false, true)) {
+          LOGGER.warn("direct buffer pool is holding its limit of {} bytes, handing out heap buffers until some are returned", maxBytes);
+        }
+        return new TCByteBufferImpl(capacity, false);
+      }
+      misses.increment();
+      buffer = new PooledByteBuffer(this, capacity);
+    }
+    buffer.owner = Thread.currentThread();
+    buffer.reservation.outstanding = true;
+    outstandingBytes.addAndGet(buffer.capacity());
+    outstandingBuffers.incrementAndGet();
+    return buffer;
+  }
+
+  /**
+   * Return a buffer handed out by {@link #acquire(int)}.  As with every recycling queue the
+   * buffer must already be {@link TCByteBuffer#reInit() reinitialized}.  Buffers not owned by
+   * this pool are ignored so callers do not need to track whether the pool overflowed.
+   */
+  public void release(TCByteBuffer buffer) {
+    if (!(buffer instanceof PooledByteBuffer) || ((PooledByteBuffer)buffer).pool != this) {
+      return;
+    }
+    PooledByteBuffer pooled = (PooledByteBuffer)buffer;
+    pooled.verifyLocked();
+    pooled.reservation.outstanding = false;
+    outstandingBytes.addAndGet(-pooled.capacity());
+    outstandingBuffers.decrementAndGet();
+    if (reservedBytes.get() > maxBytes) {
+      // the cap was lowered, let this one go
+      pooled.cleanable.clean();
+      return;
+    }
+    // a magazine only takes back what its own thread acquired, otherwise a thread that only
+    // releases would strand buffers where nobody acquires
+    boolean local = pooled.owner == Thread.currentThread();
+    pooled.owner = null;
+    int sizeClass = sizeClass(pooled.capacity());
+    if (!local || sizeClass > MAGAZINE_MAX_CLASS || !magazines.get().stock.push(sizeClass, pooled)) {
+      depots[sizeClass].offer(pooled);
+    }
+  }
+
+  /**
+   * A queue view over one size class, for the allocators that recycle through a {@link Queue}.
+   * Polling never returns null.
+   */
+  public Queue<TCByteBuffer> asQueue(int size) {
+    return new AbstractQueue<TCByteBuffer>() {
+      @Override
+      public Iterator<TCByteBuffer> iterator() {
+        return Collections.emptyIterator();
+      }
+
+      @Override
+      public int size() {
+        return 0;
+      }
+
+      @Override
+      public boolean offer(TCByteBuffer e) {
+        release(e);
+        return true;
+      }
+
+      @Override
+      public TCByteBuffer poll() {
+        return acquire(size);
+      }
+
+      @Override
+      public TCByteBuffer peek() {
+        return null;
+      }
+    };
+  }
+
+  public long getOutstandingBytes() {
+    return outstandingBytes.get();
+  }
+
+  public int getOutstandingBuffers() {
+    return (int)outstandingBuffers.get();
+  }
+
+  public Map<String, ?> getState() {
+    Map<String, Object> state = new LinkedHashMap<>();
+    state.put("maxBytes", maxBytes);
+    state.put("reservedBytes", reservedBytes.get());
+    state.put("outstandingBytes", outstandingBytes.get());
+    state.put("outstandingBuffers", outstandingBuffers.get());
+    state.put("hits", hits.sum());
+    state.put("misses", misses.sum());
+    state.put("overflows", overflows.sum());
+    state.put("lost", lost.sum());
+    return state;
+  }
+
+  private boolean reserve(int capacity) {
+    long current = reservedBytes.get();
+    while (current + capacity <= maxBytes) {
+      if (reservedBytes.compareAndSet(current, current + capacity)) {
+        return true;
+      }
+      current = reservedBytes.get();
+    }
+    return false;
+  }
+
+  private Magazine createMagazine() {
+    Magazine magazine = new Magazine();
+    // when the owning thread is gone the magazine is collected and its buffers go back to the depots
+    Stock stock = magazine.stock;
+    CLEANER.register(magazine, ()->stock.drainTo(depots));
+    return magazine;
+  }
+
+  static int sizeClass(int size) {
+    if (size <= MIN_CLASS_SIZE) {
+      return 0;
+    }
+    return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+  }
+
+  static int classCapacity(int sizeClass) {
+    return MIN_CLASS_SIZE << sizeClass;
+  }
+
+  private static final class Magazine {
+    private final Stock stock = new Stock();
+  }
+
+  private static final class Stock {
+    private final PooledByteBuffer[][] buffers = new PooledByteBuffer[MAGAZINE_MAX_CLASS + 1][MAGAZINE_SIZE];
+    private final int[] counts = new int[MAGAZINE_MAX_CLASS + 1];
+
+    PooledByteBuffer pop(int sizeClass) {
+      int count = counts[sizeClass];
+      if (count == 0) {
+        return null;
+      }
+      PooledByteBuffer buffer = buffers[sizeClass][--count];
+      buffers[sizeClass][count] = null;
+      counts[sizeClass] = count;
+      return buffer;
+    }
+
+    boolean push(int sizeClass, PooledByteBuffer buffer) {
+      int count = counts[sizeClass];
+      if (count == MAGAZINE_SIZE) {
+        return false;
+      }
+      buffers[sizeClass][count] = buffer;
+      counts[sizeClass] = count + 1;
+      return true;
+    }
+
+    void drainTo(Queue<PooledByteBuffer>[] depots) {
+      for (int x = 0; x < buffers.length; x++) {
+        PooledByteBuffer buffer;
+        while ((buffer = pop(x)) != null) {
+          depots[x].offer(buffer);
+        }
+      }
+    }
+  }
+
+  private static final class PooledByteBuffer extends TCByteBufferImpl {
+    private final TCDirectByteBufferPool pool;
+    private final Reservation reservation;
+    private final Cleaner.Cleanable cleanable;
+    // the thread that acquired it, while it is handed out
+    private Thread owner;
+
+    PooledByteBuffer(TCDirectByteBufferPool pool, int capacity) {
+      super(capacity, true);
+      this.pool = pool;
+      this.reservation = new Reservation(pool, capacity);
+      this.cleanable = CLEANER.register(this, reservation);
+    }
+  }
+
+  /**
+   * The direct bytes one buffer holds against the cap, given back when the buffer is dropped by
+   * the pool or collected.  Must not reference the buffer.
+   */
+  private static final class Reservation implements Runnable {
+    private final TCDirectByteBufferPool pool;
+    private final int capacity;
+    private volatile boolean outstanding;
+
+    Reservation(TCDirectByteBufferPool pool, int capacity) {
+      this.pool = pool;
+      this.capacity = capacity;
+    }
+
+    @Override
+    public void run() {
+      pool.reservedBytes.addAndGet(-capacity);
+      if (outstanding) {
+        // collected while handed out, it was never returned
+        pool.outstandingBytes.addAndGet(-capacity);
+        pool.outstandingBuffers.decrementAndGet();
+        pool.lost.increment();
+      }
+    }
+  }
+}
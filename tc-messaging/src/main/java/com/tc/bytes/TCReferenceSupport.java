@@ -154,6 +154,18 @@ public class TCReferenceSupport {
     }
     return new TCReferenceSupport(Arrays.asList(tracked), returns).reference();
   }
+  /**
+   * Reference over a single buffer taken from the pool, the buffer goes back to the pool once
+   * all the references are closed.
+   *
+   * @param pool
+   * @param size minimum capacity
+   * @return
+   */
+  public static TCReference createReference(TCDirectByteBufferPool pool, int size) {
+    return createReference(pool::release, pool.acquire(size));
+  }
+
   private void reclaim() {
     Assert.assertTrue(referenceCount.get() == 0);
     for (TCByteBuffer buf : items) {
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import com.tc.object.tx.TransactionID;
 import com.tc.util.Assert;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -215,6 +216,18 @@ public class LinearVoltronEntityMultiResponse extends DSOMessageBase implements
     return buildOp(Operation.SERVER_MESSAGE, cid.getID(), message);
   }
 
+  @Override
+  public synchronized boolean addServerMessage(Collection<ClientInstanceID> cids, byte[] message) {
+    if (stopAdding) {
+      return false;
+    }
+    // every op shares the one payload array, it is only read when the message is dehydrated
+    for (ClientInstanceID cid : cids) {
+      Assert.assertTrue(buildOp(Operation.SERVER_MESSAGE, cid.getID(), message));
+    }
+    return true;
+  }
+
   @Override
   public boolean addServerMessage(TransactionID cid, byte[] message) {
     return buildOp(Operation.INVOKE_MESSAGE, cid.toLong(), message);
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -38,6 +38,7 @@ import java.io.IOException;
 import java.util.EnumSet;
 import java.util.Set;
 
+import org.terracotta.entity.ByteBufferMessageCodec;
 import org.terracotta.entity.EntityMessage;
 import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.MessageCodec;
@@ -167,21 +168,30 @@ public class NetworkVoltronEntityMessageImpl extends DSOMessageBase implements N
     
     this.clientID.serializeTo(outputStream);
     
-    outputStream.writeLong(this.transactionID.toLong());
+    writeContents(outputStream, this);
+  }
+
+  /**
+   * Writes everything but the source of the message, shared with the batches of {@link NetworkVoltronEntityMultiMessageImpl}.
+   */
+  static void writeContents(TCByteBufferOutputStream outputStream, NetworkVoltronEntityMessage message) {
+    outputStream.writeLong(message.getTransactionID().toLong());
     
-    this.entityDescriptor.serializeTo(outputStream);
+    message.getEntityDescriptor().serializeTo(outputStream);
     
-    outputStream.writeInt(type.ordinal());
+    outputStream.writeInt(message.getVoltronType().ordinal());
     
+    TCByteBuffer extendedData = message.getExtendedData();
     outputStream.writeInt(extendedData.remaining());
-    outputStream.write(extendedData.duplicate());
+    outputStream.write(extendedData);
     
-    outputStream.writeBoolean(requiresReplication);
+    outputStream.writeBoolean(message.doesRequireReplication());
     
-    outputStream.writeLong(this.oldestTransactionPending.toLong());
+    outputStream.writeLong(message.getOldestTransactionOnClient().toLong());
     
+    Set<VoltronEntityMessage.Acks> requestedAcks = message.getRequestedAcks();
     outputStream.writeByte(requestedAcks.size());
-    for (VoltronEntityMessage.Acks ack : this.requestedAcks) {
+    for (VoltronEntityMessage.Acks ack : requestedAcks) {
       outputStream.writeByte(ack.ordinal());
     }
   }
@@ -201,26 +211,40 @@ public class NetworkVoltronEntityMessageImpl extends DSOMessageBase implements N
     this.requiresReplication = getBooleanValue();
     this.oldestTransactionPending = new TransactionID(getLongValue());
     
-    int ac = getByteValue();
+    this.requestedAcks = readAcks(getInputStream());
+    this.message = decodeEntityMessage(supplier, this.type, this.entityDescriptor, this.extendedData);
+    
+    return true;
+  }
+
+  static Set<VoltronEntityMessage.Acks> readAcks(TCByteBufferInputStream inputStream) throws IOException {
+    int ac = inputStream.readByte();
     if (ac == 0) {
-      this.requestedAcks = EnumSet.noneOf(Acks.class);
+      return EnumSet.noneOf(Acks.class);
     } else {
-      Acks first = Acks.values()[getByteValue()];
+      Acks first = Acks.values()[inputStream.readByte()];
       if (ac > 1) {
         Acks[] rest = new Acks[ac - 1];
         for (int x=0;x < ac - 1;x++) {
-          rest[x] = Acks.values()[getByteValue()];
+          rest[x] = Acks.values()[inputStream.readByte()];
         }
-        this.requestedAcks = EnumSet.of(first, rest);
+        return EnumSet.of(first, rest);
       } else {
-        this.requestedAcks = EnumSet.of(first);
+        return EnumSet.of(first);
       }
     }
+  }
 
+  static EntityMessage decodeEntityMessage(MessageCodecSupplier supplier, Type type, EntityDescriptor entityDescriptor, TCByteBuffer extendedData) {
     try {
-      if (this.type == Type.INVOKE_ACTION) {
-        MessageCodec<? extends EntityMessage, ? extends EntityResponse> codec = supplier.getMessageCodec(this.entityDescriptor);
-        this.message = codec.decodeMessage(TCByteBufferFactory.unwrap(extendedData));
+      if (type == Type.INVOKE_ACTION) {
+        MessageCodec<? extends EntityMessage, ? extends EntityResponse> codec = supplier.getMessageCodec(entityDescriptor);
+        if (codec instanceof ByteBufferMessageCodec) {
+          // decode straight from the network buffer
+          return ((ByteBufferMessageCodec<? extends EntityMessage, ? extends EntityResponse>)codec).decodeMessage(extendedData.asReadOnlyBuffer().getNioBuffer());
+        } else {
+          return codec.decodeMessage(TCByteBufferFactory.unwrap(extendedData));
+        }
       }
     } catch (MessageCodecException exception) {
 /*  swallow it - this is an optimzation which does not handle the failure case.  
@@ -228,8 +252,7 @@ public class NetworkVoltronEntityMessageImpl extends DSOMessageBase implements N
     again.  When that fails the exception is handled and sent back to the client.
       */
     }
-    
-    return true;
+    return null;
   }
 
   @Override
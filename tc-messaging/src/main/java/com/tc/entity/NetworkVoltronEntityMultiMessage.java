@@ -0,0 +1,44 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.entity;
+
+import com.tc.net.protocol.tcm.TCAction;
+import java.util.List;
+
+
+/**
+ * A batch of invokes from one client sent as a single network message.  The client adds the messages it would
+ * otherwise send one at a time and the server hydrates the whole batch once and handles each message in it as if it
+ * arrived on its own, in the order they were added.
+ */
+public interface NetworkVoltronEntityMultiMessage extends TCAction {
+
+  /**
+   * Adds a message to the batch.  All messages of a batch come from the same client.
+   */
+  void addMessage(NetworkVoltronEntityMessage message);
+
+  int getMessageCount();
+
+  /**
+   * @return the messages of a hydrated batch, in the order they were added
+   */
+  List<VoltronEntityMessage> getMessages();
+
+  void setMessageCodecSupplier(MessageCodecSupplier supplier);
+}
@@ -0,0 +1,209 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.entity;
+
+import com.tc.bytes.TCByteBuffer;
+import com.tc.io.TCByteBufferInputStream;
+import com.tc.io.TCByteBufferOutputStream;
+import com.tc.net.ClientID;
+import com.tc.net.protocol.tcm.MessageChannel;
+import com.tc.net.protocol.tcm.MessageMonitor;
+import com.tc.net.protocol.tcm.TCActionNetworkMessage;
+import com.tc.net.protocol.tcm.TCMessageHeader;
+import com.tc.net.protocol.tcm.TCMessageType;
+import com.tc.object.EntityDescriptor;
+import com.tc.object.msg.DSOMessageBase;
+import com.tc.object.session.SessionID;
+import com.tc.object.tx.TransactionID;
+import com.tc.util.Assert;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.terracotta.entity.EntityMessage;
+
+
+public class NetworkVoltronEntityMultiMessageImpl extends DSOMessageBase implements NetworkVoltronEntityMultiMessage {
+  private final List<NetworkVoltronEntityMessage> batch = new ArrayList<>();
+  private List<VoltronEntityMessage> messages;
+  private MessageCodecSupplier supplier;
+
+  public NetworkVoltronEntityMultiMessageImpl(SessionID sessionID, MessageMonitor monitor, TCByteBufferOutputStream out, MessageChannel channel, TCMessageType type) {
+    super(sessionID, monitor, out, channel, type);
+  }
+
+  public NetworkVoltronEntityMultiMessageImpl(SessionID sessionID, MessageMonitor monitor, MessageChannel channel, TCMessageHeader header, TCByteBufferInputStream data) {
+    super(sessionID, monitor, channel, header, data);
+  }
+
+  @Override
+  public void addMessage(NetworkVoltronEntityMessage message) {
+    Assert.assertTrue(message.getVoltronType() == VoltronEntityMessage.Type.INVOKE_ACTION);
+    Assert.assertTrue(batch.isEmpty() || batch.get(0).getSource().equals(message.getSource()));
+    batch.add(message);
+  }
+
+  @Override
+  public int getMessageCount() {
+    return messages != null ? messages.size() : batch.size();
+  }
+
+  @Override
+  public List<VoltronEntityMessage> getMessages() {
+    Assert.assertNotNull(this.messages);
+    return this.messages;
+  }
+
+  @Override
+  public void setMessageCodecSupplier(MessageCodecSupplier supplier) {
+    this.supplier = supplier;
+  }
+
+  @Override
+  protected void dehydrateValues() {
+    Assert.assertFalse(batch.isEmpty());
+    TCByteBufferOutputStream outputStream = getOutputStream();
+    putNVPair((byte)0, (byte)0);
+    // the source is the same for the whole batch
+    batch.get(0).getSource().serializeTo(outputStream);
+    outputStream.writeInt(batch.size());
+    for (NetworkVoltronEntityMessage message : batch) {
+      NetworkVoltronEntityMessageImpl.writeContents(outputStream, message);
+    }
+  }
+
+  @Override
+  protected boolean hydrateValue(byte name) throws IOException {
+    Assert.assertTrue(0 == name);
+    Assert.assertTrue(null == this.messages);
+    // Read our dummy byte.
+    getByteValue();
+
+    TCByteBufferInputStream inputStream = getInputStream();
+    ClientID clientID = ClientID.readFrom(inputStream);
+    int count = getIntValue();
+    List<VoltronEntityMessage> hydrated = new ArrayList<>(count);
+    for (int x = 0; x < count; x++) {
+      TransactionID transactionID = new TransactionID(getLongValue());
+      EntityDescriptor entityDescriptor = EntityDescriptor.readFrom(inputStream);
+      VoltronEntityMessage.Type type = VoltronEntityMessage.Type.values()[getIntValue()];
+      TCByteBuffer extendedData = getByteBuffer();
+      boolean requiresReplication = getBooleanValue();
+      TransactionID oldestTransactionPending = new TransactionID(getLongValue());
+      Set<VoltronEntityMessage.Acks> requestedAcks = NetworkVoltronEntityMessageImpl.readAcks(inputStream);
+      EntityMessage message = NetworkVoltronEntityMessageImpl.decodeEntityMessage(supplier, type, entityDescriptor, extendedData);
+      hydrated.add(new BatchedMessage(clientID, transactionID, entityDescriptor, type, extendedData, requiresReplication, oldestTransactionPending, requestedAcks, message));
+    }
+    this.messages = hydrated;
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "NetworkVoltronEntityMultiMessageImpl{" + "messages=" + getMessageCount() + '}';
+  }
+  // for tests
+  TCActionNetworkMessage getNetworkMessage() {
+    return convertToNetworkMessage();
+  }
+
+  /**
+   * One message of a hydrated batch.
+   */
+  private static class BatchedMessage implements VoltronEntityMessage {
+    private final ClientID clientID;
+    private final TransactionID transactionID;
+    private final EntityDescriptor entityDescriptor;
+    private final Type type;
+    private final TCByteBuffer extendedData;
+    private final boolean requiresReplication;
+    private final TransactionID oldestTransactionPending;
+    private final Set<Acks> requestedAcks;
+    private final EntityMessage message;
+
+    private BatchedMessage(ClientID clientID, TransactionID transactionID, EntityDescriptor entityDescriptor, Type type, TCByteBuffer extendedData,
+                           boolean requiresReplication, TransactionID oldestTransactionPending, Set<Acks> requestedAcks, EntityMessage message) {
+      this.clientID = clientID;
+      this.transactionID = transactionID;
+      this.entityDescriptor = entityDescriptor;
+      this.type = type;
+      this.extendedData = extendedData;
+      this.requiresReplication = requiresReplication;
+      this.oldestTransactionPending = oldestTransactionPending;
+      this.requestedAcks = requestedAcks;
+      this.message = message;
+    }
+
+    @Override
+    public ClientID getSource() {
+      return clientID;
+    }
+
+    @Override
+    public TransactionID getTransactionID() {
+      return transactionID;
+    }
+
+    @Override
+    public EntityDescriptor getEntityDescriptor() {
+      return entityDescriptor;
+    }
+
+    @Override
+    public boolean doesRequireReplication() {
+      return requiresReplication;
+    }
+
+    @Override
+    public boolean doesRequestReceived() {
+      return requestedAcks.contains(Acks.RECEIVED);
+    }
+
+    @Override
+    public boolean doesRequestRetired() {
+      return requestedAcks.contains(Acks.RETIRED);
+    }
+
+    @Override
+    public Type getVoltronType() {
+      return type;
+    }
+
+    @Override
+    public TCByteBuffer getExtendedData() {
+      return extendedData.duplicate();
+    }
+
+    @Override
+    public TransactionID getOldestTransactionOnClient() {
+      return oldestTransactionPending;
+    }
+
+    @Override
+    public EntityMessage getEntityMessage() {
+      return message;
+    }
+
+    @Override
+    public String toString() {
+      return "BatchedMessage{" + "clientID=" + clientID + ", transactionID=" + transactionID + '}';
+    }
+  }
+}
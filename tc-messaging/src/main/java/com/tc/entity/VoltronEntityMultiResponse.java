@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ package com.tc.entity;
 import com.tc.object.ClientInstanceID;
 import com.tc.object.tx.TransactionID;
 import com.tc.net.protocol.tcm.TCAction;
+import java.util.Collection;
 
 
 /**
@@ -45,6 +46,17 @@ public interface VoltronEntityMultiResponse extends TCAction {
   boolean addResultAndRetire(TransactionID tid, byte[] result);
   boolean addServerMessage(ClientInstanceID cid, byte[] message);
   boolean addServerMessage(TransactionID cid, byte[] message);
+  /**
+   * adds the same message for each of the client instances
+   */
+  default boolean addServerMessage(Collection<ClientInstanceID> cids, byte[] message) {
+    for (ClientInstanceID cid : cids) {
+      if (!addServerMessage(cid, message)) {
+        return false;
+      }
+    }
+    return true;
+  }
   boolean addStats(TransactionID cid, long[] timings);
   
   void stopAdding();
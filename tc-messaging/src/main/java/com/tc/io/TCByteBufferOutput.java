@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -28,4 +28,10 @@ public interface TCByteBufferOutput extends TCDataOutput {
   
   public void write(TCByteBuffer data);
 
+  /**
+   * Append the buffers of the reference to the output without copying them.  The output takes
+   * ownership of the reference and closes it once the output's own buffers are released.
+   */
+  public void write(TCReference data);
+
 }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -108,6 +108,15 @@ public class TCByteBufferOutputStream extends OutputStream implements TCByteBuff
     write(new TCByteBuffer[] { data });
   }
 
+  @Override
+  public void write(TCReference data) {
+    checkClosed();
+    if (data == null) { throw new NullPointerException(); }
+    finalizeBuffer();
+    written += (int) data.available();
+    this.buffers.lend(data);
+  }
+
   private void checkBuffer() {
     while (current == null || !current.hasRemaining()) {
       current = addBuffer();
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -32,18 +32,42 @@ public class ReplicationMessageAck extends AbstractGroupMessage implements IBatc
   public static final int INVALID               = 0; // Sent to replicate a request on the passive
   public static final int START_SYNC                = 4; // Sent from the passive when it wants the active to start passive sync.
   public static final int BATCH                = 5; // Sent from the passive to ack a batch of messages.
+  public static final int CUMULATIVE                = 6; // Sent from the passive to ack everything up to a point plus a batch of exceptions.
+
+  // sync features a passive can ask for with START_SYNC.  passives that predate them send none.
+  public static final int SYNC_INTERLEAVED      = 0x1; // the passive accepts entities and concurrency keys synced at the same time
+  public static final int SYNC_CUMULATIVE       = 0x2; // the passive can ack with CUMULATIVE, the active accepts it in SYNC_START
 
   // Factory methods.
   public static ReplicationMessageAck createSyncRequestMessage() {
-    return new ReplicationMessageAck(START_SYNC);
+    return createSyncRequestMessage(0);
+  }
+
+  public static ReplicationMessageAck createSyncRequestMessage(int syncFeatures) {
+    ReplicationMessageAck msg = new ReplicationMessageAck(START_SYNC);
+    msg.syncFeatures = syncFeatures;
+    return msg;
   }
 
   public static ReplicationMessageAck createBatchAck() {
     return new ReplicationMessageAck(BATCH);
   }
 
+  public static ReplicationMessageAck createCumulativeAck() {
+    return new ReplicationMessageAck(CUMULATIVE);
+  }
+
 
   private List<ReplicationAckTuple> batch;
+  // CUMULATIVE only.  the next receivedCount activities sent to the passive, ending with receivedThrough, were
+  // received and the next completedCount, ending with completedThrough, completed successfully.  counts are relative
+  // to the previous cumulative ack from the same passive.
+  private int receivedCount;
+  private long receivedThrough;
+  private int completedCount;
+  private long completedThrough;
+  // START_SYNC only.
+  private int syncFeatures;
 
   public ReplicationMessageAck() {
     super(INVALID);
@@ -52,7 +76,7 @@ public class ReplicationMessageAck extends AbstractGroupMessage implements IBatc
 //  this type requests passive sync from the active  
   private ReplicationMessageAck(int type) {
     super(type);
-    if (BATCH == type) {
+    if (BATCH == type || CUMULATIVE == type) {
       this.batch = new ArrayList<ReplicationAckTuple>();
     }
   }
@@ -61,10 +85,47 @@ public class ReplicationMessageAck extends AbstractGroupMessage implements IBatc
   // However, due to other races in how the using code decides to stop changing a message, it makes more sense for them to serialize on that level.
   @Override
   public void addToBatch(ReplicationAckTuple element) {
-    Assert.assertTrue(BATCH == this.getType());
+    Assert.assertTrue(BATCH == this.getType() || CUMULATIVE == this.getType());
     this.batch.add(element);
   }
 
+  /**
+   * Replaces the batch of a cumulative ack with the watermarks and the acks they do not cover.
+   */
+  public void setCumulative(int receivedCount, long receivedThrough, int completedCount, long completedThrough, List<ReplicationAckTuple> exceptions) {
+    Assert.assertTrue(CUMULATIVE == this.getType());
+    this.receivedCount = receivedCount;
+    this.receivedThrough = receivedThrough;
+    this.completedCount = completedCount;
+    this.completedThrough = completedThrough;
+    this.batch = exceptions;
+  }
+
+  public boolean hasSyncFeature(int feature) {
+    return (syncFeatures & feature) == feature;
+  }
+
+  public int getSyncFeatures() {
+    Assert.assertTrue(START_SYNC == this.getType());
+    return syncFeatures;
+  }
+
+  public int getReceivedCount() {
+    return receivedCount;
+  }
+
+  public SyncReplicationActivity.ActivityID getReceivedThrough() {
+    return new SyncReplicationActivity.ActivityID(receivedThrough);
+  }
+
+  public int getCompletedCount() {
+    return completedCount;
+  }
+
+  public SyncReplicationActivity.ActivityID getCompletedThrough() {
+    return new SyncReplicationActivity.ActivityID(completedThrough);
+  }
+
   @Override
   public int getBatchSize() {
     return this.batch.size();
@@ -90,26 +151,53 @@ public class ReplicationMessageAck extends AbstractGroupMessage implements IBatc
       int batchSize = in.readInt();
       // We should never send an empty message.
       Assert.assertTrue(batchSize > 0);
-      this.batch = new ArrayList<ReplicationAckTuple>();
-      for (int i = 0; i < batchSize; ++i) {
-        SyncReplicationActivity.ActivityID respondTo = new SyncReplicationActivity.ActivityID(in.readLong());
-        ReplicationResultCode result = ReplicationResultCode.decode(in.readInt());
-        this.batch.add(new ReplicationAckTuple(respondTo, result));
-      }
+      this.batch = readTuples(in, batchSize);
+    } else if (CUMULATIVE == this.getType()) {
+      this.receivedCount = in.readInt();
+      this.receivedThrough = in.readLong();
+      this.completedCount = in.readInt();
+      this.completedThrough = in.readLong();
+      // the watermarks may cover everything so the batch can be empty
+      this.batch = readTuples(in, in.readInt());
+    } else if (START_SYNC == this.getType()) {
+      // older passives send an empty sync request
+      this.syncFeatures = (in.available() >= Integer.BYTES) ? in.readInt() : 0;
     }
   }
 
+  private static List<ReplicationAckTuple> readTuples(TCByteBufferInput in, int batchSize) throws IOException {
+    List<ReplicationAckTuple> tuples = new ArrayList<ReplicationAckTuple>(batchSize);
+    for (int i = 0; i < batchSize; ++i) {
+      SyncReplicationActivity.ActivityID respondTo = new SyncReplicationActivity.ActivityID(in.readLong());
+      ReplicationResultCode result = ReplicationResultCode.decode(in.readInt());
+      tuples.add(new ReplicationAckTuple(respondTo, result));
+    }
+    return tuples;
+  }
+
   @Override
   protected void basicSerializeTo(TCByteBufferOutput out) {
     if (BATCH == this.getType()) {
       int size = this.batch.size();
       // We should never send an empty message.
       Assert.assertTrue(size > 0);
-      out.writeInt(size);
-      for (ReplicationAckTuple tuple : this.batch) {
-        out.writeLong(tuple.respondTo.id);
-        out.writeInt(tuple.result.code());
-      }
+      writeTuples(out);
+    } else if (CUMULATIVE == this.getType()) {
+      out.writeInt(this.receivedCount);
+      out.writeLong(this.receivedThrough);
+      out.writeInt(this.completedCount);
+      out.writeLong(this.completedThrough);
+      writeTuples(out);
+    } else if (START_SYNC == this.getType()) {
+      out.writeInt(this.syncFeatures);
+    }
+  }
+
+  private void writeTuples(TCByteBufferOutput out) {
+    out.writeInt(this.batch.size());
+    for (ReplicationAckTuple tuple : this.batch) {
+      out.writeLong(tuple.respondTo.id);
+      out.writeInt(tuple.result.code());
     }
   }
 
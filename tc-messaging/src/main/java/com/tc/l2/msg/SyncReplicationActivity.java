@@ -20,8 +20,10 @@ package com.tc.l2.msg;
 import com.tc.async.api.OrderedEventContext;
 import com.tc.bytes.TCByteBuffer;
 import com.tc.bytes.TCByteBufferFactory;
+import com.tc.bytes.TCReference;
 import com.tc.io.TCByteBufferInput;
 import com.tc.io.TCByteBufferOutput;
+import com.tc.io.TCByteBufferOutputStream;
 import com.tc.net.ClientID;
 import com.tc.net.NodeID;
 import com.tc.object.ClientInstanceID;
@@ -229,8 +231,18 @@ public class SyncReplicationActivity implements OrderedEventContext {
   }
 
   public static SyncReplicationActivity createStartMessage() {
+    return createStartMessage(0);
+  }
+
+  /**
+   * @param syncFeatures the sync features the passive asked for with
+   *   {@link ReplicationMessageAck#createSyncRequestMessage(int)} which the active accepts
+   */
+  public static SyncReplicationActivity createStartMessage(int syncFeatures) {
     int referenceCount = 0;
-    return new SyncReplicationActivity(ActivityID.getNextID(), null, EntityID.NULL_ID, 0L, FetchID.NULL_ID, ClientID.NULL_ID, ClientInstanceID.NULL_ID, TransactionID.NULL_ID, TransactionID.NULL_ID, ActivityType.SYNC_START, null, 0, referenceCount, null);
+    // passives that predate sync features ignore the payload of SYNC_START
+    TCByteBuffer features = syncFeatures == 0 ? null : TCByteBufferFactory.getInstance(Integer.BYTES).putInt(0, syncFeatures);
+    return new SyncReplicationActivity(ActivityID.getNextID(), null, EntityID.NULL_ID, 0L, FetchID.NULL_ID, ClientID.NULL_ID, ClientInstanceID.NULL_ID, TransactionID.NULL_ID, TransactionID.NULL_ID, ActivityType.SYNC_START, features, 0, referenceCount, null);
   }
 
   private final ActivityID id;
@@ -252,6 +264,10 @@ public class SyncReplicationActivity implements OrderedEventContext {
 
   final String debugId;
 
+  // passives still expected to write the shared encoding, see shareEncoding
+  private int encodingWriters;
+  private TCReference encoding;
+
   private SyncReplicationActivity(ActivityID id, EntityCreationTuple[] entitiesForSyncStart, EntityID entity, long version, FetchID fetch, ClientID src, ClientInstanceID instance, TransactionID tid, TransactionID oldest, ActivityType action, TCByteBuffer payload, int concurrency, int referenceCount, String debugId) {
     Assert.assertNotNull(id);
     Assert.assertNotNull(action);
@@ -295,6 +311,14 @@ public class SyncReplicationActivity implements OrderedEventContext {
     return this.entitiesForSyncStart;
   }
 
+  /**
+   * The sync features accepted by the active, SYNC_START only.
+   */
+  public boolean hasSyncFeature(int feature) {
+    Assert.assertTrue(ActivityType.SYNC_START == this.action);
+    return payload != null && payload.remaining() >= Integer.BYTES && (payload.duplicate().getInt() & feature) == feature;
+  }
+
   public TCByteBuffer getExtendedData() {
 //    Assert.assertTrue(ActivityType.SYNC_BEGIN != this.action);
     return payload == null ? TCByteBufferFactory.getInstance(0) : payload.duplicate();
@@ -357,7 +381,58 @@ public class SyncReplicationActivity implements OrderedEventContext {
     return (this.action.ordinal() >= ActivityType.SYNC_START.ordinal() && this.action.ordinal() < ActivityType.DISCONNECT_CLIENT.ordinal());
   }
 
+  /**
+   * Serialize this activity once for all the passives it is replicated to rather than once per
+   * passive.  The first passive to serialize it encodes it into a shared reference which every
+   * other passive appends to its message by reference.  Each of the passives must either serialize the activity or call
+   * {@link #releaseEncoding()} for the shared encoding to be released.
+   *
+   * @param writers number of passives this activity is being replicated to
+   */
+  public synchronized void shareEncoding(int writers) {
+    Assert.assertNull(encoding);
+    this.encodingWriters = writers;
+  }
+
+  /**
+   * Called for a passive the activity was shared with but which will not serialize it.
+   */
+  public synchronized void releaseEncoding() {
+    if (encodingWriters > 0 && --encodingWriters == 0 && encoding != null) {
+      encoding.close();
+      encoding = null;
+    }
+  }
+
+  private synchronized TCReference acquireEncoding() {
+    if (encodingWriters == 0) {
+      return null;
+    }
+    if (encoding == null) {
+      TCByteBufferOutputStream shared = new TCByteBufferOutputStream();
+      encodeTo(shared);
+      encoding = shared.accessBuffers();
+    }
+    if (--encodingWriters == 0) {
+      // the last writer takes the original reference
+      TCReference last = encoding;
+      encoding = null;
+      return last;
+    }
+    return encoding.duplicate();
+  }
+
   protected void serializeTo(TCByteBufferOutput out) {
+    TCReference shared = acquireEncoding();
+    if (shared == null) {
+      encodeTo(out);
+    } else {
+      // handed over by reference, every passive's message shares the one encoding
+      out.write(shared);
+    }
+  }
+
+  private void encodeTo(TCByteBufferOutput out) {
     // This activity better be valid.
     Assert.assertTrue(ActivityType.INVALID != this.action);
     // We should NOT be serializing local flush activities.
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -43,7 +43,8 @@ public enum TCMessageType {
     VOLTRON_ENTITY_MULTI_RESPONSE(true),
     NOOP_MESSAGE(true),
     DIAGNOSTIC_REQUEST(true),
-    DIAGNOSTIC_RESPONSE(true);
+    DIAGNOSTIC_RESPONSE(true),
+    VOLTRON_ENTITY_MULTI_MESSAGE(true);
     
   private final boolean validType;
   private final static TCMessageType[] values = values();
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -32,4 +32,31 @@ public interface ClientHandshakeAckMessage extends ClientHandshakeResponse {
 
   public String getServerVersion();
 
+  /**
+   * Grants the client a window of invokes, and optionally invoke payload bytes, it may have in
+   * flight.  Only sent when the server limits its clients, older clients never see it.
+   */
+  public void setCredits(int messages, long bytes);
+
+  /**
+   * @return invokes the client may have in flight, 0 when the server does not limit the client
+   */
+  public int getCreditMessages();
+
+  /**
+   * @return invoke payload bytes the client may have in flight, 0 for no byte limit
+   */
+  public long getCreditBytes();
+
+  /**
+   * Accepts batched invokes from a client which asked for them in its handshake.  Never sent to
+   * clients which did not ask, they cannot read it.
+   */
+  public void setBatchedInvokes(boolean batched);
+
+  /**
+   * @return true when the server accepts the invokes of an invokeAll as one batched message
+   */
+  public boolean isBatchedInvokes();
+
 }
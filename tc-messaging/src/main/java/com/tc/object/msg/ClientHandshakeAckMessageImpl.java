@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -37,10 +37,16 @@ public class ClientHandshakeAckMessageImpl extends DSOMessageBase implements Cli
   private static final byte      ALL_NODES         = 2;
   private static final byte      THIS_NODE_ID      = 3;
   private static final byte      SERVER_VERSION    = 4;
+  private static final byte      CREDIT_MESSAGES   = 5;
+  private static final byte      CREDIT_BYTES      = 6;
+  private static final byte      BATCHED_INVOKES   = 7;
 
   private final Set<NodeID>      allNodes          = new HashSet<NodeID>();
   private ClientID               thisNodeId;
   private String                 serverVersion;
+  private int                    creditMessages;
+  private long                   creditBytes;
+  private boolean                batchedInvokes;
 
   public ClientHandshakeAckMessageImpl(SessionID sessionID, MessageMonitor monitor,
                                        TCByteBufferOutputStream out, MessageChannel channel,
@@ -62,6 +68,15 @@ public class ClientHandshakeAckMessageImpl extends DSOMessageBase implements Cli
 
     putNVPair(THIS_NODE_ID, thisNodeId);
     putNVPair(SERVER_VERSION, serverVersion);
+    // clients which do not know about credits fail on names they cannot hydrate
+    if (creditMessages > 0) {
+      putNVPair(CREDIT_MESSAGES, creditMessages);
+      putNVPair(CREDIT_BYTES, creditBytes);
+    }
+    // only sent to clients which asked for it in their handshake
+    if (batchedInvokes) {
+      putNVPair(BATCHED_INVOKES, batchedInvokes);
+    }
   }
 
   @Override
@@ -76,6 +91,15 @@ public class ClientHandshakeAckMessageImpl extends DSOMessageBase implements Cli
       case SERVER_VERSION:
         serverVersion = getStringValue();
         return true;
+      case CREDIT_MESSAGES:
+        creditMessages = getIntValue();
+        return true;
+      case CREDIT_BYTES:
+        creditBytes = getLongValue();
+        return true;
+      case BATCHED_INVOKES:
+        batchedInvokes = getBooleanValue();
+        return true;
       default:
         return false;
     }
@@ -104,4 +128,30 @@ public class ClientHandshakeAckMessageImpl extends DSOMessageBase implements Cli
   public String getServerVersion() {
     return serverVersion;
   }
+
+  @Override
+  public void setCredits(int messages, long bytes) {
+    this.creditMessages = messages;
+    this.creditBytes = bytes;
+  }
+
+  @Override
+  public int getCreditMessages() {
+    return creditMessages;
+  }
+
+  @Override
+  public long getCreditBytes() {
+    return creditBytes;
+  }
+
+  @Override
+  public void setBatchedInvokes(boolean batched) {
+    this.batchedInvokes = batched;
+  }
+
+  @Override
+  public boolean isBatchedInvokes() {
+    return batchedInvokes;
+  }
 }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -28,6 +28,14 @@ public interface ClientHandshakeMessage extends TCAction {
   void setReconnect(boolean isReconnect);
   
   boolean isReconnect();
+
+  /**
+   * The client asks to send the invokes of an invokeAll as one batched message.  The server
+   * answers in the handshake ack, and the client only batches once the server has accepted.
+   */
+  void setBatchedInvokes(boolean batched);
+
+  boolean isBatchedInvokes();
   
   void setUUID(String uuid);
   
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -40,7 +40,8 @@ import java.util.Comparator;
 public class ClientHandshakeMessageImpl extends DSOMessageBase implements ClientHandshakeMessage {
   private static final byte   RECONNECT        = 1;
   private static final byte   CLIENT_VERSION           = 2;
-  private static final byte   UNUSED_2        = 3;
+  // was an unused boolean, older servers still read and drop it
+  private static final byte   BATCHED_INVOKES          = 3;
   private static final byte   LOCAL_TIME_MILLS         = 4;
   private static final byte   RECONNECT_REFERENCES     = 5;
   private static final byte   RESEND_MESSAGES          = 6;
@@ -58,6 +59,7 @@ public class ClientHandshakeMessageImpl extends DSOMessageBase implements Client
   private String              clientAddress            = ""; 
   private int                 pid                      = -1;
   private boolean             reconnect                = false;
+  private boolean             batchedInvokes           = false;
   private final Set<ClientEntityReferenceContext> reconnectReferences = new HashSet<ClientEntityReferenceContext>();
   private final Set<ResendVoltronEntityMessage> resendMessages = new TreeSet<ResendVoltronEntityMessage>(new Comparator<ResendVoltronEntityMessage>() {
     @Override
@@ -90,6 +92,16 @@ public class ClientHandshakeMessageImpl extends DSOMessageBase implements Client
     return this.reconnect;
   }
 
+  @Override
+  public void setBatchedInvokes(boolean batched) {
+    this.batchedInvokes = batched;
+  }
+
+  @Override
+  public boolean isBatchedInvokes() {
+    return this.batchedInvokes;
+  }
+
   @Override
   public String getClientVersion() {
     return this.clientVersion;
@@ -153,7 +165,7 @@ public class ClientHandshakeMessageImpl extends DSOMessageBase implements Client
   @Override
   protected void dehydrateValues() {
     putNVPair(RECONNECT, reconnect);  // unused but keep for compatibility
-    putNVPair(UNUSED_2, false);  // unused but keep for compatibility
+    putNVPair(BATCHED_INVOKES, batchedInvokes);
     putNVPair(CLIENT_UUID, this.uuid);
     putNVPair(CLIENT_NAME, this.name);
     putNVPair(CLIENT_VERSION, this.clientVersion);
@@ -175,8 +187,8 @@ public class ClientHandshakeMessageImpl extends DSOMessageBase implements Client
       case RECONNECT:
         this.reconnect = getBooleanValue();
         return true;
-      case UNUSED_2:
-        getBooleanValue();  // unused but keep for compatibility
+      case BATCHED_INVOKES:
+        this.batchedInvokes = getBooleanValue();
         return true;
       case CLIENT_VERSION:
         this.clientVersion = getStringValue();
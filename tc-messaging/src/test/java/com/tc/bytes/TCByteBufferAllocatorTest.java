@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -17,10 +17,12 @@
  */
 package com.tc.bytes;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.function.Supplier;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -48,4 +50,31 @@ public class TCByteBufferAllocatorTest {
       // expected
     }
   }
+
+  @Test
+  public void testLentReferenceIsNotReturned() {
+    Queue<TCByteBuffer> returns = new LinkedList<>();
+    TCByteBufferAllocator alloc = new TCByteBufferAllocator(() -> TCByteBufferFactory.getInstance(16), returns);
+    TCByteBuffer before = alloc.add();
+    before.putInt(1).flip();
+    Queue<TCByteBuffer> lentReturns = new LinkedList<>();
+    TCByteBuffer lentBuffer = TCByteBufferFactory.getInstance(8);
+    lentBuffer.putLong(2L).flip();
+    TCReference lent = TCReferenceSupport.createReference(lentReturns::add, lentBuffer);
+    alloc.lend(lent);
+    TCByteBuffer after = alloc.add();
+    after.putInt(3).flip();
+    try (TCReference ref = alloc.complete()) {
+      assertEquals(Integer.BYTES * 2 + Long.BYTES, ref.available());
+      Iterator<TCByteBuffer> it = ref.iterator();
+      assertEquals(1, it.next().getInt());
+      assertEquals(2L, it.next().getLong());
+      assertEquals(3, it.next().getInt());
+    }
+    assertEquals(2, returns.size());
+    assertTrue(returns.contains(before));
+    assertTrue(returns.contains(after));
+    assertEquals(1, lentReturns.size());
+    assertEquals(lentBuffer, lentReturns.poll());
+  }
 }
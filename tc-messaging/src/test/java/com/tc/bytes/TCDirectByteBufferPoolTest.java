@@ -0,0 +1,136 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.bytes;
+
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class TCDirectByteBufferPoolTest {
+
+  @Test
+  public void testSizeClasses() {
+    TCDirectByteBufferPool pool = new TCDirectByteBufferPool(Long.MAX_VALUE);
+    assertEquals(512, pool.acquire(1).capacity());
+    assertEquals(512, pool.acquire(512).capacity());
+    assertEquals(1024, pool.acquire(513).capacity());
+    assertEquals(4096, pool.acquire(4000).capacity());
+    assertEquals(1024 * 1024, pool.acquire(1024 * 1024).capacity());
+    assertTrue(pool.acquire(4000).isDirect());
+    // too big for any class
+    assertFalse(pool.acquire(1024 * 1024 + 1).isDirect());
+  }
+
+  @Test
+  public void testReferenceReturnsToPool() {
+    TCDirectByteBufferPool pool = new TCDirectByteBufferPool(Long.MAX_VALUE);
+    TCReference ref = TCReferenceSupport.createReference(pool, 4096);
+    TCReference dup = ref.duplicate();
+    assertEquals(4096L, pool.getOutstandingBytes());
+    ref.close();
+    assertEquals(1, pool.getOutstandingBuffers());
+    dup.close();
+    assertEquals(0L, pool.getOutstandingBytes());
+    assertEquals(0, pool.getOutstandingBuffers());
+    try (TCReference again = TCReferenceSupport.createReference(pool, 3000)) {
+      assertEquals(4096L, pool.getOutstandingBytes());
+    }
+    Map<String, ?> state = pool.getState();
+    assertEquals(1L, state.get("hits"));
+    assertEquals(1L, state.get("misses"));
+  }
+
+  @Test
+  public void testLimitOverflowsToHeap() {
+    TCDirectByteBufferPool pool = new TCDirectByteBufferPool(8192);
+    TCByteBuffer a = pool.acquire(4096);
+    TCByteBuffer b = pool.acquire(4096);
+    TCByteBuffer c = pool.acquire(4096);
+    assertTrue(a.isDirect());
+    assertTrue(b.isDirect());
+    assertFalse(c.isDirect());
+    assertEquals(1L, pool.getState().get("overflows"));
+    // heap buffers are ignored on the way back
+    pool.release(c.reInit());
+    pool.release(a.reInit());
+    assertEquals(4096L, pool.getOutstandingBytes());
+    assertSame(a, pool.acquire(4096));
+  }
+
+  @Test
+  public void testBuffersMoveBetweenThreads() throws Exception {
+    TCDirectByteBufferPool pool = new TCDirectByteBufferPool(Long.MAX_VALUE);
+    TCByteBuffer[] buffers = new TCByteBuffer[16];
+    for (int x = 0; x < buffers.length; x++) {
+      buffers[x] = pool.acquire(2048);
+    }
+    // released on another thread, every one reaches the depot rather than that thread's magazine
+    Thread t = new Thread(()->{
+      for (TCByteBuffer b : buffers) {
+        pool.release(b.reInit());
+      }
+    });
+    t.start();
+    t.join();
+    assertEquals(0, pool.getOutstandingBuffers());
+    for (int x = 0; x < buffers.length; x++) {
+      pool.acquire(2048);
+    }
+    assertEquals(16L, pool.getState().get("hits"));
+    assertEquals(16L, pool.getState().get("misses"));
+  }
+
+  @Test
+  public void testLostBufferReturnsItsReservation() throws Exception {
+    TCDirectByteBufferPool pool = new TCDirectByteBufferPool(8192);
+    TCByteBuffer kept = pool.acquire(4096);
+    pool.acquire(4096);
+    assertEquals(8192L, pool.getState().get("reservedBytes"));
+    assertFalse(pool.acquire(4096).isDirect());
+    // the second buffer was never released, once it is collected its bytes count against the cap no more
+    long deadline = System.currentTimeMillis() + 10000;
+    while (pool.getOutstandingBuffers() > 1 && System.currentTimeMillis() < deadline) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertEquals(4096L, pool.getState().get("reservedBytes"));
+    assertEquals(4096L, pool.getOutstandingBytes());
+    assertEquals(1L, pool.getState().get("lost"));
+    assertTrue(pool.acquire(4096).isDirect());
+    pool.release(kept.reInit());
+    assertEquals(4096L, pool.getOutstandingBytes());
+  }
+
+  @Test
+  public void testLoweredCapReleasesReservation() {
+    TCDirectByteBufferPool pool = new TCDirectByteBufferPool(8192);
+    TCByteBuffer a = pool.acquire(4096);
+    TCByteBuffer b = pool.acquire(4096);
+    pool.setMaxBytes(4096);
+    pool.release(a.reInit());
+    assertEquals(4096L, pool.getState().get("reservedBytes"));
+    pool.release(b.reInit());
+    assertEquals(4096L, pool.getState().get("reservedBytes"));
+    assertSame(b, pool.acquire(4096));
+    assertEquals(0L, pool.getState().get("lost"));
+  }
+}
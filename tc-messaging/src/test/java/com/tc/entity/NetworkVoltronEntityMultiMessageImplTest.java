@@ -0,0 +1,147 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.entity;
+
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.bytes.TCReference;
+import com.tc.entity.VoltronEntityMessage.Acks;
+import com.tc.entity.VoltronEntityMessage.Type;
+import com.tc.io.TCByteBufferInputStream;
+import com.tc.io.TCByteBufferOutputStream;
+import com.tc.net.ClientID;
+import com.tc.net.protocol.tcm.MessageMonitor;
+import com.tc.net.protocol.tcm.TCAction;
+import com.tc.net.protocol.tcm.TCActionNetworkMessage;
+import com.tc.net.protocol.tcm.TCMessageHeader;
+import com.tc.net.protocol.tcm.TCMessageType;
+import com.tc.object.ClientInstanceID;
+import com.tc.object.EntityDescriptor;
+import com.tc.object.EntityID;
+import com.tc.object.FetchID;
+import com.tc.object.session.SessionID;
+import com.tc.object.tx.TransactionID;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.EntityResponse;
+import org.terracotta.entity.MessageCodec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class NetworkVoltronEntityMultiMessageImplTest {
+  private static final MessageMonitor MONITOR = new MessageMonitor() {
+    @Override
+    public void newIncomingMessage(TCAction message) {
+    }
+
+    @Override
+    public void newOutgoingMessage(TCAction message) {
+    }
+
+    @Override
+    public void shutdown() {
+    }
+  };
+
+  @Test
+  public void testSerialization() throws Exception {
+    ClientID clientID = new ClientID(1);
+    EntityDescriptor first = EntityDescriptor.createDescriptorForInvoke(new FetchID(1), new ClientInstanceID(1));
+    EntityDescriptor second = EntityDescriptor.createDescriptorForInvoke(new FetchID(2), new ClientInstanceID(3));
+
+    TCByteBufferOutputStream outputStream = new TCByteBufferOutputStream(4, 4096);
+    NetworkVoltronEntityMultiMessageImpl batch = new NetworkVoltronEntityMultiMessageImpl(new SessionID(0), MONITOR, outputStream, null, TCMessageType.VOLTRON_ENTITY_MULTI_MESSAGE);
+    batch.addMessage(invoke(clientID, 2, first, new byte[] {1, 2}, true, EnumSet.of(Acks.RECEIVED, Acks.RETIRED)));
+    batch.addMessage(invoke(clientID, 3, second, new byte[] {3}, false, EnumSet.noneOf(Acks.class)));
+    assertEquals(2, batch.getMessageCount());
+
+    TCActionNetworkMessage msg = batch.getNetworkMessage();
+    TCMessageHeader header = (TCMessageHeader) msg.getHeader();
+    msg.load();
+    TCReference payload = msg.getPayload();
+    outputStream.close();
+    NetworkVoltronEntityMultiMessageImpl decoding = new NetworkVoltronEntityMultiMessageImpl(SessionID.NULL_ID, MONITOR, null, header, new TCByteBufferInputStream(payload));
+    decoding.setMessageCodecSupplier(descriptor -> new Codec());
+    decoding.hydrate();
+
+    List<VoltronEntityMessage> messages = decoding.getMessages();
+    assertEquals(2, messages.size());
+    VoltronEntityMessage one = messages.get(0);
+    assertEquals(clientID, one.getSource());
+    assertEquals(new TransactionID(2), one.getTransactionID());
+    assertEquals(first.getFetchID(), one.getEntityDescriptor().getFetchID());
+    assertEquals(first.getClientInstanceID(), one.getEntityDescriptor().getClientInstanceID());
+    assertEquals(Type.INVOKE_ACTION, one.getVoltronType());
+    assertTrue(one.doesRequireReplication());
+    assertTrue(one.doesRequestReceived());
+    assertTrue(one.doesRequestRetired());
+    assertEquals(new TransactionID(1), one.getOldestTransactionOnClient());
+    assertEquals(2, ((Message) one.getEntityMessage()).payload.length);
+
+    VoltronEntityMessage two = messages.get(1);
+    assertEquals(clientID, two.getSource());
+    assertEquals(new TransactionID(3), two.getTransactionID());
+    assertEquals(second.getFetchID(), two.getEntityDescriptor().getFetchID());
+    assertEquals(second.getClientInstanceID(), two.getEntityDescriptor().getClientInstanceID());
+    assertFalse(two.doesRequireReplication());
+    assertFalse(two.doesRequestReceived());
+    assertEquals(3, two.getExtendedData().get());
+  }
+
+  private static NetworkVoltronEntityMessage invoke(ClientID clientID, long transaction, EntityDescriptor descriptor, byte[] payload, boolean replicate, EnumSet<Acks> acks) {
+    NetworkVoltronEntityMessageImpl message = new NetworkVoltronEntityMessageImpl(new SessionID(0), MONITOR, new TCByteBufferOutputStream(), null, TCMessageType.VOLTRON_ENTITY_MESSAGE);
+    message.setContents(clientID, new TransactionID(transaction), new EntityID("Test", "test"), descriptor, Type.INVOKE_ACTION,
+        replicate, TCByteBufferFactory.wrap(payload), new TransactionID(1), acks);
+    return message;
+  }
+
+  private static class Message implements EntityMessage {
+    private final byte[] payload;
+
+    Message(byte[] payload) {
+      this.payload = payload;
+    }
+  }
+
+  private static class Codec implements MessageCodec<Message, EntityResponse> {
+    @Override
+    public byte[] encodeMessage(Message message) {
+      return message.payload;
+    }
+
+    @Override
+    public Message decodeMessage(byte[] payload) {
+      return new Message(payload);
+    }
+
+    @Override
+    public byte[] encodeResponse(EntityResponse response) {
+      return new byte[0];
+    }
+
+    @Override
+    public EntityResponse decodeResponse(byte[] payload) {
+      return null;
+    }
+  }
+}
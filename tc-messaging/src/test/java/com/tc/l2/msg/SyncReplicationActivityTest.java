@@ -0,0 +1,129 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.l2.msg;
+
+import com.tc.bytes.TCByteBuffer;
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.bytes.TCReference;
+import com.tc.io.TCByteBufferInputStream;
+import com.tc.io.TCByteBufferOutputStream;
+import com.tc.net.ClientID;
+import com.tc.object.ClientInstanceID;
+import com.tc.object.FetchID;
+import com.tc.object.tx.TransactionID;
+import java.io.ByteArrayOutputStream;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SyncReplicationActivityTest {
+
+  @Test
+  public void testSharedEncodingMatchesPerPassiveEncoding() throws Exception {
+    byte[] expected = serialize(invoke());
+
+    SyncReplicationActivity shared = invoke();
+    shared.shareEncoding(3);
+    for (int x = 0; x < 4; x++) {
+      // the fourth is past the shared writers and falls back to encoding directly
+      byte[] written = serialize(shared);
+      assertArrayEquals(expected, written);
+    }
+  }
+
+  @Test
+  public void testSharedEncodingIsNotCopiedPerPassive() throws Exception {
+    byte[] expected = serialize(invoke());
+
+    SyncReplicationActivity shared = invoke();
+    shared.shareEncoding(2);
+    for (int x = 0; x < 2; x++) {
+      CopyCountingOutputStream out = new CopyCountingOutputStream();
+      shared.serializeTo(out);
+      // the whole activity is appended from the shared encoding, nothing is copied into the message
+      assertEquals(0, out.copied);
+      assertEquals(expected.length + Long.BYTES, out.getBytesWritten());
+      try (TCReference ref = out.accessBuffers()) {
+        assertEquals(out.getBytesWritten(), ref.available());
+      }
+    }
+  }
+
+  @Test
+  public void testSharedEncodingReadsBack() throws Exception {
+    SyncReplicationActivity shared = invoke();
+    shared.shareEncoding(2);
+    shared.releaseEncoding();
+    TCByteBufferOutputStream out = new TCByteBufferOutputStream();
+    shared.serializeTo(out);
+    SyncReplicationActivity read = SyncReplicationActivity.deserializeFrom(new TCByteBufferInputStream(out.accessBuffers()));
+    assertEquals(shared.getActivityID(), read.getActivityID());
+    assertEquals(shared.getActivityType(), read.getActivityType());
+    assertEquals(shared.getConcurrency(), read.getConcurrency());
+    assertEquals(shared.getExtendedData().getNioBuffer(), read.getExtendedData().getNioBuffer());
+  }
+
+  private static class CopyCountingOutputStream extends TCByteBufferOutputStream {
+    private int copied;
+
+    @Override
+    public void write(int b) {
+      copied++;
+      super.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int offset, int length) {
+      copied += length;
+      super.write(b, offset, length);
+    }
+
+    @Override
+    public void write(TCByteBuffer[] data) {
+      for (TCByteBuffer b : data) {
+        copied += b.remaining();
+      }
+      super.write(data);
+    }
+  }
+
+  private static SyncReplicationActivity invoke() {
+    TCByteBuffer payload = TCByteBufferFactory.wrap("the quick brown fox jumped over the goat".getBytes());
+    return SyncReplicationActivity.createInvokeMessage(new FetchID(1L), new ClientID(1L), new ClientInstanceID(1L),
+        new TransactionID(2L), new TransactionID(1L), SyncReplicationActivity.ActivityType.INVOKE_ACTION, payload, 1, "test");
+  }
+
+  private static byte[] serialize(SyncReplicationActivity activity) {
+    TCByteBufferOutputStream out = new TCByteBufferOutputStream();
+    activity.serializeTo(out);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (TCReference ref = out.accessBuffers()) {
+      for (TCByteBuffer buffer : ref) {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        bytes.write(data, 0, data.length);
+      }
+    }
+    // the activity id is not part of the comparison, every invoke() gets a new one
+    byte[] all = bytes.toByteArray();
+    byte[] withoutId = new byte[all.length - Long.BYTES];
+    System.arraycopy(all, Long.BYTES, withoutId, 0, withoutId.length);
+    return withoutId;
+  }
+}
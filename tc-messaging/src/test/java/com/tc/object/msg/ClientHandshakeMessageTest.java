@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -62,6 +62,7 @@ public class ClientHandshakeMessageTest {
     Assert.assertNotEquals(ref1, ref2);
     msg.addReconnectReference(ref1);
     msg.addReconnectReference(ref2);
+    msg.setBatchedInvokes(true);
     TCActionNetworkMessage nmsg = msg.getNetworkMessage();
     nmsg.load();
     
@@ -72,5 +73,6 @@ public class ClientHandshakeMessageTest {
     Assert.assertTrue(reconnectReferences.contains(ref1));
     Assert.assertTrue(reconnectReferences.contains(ref2));
     Assert.assertFalse(reconnectReferences.contains(ref3));
+    Assert.assertTrue(msg2.isBatchedInvokes());
   }
 }
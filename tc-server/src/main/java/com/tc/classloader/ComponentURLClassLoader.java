@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -30,16 +30,44 @@ public class ComponentURLClassLoader extends URLClassLoader {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ComponentURLClassLoader.class);
   private final CommonComponentChecker commonComponentChecker;
+  private final PluginIndex index;
+  private final String location;
 
   public ComponentURLClassLoader(URL[] urls, ClassLoader parent, CommonComponentChecker commonComponentChecker) {
+    this(urls, parent, commonComponentChecker, null, null);
+  }
+
+  ComponentURLClassLoader(URL[] urls, ClassLoader parent, CommonComponentChecker commonComponentChecker, PluginIndex index, String location) {
     super(urls, parent);
     this.commonComponentChecker = commonComponentChecker;
+    this.index = index;
+    this.location = location;
   }
 
   @Override
   protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
     Class<?> target = null;
 
+    if (index != null && index.isIsolated(location, name)) {
+//  this loader defined the class when the index was built, no need to offer it to the parent first
+      target = findLoadedClass(name);
+      if (target == null) {
+        try {
+          synchronized (getClassLoadingLock(name)) {
+            target = findClass(name);
+            if (resolve) {
+              this.resolveClass(target);
+            }
+          }
+        } catch (ClassNotFoundException notfound) {
+//  fall back to the usual lookup
+        }
+      }
+      if (target != null) {
+        return target;
+      }
+    }
+
     try {
       target = super.loadClass(name, resolve);
     } catch (ClassNotFoundException notfound) {
@@ -65,6 +93,9 @@ public class ComponentURLClassLoader extends URLClassLoader {
     if (target == null) {
       throw new ClassNotFoundException(name);
     }
+    if (index != null && target.getClassLoader() == this) {
+      index.isolated(location, name);
+    }
   
     return target;
   }
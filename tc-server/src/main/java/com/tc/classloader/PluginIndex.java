@@ -0,0 +1,314 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.classloader;
+
+import com.tc.util.ManagedServiceLoader.ServiceEntry;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persisted results of plugin discovery.  Each jar is recorded by its path with a hash of its path, size and zip
+ * central directory, which carries the checksum of every entry, so a jar replaced in place is seen without reading
+ * all of it.  The service implementations each jar names for an interface, and the classes its component classloader
+ * isolated rather than leaving to the platform classloader, are stored under the hash of that jar.  A changed jar
+ * only drops what was stored for it, the rest of the index is kept.
+ */
+class PluginIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(PluginIndex.class);
+  private static final String JAR = "jar.";
+  private static final String SERVICES = "services.";
+  private static final String CLASSES = "classes.";
+  private static final String ISOLATED = "isolated.";
+  // end of central directory record, signature to comment length
+  private static final int END_RECORD = 22;
+  private static final int END_SIGNATURE = 0x06054b50;
+
+  private final Path file;
+  private final Properties index;
+  // in classloader order, the order services from several jars are found in
+  private final List<Jar> jars;
+  private final Map<String, Jar> locations = new HashMap<>();
+  private boolean dirty;
+
+  private PluginIndex(Path file, Properties index, List<Jar> jars, boolean dirty) {
+    this.file = file;
+    this.index = index;
+    this.jars = jars;
+    for (Jar jar : jars) {
+      locations.put(jar.location, jar);
+    }
+    this.dirty = dirty;
+  }
+
+  /**
+   * @param file index to read, and to write when discovery finds something new
+   * @param jars every jar the index depends on, in the order the classloaders search them
+   * @return the stored index less anything stored for jars which have changed
+   */
+  static PluginIndex open(Path file, Collection<Path> jars) {
+    Map<String, Jar> current = new LinkedHashMap<>();
+    for (Path jar : jars) {
+      Path path = jar.toAbsolutePath();
+      current.computeIfAbsent(path.toString(), p->new Jar(hash(path), location(path)));
+    }
+    Properties stored = new Properties();
+    if (Files.isReadable(file)) {
+      try (InputStream in = Files.newInputStream(file)) {
+        stored.load(in);
+      } catch (IOException io) {
+        LOG.warn("unable to read plugin index " + file, io);
+        stored.clear();
+      }
+    }
+    Set<String> hashes = new HashSet<>();
+    boolean changed = false;
+    for (Map.Entry<String, Jar> jar : current.entrySet()) {
+      hashes.add(jar.getValue().hash);
+      if (!jar.getValue().hash.equals(stored.setProperty(JAR + jar.getKey(), jar.getValue().hash))) {
+        LOG.debug("plugin jar " + jar.getKey() + " is new or has changed");
+        changed = true;
+      }
+    }
+    for (String key : stored.stringPropertyNames()) {
+      if (key.startsWith(JAR) && !current.containsKey(key.substring(JAR.length()))) {
+        stored.remove(key);
+        changed = true;
+      } else if (key.startsWith(SERVICES) && !hashes.contains(hashOf(key, SERVICES, '.'))
+          || key.startsWith(CLASSES) && !hashes.contains(hashOf(key, CLASSES, '!'))) {
+        stored.remove(key);
+      }
+    }
+    if (changed) {
+      // classes isolated at locations which are not indexed jars cannot be tied to any one of them
+      stored.stringPropertyNames().stream().filter(k->k.startsWith(ISOLATED)).forEach(stored::remove);
+      LOG.info("plugins have changed, updating plugin index " + file);
+    } else {
+      LOG.info("using plugin index " + file);
+    }
+    return new PluginIndex(file, stored, new ArrayList<>(current.values()), changed);
+  }
+
+  private static String hashOf(String key, String prefix, char end) {
+    int at = key.indexOf(end, prefix.length());
+    return at < 0 ? "" : key.substring(prefix.length(), at);
+  }
+
+  /**
+   * @return the implementations indexed for the interface or null if it has not been discovered in every jar
+   */
+  synchronized List<ServiceEntry> getServices(String interfaceName) {
+    if (jars.isEmpty()) {
+      return null;
+    }
+    List<ServiceEntry> entries = new ArrayList<>();
+    for (Jar jar : jars) {
+      String key = SERVICES + jar.hash + "." + interfaceName;
+      String count = index.getProperty(key);
+      if (count == null) {
+        return null;
+      }
+      for (int x = 0; x < Integer.parseInt(count); x++) {
+        String overrides = index.getProperty(key + "." + x + ".overrides", "");
+        entries.add(new ServiceEntry(index.getProperty(key + "." + x + ".class"), jar.location,
+            overrides.isEmpty() ? new String[0] : overrides.split(",")));
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Stores what discovery found for the interface under the jars it came from.  Nothing is stored if an entry
+   * came from somewhere other than the indexed jars or the jars would give the entries back in another order.
+   */
+  synchronized void putServices(String interfaceName, List<ServiceEntry> entries) {
+    Map<Jar, List<ServiceEntry>> found = new LinkedHashMap<>();
+    for (Jar jar : jars) {
+      found.put(jar, new ArrayList<>());
+    }
+    List<ServiceEntry> ordered = new ArrayList<>();
+    for (ServiceEntry entry : entries) {
+      Jar jar = locations.get(entry.getLocation());
+      if (jar == null) {
+        LOG.debug("not indexing " + interfaceName + ", " + entry.getLocation() + " is not an indexed jar");
+        return;
+      }
+      found.get(jar).add(entry);
+    }
+    found.values().forEach(ordered::addAll);
+    if (!ordered.equals(entries)) {
+      LOG.debug("not indexing " + interfaceName + ", the classloaders search the jars in another order");
+      return;
+    }
+    for (Map.Entry<Jar, List<ServiceEntry>> jar : found.entrySet()) {
+      String key = SERVICES + jar.getKey().hash + "." + interfaceName;
+      List<ServiceEntry> list = jar.getValue();
+      for (int x = 0; x < list.size(); x++) {
+        index.setProperty(key + "." + x + ".class", list.get(x).getClassName());
+        index.setProperty(key + "." + x + ".overrides", String.join(",", list.get(x).getOverrides()));
+      }
+      index.setProperty(key, Integer.toString(list.size()));
+    }
+    dirty = true;
+  }
+
+  /**
+   * @return true if the component classloader at the location defined the class itself
+   */
+  synchronized boolean isIsolated(String location, String className) {
+    return Boolean.parseBoolean(index.getProperty(isolatedKey(location, className)));
+  }
+
+  synchronized void isolated(String location, String className) {
+    if (index.setProperty(isolatedKey(location, className), "true") == null) {
+      dirty = true;
+    }
+  }
+
+  private String isolatedKey(String location, String className) {
+    Jar jar = locations.get(location);
+    return jar != null ? CLASSES + jar.hash + "!" + className : ISOLATED + location + "!" + className;
+  }
+
+  /**
+   * Writes the index if anything was added since it was read or last stored.
+   */
+  synchronized void store() {
+    if (dirty) {
+      try {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+          index.store(out, "plugin discovery index, updated when the plugins change");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+      } catch (IOException io) {
+        LOG.warn("unable to write plugin index " + file, io);
+      }
+    }
+  }
+
+  private static String location(Path jar) {
+    try {
+      // the form service entries give their location in
+      return jar.toUri().toURL().toExternalForm();
+    } catch (MalformedURLException mal) {
+      return jar.toString();
+    }
+  }
+
+  private static String hash(Path jar) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(jar.toString().getBytes(StandardCharsets.UTF_8));
+      try (FileChannel channel = FileChannel.open(jar)) {
+        long size = channel.size();
+        digest.update(Long.toString(size).getBytes(StandardCharsets.UTF_8));
+        ByteBuffer directory = centralDirectory(channel, size);
+        if (directory != null) {
+          digest.update(directory);
+        } else {
+          // not a zip the central directory can be found in, take all of it
+          ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+          channel.position(0);
+          while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+          }
+        }
+        digest.update((byte)1);
+      } catch (IOException io) {
+        // a jar that cannot be read is hashed as missing
+        digest.update((byte)0);
+      }
+      StringBuilder hex = new StringBuilder();
+      for (byte b : digest.digest()) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException no) {
+      throw new AssertionError(no);
+    }
+  }
+
+  /**
+   * @return the central directory of the zip or null if its end record is not found or points past itself
+   */
+  private static ByteBuffer centralDirectory(FileChannel channel, long size) throws IOException {
+    // the end record is at the end of the file, followed only by a comment of up to 64KiB
+    int tail = (int)Math.min(size, END_RECORD + 0xFFFF);
+    ByteBuffer end = ByteBuffer.allocate(tail).order(ByteOrder.LITTLE_ENDIAN);
+    readFully(channel, end, size - tail);
+    for (int x = tail - END_RECORD; x >= 0; x--) {
+      if (end.getInt(x) == END_SIGNATURE) {
+        long length = end.getInt(x + 12) & 0xFFFFFFFFL;
+        long offset = end.getInt(x + 16) & 0xFFFFFFFFL;
+        // zip64 archives mark these as unset, those are hashed whole
+        if (offset + length > size - tail + x) {
+          return null;
+        }
+        ByteBuffer directory = ByteBuffer.allocate((int)length);
+        readFully(channel, directory, offset);
+        directory.flip();
+        return directory;
+      }
+    }
+    return null;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException();
+      }
+    }
+  }
+
+  private static final class Jar {
+    private final String hash;
+    private final String location;
+
+    private Jar(String hash, String location) {
+      this.hash = hash;
+      this.location = location;
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import com.tc.server.Directories;
 import com.tc.util.ManagedServiceLoader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -36,10 +37,12 @@ import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * Top level service locator class used to identify and isolate service
@@ -54,14 +57,20 @@ public class ServiceLocator extends ManagedServiceLoader {
   private final ClassLoader defaultClassLoader;
   private final boolean verify;
   private final Map<String, ClassLoader> locationCache = new ConcurrentHashMap<>();
+  private final PluginIndex index;
 
   public ServiceLocator(ClassLoader parent) {
     this(parent, true);
   }
 
   public ServiceLocator(ClassLoader parent, boolean verify) {
+    this(parent, verify, null);
+  }
+
+  ServiceLocator(ClassLoader parent, boolean verify, PluginIndex index) {
     defaultClassLoader = parent;
     this.verify = verify;
+    this.index = index;
   }
 
   private static Path getPluginPath() {
@@ -104,13 +113,74 @@ public class ServiceLocator extends ManagedServiceLoader {
 
   private ClassLoader createComponentClassLoader(String location, ClassLoader parent) {
     try {
-      return new ComponentURLClassLoader(new URL[]{new URL(location)}, parent, new AnnotationOrDirectoryStrategyChecker());
+      return new ComponentURLClassLoader(new URL[]{new URL(location)}, parent, new AnnotationOrDirectoryStrategyChecker(), index, location);
     } catch (MalformedURLException aml) {
       LOG.warn("unable to load " + location, aml);
     }
     return null;
   }
 
+  @Override
+  protected Collection<Class<?>> discoverImplementations(String interfaceName, ClassLoader loader) {
+    try {
+      return super.discoverImplementations(interfaceName, loader);
+    } finally {
+      if (index != null) {
+        index.store();
+      }
+    }
+  }
+
+  @Override
+  protected List<ServiceEntry> findServiceEntries(String interfaceName, ClassLoader loader) throws IOException {
+    if (index == null || loader != defaultClassLoader) {
+      return super.findServiceEntries(interfaceName, loader);
+    }
+    List<ServiceEntry> entries = index.getServices(interfaceName);
+    if (entries == null) {
+      entries = super.findServiceEntries(interfaceName, loader);
+      index.putServices(interfaceName, entries);
+    }
+    return entries;
+  }
+
+  private static PluginIndex openPluginIndex() {
+    String file = TCPropertiesImpl.getProperties().getProperty(TCPropertiesConsts.PLUGIN_INDEX, true);
+    if (file == null || file.isEmpty()) {
+      return null;
+    }
+    // in the order the platform classloader searches them, parents first
+    List<Path> jars = new ArrayList<>();
+    // anything on the server classpath can supply services or shadow plugin classes
+    for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+      if (!entry.isEmpty() && fileFilter(Paths.get(entry))) {
+        jars.add(Paths.get(entry));
+      }
+    }
+    try {
+      jars.add(Directories.getServerJar());
+    } catch (FileNotFoundException notfound) {
+      // not indexed
+    }
+    try {
+      addJars(Directories.getServerPluginsApiDir(), jars);
+      addJars(Directories.getServerPluginsLibDir(), jars);
+    } catch (FileNotFoundException notfound) {
+      return null;
+    }
+    return PluginIndex.open(Paths.get(file), jars);
+  }
+
+  private static void addJars(Path dir, List<Path> jars) {
+    if (Files.isDirectory(dir)) {
+      try (Stream<Path> list = Files.list(dir)) {
+        list.filter(ServiceLocator::fileFilter).forEach(jars::add);
+      } catch (IOException io) {
+        throw new UncheckedIOException(io);
+      }
+    }
+  }
+
   private static boolean fileFilter(Path target) {
     String name = target.toString().toLowerCase();
     return name.endsWith(".jar") || name.endsWith(".zip");
@@ -144,7 +214,7 @@ public class ServiceLocator extends ManagedServiceLoader {
   }
 
   public static ServiceLocator createPlatformServiceLoader(ClassLoader serverClassLoader) {
-    return new ServiceLocator(createPlatformClassLoader(serverClassLoader, STRICT));
+    return new ServiceLocator(createPlatformClassLoader(serverClassLoader, STRICT), true, openPluginIndex());
   }
 
   public ClassLoader createUniversalClassLoader() {
@@ -32,6 +32,8 @@ import com.tc.net.groups.GroupException;
 import com.tc.net.groups.GroupManager;
 import com.tc.net.groups.GroupResponse;
 import com.tc.net.utils.L2Utils;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.Assert;
 import com.tc.util.State;
 import java.util.Collections;
@@ -51,6 +53,7 @@ public class ElectionManagerImpl implements ElectionManager {
   private static final State    ELECTION_VOTED    = new State("Election-Votes-Are-In");
   private static final State    ELECTION_IN_PROGRESS = new State("Election-In-Progress");
   private static final State    ELECTION_SHUTDOWN = new State("Election-Shutdown");
+  private static final long     MEMBERSHIP_RECHECK   = 200;
 
   private final GroupManager<L2StateMessage> groupManager;
   private final Map<NodeID, Enrollment> votes        = new HashMap<>();
@@ -66,10 +69,24 @@ public class ElectionManagerImpl implements ElectionManager {
 
   private final long            electionTime;
   private int             expectedServers;
+  private Set<String>     electors = Collections.emptySet();
+  // a passive electing a replacement for a lost active may end the election once every connected
+  // server, or a quorum of servers, has voted.  never at startup and never short of a majority
+  private final boolean   earlyCompletion;
+  private final int       quorum;
+  private boolean         failover;
 
   public ElectionManagerImpl(GroupManager groupManager, int electionTimeInSec) {
+    this(groupManager, electionTimeInSec,
+        TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.L2_ELECTION_EARLY, false),
+        TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_ELECTION_QUORUM, 0));
+  }
+
+  public ElectionManagerImpl(GroupManager groupManager, int electionTimeInSec, boolean earlyCompletion, int quorum) {
     this.groupManager = groupManager;
     this.electionTime = electionTimeInSec * 1000;
+    this.earlyCompletion = earlyCompletion;
+    this.quorum = quorum;
     this.groupManager.registerForGroupEvents(new GroupEventsListener() {
       @Override
       public void nodeJoined(NodeID nodeID) {
@@ -79,6 +96,8 @@ public class ElectionManagerImpl implements ElectionManager {
       @Override
       public void nodeLeft(NodeID nodeID) {
         debugInfo("node left " + nodeID);
+        // the votes of the servers still connected may be all that is coming
+        checkVotes();
       }
     });
   }
@@ -118,7 +137,7 @@ public class ElectionManagerImpl implements ElectionManager {
     if (state == ELECTION_IN_PROGRESS) {
       Enrollment vote = msg.getEnrollment();
       Enrollment old = votes.put(vote.getNodeID(), vote);
-      if (votes.size() == expectedServers) {
+      if (votesAreIn()) {
         this.state = ELECTION_VOTED;
         notify();
       }
@@ -254,16 +273,22 @@ public class ElectionManagerImpl implements ElectionManager {
     }
   }
 
-  private synchronized void electionStarted(Enrollment e, State serverState, int expectedServers) {
+  private synchronized void electionStarted(Enrollment e, State serverState, Set<String> servers) {
     if (this.state == ELECTION_IN_PROGRESS) { throw new AssertionError("Election Already in Progress"); }
-    this.state = expectedServers > 1 ? ELECTION_IN_PROGRESS : ELECTION_VOTED;
-    this.expectedServers = expectedServers;
+    this.state = servers.size() > 1 ? ELECTION_IN_PROGRESS : ELECTION_VOTED;
+    this.expectedServers = servers.size();
+    this.electors = servers;
+    this.failover = StateManager.convert(serverState) == ServerMode.PASSIVE;
     this.myVote = e;
     this.serverState = serverState;
     this.winner = null;
     this.passiveStandbys = null;
     this.votes.clear();
     this.votes.put(e.getNodeID(), e); // Cast my vote
+    if (this.state == ELECTION_IN_PROGRESS && votesAreIn()) {
+      // no other server is connected to vote
+      this.state = ELECTION_VOTED;
+    }
     logger.info("Election Started : " + e);
   }
 
@@ -272,7 +297,7 @@ public class ElectionManagerImpl implements ElectionManager {
 
     // Step 1: publish to cluster NodeID, weight and election start
     Enrollment e = EnrollmentFactory.createEnrollment(myNodeId, isNew, weightsFactory);
-    electionStarted(e, currentState, servers.size());
+    electionStarted(e, currentState, servers);
 
     L2StateMessage msg = L2StateMessage.createElectionStartedMessage(e, currentState);
     debugInfo("Sending my election vote to all members");
@@ -340,13 +365,47 @@ public class ElectionManagerImpl implements ElectionManager {
     return computedWinner;
   }
 
+  private synchronized void checkVotes() {
+    if (state == ELECTION_IN_PROGRESS && votesAreIn()) {
+      this.state = ELECTION_VOTED;
+      notify();
+    }
+  }
+
+  private boolean votesAreIn() {
+    if (votes.size() >= expectedServers) {
+      return true;
+    } else if (!failover || votes.size() <= expectedServers / 2) {
+      // a starting stripe waits for every configured server, a failover for at least a majority of them
+      return false;
+    } else if (quorum > 0 && votes.size() >= quorum) {
+      return true;
+    } else if (earlyCompletion) {
+      // my own vote plus one from every server in the group
+      int connected = 0;
+      for (String server : electors) {
+        if (groupManager.isServerConnected(server)) {
+          connected++;
+        }
+      }
+      return votes.size() > connected;
+    } else {
+      return false;
+    }
+  }
+
   private synchronized long waitTillElectionComplete() throws InterruptedException {
     long diff = electionTime;
     debugInfo("Waiting till election complete, electionTime=" + electionTime);
+    boolean recheck = earlyCompletion && failover;
     while (state == ELECTION_IN_PROGRESS && diff > 0) {
       long start = System.currentTimeMillis();
-      wait(diff);
+      // group membership changes are not always seen before the departure is announced, recheck now and then
+      wait(recheck ? Math.min(diff, MEMBERSHIP_RECHECK) : diff);
       diff = diff - (System.currentTimeMillis() - start);
+      if (state == ELECTION_IN_PROGRESS && recheck && votesAreIn()) {
+        state = ELECTION_VOTED;
+      }
     }
     return diff;
   }
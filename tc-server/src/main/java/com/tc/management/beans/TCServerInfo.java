@@ -17,7 +17,7 @@
  */
 package com.tc.management.beans;
 
-import com.tc.async.impl.MonitoringEventCreator;
+import com.tc.async.impl.PipelineTracer;
 import com.tc.stats.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -478,13 +478,8 @@ public class TCServerInfo extends AbstractTerracottaMBean implements TCServerInf
 
   @Override
   public final void setPipelineMonitoring(boolean monitor) {
-    if (monitor) {
-      MonitoringEventCreator.setPipelineMonitor(consumer->{
-        logger.info(consumer.toString());
-      });
-    } else {
-      MonitoringEventCreator.setPipelineMonitor(null);
-    }
+    // trace every request while monitoring, the points are exported to JFR
+    PipelineTracer.setSampleRate(monitor ? 1 : 0);
   }
 
   @Override
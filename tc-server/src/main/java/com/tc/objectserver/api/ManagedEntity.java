@@ -23,6 +23,7 @@ import com.tc.l2.msg.SyncReplicationActivity;
 import com.tc.object.EntityID;
 import com.tc.object.session.SessionID;
 import com.tc.objectserver.entity.MessagePayload;
+import com.tc.objectserver.entity.PassiveSyncWindow;
 import com.tc.objectserver.handler.RetirementManager;
 import java.util.Map;
 import org.terracotta.entity.ConfigurationException;
@@ -57,8 +58,10 @@ public interface ManagedEntity {
    * Called to sync an entity.  Caller initiates sync of an entity through this method.
    *
    * @param passive target passive
+   * @param window bounds the sync messages sent to the passive and not yet acknowledged,
+   * shared by every entity synced to the passive and drained by the caller
    */
-  void sync(SessionID passive);
+  void sync(SessionID passive, PassiveSyncWindow window);
   /**
   * Called when passive sync wants to start sync on this entity.
   *
@@ -152,6 +152,29 @@ public class ActivePassiveAckWaiter {
     }
   }
 
+  /**
+   * Received from a cumulative ack, which may cover a passive that already acknowledged individually.
+   */
+  public synchronized void didReceiveOnPassiveIfPending(ServerID onePassive) {
+    if (this.receivedPending.remove(nodeToSession(onePassive)) && this.receivedPending.isEmpty()) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Completion from a cumulative ack, which may cover a passive that already acknowledged individually.
+   *
+   * @return True if this was the last outstanding completion required and the waiter is now done.
+   */
+  public boolean didCompleteOnPassiveIfPending(ServerID onePassive, ReplicationResultCode payload) {
+    synchronized (this) {
+      if (!this.completedPending.contains(nodeToSession(onePassive))) {
+        return false;
+      }
+    }
+    return didCompleteOnPassive(onePassive, payload);
+  }
+
   /**
    * Notifies the waiter that it is complete for the given node.
    *
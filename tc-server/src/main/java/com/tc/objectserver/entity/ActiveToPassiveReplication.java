@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -33,6 +33,8 @@ import com.tc.net.groups.GroupManager;
 import com.tc.objectserver.api.ManagedEntity;
 import com.tc.objectserver.handler.ProcessTransactionHandler;
 import com.tc.objectserver.persistence.EntityPersistor;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.Assert;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -59,8 +61,11 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -77,6 +82,9 @@ import org.terracotta.tripwire.TripwireFactory;
 public class ActiveToPassiveReplication implements PassiveReplicationBroker, GroupEventsListener {
   
   private static final Logger LOGGER = LoggerFactory.getLogger(ActiveToPassiveReplication.class);
+  private static final int SYNC_ENTITIES = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.ACTIVE_PASSIVE_SYNC_ENTITIES, 4);
+  // accept cumulative acks from passives which offer them when they ask for sync
+  private static final boolean CUMULATIVE_ACKS = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.PASSIVE_ACTIVE_CUMULATIVE, false);
   private volatile boolean activated = false;
   private final Map<ServerID, SessionID> passiveNodes = new ConcurrentHashMap<>();
   private final Set<NodeID> standByNodes = new HashSet<>();
@@ -129,7 +137,7 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
  */
   private void primePassives(Set<ServerID> passives) {
     passives.forEach(i -> {
-      SessionID session = prime(i);
+      SessionID session = prime(i, 0);
       if (session.isNull()) {
         LOGGER.warn("add passive disallowed for " + i);
       }
@@ -137,8 +145,9 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
   }
 /**
  * prime the message channel to a node by setting the starting ordering id to zero.
+ * @param startFeatures sync features accepted for the passive, carried by SYNC_START
  */
-  private SessionID prime(ServerID node) {
+  private SessionID prime(ServerID node, int startFeatures) {
     Assert.assertFalse(node.isNull());
     //  no session means we are allowed to proceed
     if (!passiveNodes.containsKey(node)) {
@@ -150,7 +159,7 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
         SessionID newSession = new SessionID(sessionMaker.incrementAndGet());
         SessionID current = passiveNodes.putIfAbsent(node, newSession);
         if (current == null) {
-          if (this.replicationSender.addPassive(node, newSession, executionLane(newSession), SyncReplicationActivity.createStartMessage())) {
+          if (this.replicationSender.addPassive(node, newSession, executionLane(newSession), SyncReplicationActivity.createStartMessage(startFeatures))) {
             return newSession;
           } else {
             LOGGER.info("Failed to send message to passive {} ending session {}", node, newSession);
@@ -169,15 +178,23 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
   }
   
   public boolean startPassiveSync(ServerID newNode) {
+    return startPassiveSync(newNode, 0);
+  }
+
+  /**
+   * @param syncFeatures the sync features the passive asked for, see {@link ReplicationMessageAck#SYNC_INTERLEAVED}
+   */
+  public boolean startPassiveSync(ServerID newNode, int syncFeatures) {
     Assert.assertTrue(activated);
-    SessionID session = prime(newNode);
+    boolean interleaved = (syncFeatures & ReplicationMessageAck.SYNC_INTERLEAVED) != 0;
+    SessionID session = prime(newNode, CUMULATIVE_ACKS ? syncFeatures & ReplicationMessageAck.SYNC_CUMULATIVE : 0);
     if (session.isValid()) {
       LOGGER.info("Starting sync to node: {} session: {}", newNode, session);
       Properties props = new Properties();
       props.setProperty("server", newNode.toString());
       props.setProperty("session", session.toString());
       GuardianContext.validate(Guardian.Op.SECURITY_OP, "passive sync started", props);
-      executePassiveSync(newNode, session);
+      executePassiveSync(newNode, session, interleaved);
       return true;
     } else {
       LOGGER.info("unable to prime connection to {} for passive sync", newNode);
@@ -189,7 +206,7 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
    * Using an executor service here to sync multiple passives at once
    * @param newNode
    */
-  private void executePassiveSync(final ServerID newNode, SessionID session) {
+  private void executePassiveSync(final ServerID newNode, SessionID session, boolean interleaved) {
     Event sync = TripwireFactory.createSyncEvent(newNode.getName(), newNode.getUID(), session.toLong());
     executeOnPool(() -> {
       sync.begin();
@@ -214,11 +231,12 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
               createStartSyncMessage(tuplesForCreation.
                   toArray(new SyncReplicationActivity.EntityCreationTuple[tuplesForCreation.size()])), Collections.singleton(session)).waitForCompleted();
 
-      for (ManagedEntity entity : e) {
-        LOGGER.debug("starting sync for entity " + newNode + "/" + entity.getID());
-        entity.sync(session);
-        LOGGER.debug("ending sync for entity " + newNode + "/" + entity.getID());
-      }
+      //  entities are streamed to the passive back to back, the window keeps the
+      //  unacknowledged part of the stream bounded.  a passive that accepts an interleaved
+      //  sync takes several entities, and the keys of each entity, at the same time
+      PassiveSyncWindow window = new PassiveSyncWindow(interleaved);
+      syncEntities(newNode, session, e, window, interleaved ? SYNC_ENTITIES : 1);
+      window.drain();
       //  passive sync done message.  causes passive to go into passive standby mode
       LOGGER.info("Finished sync to node: {}", newNode);
       Properties props = new Properties();
@@ -260,10 +278,32 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
             internalAckCompleted(tuple.respondTo, messageFrom, tuple.result);
           }
         }
+        if (ReplicationMessageAck.CUMULATIVE == context.getType()) {
+          //  the batch above holds the acks the watermarks do not cover, so anything it
+          //  already resolved is skipped here
+          cumulativeAckReceived(session, messageFrom, context);
+        } else {
+          this.replicationSender.perActivityAcks(session);
+        }
       }));
     }
   }
 
+  private void cumulativeAckReceived(SessionID session, ServerID messageFrom, ReplicationMessageAck context) {
+    this.replicationSender.receivedThrough(session, context.getReceivedCount(), context.getReceivedThrough(), id->{
+      ActivePassiveAckWaiter waiter = waiters.get(id);
+      if (null != waiter) {
+        waiter.didReceiveOnPassiveIfPending(messageFrom);
+      }
+    });
+    this.replicationSender.completedThrough(session, context.getCompletedCount(), context.getCompletedThrough(), id->{
+      ActivePassiveAckWaiter waiter = waiters.get(id);
+      if (null != waiter && waiter.didCompleteOnPassiveIfPending(messageFrom, ReplicationResultCode.SUCCESS)) {
+        waiters.remove(id);
+      }
+    });
+  }
+
   /**
    * This internal handling for completed is split out since it happens for both completed acks but also situations which
    * implies no ack is forthcoming (the passive disappearing, for example).
@@ -308,6 +348,9 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
       // Note that we want to explicitly create the ReplicationEnvelope using a different helper if it is a local flush
       //  command.
       boolean isLocalFlush = (SyncReplicationActivity.ActivityType.FLUSH_LOCAL_PIPELINE == activity.getActivityType());
+      if (!isLocalFlush) {
+        this.replicationSender.shareEncoding(activity, (int)all.stream().filter(SessionID::isValid).count());
+      }
       for (SessionID node : all) {
         if (!isLocalFlush) {
           // This isn't local-only so try to replicate.
@@ -328,6 +371,42 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
     return waiter;
   }
 
+  private void syncEntities(ServerID newNode, SessionID session, Iterable<ManagedEntity> entities, PassiveSyncWindow window, int parallel) {
+    if (parallel <= 1) {
+      for (ManagedEntity entity : entities) {
+        syncEntity(newNode, session, entity, window);
+      }
+    } else {
+      Semaphore slots = new Semaphore(parallel);
+      List<Future<?>> syncs = new ArrayList<>();
+      try {
+        for (ManagedEntity entity : entities) {
+          slots.acquire();
+          syncs.add(passiveSyncPool.submit(()->{
+            try {
+              syncEntity(newNode, session, entity, window);
+            } finally {
+              slots.release();
+            }
+          }));
+        }
+        for (Future<?> sync : syncs) {
+          sync.get();
+        }
+      } catch (InterruptedException ie) {
+        L2Utils.handleInterrupted(LOGGER, ie);
+      } catch (ExecutionException ee) {
+        throw new RuntimeException(ee.getCause());
+      }
+    }
+  }
+
+  private static void syncEntity(ServerID newNode, SessionID session, ManagedEntity entity, PassiveSyncWindow window) {
+    LOGGER.debug("starting sync for entity " + newNode + "/" + entity.getID());
+    entity.sync(session, window);
+    LOGGER.debug("ending sync for entity " + newNode + "/" + entity.getID());
+  }
+
   private void executeOnPool(Runnable r) {
     try {
       passiveSyncPool.execute(r);
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -35,6 +35,8 @@ import com.tc.object.EntityID;
 import com.tc.object.FetchID;
 import com.tc.objectserver.api.EntityManager;
 import com.tc.objectserver.api.ManagedEntity;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.services.TerracottaServiceProviderRegistry;
 import com.tc.util.Assert;
 import java.util.ArrayList;
@@ -77,6 +79,8 @@ public class EntityManagerImpl implements EntityManager {
   private boolean shouldCreateActiveEntities;
   
   private final Semaphore snapshotLock = new Semaphore(1); // sync and create or destroy are mutually exclusive
+  private final EntityPromoter promoter = new EntityPromoter(TCPropertiesImpl.getProperties()
+        .getInt(TCPropertiesConsts.ENTITY_PROMOTION_THREADS, 1));
   
   // The sort comparator.
   private final Comparator<ManagedEntity> consumerIdSorter = new Comparator<ManagedEntity>() {
@@ -159,16 +163,12 @@ public class EntityManagerImpl implements EntityManager {
       List<ManagedEntity> sortingList = new ArrayList<ManagedEntity>(this.entityIndex.values());
       List<VoltronEntityMessage> reconnectDone = new ArrayList<>(this.entityIndex.size());
       Collections.sort(sortingList, this.consumerIdSorter);
-      for (ManagedEntity entity : sortingList) {
-        try {
-            reconnectDone.add(new LocalPipelineFlushMessage(
-              EntityDescriptor.createDescriptorForInvoke(new FetchID(entity.getConsumerID()), ClientInstanceID.NULL_ID), 
-              entity.promoteEntity()));
-        } catch (ConfigurationException ce) {
-          String errMsg = "failure to promote entity: " + entity.getID();
-          LOGGER.error(errMsg, ce);
-          throw new TCShutdownServerException(errMsg, ce);
-        }
+      // entities of the same type are promoted in parallel, failures shut down the server
+      List<Runnable> reconnects = this.promoter.promote(sortingList);
+      for (int x = 0; x < sortingList.size(); x++) {
+        reconnectDone.add(new LocalPipelineFlushMessage(
+          EntityDescriptor.createDescriptorForInvoke(new FetchID(sortingList.get(x).getConsumerID()), ClientInstanceID.NULL_ID), 
+          reconnects.get(x)));
       }
   //  only enter active state after all the entities have promoted to active
       processorPipeline.enterActiveState();
@@ -0,0 +1,127 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.entity;
+
+import com.tc.exception.TCShutdownServerException;
+import com.tc.objectserver.api.ManagedEntity;
+import com.tc.util.DaemonThreadFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.entity.ConfigurationException;
+
+/**
+ * Promotes the entities of a server becoming active.  Entities are promoted in the order given,
+ * ascending by consumerID, except that a run of consecutive entities of the same type is promoted
+ * in parallel.  Instances of one type are independent of each other while an entity may depend on
+ * entities of other types created before it, so each run completes before the next one starts.
+ * <p>
+ * Nothing in an entity declares whether its server code is safe to promote alongside other
+ * instances of its type, so with more than one thread that is left to whoever sets
+ * server.entity.promotion.threads.  The default of one promotes every entity on the calling thread.
+ */
+class EntityPromoter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EntityPromoter.class);
+
+  private final int threads;
+
+  EntityPromoter(int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * @return the reconnect completion of each entity, in the order of the entities
+   */
+  List<Runnable> promote(List<ManagedEntity> entities) {
+    Runnable[] reconnects = new Runnable[entities.size()];
+    ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads, new DaemonThreadFactory("entity-promotion-")) : null;
+    try {
+      int start = 0;
+      while (start < entities.size()) {
+        String type = entities.get(start).getID().getClassName();
+        int end = start + 1;
+        while (pool != null && end < entities.size() && type.equals(entities.get(end).getID().getClassName())) {
+          end++;
+        }
+        if (end - start == 1) {
+          reconnects[start] = promote(entities.get(start));
+        } else {
+          promoteTogether(pool, entities, start, end, reconnects);
+        }
+        start = end;
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+    return Arrays.asList(reconnects);
+  }
+
+  private static void promoteTogether(ExecutorService pool, List<ManagedEntity> entities, int start, int end, Runnable[] reconnects) {
+    List<Future<Runnable>> run = new ArrayList<>(end - start);
+    for (int x = start; x < end; x++) {
+      ManagedEntity entity = entities.get(x);
+      run.add(pool.submit(()->promote(entity)));
+    }
+    boolean interrupted = false;
+    try {
+      for (int x = start; x < end; x++) {
+        Future<Runnable> promotion = run.get(x - start);
+        while (true) {
+          try {
+            reconnects[x] = promotion.get();
+            break;
+          } catch (InterruptedException ie) {
+            // promotion has to finish before the server can go active
+            interrupted = true;
+          } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+              throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+              throw (Error)cause;
+            } else {
+              throw new RuntimeException(cause);
+            }
+          }
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static Runnable promote(ManagedEntity entity) {
+    try {
+      return entity.promoteEntity();
+    } catch (ConfigurationException ce) {
+      String errMsg = "failure to promote entity: " + entity.getID();
+      LOGGER.error(errMsg, ce);
+      throw new TCShutdownServerException(errMsg, ce);
+    }
+  }
+}
@@ -366,7 +366,7 @@ public class ManagedEntityImpl implements ManagedEntity {
     Trace.activeTrace().log("ManagedEntityImpl.processInvokeRequest");
     if (isInActiveState) {
       try {
-        key = this.concurrencyStrategy.concurrencyKey(message.decodeMessage(raw->this.codec.decodeMessage(raw)));
+        key = this.concurrencyStrategy.concurrencyKey(message.decodeMessage(this.codec));
       } catch (MessageCodecException codec) {
         // use the universal key because this is going to result in error downstream
         key = ConcurrencyStrategy.UNIVERSAL_KEY;
@@ -463,7 +463,7 @@ public class ManagedEntityImpl implements ManagedEntity {
 
   private EntityMessage decodeMessage(MessagePayload payload, ResultCapture capture) {
     try {
-      return payload.decodeMessage(r->codec.decodeMessage(r));
+      return payload.decodeMessage(codec);
     } catch (MessageCodecException ce) {
       capture.failure(ServerException.createMessageCodecException(id, ce));
     }
@@ -639,7 +639,7 @@ public class ManagedEntityImpl implements ManagedEntity {
               .ifPresent(em->performAction(request, em, response, concurrencyKey));
           break;
         case REQUEST_SYNC_ENTITY:
-          performSync(response, request.replicateTo(Collections.emptySet()), concurrencyKey);
+          performSync(response, (PassiveSyncServerEntityRequest)request, concurrencyKey);
           break;
         case RECEIVE_SYNC_ENTITY_KEY_START:
           receiveSyncEntityKeyStart(response, concurrencyKey);
@@ -865,7 +865,7 @@ public class ManagedEntityImpl implements ManagedEntity {
     response.complete();
   }
 
-  private void performSync(ResultCapture response, Set<SessionID> passives, int concurrencyKey) {
+  private void performSync(ResultCapture response, PassiveSyncServerEntityRequest request, int concurrencyKey) {
     if (!this.isDestroyed) {
       if (this.isInActiveState) {
         if (null == this.activeServerEntity) {
@@ -873,9 +873,10 @@ public class ManagedEntityImpl implements ManagedEntity {
         } else {
           // Create the channel which will send the payloads over the wire.
           PassiveSynchronizationChannel<EntityMessage> syncChannel = new EntityMessagePassiveSynchronizationChannelImpl(
-            passives,
+            request.replicateTo(Collections.emptySet()),
             concurrencyKey,
-            false
+            false,
+            request.getWindow()
           );
         //  start is handled by the sync request that triggered this action
           this.activeServerEntity.synchronizeKeyToPassive(syncChannel, concurrencyKey);
@@ -1191,46 +1192,48 @@ public class ManagedEntityImpl implements ManagedEntity {
   }
 
   @Override
-  public void sync(SessionID passive) {
+  public void sync(SessionID passive, PassiveSyncWindow window) {
 //  this is simply a barrier to make sure all actions are flushed before sync is started (hence, it has a null passive).
-    PassiveSyncServerEntityRequest req = new PassiveSyncServerEntityRequest(passive);
+    PassiveSyncServerEntityRequest req = new PassiveSyncServerEntityRequest(passive, window);
 // wait for future is ok, occuring on sync executor thread
     BarrierCompletion syncStart = new BarrierCompletion();
     this.executor.scheduleRequest(interop.isSyncing(), this.id, this.version, this.fetchID, new ServerEntityRequestImpl(ClientInstanceID.NULL_ID, ServerEntityAction.LOCAL_FLUSH_AND_SYNC, ClientID.NULL_ID, TransactionID.NULL_ID, TransactionID.NULL_ID, false), MessagePayload.emptyPayload(), (w)-> {
         Assert.assertTrue(this.isInActiveState);
         if (!this.isDestroyed) {
-          executor.scheduleSync(SyncReplicationActivity.createStartEntityMessage(id, version, fetchID, TCByteBufferFactory.wrap(constructorInfo), canDelete ? this.clientReferenceCount : ManagedEntity.UNDELETABLE_ENTITY), passive).waitForCompleted();
+          window.addCompleted(executor.scheduleSync(SyncReplicationActivity.createStartEntityMessage(id, version, fetchID, TCByteBufferFactory.wrap(constructorInfo), canDelete ? this.clientReferenceCount : ManagedEntity.UNDELETABLE_ENTITY), passive));
         }
         interop.syncStarted();
         syncStart.complete();
       }, true, ConcurrencyStrategy.MANAGEMENT_KEY);
-    //  wait for completed above waits for acknowledgment from the passive
+    //  the passive acknowledges the start through the window, the sync stream to the passive is
+    //  ordered so later sync messages do not need to wait for it.
     //  waitForCompletion below waits for completion of the local request processor
     syncStart.waitForCompletion();
 // wait for future is ok, occuring on sync executor thread
     try {
       if (!this.isDestroyed) {
+        //  keys sync at the same time when the window is interleaved, otherwise each key ends before the next starts
+        Map<Integer, BarrierCompletion> sections = new LinkedHashMap<>();
         for (Integer concurrency : concurrencyStrategy.getKeysForSynchronization()) {
     // make sure that concurrency key is in the valid range
           //  MGMT_KEY and UNIVERSAL keys are not valid for sync
           Assert.assertTrue(concurrency > 0);
 
           if (activeServerEntity != null) {
-            activeServerEntity.prepareKeyForSynchronizeOnPassive(new EntityMessagePassiveSynchronizationChannelImpl(Collections.singleton(passive), concurrency, true), concurrency);
+            activeServerEntity.prepareKeyForSynchronizeOnPassive(new EntityMessagePassiveSynchronizationChannelImpl(Collections.singleton(passive), concurrency, true, window), concurrency);
           }
           // We don't actually use the message in the direct strategy so this is safe.
           //  don't care about the result
           BarrierCompletion sectionComplete = new BarrierCompletion();
           this.executor.scheduleRequest(interop.isSyncing(), this.id, this.version, this.fetchID, req, MessagePayload.emptyPayload(),  (w)->invoke(req, new ResultCaptureImpl(null, result->sectionComplete.complete(), null, exception->{throw new RuntimeException("bad message", exception);}), MessagePayload.emptyPayload(), concurrency), true, concurrency);
-
-        //  wait for completed above waits for acknowledgment from the passive
-        //  waitForCompletion below waits for completion of the local request processor
-          sectionComplete.waitForCompletion();
-          executor.scheduleSync(SyncReplicationActivity.createEndEntityKeyMessage(id, version, fetchID, concurrency), passive).waitForCompleted();
+          sections.put(concurrency, sectionComplete);
+          if (!window.isInterleaved()) {
+            endSyncKeys(sections, passive, window);
+          }
         }
-  //  end passive sync for an entity
-  // wait for future is ok, occuring on sync executor thread
-        executor.scheduleSync(SyncReplicationActivity.createEndEntityMessage(id, version, fetchID), passive).waitForCompleted();
+        endSyncKeys(sections, passive, window);
+  //  end passive sync for an entity, the caller drains the window before ending sync
+        window.addCompleted(executor.scheduleSync(SyncReplicationActivity.createEndEntityMessage(id, version, fetchID), passive));
       }
     } finally {
       //  flush the sync pipeline and switch back to main pipeline.
@@ -1243,6 +1246,16 @@ public class ManagedEntityImpl implements ManagedEntity {
     }
   }
 
+  private void endSyncKeys(Map<Integer, BarrierCompletion> sections, SessionID passive, PassiveSyncWindow window) {
+    for (Map.Entry<Integer, BarrierCompletion> section : sections.entrySet()) {
+    //  waitForCompletion below waits for completion of the local request processor so the end of the key
+    //  follows all of its payloads on the stream.  the passive acknowledges through the window
+      section.getValue().waitForCompletion();
+      window.addCompleted(executor.scheduleSync(SyncReplicationActivity.createEndEntityKeyMessage(id, version, fetchID, section.getKey()), passive));
+    }
+    sections.clear();
+  }
+
   @Override
   public SyncReplicationActivity.EntityCreationTuple startSync() {
     // make sure no lifecycle is occuring
@@ -1301,10 +1314,16 @@ public class ManagedEntityImpl implements ManagedEntity {
   private static class PassiveSyncServerEntityRequest implements ServerEntityRequest {
     private final SessionID passive;
     private final ServerEntityAction action;
+    private final PassiveSyncWindow window;
 
-    public PassiveSyncServerEntityRequest(SessionID passive) {
+    public PassiveSyncServerEntityRequest(SessionID passive, PassiveSyncWindow window) {
       action = ServerEntityAction.REQUEST_SYNC_ENTITY;
       this.passive = passive;
+      this.window = window;
+    }
+
+    public PassiveSyncWindow getWindow() {
+      return window;
     }
 
     @Override
@@ -1371,7 +1390,7 @@ public class ManagedEntityImpl implements ManagedEntity {
         if (logger.isDebugEnabled()) {
           try {
             if (request.getAction() == ServerEntityAction.INVOKE_ACTION) {
-              payload.decodeMessage(raw->codec.decodeMessage(raw));
+              payload.decodeMessage(codec);
             }
           } catch (MessageCodecException codec) {
 
@@ -1397,7 +1416,7 @@ public class ManagedEntityImpl implements ManagedEntity {
       }
       if (isActive() && request.getAction() == ServerEntityAction.INVOKE_ACTION) {
         try {
-          ExecutionStrategy.Location loc = executionStrategy.getExecutionLocation(payload.decodeMessage(raw->codec.decodeMessage(raw)));
+          ExecutionStrategy.Location loc = executionStrategy.getExecutionLocation(payload.decodeMessage(codec));
           if (loc != ExecutionStrategy.Location.IGNORE) {
             replicate = loc.runOnPassive();
           }
@@ -1547,12 +1566,14 @@ public class ManagedEntityImpl implements ManagedEntity {
     private final List<SessionID> passives;
     private final int concurrencyKey;
     private final boolean prepare;
+    private final PassiveSyncWindow window;
 
-    public EntityMessagePassiveSynchronizationChannelImpl(Collection<SessionID> passives, int concurrencyKey, boolean prepare) {
+    public EntityMessagePassiveSynchronizationChannelImpl(Collection<SessionID> passives, int concurrencyKey, boolean prepare, PassiveSyncWindow window) {
       this.passives = new ArrayList<>(passives);
       Collections.sort(this.passives);
       this.concurrencyKey = concurrencyKey;
       this.prepare = prepare;
+      this.window = window;
     }
 
     @Override
@@ -1563,8 +1584,8 @@ public class ManagedEntityImpl implements ManagedEntity {
           byte[] message = syncCodec.encode(concurrencyKey, payload);
           ActivePassiveAckWaiter waiter = executor.scheduleSync(SyncReplicationActivity.createPayloadMessage(id, version, fetchID,
                                              concurrencyKey, TCByteBufferFactory.wrap(message), ""), passive);
-          //  wait for the passive to receive before sending the next
-          waiter.waitForReceived();
+          //  keep the number of payloads the passive has not yet received bounded
+          window.addReceived(waiter);
         } catch (MessageCodecException ce) {
           throw new RuntimeException(ce);
         }
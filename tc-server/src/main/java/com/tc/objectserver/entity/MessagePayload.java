@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -19,8 +19,11 @@ package com.tc.objectserver.entity;
 
 import com.tc.bytes.TCByteBuffer;
 import com.tc.bytes.TCByteBufferFactory;
+import java.nio.ByteBuffer;
+import org.terracotta.entity.ByteBufferMessageCodec;
 import org.terracotta.entity.ConcurrencyStrategy;
 import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.MessageCodec;
 import org.terracotta.entity.MessageCodecException;
 
 public class MessagePayload {
@@ -81,6 +84,11 @@ public class MessagePayload {
     return TCByteBufferFactory.unwrap(raw);
   }
   
+  private ByteBuffer convertRawToView() {
+    // raw is read-only, the duplicate keeps the view's position independent
+    return raw.duplicate().getNioBuffer();
+  }
+
   public byte[] getRawPayload() {
     return convertRawToBytes();
   }
@@ -104,13 +112,29 @@ public class MessagePayload {
     return canBeBusy;
   }
 
+  /**
+   * decode with the entity codec, straight from the raw buffer if the codec supports it
+   */
+  public EntityMessage decodeMessage(MessageCodec<? extends EntityMessage, ?> codec) throws MessageCodecException {
+    if (codec instanceof ByteBufferMessageCodec) {
+      ByteBufferMessageCodec<? extends EntityMessage, ?> direct = (ByteBufferMessageCodec<? extends EntityMessage, ?>)codec;
+      return decodeOnce(()->direct.decodeMessage(convertRawToView()));
+    } else {
+      return decodeOnce(()->codec.decodeMessage(convertRawToBytes()));
+    }
+  }
+
   public EntityMessage decodeMessage(MessageDecoder codec) throws MessageCodecException {
+    return decodeOnce(()->codec.decode(convertRawToBytes()));
+  }
+
+  private EntityMessage decodeOnce(Decode decode) throws MessageCodecException {
     if (exception != null) {
       throw exception;
     }
     try {
       if (message == null) {
-        message = codec.decode(convertRawToBytes());
+        message = decode.decode();
       }
       return message;
     } catch (MessageCodecException ce) {
@@ -121,7 +145,7 @@ public class MessagePayload {
       throw exception;
     }
   }
-  
+
   public int getConcurrency() {
     return concurrency;
   }
@@ -142,4 +166,8 @@ public class MessagePayload {
   public String toString() {
     return "MessagePayload{" + "debugId=" + getDebugId() + '}';
   }
+
+  private interface Decode {
+    EntityMessage decode() throws MessageCodecException;
+  }
 }
@@ -19,7 +19,8 @@ package com.tc.objectserver.entity;
 
 import com.tc.async.api.DirectExecutionMode;
 import com.tc.async.api.Stage;
-import com.tc.async.impl.MonitoringEventCreator;
+import com.tc.async.impl.PipelineTrace;
+import com.tc.async.impl.PipelineTracer;
 import com.tc.entity.VoltronEntityAppliedResponse;
 import com.tc.entity.VoltronEntityMultiResponse;
 import com.tc.exception.ServerException;
@@ -34,6 +35,7 @@ import com.tc.objectserver.api.StatisticsCapture;
 import com.tc.objectserver.handler.ResponseMessage;
 import com.tc.util.Assert;
 import com.tc.util.concurrent.SetOnceFlag;
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
@@ -66,6 +68,8 @@ import org.slf4j.LoggerFactory;
     private final ConcurrentHashMap<ClientID, VoltronEntityMultiResponse> invokeReturn;
 
     private final SetOnceFlag isRetired = new SetOnceFlag();
+    // set when the request was sampled, created on the thread working on it
+    private final PipelineTrace trace = PipelineTracer.current();
 
     public NetworkInvokeResponse(
             ClientID node,
@@ -91,6 +95,7 @@ import org.slf4j.LoggerFactory;
     @Override
     public void received() {
       stats[StatType.SERVER_RECEIVED.serverSpot()] = System.nanoTime();
+      trace("received");
       if (sendReceived) {
         addSequentially(adder->adder.addReceived(transaction));
       }
@@ -99,12 +104,14 @@ import org.slf4j.LoggerFactory;
     @Override
     public void failure(ServerException cause) {
       stats[StatType.SERVER_COMPLETE.serverSpot()] = System.nanoTime();
+      trace("failed");
       sendFailure(cause);
     }
 
     @Override
     public void complete(byte[] result) {
       stats[StatType.SERVER_COMPLETE.serverSpot()] = System.nanoTime();
+      trace("respond");
       sendResponse(result);
     }
 
@@ -122,6 +129,13 @@ import org.slf4j.LoggerFactory;
       }
     }
 
+    /**
+     * send the same server message to several instances on this client in one network message
+     */
+    public void message(Collection<ClientInstanceID> instances, byte[] msg) {
+      addSequentially(addTo->addTo.addServerMessage(instances, msg));
+    }
+
     @Override
     public void setWaitFor(Supplier<ActivePassiveAckWaiter> waiter) {
       this.waiter = waiter;
@@ -159,7 +173,6 @@ import org.slf4j.LoggerFactory;
           return null;
         });
       }
-      MonitoringEventCreator.finish();
     }
 
     @Override
@@ -170,6 +183,7 @@ import org.slf4j.LoggerFactory;
       CompletableFuture<Void> complete = new CompletableFuture<>();
       this.waiter.get().runWhenCompleted(()->{
         stats[StatType.SERVER_RETIRED.serverSpot()] = System.nanoTime();
+        trace("replicated");
         Assert.assertTrue(lastSent.isSet());
         addSequentially(addTo -> {
           if (heldResult != null) {
@@ -178,7 +192,9 @@ import org.slf4j.LoggerFactory;
             return addTo.addRetired(transaction);
           }
         });
-        MonitoringEventCreator.finish();
+        if (trace != null) {
+          trace.finish(transaction.toLong());
+        }
         complete.complete(null);
       });
       return complete;
@@ -197,11 +213,19 @@ import org.slf4j.LoggerFactory;
     @Override
     public void beginInvoke() {
       stats[StatType.SERVER_BEGININVOKE.serverSpot()] = System.nanoTime();
+      trace("invoke");
     }
 
     @Override
     public void endInvoke() {
       stats[StatType.SERVER_ENDINVOKE.serverSpot()] = System.nanoTime();
+      trace("invoked");
+    }
+
+    private void trace(String point) {
+      if (trace != null) {
+        trace.record(point, transaction.toLong());
+      }
     }
 
   private void addSequentially(Predicate<VoltronEntityMultiResponse> adder) {
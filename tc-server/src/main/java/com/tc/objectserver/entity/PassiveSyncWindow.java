@@ -0,0 +1,129 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.entity;
+
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Bounds the number of passive sync messages sent to one passive that have not yet been
+ * acknowledged.  Sync messages travel to the passive in order on a single replication stream so
+ * the sender does not need a round trip per message to keep them ordered, it only needs to keep
+ * the stream from running too far ahead of the passive.  Once the window is full, adding a message
+ * waits on the oldest one in the window.  A window of zero waits on every message as it is added.
+ * <p>
+ * An interleaved window is shared by entities synced at the same time and lets the concurrency keys of
+ * an entity sync at the same time.  Only passives that ask for it at the start of sync accept this.
+ */
+public class PassiveSyncWindow {
+  private static final int DEFAULT_SYNC_WINDOW = 64;
+  private static final int SYNC_WINDOW = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.ACTIVE_PASSIVE_SYNC_WINDOW, DEFAULT_SYNC_WINDOW);
+
+  private final int limit;
+  private final boolean interleaved;
+  private final Deque<Pending> inflight = new ArrayDeque<>();
+
+  public PassiveSyncWindow() {
+    this(false);
+  }
+
+  public PassiveSyncWindow(boolean interleaved) {
+    this(SYNC_WINDOW, interleaved);
+  }
+
+  public PassiveSyncWindow(int limit) {
+    this(limit, false);
+  }
+
+  public PassiveSyncWindow(int limit, boolean interleaved) {
+    this.limit = Math.max(0, limit);
+    this.interleaved = interleaved;
+  }
+
+  /**
+   * True when entities, and the concurrency keys of an entity, may be synced to the passive at the same time.
+   */
+  public boolean isInterleaved() {
+    return interleaved;
+  }
+
+  /**
+   * Adds a sync message that must be completed on the passive before it leaves the window.
+   */
+  public void addCompleted(ActivePassiveAckWaiter waiter) {
+    add(new Pending(waiter, false));
+  }
+
+  /**
+   * Adds a sync message that only needs to be received by the passive before it leaves the window.
+   */
+  public void addReceived(ActivePassiveAckWaiter waiter) {
+    add(new Pending(waiter, true));
+  }
+
+  /**
+   * Waits for every message in the window.
+   */
+  public void drain() {
+    Pending next = poll();
+    while (next != null) {
+      next.waitFor();
+      next = poll();
+    }
+  }
+
+  public synchronized int size() {
+    return inflight.size();
+  }
+
+  private void add(Pending pending) {
+    Pending oldest;
+    synchronized (this) {
+      inflight.addLast(pending);
+      oldest = (inflight.size() > limit) ? inflight.pollFirst() : null;
+    }
+    // wait outside the lock, acks are delivered on another thread
+    if (oldest != null) {
+      oldest.waitFor();
+    }
+  }
+
+  private synchronized Pending poll() {
+    return inflight.pollFirst();
+  }
+
+  private static class Pending {
+    private final ActivePassiveAckWaiter waiter;
+    private final boolean received;
+
+    Pending(ActivePassiveAckWaiter waiter, boolean received) {
+      this.waiter = waiter;
+      this.received = received;
+    }
+
+    void waitFor() {
+      if (received) {
+        waiter.waitForReceived();
+      } else {
+        waiter.waitForCompleted();
+      }
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package com.tc.objectserver.entity;
 
 import com.tc.async.api.Sink;
 import com.tc.l2.msg.ReplicationMessage;
+import com.tc.l2.msg.ReplicationMessageAck;
 import com.tc.l2.msg.SyncReplicationActivity;
 import com.tc.net.ServerID;
 import com.tc.net.groups.AbstractGroupMessage;
@@ -28,14 +29,18 @@ import com.tc.object.FetchID;
 import com.tc.object.session.SessionID;
 import com.tc.objectserver.handler.GroupMessageBatchContext;
 import com.tc.objectserver.handler.ReplicationSendingAction;
+import com.tc.properties.TCPropertiesConsts;
 import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.Assert;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
@@ -51,6 +56,8 @@ public class ReplicationSender {
   // Find out how many messages we should keep in-flight and our maximum batch size.
   private static int maximumBatchSize = TCPropertiesImpl.getProperties().getInt("active-passive.batchsize", DEFAULT_BATCH_LIMIT);
   private static int idealMessagesInFlight = TCPropertiesImpl.getProperties().getInt("active-passive.inflight", DEFAULT_INFLIGHT_MESSAGES);
+  // serialize each activity once for all passives instead of once per passive
+  private static boolean encodeOnce = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.ACTIVE_PASSIVE_ENCODEONCE, true);
   //  this is all single threaded.  If there is any attempt to make this multi-threaded,
   //  control structures must be fixed
   private final GroupManager<AbstractGroupMessage> group;
@@ -76,12 +83,27 @@ public class ReplicationSender {
   public boolean addPassive(ServerID node, SessionID session, Integer execution, SyncReplicationActivity activity) {
     // Set up the sync state.
     Event event = TripwireFactory.createPrimeEvent(node.getName(), node.getUID(), session.toLong(), activity.getSequenceID());
-    SyncState state = createAndRegisterSyncState(node, session, execution);
+    // passives which were accepted for cumulative acks in SYNC_START acknowledge with watermarks over the
+    // send order, which is recorded to resolve them
+    boolean cumulative = activity.getActivityType() == SyncReplicationActivity.ActivityType.SYNC_START
+        && activity.hasSyncFeature(ReplicationMessageAck.SYNC_CUMULATIVE);
+    SyncState state = createAndRegisterSyncState(node, session, execution, cumulative);
     // Send the message.
     event.commit();
     return state.attemptToSend(activity);
   }
 
+  /**
+   * Called before an activity is handed to {@link #replicateMessage} once for each of the passives
+   * so the activity is serialized once and shared by all of them.  Filtering still happens per passive,
+   * a passive which filters the activity out releases its share of the encoding.
+   */
+  public void shareEncoding(SyncReplicationActivity activity, int passives) {
+    if (encodeOnce && passives > 1) {
+      activity.shareEncoding(passives);
+    }
+  }
+
   public void replicateMessage(SessionID session, SyncReplicationActivity activity, Consumer<Boolean> sentCallback) {
     if (debugLogging) {
       logger.debug("WIRE:" + activity);
@@ -93,12 +115,16 @@ public class ReplicationSender {
     if (syncing.isPresent()) {
       outgoing.addToSink(new ReplicationSendingAction(syncing.get().executionLane, ()->{
             Optional<Boolean> didSend = syncing.map(state->state.attemptToSend(activity));
+            if (!didSend.orElse(false)) {
+              activity.releaseEncoding();
+            }
             if (sentCallback != null) {
               sentCallback.accept(didSend.orElse(false));
             }
       }));
     } else {
       logger.info("ignoring replication message no session {} for activity {}", session, activity);
+      activity.releaseEncoding();
       if (sentCallback != null) {
         sentCallback.accept(false);
       }
@@ -106,11 +132,68 @@ public class ReplicationSender {
 
   }
   
-  private SyncState createAndRegisterSyncState(ServerID node, SessionID session, int lane) {
+  /**
+   * Resolves the received watermark of a cumulative ack.
+   *
+   * @param count number of activities, in send order, covered since the last watermark
+   * @param through the last activity covered
+   * @param received called with each activity covered
+   */
+  public void receivedThrough(SessionID session, int count, SyncReplicationActivity.ActivityID through, Consumer<SyncReplicationActivity.ActivityID> received) {
+    SyncState state = filtering.get(session);
+    if (state != null && state.isSameSession(session)) {
+      Assert.assertTrue("cumulative ack without cumulative acks accepted", state.cumulative);
+      resolveThrough(state.unreceived, count, through, received);
+    }
+  }
+
+  /**
+   * Resolves the completed watermark of a cumulative ack.
+   *
+   * @param count number of activities, in send order, covered since the last watermark
+   * @param through the last activity covered
+   * @param completed called with each activity covered
+   */
+  public void completedThrough(SessionID session, int count, SyncReplicationActivity.ActivityID through, Consumer<SyncReplicationActivity.ActivityID> completed) {
+    SyncState state = filtering.get(session);
+    if (state != null && state.isSameSession(session)) {
+      Assert.assertTrue("cumulative ack without cumulative acks accepted", state.cumulative);
+      resolveThrough(state.uncompleted, count, through, completed);
+    }
+  }
+
+  /**
+   * Called for each per-activity ack from the passive.  A passive which acks cumulatively goes back to
+   * per-activity acks once it tracks too many activities for its watermarks, the send order recorded
+   * for it is dropped then.  Every activity still unresolved in it gets its own ack from then on.
+   */
+  public void perActivityAcks(SessionID session) {
+    SyncState state = filtering.get(session);
+    if (state != null && state.isSameSession(session) && state.cumulative) {
+      logger.info("passive on session {} went back to per-activity acks with {} activities unresolved", session, state.uncompleted.size());
+      state.cumulative = false;
+      state.unreceived.clear();
+      state.uncompleted.clear();
+    }
+  }
+
+  private static void resolveThrough(Queue<SyncReplicationActivity.ActivityID> sent, int count, SyncReplicationActivity.ActivityID through, Consumer<SyncReplicationActivity.ActivityID> resolved) {
+    SyncReplicationActivity.ActivityID last = null;
+    for (int x = 0; x < count; x++) {
+      last = sent.poll();
+      Assert.assertNotNull(last);
+      resolved.accept(last);
+    }
+    if (last != null) {
+      Assert.assertEquals(through, last);
+    }
+  }
+
+  private SyncState createAndRegisterSyncState(ServerID node, SessionID session, int lane, boolean cumulative) {
     // We can't already have a state for this passive.
     Assert.assertTrue(!node.isNull());
     Assert.assertTrue(!filtering.containsKey(session));
-    SyncState state = new SyncState(node, session, lane);
+    SyncState state = new SyncState(node, session, lane, cumulative);
     filtering.put(session, state);
     return state;
   }
@@ -132,6 +215,11 @@ public class ReplicationSender {
       logger.debug("ignoring: " + session + " no longer exists");
     }
   }
+// for testing only
+  int unresolvedSendOrder(SessionID origin) {
+    SyncState state = filtering.get(origin);
+    return state != null ? state.uncompleted.size() : 0;
+  }
 // for testing only
   boolean isSyncOccuring(SessionID origin) {
     SyncState state = filtering.get(origin);
@@ -144,28 +232,33 @@ public class ReplicationSender {
   private class SyncState {
     // liveSet is the total set of entities which we believe have finished syncing and fully exist on the passive.
     private final Set<FetchID> liveFetch = new HashSet<>();
-    // syncdID is the set of concurrency keys, of the entity syncingID, which we believe have finished syncing and fully
-    //  exist on the passive.
-    private final Set<Integer> syncdID = new HashSet<>();
-    // syncingID is the entity currently being synced to this passive.
-    private FetchID syncingFetch = FetchID.NULL_ID;
-    // syncingConcurrency is the concurrency key we are currently syncing to syncingID, 0 if none is in progress.
-    private int syncingConcurrency = -1;
+    // syncdID holds the entities currently being synced to this passive, each with the set of its concurrency keys
+    //  which we believe have finished syncing and fully exist on the passive.  several entities may be synced at once.
+    private final Map<FetchID, Set<Integer>> syncdID = new HashMap<>();
+    // syncingConcurrency holds the concurrency keys of each entity in syncdID which are in the middle of syncing.
+    private final Map<FetchID, Set<Integer>> syncingConcurrency = new HashMap<>();
     // begun is true when we decide to start syncing to this passive node (triggered by SYNC_BEGIN).
     boolean begun = false;
     // complete is true when we decide that syncing to this node is now complete (triggered by SYNC_END).
     boolean complete = false;
-    private SyncReplicationActivity.ActivityType lastSeen;
-    private SyncReplicationActivity.ActivityType lastSent;
+    // the last sync activity of each entity, FetchID.NULL_ID for the activities of the sync as a whole
+    private final Map<FetchID, SyncReplicationActivity.ActivityType> lastSeen = new HashMap<>();
+    private final Map<FetchID, SyncReplicationActivity.ActivityType> lastSent = new HashMap<>();
 
     private final GroupMessageBatchContext<ReplicationMessage, SyncReplicationActivity> batchContext;
+    // send order, only recorded for cumulative acks.  these mirror the arrivals the passive tracks, which it
+    //  caps with passive-active.cumulative.pending
+    private volatile boolean cumulative;
+    private final Queue<SyncReplicationActivity.ActivityID> unreceived = new ConcurrentLinkedQueue<>();
+    private final Queue<SyncReplicationActivity.ActivityID> uncompleted = new ConcurrentLinkedQueue<>();
     
     private final SessionID session;
     private final int executionLane;
         
-    public SyncState(ServerID target, SessionID nodeToId, int lane) {
+    public SyncState(ServerID target, SessionID nodeToId, int lane, boolean cumulative) {
       this.session = nodeToId;
       this.executionLane = lane;
+      this.cumulative = cumulative;
       
       this.batchContext = new GroupMessageBatchContext<>(ReplicationMessage::createActivityContainer, group, target, maximumBatchSize, idealMessagesInFlight, (node)->flushBatch());  
     }
@@ -218,39 +311,38 @@ public class ReplicationSender {
             if (liveFetch.contains(activity.getFetchID())) {
               return false;
             } else {
-              syncingFetch = activity.getFetchID();
-              syncdID.clear();
-              syncdID.add(ConcurrencyStrategy.MANAGEMENT_KEY);
-              syncdID.add(ConcurrencyStrategy.UNIVERSAL_KEY);
-              syncingConcurrency = 0;
+              Set<Integer> syncd = new HashSet<>();
+              syncd.add(ConcurrencyStrategy.MANAGEMENT_KEY);
+              syncd.add(ConcurrencyStrategy.UNIVERSAL_KEY);
+              syncdID.put(activity.getFetchID(), syncd);
+              syncingConcurrency.put(activity.getFetchID(), new HashSet<>());
               return true;
             }
-          case SYNC_ENTITY_CONCURRENCY_BEGIN:
-            if (syncingFetch.equals(activity.getFetchID())) {
-              Assert.assertEquals(syncingConcurrency, 0);
-              syncingConcurrency = activity.getConcurrency();
+          case SYNC_ENTITY_CONCURRENCY_BEGIN: {
+            Set<Integer> syncing = syncingConcurrency.get(activity.getFetchID());
+            if (syncing != null) {
+              Assert.assertTrue(syncing.add(activity.getConcurrency()));
               return true;
             } else {
               return false;
             }
+          }
           case SYNC_ENTITY_CONCURRENCY_PAYLOAD:
-            if (syncingFetch.equals(activity.getFetchID())) {
-              return true;
-            } else {
-              return false;
-            }
-          case SYNC_ENTITY_CONCURRENCY_END:
-            if (syncingFetch.equals(activity.getFetchID())) {
-              syncdID.add(syncingConcurrency);
-              syncingConcurrency = 0;
+            return syncingConcurrency.containsKey(activity.getFetchID());
+          case SYNC_ENTITY_CONCURRENCY_END: {
+            Set<Integer> syncing = syncingConcurrency.get(activity.getFetchID());
+            if (syncing != null) {
+              Assert.assertTrue(syncing.remove(activity.getConcurrency()));
+              syncdID.get(activity.getFetchID()).add(activity.getConcurrency());
               return true;
             } else {
               return false;
             }
+          }
           case SYNC_ENTITY_END:
-            if (syncingFetch.equals(activity.getFetchID())) {
-              liveFetch.add(syncingFetch);
-              syncingFetch = FetchID.NULL_ID;
+            if (syncdID.remove(activity.getFetchID()) != null) {
+              Assert.assertTrue(syncingConcurrency.remove(activity.getFetchID()).isEmpty());
+              liveFetch.add(activity.getFetchID());
               return true;
             } else {
               return false;
@@ -260,7 +352,7 @@ public class ReplicationSender {
             complete = true;
             liveFetch.clear();
             syncdID.clear();
-            syncingFetch = FetchID.NULL_ID;
+            syncingConcurrency.clear();
             return true;
           case CREATE_ENTITY:
 // if this create came through, it is not part of the snapshot set so everything
@@ -278,13 +370,13 @@ public class ReplicationSender {
           case INVOKE_ACTION:
             if (liveFetch.contains(activity.getFetchID())) {
               return true;
-            } else if (syncingFetch.equals(activity.getFetchID())) {
+            } else if (syncdID.containsKey(activity.getFetchID())) {
               int concurrencyKey = activity.getConcurrency();
-              if (syncingConcurrency == concurrencyKey) {
+              if (syncingConcurrency.get(activity.getFetchID()).contains(concurrencyKey)) {
 //  special case.  passive will apply this after sync of the key is complete
                 return true;
               }
-              return syncdID.contains(concurrencyKey);
+              return syncdID.get(activity.getFetchID()).contains(concurrencyKey);
             } else {
 // hasn't been sync'd yet.  state will be captured in sync
               return false;
@@ -305,39 +397,49 @@ public class ReplicationSender {
     public SyncReplicationActivity.ActivityType validateInput(SyncReplicationActivity activity) {
       SyncReplicationActivity.ActivityType type = activity.getActivityType();
       if (activity.isSyncActivity()) {
-        lastSeen = validate(type, lastSeen);
+        validate(activity, lastSeen);
       }
       return type;
     }
     
     public void validateSending(SyncReplicationActivity activity) {
       if (activity.isSyncActivity()) {
-        lastSent = validate(activity.getActivityType(), lastSent);
+        validate(activity, lastSent);
       }
     }
     
-    private SyncReplicationActivity.ActivityType validate(SyncReplicationActivity.ActivityType type, SyncReplicationActivity.ActivityType compare) {
+    /**
+     * Checks the order of sync activities.  Entities, and the concurrency keys of an entity, may be synced at the same
+     * time so the activities of each entity are checked on their own.
+     */
+    private void validate(SyncReplicationActivity activity, Map<FetchID, SyncReplicationActivity.ActivityType> last) {
+      SyncReplicationActivity.ActivityType type = activity.getActivityType();
+      FetchID stream = EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_START, SyncReplicationActivity.ActivityType.SYNC_BEGIN, SyncReplicationActivity.ActivityType.SYNC_END).contains(type)
+          ? FetchID.NULL_ID : activity.getFetchID();
+      SyncReplicationActivity.ActivityType compare = last.put(stream, type);
       switch (type) {
         case SYNC_BEGIN:
           Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_START).contains(compare));
           break;
         case SYNC_ENTITY_BEGIN:
-          Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_END).contains(compare));
+          Assert.assertTrue(type + " " + compare, compare == null);
+          Assert.assertTrue(type + " " + compare, last.get(FetchID.NULL_ID) == SyncReplicationActivity.ActivityType.SYNC_BEGIN);
           break;
         case SYNC_ENTITY_CONCURRENCY_BEGIN:
-          Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_PAYLOAD, SyncReplicationActivity.ActivityType.SYNC_ENTITY_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_END).contains(compare));
+          Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_PAYLOAD, SyncReplicationActivity.ActivityType.SYNC_ENTITY_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_END).contains(compare));
           break;
         case SYNC_ENTITY_CONCURRENCY_PAYLOAD:
           Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_ENTITY_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_END, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_PAYLOAD).contains(compare));
           break;
         case SYNC_ENTITY_CONCURRENCY_END:
-          Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_PAYLOAD).contains(compare));
+          Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_PAYLOAD, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_END).contains(compare));
           break;
         case SYNC_ENTITY_END:
           Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_ENTITY_BEGIN, SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_END).contains(compare));
           break;
         case SYNC_END:
-          Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_ENTITY_END, SyncReplicationActivity.ActivityType.SYNC_BEGIN).contains(compare));
+          Assert.assertTrue(type + " " + compare, EnumSet.of(SyncReplicationActivity.ActivityType.SYNC_BEGIN).contains(compare));
+          Assert.assertTrue(type + " " + last, last.entrySet().stream().allMatch(e->e.getKey().isNull() || e.getValue() == SyncReplicationActivity.ActivityType.SYNC_ENTITY_END));
           break;
         case SYNC_START:
           break;
@@ -345,10 +447,13 @@ public class ReplicationSender {
         default:
           throw new AssertionError("unexpected message type");
       }
-      return type;
     }
     
     private boolean send(SyncReplicationActivity activity) {
+      if (cumulative) {
+        this.unreceived.add(activity.getActivityID());
+        this.uncompleted.add(activity.getActivityID());
+      }
       if (this.batchContext.batchMessage(activity)) {
         flushBatch();
       }
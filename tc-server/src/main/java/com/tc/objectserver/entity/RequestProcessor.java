@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
  */
 package com.tc.objectserver.entity;
 
+import com.tc.async.api.DirectExecutionMode;
 import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.async.api.Sink;
 import com.tc.async.api.StageManager;
@@ -36,6 +37,7 @@ import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.Assert;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -45,10 +47,13 @@ import org.terracotta.entity.ConcurrencyStrategy;
 
 
 public class RequestProcessor {
+  // power of two, more than the executor has lanes so unrelated keys rarely share a stripe
+  private static final int SCHEDULING_STRIPES = 64;
   private PassiveReplicationBroker passives;
   private final Sink<EntityRequest> requestExecution;
   private final Sink<EntityRequest> syncExecution;
-  private boolean isActive = false;
+  private final ReentrantLock[] stripes = createStripes();
+  private volatile boolean isActive = false;
   private static final Logger PLOGGER = LoggerFactory.getLogger(MessagePayload.class);
   
   public RequestProcessor(StageManager stageManager, boolean use_direct) {
@@ -82,9 +87,12 @@ public class RequestProcessor {
     this.passives = passives;
   }
 
-//  this is synchronized because both PTH and Request Processor thread has access to this method.  the replication and schduling on the executor needs
-//  to happen in the same order.  synchronizing this method enforces that
-  public synchronized void scheduleRequest(boolean inSync, EntityID eid, long version, FetchID fetchID, ServerEntityRequest request, MessagePayload payload, Consumer<ActivePassiveAckWaiter> call, boolean replicate, int concurrencyKey) {
+//  both PTH and Request Processor thread have access to this method.  the replication and scheduling on the executor needs
+//  to happen in the same order for each concurrency key.  replication happens on the executor lane when the request runs so
+//  holding the stripe of the scheduling key while adding to the executor is enough to keep the two in step.  management
+//  requests flush every executor lane so they hold every stripe, universal requests have no order and hold none.
+//  management requests never run directly so only keyed requests defer their direct run past the stripe
+  public void scheduleRequest(boolean inSync, EntityID eid, long version, FetchID fetchID, ServerEntityRequest request, MessagePayload payload, Consumer<ActivePassiveAckWaiter> call, boolean replicate, int concurrencyKey) {
     // Determine if this kind of action is one we want to replicate.
     final ServerEntityAction requestAction = (!replicate && request.requiresReceived()) ? ServerEntityAction.ORDER_PLACEHOLDER_ONLY : request.getAction();
     // We will try to replicate anything which isn't just a local flush operation.
@@ -108,14 +116,56 @@ public class RequestProcessor {
     };
     
     EntityRequest entityRequest =  new EntityRequest(eid, call, token, concurrencyKey, payload);
+    Sink<EntityRequest> sink = inSync ? syncExecution : requestExecution;
+    Object schedulingKey = entityRequest.getSchedulingKey();
 
-    if (inSync) {
-      syncExecution.addToSink(entityRequest);
+    if (schedulingKey == null) {
+      sink.addToSink(entityRequest);
+    } else if (entityRequest.flush()) {
+      scheduleExclusive(sink, entityRequest);
     } else {
-      requestExecution.addToSink(entityRequest);
+      ReentrantLock stripe = stripes[stripeFor(schedulingKey)];
+      // a request that can run on this thread only claims its executor lane under the stripe and
+      // runs once the stripe is released, no handler ever runs while a stripe is held
+      DirectExecutionMode.deferDirect(()->{
+        stripe.lock();
+        try {
+          sink.addToSink(entityRequest);
+        } finally {
+          stripe.unlock();
+        }
+      });
     }
   }
 
+  private void scheduleExclusive(Sink<EntityRequest> sink, EntityRequest entityRequest) {
+    // always taken in index order so exclusive schedulers cannot deadlock each other
+    int locked = 0;
+    try {
+      while (locked < stripes.length) {
+        stripes[locked++].lock();
+      }
+      sink.addToSink(entityRequest);
+    } finally {
+      while (locked > 0) {
+        stripes[--locked].unlock();
+      }
+    }
+  }
+
+  private static ReentrantLock[] createStripes() {
+    ReentrantLock[] locks = new ReentrantLock[SCHEDULING_STRIPES];
+    for (int x = 0; x < locks.length; x++) {
+      locks[x] = new ReentrantLock();
+    }
+    return locks;
+  }
+
+  private static int stripeFor(Object schedulingKey) {
+    int h = schedulingKey.hashCode();
+    return (h ^ (h >>> 16)) & (SCHEDULING_STRIPES - 1);
+  }
+
   private static SyncReplicationActivity createReplicationActivity(EntityID id, long version, FetchID fetchID, ClientID src, ClientInstanceID instance, 
       ServerEntityAction type, TransactionID tid, TransactionID oldest, MessagePayload payload, int concurrency) {
     SyncReplicationActivity.ActivityType actionCode = type.replicationType();
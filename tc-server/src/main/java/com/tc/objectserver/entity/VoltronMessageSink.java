@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -20,7 +20,10 @@ package com.tc.objectserver.entity;
 import com.tc.entity.MessageCodecSupplier;
 import com.tc.async.api.Sink;
 import com.tc.async.api.Stage;
+import com.tc.async.impl.PipelineTrace;
+import com.tc.async.impl.PipelineTracer;
 import com.tc.entity.NetworkVoltronEntityMessage;
+import com.tc.entity.NetworkVoltronEntityMultiMessage;
 import com.tc.entity.VoltronEntityMessage;
 import com.tc.net.core.TCComm;
 import com.tc.net.protocol.tcm.HydrateContext;
@@ -36,6 +39,9 @@ public class VoltronMessageSink extends TCMessageHydrateSink<VoltronEntityMessag
   private final MessageCodecSupplier codecSupplier;
   private final Stage<HydrateContext> helper;
   private final Sink<VoltronEntityMessage> dest;
+  // fans a hydrated batch out into the messages it carries
+  private final Sink<NetworkVoltronEntityMultiMessage> batchDest;
+  private final TCMessageHydrateSink<NetworkVoltronEntityMultiMessage> batchHydrate;
   private static final Logger LOGGER = LoggerFactory.getLogger(VoltronMessageSink.class);
   private boolean always_hydrate = TCPropertiesImpl.getProperties()
                                                      .getBoolean(TCPropertiesConsts.L2_SEDA_STAGE_ALWAYS_HYDRATE, false);
@@ -45,10 +51,28 @@ public class VoltronMessageSink extends TCMessageHydrateSink<VoltronEntityMessag
     this.helper = helper;
     this.codecSupplier = codecSupplier;
     this.dest = destSink;
+    this.batchDest = batch -> batch.getMessages().forEach(destSink::addToSink);
+    this.batchHydrate = new TCMessageHydrateSink<>(batchDest);
   }
 
   @Override
   public void putMessage(TCAction message) { 
+    PipelineTrace trace = PipelineTracer.sample();
+    if (trace == null) {
+      route(message);
+    } else {
+      // the trace follows the message into whichever stage hydrates it
+      PipelineTrace previous = PipelineTracer.resume(trace);
+      try {
+        trace.record("comm read", message);
+        route(message);
+      } finally {
+        PipelineTracer.resume(previous);
+      }
+    }
+  }
+
+  private void route(TCAction message) {
     if (message instanceof NetworkVoltronEntityMessage) {
       ((NetworkVoltronEntityMessage)message).setMessageCodecSupplier(codecSupplier);
       if (always_hydrate || TCComm.hasPendingRead() || !helper.isEmpty()) {
@@ -56,6 +80,13 @@ public class VoltronMessageSink extends TCMessageHydrateSink<VoltronEntityMessag
       } else {
         super.putMessage(message);
       }
+    } else if (message instanceof NetworkVoltronEntityMultiMessage) {
+      ((NetworkVoltronEntityMultiMessage)message).setMessageCodecSupplier(codecSupplier);
+      if (always_hydrate || TCComm.hasPendingRead() || !helper.isEmpty()) {
+        helper.getSink().addToSink(new HydrateContext(message, this.batchDest));
+      } else {
+        batchHydrate.putMessage(message);
+      }
     } else {
       Assert.fail();
     }
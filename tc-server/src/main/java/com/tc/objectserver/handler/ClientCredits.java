@@ -0,0 +1,334 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.handler;
+
+import com.tc.async.api.Sink;
+import com.tc.bytes.TCByteBuffer;
+import com.tc.entity.VoltronEntityMessage;
+import com.tc.net.ClientID;
+import com.tc.net.NodeID;
+import com.tc.objectserver.api.ResultCapture;
+import com.tc.objectserver.entity.NoopResultCapture;
+import com.tc.text.PrettyPrintable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Per client accounting of the invoke window, in messages and payload bytes, granted in the
+ * handshake.  An invoke is outstanding from the time it is handed to the voltron stage until it
+ * retires.  A client which honors its grant never has more outstanding than it was granted.
+ * Messages of a client running past its grant, an older client which never saw one, are held
+ * back and handed on in order as its earlier invokes retire, so only that client is pushed back.
+ * <p>
+ * Held messages are released through the fast path sink rather than from the retiring thread so
+ * the voltron stage stays the only feeder of the pipeline.
+ * <p>
+ * A grant of zero messages disables the accounting.
+ */
+public class ClientCredits implements PrettyPrintable {
+  private final int messages;
+  private final long bytes;
+  private final ConcurrentHashMap<NodeID, Account> accounts = new ConcurrentHashMap<>();
+  private final LongAdder overdrawn = new LongAdder();
+  private volatile Sink<VoltronEntityMessage> releaseSink;
+
+  public ClientCredits(int messages, long bytes) {
+    this.messages = Math.max(0, messages);
+    this.bytes = Math.max(0, bytes);
+  }
+
+  public boolean isEnabled() {
+    return messages > 0;
+  }
+
+  public int getGrantedMessages() {
+    return messages;
+  }
+
+  public long getGrantedBytes() {
+    return bytes;
+  }
+
+  /**
+   * The credit a message takes, the same measure the client uses.  Both admission and retirement
+   * go through here so they always count the same messages.
+   *
+   * @return the payload bytes of a client invoke, -1 if the message takes no credit
+   */
+  public static long creditSize(VoltronEntityMessage message) {
+    if (message.getVoltronType() != VoltronEntityMessage.Type.INVOKE_ACTION || !message.isClientRequest()) {
+      return -1L;
+    }
+    TCByteBuffer data = message.getExtendedData();
+    return data != null ? data.remaining() : 0L;
+  }
+
+  /**
+   * @param sink where held messages are sent back through {@link #admit} once credit frees up
+   */
+  public void setReleaseSink(Sink<VoltronEntityMessage> sink) {
+    this.releaseSink = sink;
+  }
+
+  /**
+   * Hands the message to {@code forward} if its client has credit for it, otherwise holds it, and
+   * every later message of the client, until retirements return enough credit.  Must only be
+   * called from the single voltron thread.
+   *
+   * @return false if the message was held because the client is past its grant
+   */
+  public boolean admit(VoltronEntityMessage message, Consumer<VoltronEntityMessage> forward) {
+    ClientID client = message.getSource();
+    if (!isEnabled() || client == null || client.isNull()) {
+      forward.accept(message);
+      return true;
+    }
+    long size = creditSize(message);
+    // only invokes open an account, other messages just keep their place behind held invokes
+    Account account = size < 0 ? accounts.get(client) : accounts.computeIfAbsent(client, Account::new);
+    if (account == null) {
+      forward.accept(message);
+      return true;
+    }
+    boolean within = true;
+    if (account.returning(message)) {
+      forward.accept(message);
+    } else if (!account.offer(message, size)) {
+      overdrawn.increment();
+      within = false;
+    }
+    VoltronEntityMessage next = account.next();
+    while (next != null) {
+      forward.accept(next);
+      next = account.next();
+    }
+    return within;
+  }
+
+  public void retire(ClientID client, long size) {
+    if (isEnabled() && size >= 0) {
+      Account account = accounts.get(client);
+      if (account != null) {
+        release(account.retire(size));
+      }
+    }
+  }
+
+  /**
+   * @param size the credit the invoke took, from {@link #creditSize}
+   * @return a capture which returns the credit of the client when the invoke retires
+   */
+  public ResultCapture retiring(ClientID client, long size) {
+    if (!isEnabled() || size < 0 || client.isNull()) {
+      return NoopResultCapture.noop();
+    }
+    return new NoopResultCapture() {
+      @Override
+      public CompletionStage<Void> retired() {
+        retire(client, size);
+        return super.retired();
+      }
+    };
+  }
+
+  /**
+   * Drops the account of a departed client.  Anything still held is let through in order so
+   * the disconnect cleanup behind it is not stranded.
+   */
+  public void remove(NodeID client) {
+    Account account = accounts.get(client);
+    if (account != null) {
+      release(account.close());
+    }
+  }
+
+  private void release(VoltronEntityMessage message) {
+    if (message != null) {
+      releaseSink.addToSink(message);
+    }
+  }
+
+  public long getOverdrawnCount() {
+    return overdrawn.sum();
+  }
+
+  /**
+   * @return the outstanding, peak outstanding, admitted, overdrawn and held counts of each client
+   */
+  public Map<String, Map<String, Long>> getClientMetrics() {
+    Map<String, Map<String, Long>> metrics = new TreeMap<>();
+    accounts.forEach((client, account)->metrics.put(client.toString(), account.snapshot()));
+    return metrics;
+  }
+
+  @Override
+  public Map<String, ?> getStateMap() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("grantedMessages", messages);
+    map.put("grantedBytes", bytes);
+    map.put("overdrawn", getOverdrawnCount());
+    map.put("clients", getClientMetrics());
+    return map;
+  }
+
+  private class Account {
+    private final NodeID client;
+    // admitted on the voltron stage and retired on the request processor
+    private final Deque<Held> held = new ArrayDeque<>();
+    private VoltronEntityMessage released;
+    private boolean closed;
+    private int outstanding;
+    private long outstandingBytes;
+    private int maxOutstanding;
+    private long admitted;
+    private long overdrawn;
+
+    private Account(NodeID client) {
+      this.client = client;
+    }
+
+    /**
+     * @return true if this is the held message released back through the fast path, its credit
+     *         was taken when it was released
+     */
+    private synchronized boolean returning(VoltronEntityMessage message) {
+      if (message == released) {
+        released = null;
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Queues the message behind anything already held.
+     *
+     * @return false if the client has no credit left for it
+     */
+    private synchronized boolean offer(VoltronEntityMessage message, long size) {
+      boolean room = closed || fits(size);
+      if (size >= 0) {
+        admitted++;
+        if (!room) {
+          overdrawn++;
+        }
+      }
+      held.add(new Held(message, size));
+      return room;
+    }
+
+    /**
+     * @return the next message the client has credit for, null if it has to wait
+     */
+    private synchronized VoltronEntityMessage next() {
+      if (released != null) {
+        // everything behind the released message waits for it to come back around
+        return null;
+      }
+      Held head = held.peek();
+      if (head == null) {
+        if (closed) {
+          accounts.remove(client, this);
+        }
+        return null;
+      }
+      if (!closed && !fits(head.size)) {
+        return null;
+      }
+      held.poll();
+      take(head.size);
+      return head.message;
+    }
+
+    private synchronized VoltronEntityMessage retire(long size) {
+      // an account dropped on disconnect and opened again never saw the earlier invokes
+      if (outstanding > 0) {
+        outstanding--;
+        outstandingBytes -= size;
+      }
+      return release();
+    }
+
+    private synchronized VoltronEntityMessage close() {
+      closed = true;
+      if (released == null && held.isEmpty()) {
+        accounts.remove(client, this);
+        return null;
+      }
+      return release();
+    }
+
+    private VoltronEntityMessage release() {
+      if (released != null || held.isEmpty() || !closed && !fits(held.peek().size)) {
+        return null;
+      }
+      Held head = held.poll();
+      take(head.size);
+      released = head.message;
+      return released;
+    }
+
+    private boolean fits(long size) {
+      if (size < 0) {
+        return true;
+      }
+      if (outstanding >= messages) {
+        return false;
+      }
+      // a single invoke larger than the byte grant is let through once nothing else is outstanding
+      return bytes == 0 || outstanding == 0 || outstandingBytes + size <= bytes;
+    }
+
+    private void take(long size) {
+      if (size >= 0) {
+        outstanding++;
+        outstandingBytes += size;
+        if (outstanding > maxOutstanding) {
+          maxOutstanding = outstanding;
+        }
+      }
+    }
+
+    private synchronized Map<String, Long> snapshot() {
+      Map<String, Long> values = new LinkedHashMap<>();
+      values.put("outstanding", (long)outstanding);
+      values.put("outstandingBytes", outstandingBytes);
+      values.put("maxOutstanding", (long)maxOutstanding);
+      values.put("admitted", admitted);
+      values.put("overdrawn", overdrawn);
+      values.put("held", (long)held.size() + (released != null ? 1 : 0));
+      return values;
+    }
+  }
+
+  private static class Held {
+    private final VoltronEntityMessage message;
+    private final long size;
+
+    private Held(VoltronEntityMessage message, long size) {
+      this.message = message;
+      this.size = size;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.handler;
+
+import com.tc.l2.msg.ReplicationAckTuple;
+import com.tc.l2.msg.ReplicationMessageAck;
+import com.tc.l2.msg.ReplicationResultCode;
+import com.tc.l2.msg.SyncReplicationActivity;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the acks of a passive into cumulative acks.  Activities arrive from the active in the order
+ * it sent them.  When an ack message goes out, the acks it carries are applied here and the longest
+ * run of arrivals that are all received, and the longest that are all completed successfully, are
+ * sent as counts over the arrival order.  Only the acks those runs do not cover stay in the message:
+ * failures and other result codes, and acks which got ahead of an older activity still in progress.
+ * <p>
+ * Not thread safe, the owner serializes access.
+ */
+class CumulativeAckTracker {
+  private final ArrayDeque<Arrival> arrivals = new ArrayDeque<>();
+  private final Map<Long, Arrival> pending = new HashMap<>();
+  // arrivals at the head already covered by a received watermark
+  private int receivedCovered;
+  // arrival number of the head of arrivals and of the next arrival
+  private long head;
+  private long next;
+
+  void arrived(SyncReplicationActivity.ActivityID id) {
+    Arrival arrival = new Arrival(id, next++);
+    arrivals.addLast(arrival);
+    pending.put(id.id, arrival);
+  }
+
+  int size() {
+    return arrivals.size();
+  }
+
+  /**
+   * Applies the acks batched in the message and replaces them with the watermarks and the acks
+   * the watermarks do not cover.  Messages must be compressed in the order they are sent.
+   */
+  void compress(ReplicationMessageAck message) {
+    List<ReplicationAckTuple> batch = message.getBatch();
+    for (ReplicationAckTuple tuple : batch) {
+      Arrival arrival = pending.get(tuple.respondTo.id);
+      if (arrival != null) {
+        arrival.received = true;
+        if (tuple.result != ReplicationResultCode.RECEIVED) {
+          arrival.completed = true;
+        }
+      }
+    }
+
+    int receivedRun = 0;
+    int completedRun = 0;
+    Arrival lastReceived = null;
+    Arrival lastCompleted = null;
+    Iterator<Arrival> scan = arrivals.iterator();
+    while (scan.hasNext()) {
+      Arrival arrival = scan.next();
+      if (!arrival.received) {
+        break;
+      }
+      if (completedRun == receivedRun && arrival.completed) {
+        completedRun++;
+        lastCompleted = arrival;
+      }
+      receivedRun++;
+      lastReceived = arrival;
+    }
+
+    List<ReplicationAckTuple> exceptions = new ArrayList<>();
+    for (ReplicationAckTuple tuple : batch) {
+      Arrival arrival = pending.get(tuple.respondTo.id);
+      if (arrival == null || tuple.result != ReplicationResultCode.SUCCESS && tuple.result != ReplicationResultCode.RECEIVED) {
+        exceptions.add(tuple);
+      } else if (arrival.number - head >= (tuple.result == ReplicationResultCode.RECEIVED ? receivedRun : completedRun)) {
+        // got ahead of an older activity
+        exceptions.add(tuple);
+      }
+    }
+
+    int newlyReceived = Math.max(0, receivedRun - receivedCovered);
+    message.setCumulative(newlyReceived, newlyReceived > 0 ? lastReceived.id.id : 0L,
+        completedRun, completedRun > 0 ? lastCompleted.id.id : 0L, exceptions);
+
+    for (int x = 0; x < completedRun; x++) {
+      pending.remove(arrivals.pollFirst().id.id);
+    }
+    head += completedRun;
+    receivedCovered = Math.max(receivedRun, receivedCovered) - completedRun;
+  }
+
+  private static class Arrival {
+    private final SyncReplicationActivity.ActivityID id;
+    private final long number;
+    private boolean received;
+    private boolean completed;
+
+    Arrival(SyncReplicationActivity.ActivityID id, long number) {
+      this.id = id;
+      this.number = number;
+    }
+  }
+}
@@ -52,6 +52,7 @@ import com.tc.object.ClientInstanceID;
 import com.tc.object.tx.TransactionID;
 import com.tc.objectserver.api.ServerEntityAction;
 import com.tc.objectserver.api.ServerEntityRequest;
+import com.tc.properties.TCPropertiesConsts;
 import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.Assert;
 import java.util.concurrent.ExecutionException;
@@ -71,6 +72,9 @@ public class PassiveAckSender implements PassiveMessageResultCollector {
   private static final int DEFAULT_INFLIGHT_MESSAGES = 1;
   private static final int MAXIMUMBATCHSIZE = TCPropertiesImpl.getProperties().getInt("passive-active.batchsize", DEFAULT_BATCH_LIMIT);
   private static final int IDEALMESSAGESINFLIGHT = TCPropertiesImpl.getProperties().getInt("passive-active.inflight", DEFAULT_INFLIGHT_MESSAGES);
+  // offered to the active with the sync request, only used once the active accepts it in SYNC_START
+  private static final boolean CUMULATIVE = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.PASSIVE_ACTIVE_CUMULATIVE, false);
+  private static final int CUMULATIVE_PENDING = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.PASSIVE_ACTIVE_CUMULATIVE_PENDING, 8192);
 
   private final GroupManager<AbstractGroupMessage> groupManager;
   private final Predicate<GroupMessage> sendConfirm;
@@ -79,13 +83,42 @@ public class PassiveAckSender implements PassiveMessageResultCollector {
   // This MUST be manipulated under lock - it is the batch of ack messages we are accumulating until the network is ready for another message.
   private ServerID cachedMessageAckFrom;
   private GroupMessageBatchContext<ReplicationMessageAck, ReplicationAckTuple> cachedBatchAck;
+  private CumulativeAckTracker cachedTracker;
+  // the active accepted cumulative acks and the tracker has not outgrown its cap
+  private boolean trackArrivals;
   private final Sink<Runnable> sentToActive;
+  private final boolean cumulative;
+  private final int cumulativePending;
 
   public PassiveAckSender(GroupManager<AbstractGroupMessage> groupManager, Predicate<GroupMessage> msgCheck, Sink<Runnable> sentToActive) {
+    this(groupManager, msgCheck, sentToActive, CUMULATIVE, CUMULATIVE_PENDING);
+  }
+
+  PassiveAckSender(GroupManager<AbstractGroupMessage> groupManager, Predicate<GroupMessage> msgCheck, Sink<Runnable> sentToActive, boolean cumulative, int cumulativePending) {
     this.groupManager = groupManager;
     this.sendConfirm = msgCheck;
     this.sentToActive = sentToActive;
     this.local = groupManager.getLocalNodeID();
+    this.cumulative = cumulative;
+    this.cumulativePending = cumulativePending;
+  }
+
+  @Override
+  public void activityArrived(ServerID activeSender, SyncReplicationActivity activity) {
+    if (cumulative && !activeSender.equals(ServerID.NULL_ID)) {
+      synchronized (this) {
+        selectSender(activeSender);
+        if (activity.getActivityType() == SYNC_START) {
+          //  the active answers the sync request with SYNC_START, which is also the first activity in the
+          //  send order the watermarks count over
+          this.trackArrivals = activity.hasSyncFeature(ReplicationMessageAck.SYNC_CUMULATIVE);
+          this.cachedTracker = this.trackArrivals ? new CumulativeAckTracker() : null;
+        }
+        if (this.trackArrivals) {
+          this.cachedTracker.arrived(activity.getActivityID());
+        }
+      }
+    }
   }
 
   @Override
@@ -114,17 +147,42 @@ public class PassiveAckSender implements PassiveMessageResultCollector {
   }
 
   private ReplicationMessageAck createAckMessage(ReplicationAckTuple initialActivity) {
-    ReplicationMessageAck message = ReplicationMessageAck.createBatchAck();
+    ReplicationMessageAck message = trackArrivals ? ReplicationMessageAck.createCumulativeAck() : ReplicationMessageAck.createBatchAck();
     message.addToBatch(initialActivity);
     return message;
   }
 
-  private synchronized void prepareAckForSend(ServerID sender, SyncReplicationActivity.ActivityID respondTo, ReplicationResultCode code) {
+  private void selectSender(ServerID sender) {
     // The batch context is cached and constructed lazily when the sender changes.
     if (!sender.equals(this.cachedMessageAckFrom)) {
       this.cachedMessageAckFrom = sender;
       this.cachedBatchAck = new GroupMessageBatchContext<>(this::createAckMessage, this.groupManager, this.cachedMessageAckFrom, MAXIMUMBATCHSIZE, IDEALMESSAGESINFLIGHT, (node) -> sendToActive());
+      this.cachedTracker = null;
+      this.trackArrivals = false;
     }
+  }
+
+  private boolean compressAndConfirm(GroupMessage msg) {
+    //  called by the single outgoing thread just before each batch is sent so batches
+    //  are compressed in the order they go out
+    ReplicationMessageAck ack = (ReplicationMessageAck)msg;
+    if (ReplicationMessageAck.CUMULATIVE == ack.getType()) {
+      synchronized (this) {
+        this.cachedTracker.compress(ack);
+        if (this.trackArrivals && this.cachedTracker.size() > this.cumulativePending) {
+          //  an activity at the head is holding the watermarks back.  every ack from here on goes out
+          //  on its own in a BATCH message, which tells the active to drop its copy of the send order.
+          //  CUMULATIVE messages already batched still go out first and stay consistent with the tracker
+          LOGGER.info("{} activities pending cumulative acks, going back to per-activity acks", this.cachedTracker.size());
+          this.trackArrivals = false;
+        }
+      }
+    }
+    return this.sendConfirm.test(msg);
+  }
+
+  private synchronized void prepareAckForSend(ServerID sender, SyncReplicationActivity.ActivityID respondTo, ReplicationResultCode code) {
+    selectSender(sender);
 
     boolean didCreate = this.cachedBatchAck.batchMessage(new ReplicationAckTuple(respondTo, code));
 
@@ -141,7 +199,7 @@ public class PassiveAckSender implements PassiveMessageResultCollector {
     this.sentToActive.addToSink(() -> {
       int batchCount = 0;
       try {
-        while (this.cachedBatchAck.sendBatch(sendConfirm)) {
+        while (this.cachedBatchAck.sendBatch(cumulative ? this::compressAndConfirm : sendConfirm)) {
           batchCount++;
         }
       } catch (GroupException group) {
@@ -158,7 +216,9 @@ public class PassiveAckSender implements PassiveMessageResultCollector {
   @Override
   public void requestPassiveSync(NodeID target) {
     try {
-      groupManager.sendTo(target, ReplicationMessageAck.createSyncRequestMessage());
+      // the sync state of the replicated transaction handler follows entities and keys synced at the same time
+      int features = ReplicationMessageAck.SYNC_INTERLEAVED | (cumulative ? ReplicationMessageAck.SYNC_CUMULATIVE : 0);
+      groupManager.sendTo(target, ReplicationMessageAck.createSyncRequestMessage(features));
     } catch (GroupException ge) {
       LOGGER.warn("can't request passive sync", ge);
     }
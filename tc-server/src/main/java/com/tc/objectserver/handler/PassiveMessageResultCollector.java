@@ -29,6 +29,11 @@ import java.util.concurrent.Future;
  */
 public interface PassiveMessageResultCollector {
 
+  /**
+   * Called for each activity from the active, in the order they arrive, before it is acknowledged.
+   */
+  default void activityArrived(ServerID activeSender, SyncReplicationActivity activity) {
+  }
 
   void acknowledge(ServerID activeSender, SyncReplicationActivity activity, ReplicationResultCode code);
 
@@ -58,6 +58,7 @@ import com.tc.util.Assert;
 import com.tc.util.SparseList;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
@@ -90,6 +91,7 @@ public class ProcessTransactionHandler implements ReconnectListener {
 
   private final EntityManager entityManager;
   private final DSOChannelManager dsoChannelManager;
+  private final ClientCredits credits;
 
   // Data required for handling transaction resends.
   private List<ReferenceMessage> references;
@@ -112,33 +114,52 @@ public class ProcessTransactionHandler implements ReconnectListener {
   private final AbstractEventHandler<ResponseMessage> multiSender = new AbstractEventHandler<ResponseMessage>() {
     @Override
     public void handleEvent(ResponseMessage context) throws EventHandlerException {
-      NodeID destinationID = context.getResponse().getDestinationNodeID();
-      TCAction response = context.getResponse();
-
-      if (response instanceof VoltronEntityMultiResponse) {
-        VoltronEntityMultiResponse voltronEntityMultiResponse = (VoltronEntityMultiResponse)response;
-        VoltronEntityMultiResponse sub = (VoltronEntityMultiResponse)response.getChannel().createMessage(TCMessageType.VOLTRON_ENTITY_MULTI_RESPONSE);
-        invokeReturn.put((ClientID)destinationID, sub);
-        voltronEntityMultiResponse.stopAdding();
-        if (!transactionOrderPersistenceFutures.isEmpty()) {
-          waitForTransactions(voltronEntityMultiResponse);
-        }
-      } else if (response instanceof VoltronEntityAppliedResponse) {
-        waitForTransactionOrderPersistenceFuture(((VoltronEntityAppliedResponse)response).getTransactionID());
-      } else {
-        // only applied messages should be sent back to the client except on resent messages
-        // that path is unoptimized so regular received messages can hit this path
+      prepareResponse(context.getResponse());
+      sendResponse(context.getResponse());
+    }
+
+    @Override
+    public void handleEvents(Collection<ResponseMessage> contexts) throws EventHandlerException {
+      // cut off and wait on every response of the batch first, then send them back to back so each
+      // connection groups them into as few writes as it can
+      for (ResponseMessage context : contexts) {
+        prepareResponse(context.getResponse());
       }
-      NetworkRecall networkMessage = response.send();
-      if (networkMessage == null) {
-        // It is possible for this send to fail.  Typically, it means that the client has disconnected.
-        LOGGER.warn("Failed to send message to: " + destinationID);
-      } else if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("sent " + response);
+      for (ResponseMessage context : contexts) {
+        sendResponse(context.getResponse());
       }
     }
   };
 
+  private void prepareResponse(TCAction response) {
+    NodeID destinationID = response.getDestinationNodeID();
+
+    if (response instanceof VoltronEntityMultiResponse) {
+      VoltronEntityMultiResponse voltronEntityMultiResponse = (VoltronEntityMultiResponse)response;
+      VoltronEntityMultiResponse sub = (VoltronEntityMultiResponse)response.getChannel().createMessage(TCMessageType.VOLTRON_ENTITY_MULTI_RESPONSE);
+      invokeReturn.put((ClientID)destinationID, sub);
+      voltronEntityMultiResponse.stopAdding();
+      if (!transactionOrderPersistenceFutures.isEmpty()) {
+        waitForTransactions(voltronEntityMultiResponse);
+      }
+    } else if (response instanceof VoltronEntityAppliedResponse) {
+      waitForTransactionOrderPersistenceFuture(((VoltronEntityAppliedResponse)response).getTransactionID());
+    } else {
+      // only applied messages should be sent back to the client except on resent messages
+      // that path is unoptimized so regular received messages can hit this path
+    }
+  }
+
+  private void sendResponse(TCAction response) {
+    NetworkRecall networkMessage = response.send();
+    if (networkMessage == null) {
+      // It is possible for this send to fail.  Typically, it means that the client has disconnected.
+      LOGGER.warn("Failed to send message to: " + response.getDestinationNodeID());
+    } else if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("sent " + response);
+    }
+  }
+
   public AbstractEventHandler<ResponseMessage> getMultiResponseSender() {
     return multiSender;
   }
@@ -224,7 +245,7 @@ public class ProcessTransactionHandler implements ReconnectListener {
           break;
       }
       MessagePayload payload =  MessagePayload.commonMessagePayload(extendedData, entityMessage, doesRequireReplication, canBeBusy);
-      ProcessTransactionHandler.this.addMessage(sourceNodeID, descriptor, action, payload, transactionID, oldestTransactionOnClient, completion, exception, requestedReceived, requestedRetired, message.isClientRequest());
+      ProcessTransactionHandler.this.addMessage(sourceNodeID, descriptor, action, payload, transactionID, oldestTransactionOnClient, completion, exception, requestedReceived, requestedRetired, message.isClientRequest(), ClientCredits.creditSize(message));
     }
 
     @Override
@@ -263,6 +284,16 @@ public class ProcessTransactionHandler implements ReconnectListener {
       ResultCapture send = createInvokeResponse(true, req, false, false);
       send.message(payload);
     }
+
+    @Override
+    public void send(ClientID client, Collection<ClientInstanceID> clientInstances, byte[] payload) {
+      ServerEntityRequest req = new ServerEntityRequestImpl(
+              ClientInstanceID.NULL_ID,
+              ServerEntityAction.INVALID, client,
+              TransactionID.NULL_ID,
+              TransactionID.NULL_ID, false);
+      createNetworkResponse(req, false, false).message(clientInstances, payload);
+    }
   };
 
   public AbstractEventHandler<VoltronEntityMessage> getVoltronMessageHandler() {
@@ -274,6 +305,11 @@ public class ProcessTransactionHandler implements ReconnectListener {
   }
 
   public ProcessTransactionHandler(Persistor persistor, DSOChannelManager channelManager, EntityManager entityManager) {
+    this(persistor, channelManager, entityManager, new ClientCredits(0, 0));
+  }
+
+  public ProcessTransactionHandler(Persistor persistor, DSOChannelManager channelManager, EntityManager entityManager, ClientCredits credits) {
+    this.credits = credits;
     this.persistor = persistor;
     this.dsoChannelManager = channelManager;
     this.entityManager = entityManager;
@@ -316,7 +352,7 @@ public class ProcessTransactionHandler implements ReconnectListener {
 // only the process transaction thread will add messages here except for on reconnect
   private void addMessage(ClientID sourceNodeID, EntityDescriptor descriptor, ServerEntityAction action,
           MessagePayload entityMessage, TransactionID transactionID, TransactionID oldestTransactionOnClient,
-          Consumer<byte[]> chaincomplete, Consumer<ServerException> chainfail, boolean requiresReceived, boolean requiresRetired, boolean sendToClient) {
+          Consumer<byte[]> chaincomplete, Consumer<ServerException> chainfail, boolean requiresReceived, boolean requiresRetired, boolean sendToClient, long credit) {
     // this is capture for server sent messaging that request return.
     ResultCapture serverCapture = new ResultCaptureImpl(null, chaincomplete, null, chainfail);
 
@@ -332,6 +368,8 @@ public class ProcessTransactionHandler implements ReconnectListener {
     //  this capture needs to be first.  It handles waiting for received on passives and waiting for
     //  transaction order persistence
     ResultCapture waitingCapture = createWaitingResponse(transactionOrderPersistenceFuture, request.requiresReceived());
+    //  returns the invoke credit of the client once the invoke retires
+    ResultCapture creditCapture = credits.retiring(sourceNodeID, credit);
 
     Trace trace = null;
     if (Trace.isTraceEnabled()) {
@@ -368,6 +406,7 @@ public class ProcessTransactionHandler implements ReconnectListener {
             } else {
               //  can be null because of flush or disconnect
               LOGGER.error("fetched entity not found " + descriptor + " action:" + action + " " + sourceNodeID);
+              creditCapture.retired();
               return;
             }
           }
@@ -376,6 +415,7 @@ public class ProcessTransactionHandler implements ReconnectListener {
         // error occured during lookup.  report the exception and return
         ResultCapture.chain(waitingCapture, createClientResponse(sendToClient, request), serverCapture)
             .failure(ee);
+        creditCapture.retired();
         return;
       }
 
@@ -390,7 +430,7 @@ public class ProcessTransactionHandler implements ReconnectListener {
             return false;
           }
         }).orElse(false);
-        ResultCapture complete = ResultCapture.chain(waitingCapture, createInvokeResponse(sendToClient, request, sendStats, requiresRetired), serverCapture);
+        ResultCapture complete = ResultCapture.chain(waitingCapture, createInvokeResponse(sendToClient, request, sendStats, requiresRetired), serverCapture, creditCapture);
 
         if(transactionOrderPersistenceFuture != null) {
           transactionOrderPersistenceFutures.put(transactionID, transactionOrderPersistenceFuture);
@@ -458,21 +498,25 @@ public class ProcessTransactionHandler implements ReconnectListener {
 
   private ResultCapture createInvokeResponse(boolean sendToClient, ServerEntityRequest request, boolean sendStats, boolean retiredRequired) {
     if (sendToClient) {
-      return new NetworkInvokeResponse(
-        request.getNodeID(),
-        request.getClientInstance(),
-        request.getTransaction(),
-        (type)->safeGetChannel(request.getNodeID()).map(c->c.createMessage(type)).orElse(null),
-        invokeReturn,
-        multiSend,
-        request.requiresReceived(),
-        sendStats,
-        retiredRequired);
+      return createNetworkResponse(request, sendStats, retiredRequired);
     } else {
       return NoopResultCapture.noop();
     }
   }
 
+  private NetworkInvokeResponse createNetworkResponse(ServerEntityRequest request, boolean sendStats, boolean retiredRequired) {
+    return new NetworkInvokeResponse(
+      request.getNodeID(),
+      request.getClientInstance(),
+      request.getTransaction(),
+      (type)->safeGetChannel(request.getNodeID()).map(c->c.createMessage(type)).orElse(null),
+      invokeReturn,
+      multiSend,
+      request.requiresReceived(),
+      sendStats,
+      retiredRequired);
+  }
+
   private void waitForTransactionOrderPersistenceFuture(TransactionID transactionID) {
     if (!transactionOrderPersistenceFutures.isEmpty()) {
       Future<Void> future = transactionOrderPersistenceFutures.remove(transactionID);
@@ -668,7 +712,8 @@ public class ProcessTransactionHandler implements ReconnectListener {
     if (message instanceof Runnable) {
       completion = (r)->((Runnable)message).run();
     }
-    ProcessTransactionHandler.this.addMessage(sourceNodeID, descriptor, action, payload, transactionID, oldestTransactionOnClient, completion, null, requestedReceived, requestedRetired, message.isClientRequest());
+    // resends come in with the reconnect handshake rather than through the voltron stage so they hold no credit
+    ProcessTransactionHandler.this.addMessage(sourceNodeID, descriptor, action, payload, transactionID, oldestTransactionOnClient, completion, null, requestedReceived, requestedRetired, message.isClientRequest(), -1L);
   }
 
   private static ServerEntityAction decodeMessageType(VoltronEntityMessage.Type type) {
@@ -59,8 +59,11 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Future;
@@ -199,6 +202,7 @@ public class ReplicatedTransactionHandler {
     }
     ServerID activeSender = rep.messageFrom();
     for (SyncReplicationActivity activity : rep.getActivities()) {
+      ackMessenger.activityArrived(activeSender, activity);
       EntityID eid = null;
       if (activity.getActivityType() != ActivityType.SYNC_BEGIN) {
         Optional<ManagedEntity> opt = entityManager.getEntity(EntityDescriptor.createDescriptorForInvoke(activity.getFetchID(), activity.getClientInstanceID()));
@@ -500,7 +504,7 @@ public class ReplicatedTransactionHandler {
   }
 
   private void finish(FetchID fetch) {
-    state.endEntity(fetch);
+    scheduleDeferred(state.endEntity(fetch));
   }
 
   private void finish(FetchID fetch, int concurrency) {
@@ -575,10 +579,10 @@ public class ReplicatedTransactionHandler {
     private LinkedList<DeferredContainer> defer = new LinkedList<>();
  //  at this point, id based checking is legacy.  Everything should have a fetchid.  TODO: remove
     private final Set<FetchID> syncdFetches = new HashSet<>();
-    private final Set<Integer> syncdKeys = new HashSet<>();
- //  at this point, id based checking is legacy.  Everything should have a fetchid
-    private FetchID syncingFetch = FetchID.NULL_ID;
-    private int currentKey = -1;
+ //  entities being synced and, for each, the keys that have finished syncing.  the active may sync several entities
+ //  and several keys of an entity at the same time
+    private final Map<FetchID, Set<Integer>> syncdKeys = new HashMap<>();
+    private final Map<FetchID, Set<Integer>> currentKeys = new HashMap<>();
     private boolean finished = false;
     private boolean started = false;
 
@@ -588,50 +592,67 @@ public class ReplicatedTransactionHandler {
 
     private void startEntity(FetchID fetch) {
       assertStarted(null);
-      Assert.assertTrue(syncingFetch.isNull());
-      syncingFetch = fetch;
+      Assert.assertFalse(syncdKeys.containsKey(fetch));
+      Set<Integer> keys = new HashSet<>();
 // these keys are never sync'd only replicated so add them to the set
-      syncdKeys.add(ConcurrencyStrategy.MANAGEMENT_KEY);
-      syncdKeys.add(ConcurrencyStrategy.UNIVERSAL_KEY);
+      keys.add(ConcurrencyStrategy.MANAGEMENT_KEY);
+      keys.add(ConcurrencyStrategy.UNIVERSAL_KEY);
+      syncdKeys.put(fetch, keys);
+      currentKeys.put(fetch, new HashSet<>());
       LOGGER.debug("Starting " + fetch);
     }
 
-    private void endEntity(FetchID fetch) {
+    private Deque<DeferredContainer> endEntity(FetchID fetch) {
       assertStarted(null);
-      Assert.assertEquals(syncingFetch, fetch);
+      Assert.assertNotNull(syncdKeys.remove(fetch));
+      Assert.assertTrue(currentKeys.remove(fetch).isEmpty());
       syncdFetches.add(fetch);
-      syncdKeys.clear();
-      syncingFetch = FetchID.NULL_ID;
       LOGGER.debug("Ending " + fetch);
+      return removeDeferred(fetch, null);
     }
 
     private void startConcurrency(FetchID fetch, int concurrency) {
       assertStarted(null);
-      Assert.assertEquals(syncingFetch, fetch);
-      currentKey = concurrency;
+      Assert.assertTrue(currentKeys.get(fetch).add(concurrency));
       if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Starting " + fetch + "/" + currentKey);
+        LOGGER.debug("Starting " + fetch + "/" + concurrency);
       }
     }
 
     private Deque<DeferredContainer> endConcurrency(FetchID fetch, int concurrency) {
       assertStarted(null);
-      try {
-        Assert.assertEquals(syncingFetch, fetch);
-        Assert.assertEquals(currentKey, concurrency);
-        syncdKeys.add(concurrency);
-        currentKey = -1;
-        return defer;
-      } finally {
-        defer = new LinkedList<>();
+      Assert.assertTrue(currentKeys.get(fetch).remove(concurrency));
+      syncdKeys.get(fetch).add(concurrency);
+      return removeDeferred(fetch, concurrency);
+    }
+
+    /**
+     * Takes the deferred activities of an entity that can now be applied, in the order they arrived.  Activities on
+     * the universal key lag until any key of the entity finishes, a null key takes everything left for the entity.
+     */
+    private Deque<DeferredContainer> removeDeferred(FetchID fetch, Integer concurrency) {
+      LinkedList<DeferredContainer> ready = new LinkedList<>();
+      Iterator<DeferredContainer> it = defer.iterator();
+      while (it.hasNext()) {
+        DeferredContainer next = it.next();
+        int key = next.activity.getConcurrency();
+        if (fetch.equals(next.activity.getFetchID()) && (concurrency == null || concurrency == key || key == ConcurrencyStrategy.UNIVERSAL_KEY)) {
+          ready.add(next);
+          it.remove();
+        }
       }
+      return ready;
     }
 
     private Deque<DeferredContainer> finish() {
       assertStarted(null);
       syncdFetches.clear();
       finished = true;
-      return defer;
+      try {
+        return defer;
+      } finally {
+        defer = new LinkedList<>();
+      }
     }
 
     private boolean ignore(SyncReplicationActivity activity) {
@@ -661,9 +682,10 @@ public class ReplicatedTransactionHandler {
 
       SyncReplicationActivity.ActivityType activityType = activity.getActivityType();
 
-      if (fetch.equals(syncingFetch)) {
+      Set<Integer> syncd = syncdKeys.get(fetch);
+      if (syncd != null) {
         int concurrencyKey = activity.getConcurrency();
-        if (syncdKeys.contains(concurrencyKey)) {
+        if (syncd.contains(concurrencyKey)) {
           return false;
         } else if (SyncReplicationActivity.ActivityType.CREATE_ENTITY == activityType) {
           return true;
@@ -673,7 +695,7 @@ public class ReplicatedTransactionHandler {
         } else if (SyncReplicationActivity.ActivityType.DESTROY_ENTITY == activityType) {
 //          Assert.fail("destroy received during a sync of an entity " + activity);
           return false;
-        } else if (currentKey == concurrencyKey) {
+        } else if (currentKeys.get(fetch).contains(concurrencyKey)) {
           defer.add(new DeferredContainer(activeSender, activity));
           return true;
         } else if (concurrencyKey == ConcurrencyStrategy.UNIVERSAL_KEY) {
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -23,7 +23,8 @@ import com.tc.async.api.DirectExecutionMode;
 import com.tc.async.api.EventHandlerException;
 import com.tc.async.api.Sink;
 import com.tc.async.api.Stage;
-import com.tc.async.impl.MonitoringEventCreator;
+import com.tc.async.impl.PipelineTrace;
+import com.tc.async.impl.PipelineTracer;
 import com.tc.entity.VoltronEntityMessage;
 import com.tc.net.protocol.tcm.ChannelManagerEventListener;
 import com.tc.net.protocol.tcm.MessageChannel;
@@ -38,6 +39,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.tc.text.PrettyPrintable;
@@ -54,10 +56,14 @@ public class VoltronMessageHandler extends AbstractEventHandler<VoltronEntityMes
   private final AtomicInteger clientsConnected = new AtomicInteger();
   private boolean ALWAYS_DIRECT = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.L2_SEDA_STAGE_SINGLE_THREAD, false);
   private boolean USE_BACKOFF = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.L2_SEDA_STAGE_USE_BACKOFF, false);
+  private final boolean DIRECT_LANES = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.L2_SEDA_STAGE_DIRECT_LANES, false);
   private final TimedActivation timer = new TimedActivation();
+  private final ClientCredits credits;
+  private final Consumer<VoltronEntityMessage> forward = this::forward;
   
-  public VoltronMessageHandler(DSOChannelManager clients, boolean use_direct) {
+  public VoltronMessageHandler(DSOChannelManager clients, ClientCredits credits, boolean use_direct) {
     this.useDirect = use_direct;
+    this.credits = credits;
     clients.addEventListener(new ChannelManagerEventListener() {
       @Override
       public void channelCreated(MessageChannel channel) {
@@ -70,6 +76,7 @@ public class VoltronMessageHandler extends AbstractEventHandler<VoltronEntityMes
       public void channelRemoved(MessageChannel channel) {
         if (channel.getProductID() != ProductID.DIAGNOSTIC) {
           clientsConnected.decrementAndGet();
+          credits.remove(channel.getRemoteNodeID());
         }
       }
     });
@@ -83,11 +90,12 @@ public class VoltronMessageHandler extends AbstractEventHandler<VoltronEntityMes
         activated = true;
       }
     } else if (useDirect) {
-      // only use the fastpath if there is one client connected and nothing in the pipeline
+      // only use the fastpath if nothing is waiting behind this message.  with direct lanes each invoke
+      // runs inline only while its lane is idle so any number of clients can share the fastpath,
+      // otherwise there has to be one client connected and nothing in the pipeline
       boolean fast = fastPath.size() < 2 && destPath.isEmpty() 
-              && requestProcessor.isEmpty() 
               && requestProcessorSync.isEmpty() 
-              && clientsConnected.get() == 1;
+              && (DIRECT_LANES || requestProcessor.isEmpty() && clientsConnected.get() == 1);
       timer.update(fast);
       if (activated != fast && timer.shouldFlip(fast)) {
         activated = fast;
@@ -96,16 +104,22 @@ public class VoltronMessageHandler extends AbstractEventHandler<VoltronEntityMes
       }
     }
     
-    if (!activated && USE_BACKOFF) {
+    if (!activated && USE_BACKOFF && !credits.isEnabled()) {
+      // with credits granted a client running past its grant is held back by the credits instead
       if (destPath.size() > 8 && fastPath.size() <= 1) {
         timer.backoffWait();
       } else {
         timer.accelerate();
       }
     }
-    
-    if (message.getVoltronType() == VoltronEntityMessage.Type.INVOKE_ACTION) {
-      MonitoringEventCreator.start();
+
+    credits.admit(message, forward);
+  }
+
+  private void forward(VoltronEntityMessage message) {
+    PipelineTrace trace = PipelineTracer.current();
+    if (trace != null) {
+      trace.record("voltron", message);
     }
     destSink.addToSink(message);
   }
@@ -118,6 +132,7 @@ public class VoltronMessageHandler extends AbstractEventHandler<VoltronEntityMes
     requestProcessor = context.getStage(ServerConfigurationContext.REQUEST_PROCESSOR_STAGE, Object.class);
     requestProcessorSync = context.getStage(ServerConfigurationContext.REQUEST_PROCESSOR_DURING_SYNC_STAGE, Object.class);
     destSink = destPath.getSink();
+    credits.setReleaseSink(fastPath.getSink());
   }
   
   public int currentBackoff() {
@@ -151,6 +166,10 @@ public class VoltronMessageHandler extends AbstractEventHandler<VoltronEntityMes
   public long getMaxBackoffTime() {
     return timer.maxBackoffTime;
   }
+
+  public ClientCredits getClientCredits() {
+    return credits;
+  }
   
   private static class TimedActivation {
     private long lastChange;
@@ -202,6 +221,7 @@ public class VoltronMessageHandler extends AbstractEventHandler<VoltronEntityMes
     map.put("maxBackoffTime", timer.maxBackoffTime);
     map.put("directMode", this.activated);
     map.put("clientsConnected", this.clientsConnected.get());
+    map.put("credits", credits.getStateMap());
     return map;
   }
 }
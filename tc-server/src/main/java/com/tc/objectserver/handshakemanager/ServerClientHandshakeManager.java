@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -128,6 +128,9 @@ public class ServerClientHandshakeManager {
       if (canAcceptStats(handshake.getClientVersion())) {
         handshake.getChannel().addAttachment("SendStats", true, true);
       }
+      if (handshake.isBatchedInvokes()) {
+        handshake.getChannel().addAttachment(DSOChannelManager.BATCHED_INVOKES_ATTACHMENT, true, true);
+      }
       this.logger.info("confirming client handshake for " + state + " " + save + " " + clientID);
       if (this.state == State.STARTED) {
         Assert.assertEquals(save, clientID.toLong());
@@ -51,6 +51,7 @@ import com.tc.entity.DiagnosticMessageImpl;
 import com.tc.entity.DiagnosticResponseImpl;
 import com.tc.entity.LinearVoltronEntityMultiResponse;
 import com.tc.entity.NetworkVoltronEntityMessageImpl;
+import com.tc.entity.NetworkVoltronEntityMultiMessageImpl;
 import com.tc.entity.VoltronEntityAppliedResponseImpl;
 import com.tc.entity.VoltronEntityMessage;
 import com.tc.entity.VoltronEntityReceivedResponseImpl;
@@ -145,6 +146,8 @@ import com.tc.objectserver.handshakemanager.ServerClientHandshakeManager;
 import com.tc.objectserver.persistence.ClientStatePersistor;
 import com.tc.objectserver.persistence.Persistor;
 import com.tc.objectserver.persistence.NullPlatformStorageServiceProvider;
+import com.tc.objectserver.persistence.FilePlatformStorageServiceProvider;
+import com.tc.objectserver.persistence.FilePlatformStorageProviderConfiguration;
 import com.tc.objectserver.persistence.NullPlatformStorageProviderConfiguration;
 import com.tc.properties.TCProperties;
 import com.tc.properties.TCPropertiesConsts;
@@ -166,6 +169,7 @@ import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.net.UnknownHostException;
 import java.security.SecureRandom;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -182,6 +186,7 @@ import com.tc.objectserver.entity.RequestProcessor;
 import com.tc.objectserver.handler.GenericHandler;
 import com.tc.objectserver.handler.ReplicatedTransactionHandler;
 import com.tc.objectserver.handler.VoltronMessageHandler;
+import com.tc.objectserver.handler.ClientCredits;
 import com.tc.objectserver.persistence.EntityPersistor;
 import com.tc.services.InternalServiceRegistry;
 import com.tc.text.MapListPrettyPrint;
@@ -479,6 +484,7 @@ public class DistributedObjectServer {
     this.tcProperties = TCPropertiesImpl.getProperties();
 
     TCByteBufferFactory.setFixedBufferSize(tcProperties.getInt("bytebuffer.direct.size", 4096));
+    TCByteBufferFactory.setDirectBufferPoolLimit(tcProperties.getLong(TCPropertiesConsts.BYTEBUFFER_DIRECT_POOL_MAX, 64L * 1024 * 1024));
     final int fastStageSize = -1; // needs to be unbounded due to rescheduling by other stages on the pipeline.  If not unbounded, deadlock can occur.
     final StageManager stageManager = this.seda.getStageManager();
 
@@ -496,10 +502,20 @@ public class DistributedObjectServer {
 
     // See if we need to add an in-memory service for IPlatformPersistence.
     if (!this.serviceRegistry.hasUserProvidedServiceProvider(IPlatformPersistence.class)) {
-      // In this case, we do still need to provide an implementation of IPlatformPersistence, backed by memory, so that entities can request a service which is as persistent as this server is.
-      NullPlatformStorageServiceProvider nullPlatformStorageServiceProvider = new NullPlatformStorageServiceProvider();
-      nullPlatformStorageServiceProvider.initialize(new NullPlatformStorageProviderConfiguration(), platformConfiguration);
-      serviceRegistry.registerExternal(nullPlatformStorageServiceProvider);
+      String storage = TCPropertiesImpl.getProperties().getProperty(TCPropertiesConsts.SERVER_PLATFORM_STORAGE, true);
+      if (storage != null && !storage.trim().isEmpty()) {
+        // a storage directory was given, keep the platform state on disk there
+        FilePlatformStorageServiceProvider filePlatformStorageServiceProvider = new FilePlatformStorageServiceProvider();
+        if (!filePlatformStorageServiceProvider.initialize(new FilePlatformStorageProviderConfiguration(Paths.get(storage.trim())), platformConfiguration)) {
+          throw new TCShutdownServerException("unable to use platform storage directory " + storage);
+        }
+        serviceRegistry.registerExternal(filePlatformStorageServiceProvider);
+      } else {
+        // In this case, we do still need to provide an implementation of IPlatformPersistence, backed by memory, so that entities can request a service which is as persistent as this server is.
+        NullPlatformStorageServiceProvider nullPlatformStorageServiceProvider = new NullPlatformStorageServiceProvider();
+        nullPlatformStorageServiceProvider.initialize(new NullPlatformStorageProviderConfiguration(), platformConfiguration);
+        serviceRegistry.registerExternal(nullPlatformStorageServiceProvider);
+      }
     }
 
     // We want to register our IMonitoringProducer shim.
@@ -613,7 +629,10 @@ public class DistributedObjectServer {
 
     this.stripeIDStateManager = new StripeIDStateManagerImpl(this.persistor.getClusterStatePersistor());
 
-    final DSOChannelManager channelManager = new DSOChannelManagerImpl(this.l1Listener.getChannelManager(), pInfo.version());
+    final ClientCredits clientCredits = new ClientCredits(tcProperties.getInt(TCPropertiesConsts.L2_SEDA_STAGE_VOLTRON_CREDITS, 0),
+        tcProperties.getLong(TCPropertiesConsts.L2_SEDA_STAGE_VOLTRON_CREDIT_BYTES, 0L));
+    final DSOChannelManagerImpl channelManager = new DSOChannelManagerImpl(this.l1Listener.getChannelManager(), pInfo.version());
+    channelManager.setClientCredits(clientCredits.getGrantedMessages(), clientCredits.getGrantedBytes());
     channelManager.addEventListener(this.connectionIdFactory);
 
     ServerPersistentState serverPersistentState = configSetupManager.isRelaySource() ? new RelayPersistentState() : new ClusterPersistentState(this.persistor.getClusterStatePersistor());
@@ -698,7 +717,7 @@ public class DistributedObjectServer {
 
     entityManager = new EntityManagerImpl(this.serviceRegistry, clientEntityStateManager, eventCollector, processor, this::flushLocalPipeline, this.configSetupManager.getServiceLocator());
     // We need to set up a stage to point at the ProcessTransactionHandler and we also need to register it for events, below.
-    final ProcessTransactionHandler processTransactionHandler = new ProcessTransactionHandler(this.persistor, channelManager, entityManager);
+    final ProcessTransactionHandler processTransactionHandler = new ProcessTransactionHandler(this.persistor, channelManager, entityManager, clientCredits);
     stageManager.createStage(ServerConfigurationContext.VOLTRON_MESSAGE_STAGE, VoltronEntityMessage.class, processTransactionHandler.getVoltronMessageHandler(), 1, fastStageSize, USE_DIRECT, true).setSpinningCount(1000);
     stageManager.createStage(ServerConfigurationContext.RESPOND_TO_REQUEST_STAGE, ResponseMessage.class, processTransactionHandler.getMultiResponseSender(), L2Utils.getOptimalCommWorkerThreads());
 //  add the server -> client communicator service
@@ -707,7 +726,7 @@ public class DistributedObjectServer {
     communicatorService.initialized();
     serviceRegistry.registerImplementationProvided(communicatorService);
 
-    VoltronMessageHandler voltron = new VoltronMessageHandler(channelManager, USE_DIRECT);
+    VoltronMessageHandler voltron = new VoltronMessageHandler(channelManager, clientCredits, USE_DIRECT);
     // We need to connect the IInterEntityMessengerProvider to the voltronMessageSink.
 
     Stage<VoltronEntityMessage> fast = stageManager.createStage(ServerConfigurationContext.SINGLE_THREADED_FAST_PATH, VoltronEntityMessage.class, voltron, 1);
@@ -731,6 +750,7 @@ public class DistributedObjectServer {
     VoltronMessageSink voltronSink = new VoltronMessageSink(hydrator, fast.getSink(), entityManager);
     messageRouter.routeMessageType(TCMessageType.CLIENT_HANDSHAKE_MESSAGE, new TCMessageHydrateSink<>(clientHandshake.getSink()));
     messageRouter.routeMessageType(TCMessageType.VOLTRON_ENTITY_MESSAGE, voltronSink);
+    messageRouter.routeMessageType(TCMessageType.VOLTRON_ENTITY_MULTI_MESSAGE, voltronSink);
     messageRouter.routeMessageType(TCMessageType.DIAGNOSTIC_REQUEST, m -> diagStage.getSink().addToSink(m));
 
     HASettingsChecker haChecker = new HASettingsChecker(configSetupManager, tcProperties);
@@ -787,6 +807,10 @@ public class DistributedObjectServer {
                                                                   consistencyMgr);
 
     connectServerStateToReplicatedState(monitoringShimService, state, l2Coordinator.getReplicatedClusterStateManager());
+    ServerArchive archive = ServerArchive.configured();
+    if (archive != null) {
+      state.registerForStateChangeEvents(archive);
+    }
 // setup replication
     final Sink<ReplicationSendingAction> replicationSenderStage =
         stageManager.createStage(ServerConfigurationContext.ACTIVE_TO_PASSIVE_DRIVER_STAGE,
@@ -813,6 +837,7 @@ public class DistributedObjectServer {
           public void handleEvent(ReplicationMessageAck context) throws EventHandlerException {
             switch (context.getType()) {
               case ReplicationMessageAck.BATCH:
+              case ReplicationMessageAck.CUMULATIVE:
                 passives.batchAckReceived(context);
                 break;
               case ReplicationMessageAck.START_SYNC:
@@ -821,7 +846,7 @@ public class DistributedObjectServer {
                 } catch (GroupException ge) {
                   logger.warn("error syncing state", ge);
                 }
-                passives.startPassiveSync(context.messageFrom());
+                passives.startPassiveSync(context.messageFrom(), context.getSyncFeatures());
                 break;
               default:
                 throw new AssertionError("bad message " + context);
@@ -859,6 +884,10 @@ public class DistributedObjectServer {
         pInfo,
         consoleLogger
     );
+    if (archive != null) {
+      // an active dumps once the clients have reconnected rather than stalling their reconnect
+      clientHandshakeManager.addReconnectListener(archive);
+    }
 
     this.context = this.serverBuilder.createServerConfigurationContext(configSetupManager.getServerConfiguration().getName(), stageManager, channelManager,
                                                                        channelStats, this.l2Coordinator,
@@ -1190,6 +1219,7 @@ public class DistributedObjectServer {
     messageTypeClassMapping.put(TCMessageType.CLUSTER_MEMBERSHIP_EVENT_MESSAGE, ClusterMembershipMessage.class);
 
     messageTypeClassMapping.put(TCMessageType.VOLTRON_ENTITY_MESSAGE, NetworkVoltronEntityMessageImpl.class);
+    messageTypeClassMapping.put(TCMessageType.VOLTRON_ENTITY_MULTI_MESSAGE, NetworkVoltronEntityMultiMessageImpl.class);
     messageTypeClassMapping.put(TCMessageType.VOLTRON_ENTITY_RECEIVED_RESPONSE, VoltronEntityReceivedResponseImpl.class);
     messageTypeClassMapping.put(TCMessageType.VOLTRON_ENTITY_COMPLETED_RESPONSE, VoltronEntityAppliedResponseImpl.class);
     messageTypeClassMapping.put(TCMessageType.VOLTRON_ENTITY_RETIRED_RESPONSE, VoltronEntityRetiredResponseImpl.class);
@@ -0,0 +1,107 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.impl;
+
+import com.tc.l2.state.ServerMode;
+import com.tc.l2.state.StateChangeListener;
+import com.tc.l2.state.StateManager;
+import com.tc.l2.context.StateChangedEvent;
+import com.tc.objectserver.entity.ReconnectListener;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dumps a class data sharing archive of the server and plugin classes once the server is a passive
+ * standby, or is active and its reconnect window has closed, by which time the plugins are loaded and
+ * the entities created.  The dump pauses the JVM so an active waits for its clients to reconnect
+ * rather than adding to the failover.  Starting the server with {@code -XX:SharedArchiveFile}
+ * pointing at the archive maps those classes in rather than loading them from the jars.  Dumping from
+ * a running server needs the JVM to be started with {@code -XX:+RecordDynamicDumpInfo}.  The archive
+ * is only written when the file does not exist, delete it after upgrading the server or the plugins.
+ */
+class ServerArchive implements StateChangeListener, ReconnectListener {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ServerArchive.class);
+
+  private final Path archive;
+  private boolean dumped;
+  private boolean active;
+  private boolean reconnected;
+
+  private ServerArchive(Path archive) {
+    this.archive = archive;
+  }
+
+  /**
+   * @return the archive configured for the server or null if there is none or it already exists
+   */
+  static ServerArchive configured() {
+    String file = TCPropertiesImpl.getProperties().getProperty(TCPropertiesConsts.SERVER_CDS_ARCHIVE, true);
+    if (file == null || file.isEmpty()) {
+      return null;
+    }
+    Path archive = Paths.get(file);
+    if (Files.exists(archive)) {
+      LOGGER.info("class data sharing archive " + archive + " exists, start the server with -XX:SharedArchiveFile=" + archive + " to use it");
+      return null;
+    }
+    return new ServerArchive(archive);
+  }
+
+  @Override
+  public synchronized void l2StateChanged(StateChangedEvent sce) {
+    ServerMode mode = StateManager.convert(sce.getCurrentState());
+    if (mode == ServerMode.ACTIVE) {
+      active = true;
+      dumpWhenReady(reconnected);
+    } else if (mode == ServerMode.PASSIVE) {
+      dumpWhenReady(true);
+    }
+  }
+
+  @Override
+  public synchronized void reconnectComplete() {
+    reconnected = true;
+    dumpWhenReady(active);
+  }
+
+  private void dumpWhenReady(boolean ready) {
+    if (!dumped && ready) {
+      dumped = true;
+      Thread dump = new Thread(this::dump, "server-archive");
+      dump.setDaemon(true);
+      dump.start();
+    }
+  }
+
+  private void dump() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName("com.sun.management:type=DiagnosticCommand"), "vmCds",
+          new Object[] {new String[] {"dynamic_dump", archive.toAbsolutePath().toString()}}, new String[] {String[].class.getName()});
+      LOGGER.info("wrote class data sharing archive " + archive);
+    } catch (Exception e) {
+      LOGGER.warn("unable to write class data sharing archive " + archive + ", the server must run with -XX:+RecordDynamicDumpInfo", e);
+    }
+  }
+}
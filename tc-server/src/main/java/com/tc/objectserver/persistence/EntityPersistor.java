@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -40,11 +40,16 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terracotta.persistence.IPlatformJournalPersistence;
 import org.terracotta.persistence.IPlatformPersistence;
 
 
 /**
  * Stores the information relating to the entities currently alive on the platform into persistent storage.
+ * <p>
+ * When the storage supports {@link IPlatformJournalPersistence} each change is appended as a single keyed update
+ * and the maps are only written out whole when the journal is compacted, once the updates since the last snapshot
+ * outnumber the live entries.  Otherwise every change re-writes the affected map.
  */
 public class EntityPersistor {
   private static final Logger LOGGER = LoggerFactory.getLogger(EntityPersistor.class);
@@ -53,8 +58,12 @@ public class EntityPersistor {
   private static final String JOURNAL_CONTAINER_FILE_NAME = "journal_container.map";
   private static final String COUNTERS_FILE_NAME = "counters.map";
   private static final String COUNTERS_CONSUMER_ID = "counters:consumerID";
+  private static final String JOURNAL_NAME = "entity_persistor";
+  private static final int COMPACT_MIN_UPDATES = 1024;
 
   private final IPlatformPersistence storageManager;
+  private final IPlatformJournalPersistence journal;
+  private int updatesSinceSnapshot;
   private final HashMap<EntityData.Key, EntityData.Value> entities;
   private final HashMap<EntityData.Key, EntityData.Value> deletes = new HashMap<>();
   private final HashMap<ClientID, List<EntityData.JournalEntry>> entityLifeJournal;
@@ -64,6 +73,7 @@ public class EntityPersistor {
   @SuppressWarnings({ "unchecked" })
   public EntityPersistor(IPlatformPersistence storageManager) {
     this.storageManager = storageManager;
+    this.journal = (storageManager instanceof IPlatformJournalPersistence) ? (IPlatformJournalPersistence)storageManager : null;
     try {
       HashMap<EntityData.Key, EntityData.Value> entities = (HashMap<Key, Value>) this.storageManager.loadDataElement(ENTITIES_ALIVE_FILE_NAME);
       this.entities = (null != entities) ? entities : new HashMap<>();
@@ -71,6 +81,9 @@ public class EntityPersistor {
       this.entityLifeJournal = (null != entityLifeJournal) ? entityLifeJournal : new HashMap<>();
       HashMap<String, Long> counters = (HashMap<String, Long>) this.storageManager.loadDataElement(COUNTERS_FILE_NAME);
       this.counters = (null != counters) ? counters : new HashMap<>();
+      if (this.journal != null) {
+        replayJournal(entities != null || entityLifeJournal != null || counters != null);
+      }
       // Make sure that the consumerID is initialized to 1 (0 reserved for platform).
       if (!this.counters.containsKey(COUNTERS_CONSUMER_ID)) {
         this.counters.put(COUNTERS_CONSUMER_ID, Long.valueOf(1L));
@@ -90,6 +103,10 @@ public class EntityPersistor {
     }
     // We can destroy the backing for these objects.
     try {
+      if (this.journal != null) {
+        this.journal.compactJournal(JOURNAL_NAME, null);
+        this.updatesSinceSnapshot = 0;
+      }
       this.storageManager.storeDataElement(ENTITIES_ALIVE_FILE_NAME, null);
       this.storageManager.storeDataElement(JOURNAL_CONTAINER_FILE_NAME, null);
       this.storageManager.storeDataElement(COUNTERS_FILE_NAME, null);
@@ -102,6 +119,10 @@ public class EntityPersistor {
   public synchronized void clearEntityClientJournal() {
     this.entityLifeJournal.clear();
     try {
+      if (this.journal != null) {
+        compactJournal();
+        return;
+      }
       this.storageManager.storeDataElement(JOURNAL_CONTAINER_FILE_NAME, null);
     } catch (IOException e) {
       // In general, we have no way of solving this problem so throw it.
@@ -213,8 +234,8 @@ public class EntityPersistor {
     Assert.assertTrue(this.entities.containsKey(key) || this.deletes.containsKey(key));
     if (this.deletes.remove(key) == null) {
       this.entities.remove(key);
+      storeEntity(key, null);
     }
-    storeToDisk(ENTITIES_ALIVE_FILE_NAME, this.entities);
     
     // Record this in the journal - null error on success.
     addToJournal(clientID, transactionID, oldestTransactionOnClient, EntityData.Operation.DESTROY, null, null);
@@ -264,7 +285,7 @@ public class EntityPersistor {
     Assert.assertEquals(version, val.version);
     
     this.entities.put(key, val);
-    storeToDisk(ENTITIES_ALIVE_FILE_NAME, this.entities);
+    storeEntity(key, val);
     
     // Record this in the journal.
     addToJournal(clientID, transactionID, oldestTransactionOnClient, EntityData.Operation.RECONFIGURE, previousConfiguration, null);
@@ -276,7 +297,7 @@ public class EntityPersistor {
   public synchronized long getNextConsumerID() {
     long consumerID = this.counters.get(COUNTERS_CONSUMER_ID);
     this.counters.put(COUNTERS_CONSUMER_ID, Long.valueOf(consumerID + 1));
-    storeToDisk(COUNTERS_FILE_NAME, this.counters);
+    storeCounter(COUNTERS_CONSUMER_ID);
     return consumerID;
   }
 
@@ -284,19 +305,19 @@ public class EntityPersistor {
     long checkID = this.counters.get(COUNTERS_CONSUMER_ID);
     if (consumerID >= checkID) {
       this.counters.put(COUNTERS_CONSUMER_ID, Long.valueOf(consumerID + 1));
-      storeToDisk(COUNTERS_FILE_NAME, this.counters);
+      storeCounter(COUNTERS_CONSUMER_ID);
     }
   }
   
   public synchronized void addTrackingForClient(ClientID sourceNodeID) {
     if (this.entityLifeJournal.putIfAbsent(sourceNodeID, new ArrayList<>()) == null) {
-      storeToDisk(JOURNAL_CONTAINER_FILE_NAME, this.entityLifeJournal);
+      storeClientJournal(sourceNodeID);
     }
   }
   
   public synchronized void removeTrackingForClient(ClientID sourceNodeID) {
     this.entityLifeJournal.remove(sourceNodeID);
-    storeToDisk(JOURNAL_CONTAINER_FILE_NAME, this.entityLifeJournal);
+    storeClientJournal(sourceNodeID);
   }
 
   public void reportStateToMap(Map<String, Object> map) {
@@ -348,7 +369,7 @@ public class EntityPersistor {
         newEntry.reconfigureResponse = reconfigureResult;
         clientJournal.add(newEntry);
         this.entityLifeJournal.put(clientID, clientJournal);
-        storeToDisk(JOURNAL_CONTAINER_FILE_NAME, this.entityLifeJournal);
+        storeClientJournal(clientID);
       }
     }
   }
@@ -387,7 +408,7 @@ public class EntityPersistor {
     if (previous != null) {
       deletes.put(key, value);
     }
-    storeToDisk(ENTITIES_ALIVE_FILE_NAME, this.entities);
+    storeEntity(key, value);
   }
   
   private void permanentEntityCreated(EntityID id, long consumerid, Exception e) {
@@ -401,8 +422,17 @@ public class EntityPersistor {
   }
   
   public synchronized void removeOrphanedClientsFromJournal(Set<ClientID> connectedClients) {
-    this.entityLifeJournal.entrySet().removeIf(e->!connectedClients.contains(e.getKey()));
-    storeToDisk(JOURNAL_CONTAINER_FILE_NAME, this.entityLifeJournal);
+    List<ClientID> orphans = new ArrayList<>();
+    this.entityLifeJournal.keySet().stream().filter(c->!connectedClients.contains(c)).forEach(orphans::add);
+    for (ClientID orphan : orphans) {
+      this.entityLifeJournal.remove(orphan);
+      if (this.journal != null) {
+        storeClientJournal(orphan);
+      }
+    }
+    if (this.journal == null) {
+      storeToDisk(JOURNAL_CONTAINER_FILE_NAME, this.entityLifeJournal);
+    }
   }
   
   public synchronized void serialize(ObjectOutput bucket) throws IOException {
@@ -445,10 +475,93 @@ public class EntityPersistor {
     } catch (ClassNotFoundException cnf) {
       throw new IOException(cnf);
     }
-    storeToDisk(JOURNAL_CONTAINER_FILE_NAME, this.entityLifeJournal);
     long nextConsumer = bucket.readLong();
     this.counters.put(COUNTERS_CONSUMER_ID, nextConsumer);
-    storeToDisk(COUNTERS_FILE_NAME, this.counters);
+    if (this.journal != null) {
+      // the whole client journal may have changed, start over from a snapshot
+      compactJournal();
+    } else {
+      storeToDisk(JOURNAL_CONTAINER_FILE_NAME, this.entityLifeJournal);
+      storeToDisk(COUNTERS_FILE_NAME, this.counters);
+    }
+  }
+
+  private void storeEntity(EntityData.Key key, EntityData.Value value) {
+    if (this.journal != null) {
+      appendUpdate(new Update(Update.ENTITIES, key, value));
+    } else {
+      storeToDisk(ENTITIES_ALIVE_FILE_NAME, this.entities);
+    }
+  }
+
+  private void storeClientJournal(ClientID clientID) {
+    if (this.journal != null) {
+      List<EntityData.JournalEntry> clientJournal = this.entityLifeJournal.get(clientID);
+      appendUpdate(new Update(Update.CLIENT_JOURNALS, clientID, clientJournal == null ? null : new ArrayList<>(clientJournal)));
+    } else {
+      storeToDisk(JOURNAL_CONTAINER_FILE_NAME, this.entityLifeJournal);
+    }
+  }
+
+  private void storeCounter(String counter) {
+    if (this.journal != null) {
+      appendUpdate(new Update(Update.COUNTERS, counter, this.counters.get(counter)));
+    } else {
+      storeToDisk(COUNTERS_FILE_NAME, this.counters);
+    }
+  }
+
+  private void appendUpdate(Update update) {
+    try {
+      this.journal.appendToJournal(JOURNAL_NAME, update);
+    } catch (IOException e) {
+      // In general, we have no way of solving this problem so throw it.
+      throw new RuntimeException("Failure appending to EntityPersistor journal", e);
+    }
+    this.updatesSinceSnapshot += 1;
+    // keep replay proportional to the live data
+    if (this.updatesSinceSnapshot > Math.max(COMPACT_MIN_UPDATES, this.entities.size() + this.entityLifeJournal.size())) {
+      compactJournal();
+    }
+  }
+
+  private void compactJournal() {
+    try {
+      this.journal.compactJournal(JOURNAL_NAME, new Snapshot(this.entities, this.entityLifeJournal, this.counters));
+      this.updatesSinceSnapshot = 0;
+    } catch (IOException e) {
+      // In general, we have no way of solving this problem so throw it.
+      throw new RuntimeException("Failure compacting EntityPersistor journal", e);
+    }
+  }
+
+  /**
+   * Load the snapshot and apply the updates appended after it.  Maps written by the whole map format are folded into
+   * a first snapshot and removed.
+   */
+  private void replayJournal(boolean legacy) throws IOException {
+    IPlatformJournalPersistence.JournalContents contents = this.journal.loadJournal(JOURNAL_NAME);
+    if (contents.snapshot != null) {
+      Snapshot snapshot = (Snapshot)contents.snapshot;
+      this.entities.clear();
+      this.entities.putAll(snapshot.entities);
+      this.entityLifeJournal.clear();
+      this.entityLifeJournal.putAll(snapshot.entityLifeJournal);
+      this.counters.clear();
+      this.counters.putAll(snapshot.counters);
+    }
+    for (Serializable record : contents.records) {
+      ((Update)record).applyTo(this.entities, this.entityLifeJournal, this.counters);
+    }
+    this.updatesSinceSnapshot = contents.records.size();
+    if (legacy) {
+      if (contents.snapshot == null && contents.records.isEmpty()) {
+        compactJournal();
+      }
+      this.storageManager.storeDataElement(ENTITIES_ALIVE_FILE_NAME, null);
+      this.storageManager.storeDataElement(JOURNAL_CONTAINER_FILE_NAME, null);
+      this.storageManager.storeDataElement(COUNTERS_FILE_NAME, null);
+    }
   }
 
   private void storeToDisk(String dataName, Serializable dataElement) {
@@ -464,6 +577,65 @@ public class EntityPersistor {
     this.result.values().forEach(r->r.setResult(-1L, new IOException("closed")));
   }
   
+  private static class Snapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final HashMap<EntityData.Key, EntityData.Value> entities;
+    private final HashMap<ClientID, List<EntityData.JournalEntry>> entityLifeJournal;
+    private final HashMap<String, Long> counters;
+
+    private Snapshot(HashMap<EntityData.Key, EntityData.Value> entities, HashMap<ClientID, List<EntityData.JournalEntry>> entityLifeJournal, HashMap<String, Long> counters) {
+      this.entities = entities;
+      this.entityLifeJournal = entityLifeJournal;
+      this.counters = counters;
+    }
+  }
+
+  /**
+   * A put, or a remove when the value is null, of one key in one of the persisted maps.
+   */
+  private static class Update implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final byte ENTITIES = 0;
+    private static final byte CLIENT_JOURNALS = 1;
+    private static final byte COUNTERS = 2;
+
+    private final byte map;
+    private final Serializable key;
+    private final Serializable value;
+
+    private Update(byte map, Serializable key, Serializable value) {
+      this.map = map;
+      this.key = key;
+      this.value = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyTo(HashMap<EntityData.Key, EntityData.Value> entities, HashMap<ClientID, List<EntityData.JournalEntry>> entityLifeJournal, HashMap<String, Long> counters) {
+      switch (map) {
+        case ENTITIES:
+          apply(entities, (EntityData.Key)key, (EntityData.Value)value);
+          break;
+        case CLIENT_JOURNALS:
+          apply(entityLifeJournal, (ClientID)key, (List<EntityData.JournalEntry>)value);
+          break;
+        case COUNTERS:
+          apply(counters, (String)key, (Long)value);
+          break;
+        default:
+          throw new AssertionError("unknown map " + map);
+      }
+    }
+
+    private static <K, V> void apply(Map<K, V> target, K key, V value) {
+      if (value == null) {
+        target.remove(key);
+      } else {
+        target.put(key, value);
+      }
+    }
+  }
+
   private static class PermanentEntityResult {
     boolean finished;
     Exception failed;
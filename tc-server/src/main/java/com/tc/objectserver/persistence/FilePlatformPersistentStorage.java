@@ -0,0 +1,378 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.entity.StateDumpCollector;
+import org.terracotta.entity.StateDumpable;
+import org.terracotta.persistence.IPlatformJournalPersistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+
+/**
+ * File backed platform persistence.  Data elements are single files replaced atomically.  Journals are an append-only
+ * record file plus a snapshot file; the snapshot carries the generation of the record file that follows it so that a
+ * compaction only takes effect once the new snapshot has been moved into place.  Sequences are kept as journals of
+ * tuples and are compacted once the discarded tuples outnumber the live ones.
+ */
+public class FilePlatformPersistentStorage implements IPlatformJournalPersistence, StateDumpable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FilePlatformPersistentStorage.class);
+  private static final String SNAPSHOT_SUFFIX = ".snapshot";
+  private static final String JOURNAL_SUFFIX = ".journal";
+  private static final String SEQUENCE_PREFIX = "sequence-";
+  private static final int SEQUENCE_COMPACT_MIN = 64;
+
+  private final Path directory;
+  private final Map<String, Journal> journals = new HashMap<>();
+  private final Map<Long, List<SequenceTuple>> sequences = new HashMap<>();
+
+  public FilePlatformPersistentStorage(Path directory) throws IOException {
+    this.directory = Files.createDirectories(directory);
+  }
+
+  @Override
+  public Serializable loadDataElement(String name) throws IOException {
+    return loadDataElementInLoader(name, ClassLoader.getSystemClassLoader());
+  }
+
+  @Override
+  public Serializable loadDataElementInLoader(String name, ClassLoader loader) throws IOException {
+    Path file = directory.resolve(name);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    return deserialize(Files.readAllBytes(file), loader);
+  }
+
+  @Override
+  public void storeDataElement(String name, Serializable element) throws IOException {
+    Path file = directory.resolve(name);
+    if (element == null) {
+      Files.deleteIfExists(file);
+    } else {
+      writeAtomically(file, serialize(element));
+    }
+  }
+
+  @Override
+  public synchronized void appendToJournal(String name, Serializable record) throws IOException {
+    openJournal(name).append(serialize(record));
+  }
+
+  @Override
+  public synchronized void compactJournal(String name, Serializable snapshot) throws IOException {
+    Journal journal = openJournal(name);
+    journal.close();
+    long next = journal.generation + 1;
+    Path old = journalFile(name, journal.generation);
+    if (snapshot == null) {
+      Files.deleteIfExists(directory.resolve(name + SNAPSHOT_SUFFIX));
+      next = 0;
+    } else {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      bytes.write(ByteBuffer.allocate(Long.BYTES).putLong(next).array());
+      bytes.write(serialize(snapshot));
+      writeAtomically(directory.resolve(name + SNAPSHOT_SUFFIX), bytes.toByteArray());
+    }
+    Files.deleteIfExists(old);
+    journals.put(name, new Journal(journalFile(name, next), next, false));
+  }
+
+  @Override
+  public synchronized JournalContents loadJournal(String name) throws IOException {
+    Journal journal = journals.remove(name);
+    if (journal != null) {
+      journal.close();
+    }
+    JournalContents contents = new JournalContents();
+    long generation = 0;
+    Path snapshotFile = directory.resolve(name + SNAPSHOT_SUFFIX);
+    if (Files.exists(snapshotFile)) {
+      byte[] raw = Files.readAllBytes(snapshotFile);
+      ByteBuffer buffer = ByteBuffer.wrap(raw);
+      generation = buffer.getLong();
+      contents.snapshot = deserialize(raw, Long.BYTES, raw.length - Long.BYTES, ClassLoader.getSystemClassLoader());
+    }
+    contents.records = readRecords(journalFile(name, generation));
+    removeStaleJournals(name, generation);
+    journals.put(name, new Journal(journalFile(name, generation), generation, true));
+    return contents;
+  }
+
+  @Override
+  public synchronized Future<Void> fastStoreSequence(long sequenceIndex, SequenceTuple newEntry, long oldestValidSequenceID) {
+    try {
+      List<SequenceTuple> sequence = sequences.get(sequenceIndex);
+      if (sequence == null) {
+        sequence = loadSequence(sequenceIndex);
+      }
+      int before = sequence.size();
+      // sequences are always updated in an increasing fashion, stop at the first valid entry
+      while (!sequence.isEmpty() && sequence.get(0).localSequenceID < oldestValidSequenceID) {
+        sequence.remove(0);
+      }
+      sequence.add(newEntry);
+      Journal journal = openJournal(SEQUENCE_PREFIX + sequenceIndex);
+      journal.discarded += before + 1 - sequence.size();
+      if (journal.discarded > Math.max(SEQUENCE_COMPACT_MIN, sequence.size())) {
+        compactJournal(SEQUENCE_PREFIX + sequenceIndex, toArray(sequence));
+      } else {
+        journal.append(serialize(new long[] {newEntry.localSequenceID, newEntry.globalSequenceID, oldestValidSequenceID}));
+      }
+      return CompletableFuture.completedFuture(null);
+    } catch (IOException ioe) {
+      CompletableFuture<Void> failed = new CompletableFuture<>();
+      failed.completeExceptionally(ioe);
+      return failed;
+    }
+  }
+
+  @Override
+  public synchronized List<SequenceTuple> loadSequence(long sequenceIndex) throws IOException {
+    List<SequenceTuple> sequence = sequences.get(sequenceIndex);
+    if (sequence == null) {
+      JournalContents contents = loadJournal(SEQUENCE_PREFIX + sequenceIndex);
+      sequence = new LinkedList<>();
+      if (contents.snapshot != null) {
+        long[] pairs = (long[])contents.snapshot;
+        for (int x = 0; x < pairs.length; x += 2) {
+          sequence.add(tuple(pairs[x], pairs[x + 1]));
+        }
+      }
+      for (Serializable record : contents.records) {
+        long[] entry = (long[])record;
+        while (!sequence.isEmpty() && sequence.get(0).localSequenceID < entry[2]) {
+          sequence.remove(0);
+        }
+        sequence.add(tuple(entry[0], entry[1]));
+      }
+      sequences.put(sequenceIndex, sequence);
+    }
+    return sequence;
+  }
+
+  @Override
+  public synchronized void deleteSequence(long sequenceIndex) throws IOException {
+    sequences.remove(sequenceIndex);
+    compactJournal(SEQUENCE_PREFIX + sequenceIndex, null);
+    journals.remove(SEQUENCE_PREFIX + sequenceIndex);
+  }
+
+  public synchronized void close() throws IOException {
+    for (Journal journal : journals.values()) {
+      journal.close();
+    }
+    journals.clear();
+  }
+
+  @Override
+  public synchronized void addStateTo(StateDumpCollector stateDumpCollector) {
+    stateDumpCollector.addState("directory", directory.toString());
+    for (Map.Entry<String, Journal> entry : journals.entrySet()) {
+      stateDumpCollector.addState(entry.getKey(), "generation=" + entry.getValue().generation);
+    }
+  }
+
+  private Journal openJournal(String name) throws IOException {
+    Journal journal = journals.get(name);
+    if (journal == null) {
+      long generation = 0;
+      Path snapshotFile = directory.resolve(name + SNAPSHOT_SUFFIX);
+      if (Files.exists(snapshotFile)) {
+        try (InputStream in = Files.newInputStream(snapshotFile)) {
+          byte[] header = new byte[Long.BYTES];
+          if (in.readNBytes(header, 0, header.length) == header.length) {
+            generation = ByteBuffer.wrap(header).getLong();
+          }
+        }
+      }
+      journal = new Journal(journalFile(name, generation), generation, true);
+      journals.put(name, journal);
+    }
+    return journal;
+  }
+
+  private Path journalFile(String name, long generation) {
+    return directory.resolve(name + "." + generation + JOURNAL_SUFFIX);
+  }
+
+  private void removeStaleJournals(String name, long generation) throws IOException {
+    String current = journalFile(name, generation).getFileName().toString();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>)files::iterator) {
+        String fileName = file.getFileName().toString();
+        if (fileName.startsWith(name + ".") && fileName.endsWith(JOURNAL_SUFFIX) && !fileName.equals(current)) {
+          String middle = fileName.substring(name.length() + 1, fileName.length() - JOURNAL_SUFFIX.length());
+          if (middle.chars().allMatch(Character::isDigit)) {
+            Files.deleteIfExists(file);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Records are length prefixed.  A torn record at the tail, from a crash during an append, is dropped and truncated
+   * so the next append starts on a record boundary.
+   */
+  private List<Serializable> readRecords(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return Collections.emptyList();
+    }
+    byte[] raw = Files.readAllBytes(file);
+    ByteBuffer buffer = ByteBuffer.wrap(raw);
+    List<Serializable> records = new ArrayList<>();
+    while (buffer.remaining() >= Integer.BYTES) {
+      int start = buffer.position();
+      int len = buffer.getInt();
+      if (len < 0 || len > buffer.remaining()) {
+        buffer.position(start);
+        break;
+      }
+      records.add(deserialize(raw, buffer.position(), len, ClassLoader.getSystemClassLoader()));
+      buffer.position(buffer.position() + len);
+    }
+    if (buffer.hasRemaining()) {
+      LOGGER.warn("dropping {} bytes of incomplete record at the end of {}", buffer.remaining(), file);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(buffer.position());
+        channel.force(true);
+      }
+    }
+    return records;
+  }
+
+  private void writeAtomically(Path file, byte[] data) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static byte[] serialize(Serializable element) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(element);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Serializable deserialize(byte[] raw, ClassLoader loader) throws IOException {
+    return deserialize(raw, 0, raw.length, loader);
+  }
+
+  private static Serializable deserialize(byte[] raw, int offset, int length, ClassLoader loader) throws IOException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(raw, offset, length)) {
+      @Override
+      protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        try {
+          return Class.forName(desc.getName(), false, loader);
+        } catch (ClassNotFoundException notfound) {
+          return super.resolveClass(desc);
+        }
+      }
+    }) {
+      return (Serializable)in.readObject();
+    } catch (ClassNotFoundException cnf) {
+      throw new IOException(cnf);
+    }
+  }
+
+  private static SequenceTuple tuple(long local, long global) {
+    SequenceTuple tuple = new SequenceTuple();
+    tuple.localSequenceID = local;
+    tuple.globalSequenceID = global;
+    return tuple;
+  }
+
+  private static long[] toArray(List<SequenceTuple> sequence) {
+    long[] pairs = new long[sequence.size() * 2];
+    int x = 0;
+    for (SequenceTuple tuple : sequence) {
+      pairs[x++] = tuple.localSequenceID;
+      pairs[x++] = tuple.globalSequenceID;
+    }
+    return pairs;
+  }
+
+  private static class Journal {
+    private final Path file;
+    private final long generation;
+    private boolean append;
+    private FileChannel channel;
+    private int discarded;
+
+    private Journal(Path file, long generation, boolean append) {
+      this.file = file;
+      this.generation = generation;
+      this.append = append;
+    }
+
+    private void append(byte[] record) throws IOException {
+      if (channel == null) {
+        channel = append ?
+            FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND) :
+            FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        // only a fresh generation starts empty, a reopen after close keeps what is there
+        append = true;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + record.length);
+      buffer.putInt(record.length).put(record).flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    }
+
+    private void close() throws IOException {
+      if (channel != null) {
+        channel.close();
+        channel = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.persistence;
+
+import org.terracotta.entity.ServiceProvider;
+import org.terracotta.entity.ServiceProviderConfiguration;
+
+import java.nio.file.Path;
+
+/**
+ * Root directory for {@link FilePlatformStorageServiceProvider}, each consumer gets a directory below it.
+ */
+public class FilePlatformStorageProviderConfiguration implements ServiceProviderConfiguration {
+    private final Path root;
+
+    public FilePlatformStorageProviderConfiguration(Path root) {
+        this.root = root;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public Class<? extends ServiceProvider> getServiceProviderType() {
+        return FilePlatformStorageServiceProvider.class;
+    }
+}
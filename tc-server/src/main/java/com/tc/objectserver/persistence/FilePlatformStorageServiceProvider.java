@@ -0,0 +1,113 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.entity.PlatformConfiguration;
+import org.terracotta.entity.ServiceConfiguration;
+import org.terracotta.entity.ServiceProvider;
+import org.terracotta.entity.ServiceProviderConfiguration;
+import org.terracotta.entity.ServiceProviderCleanupException;
+import org.terracotta.entity.StateDumpCollector;
+import org.terracotta.entity.StateDumpable;
+import org.terracotta.persistence.IPlatformPersistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+
+/**
+ * Platform persistence on disk, one {@link FilePlatformPersistentStorage} per consumer in a directory named after the
+ * consumer ID.  Used in place of {@link NullPlatformStorageServiceProvider} when no other provider of
+ * {@link IPlatformPersistence} is configured and the server is given a storage directory.
+ */
+public class FilePlatformStorageServiceProvider implements ServiceProvider, StateDumpable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FilePlatformStorageServiceProvider.class);
+    private final Map<Long, FilePlatformPersistentStorage> providers = new ConcurrentHashMap<>();
+    private Path root;
+
+    @Override
+    public boolean initialize(ServiceProviderConfiguration serviceProviderConfiguration, PlatformConfiguration platformConfiguration) {
+        this.root = ((FilePlatformStorageProviderConfiguration)serviceProviderConfiguration).getRoot();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException ioe) {
+            LOGGER.error("unable to create the platform storage directory {}", root, ioe);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public <T> T getService(long entityID, ServiceConfiguration<T> serviceConfiguration) {
+        return serviceConfiguration.getServiceType().cast(providers.computeIfAbsent(entityID, id->{
+            try {
+                return new FilePlatformPersistentStorage(root.resolve(String.valueOf(id)));
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }));
+    }
+
+    @Override
+    public Collection<Class<?>> getProvidedServiceTypes() {
+      return Collections.singleton(IPlatformPersistence.class);
+    }
+
+    public void close() throws IOException {
+        for (FilePlatformPersistentStorage storage : providers.values()) {
+            storage.close();
+        }
+        providers.clear();
+    }
+
+    /**
+     * A passive is about to be synced from the active, what is on disk is replaced by what the active sends.
+     */
+    @Override
+    public void prepareForSynchronization() throws ServiceProviderCleanupException {
+        try {
+            close();
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : (Iterable<Path>)files.sorted(Comparator.reverseOrder())::iterator) {
+                    if (!file.equals(root)) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        } catch (IOException ioe) {
+            throw new ServiceProviderCleanupException("unable to clear " + root, ioe);
+        }
+    }
+
+    @Override
+    public void addStateTo(StateDumpCollector stateDumpCollector) {
+        for (Map.Entry<Long, FilePlatformPersistentStorage> entry : providers.entrySet()) {
+            entry.getValue().addStateTo(stateDumpCollector.subStateDumpCollector(String.valueOf(entry.getKey())));
+        }
+    }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import com.tc.net.ClientID;
 import com.tc.net.protocol.tcm.MessageChannel;
 import com.tc.object.ClientInstanceID;
 import com.tc.object.tx.TransactionID;
+import java.util.Collection;
 
 
 public class ClientAccount {
@@ -41,6 +42,12 @@ public class ClientAccount {
     }
   }
 
+  synchronized void sendNoResponse(Collection<ClientInstanceID> clientInstances, byte[] payload) {
+    if (open) {
+      this.sender.send(this.clientID, clientInstances, payload);
+    }
+  }
+
   synchronized void sendInvokeMessage(TransactionID transaction, byte[] payload) {
     if (open) {
       this.sender.send(this.clientID, transaction, payload);
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -20,8 +20,10 @@ package com.tc.services;
 import com.tc.net.ClientID;
 import com.tc.object.ClientInstanceID;
 import com.tc.object.tx.TransactionID;
+import java.util.Collection;
 
 public interface ClientMessageSender {
   void send(ClientID client, ClientInstanceID clientInstance, byte[] payload);
   void send(ClientID client, TransactionID clientInstance, byte[] payload);
+  void send(ClientID client, Collection<ClientInstanceID> clientInstances, byte[] payload);
 }
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -30,6 +30,11 @@ import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.MessageCodec;
 import org.terracotta.entity.MessageCodecException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
 
@@ -58,6 +63,27 @@ public class EntityClientCommunicatorService implements ClientCommunicator {
     }
   }
 
+  @Override
+  public void broadcast(Collection<ClientDescriptor> clientDescriptors, EntityResponse message) throws MessageCodecException {
+    // group the instances by connection so each client gets one network message
+    Map<NodeID, List<ClientInstanceID>> byClient = new LinkedHashMap<>();
+    for (ClientDescriptor clientDescriptor : clientDescriptors) {
+      ClientDescriptorImpl rawDescriptor = (ClientDescriptorImpl)clientDescriptor;
+      byClient.computeIfAbsent(rawDescriptor.getNodeID(), node->new ArrayList<>()).add(rawDescriptor.getClientInstanceID());
+    }
+    byte[] payload = null;
+    for (Map.Entry<NodeID, List<ClientInstanceID>> client : byClient.entrySet()) {
+      ClientAccount clientAccount = clientAccounts.get(client.getKey());
+      if (clientAccount != null) {
+        if (payload == null) {
+          // encode once, every client shares the same payload
+          payload = serialize(this.owningEntity.getCodec(), message);
+        }
+        clientAccount.sendNoResponse(client.getValue(), payload);
+      }
+    }
+  }
+
   public void sendInvokeMessage(ClientDescriptor clientDescriptor, long invokeID, EntityResponse message) throws MessageCodecException {
     // We are in internal code so downcast the descriptor.
     ClientDescriptorImpl rawDescriptor = (ClientDescriptorImpl)clientDescriptor;
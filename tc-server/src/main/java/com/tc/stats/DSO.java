@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -497,6 +497,21 @@ public class DSO extends AbstractNotifyingMBean implements DSOMBean {
     return messageHandler.backoffCount();
   }
 
+  @Override
+  public int getClientCreditGrant() {
+    return messageHandler.getClientCredits().getGrantedMessages();
+  }
+
+  @Override
+  public long getClientCreditOverdrawnCount() {
+    return messageHandler.getClientCredits().getOverdrawnCount();
+  }
+
+  @Override
+  public Map<String, Map<String, Long>> getClientCredits() {
+    return messageHandler.getClientCredits().getClientMetrics();
+  }
+
   @Override
   public void setAlwaysHydrate(boolean hydrate) {
     this.messageSink.setAlwaysHydrate(hydrate);
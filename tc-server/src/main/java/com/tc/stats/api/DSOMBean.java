@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -80,6 +80,17 @@ public interface DSOMBean extends TerracottaMBean {
   long getMaxBackoffTime();
   
   long getBackoffCount();
+
+  int getClientCreditGrant();
+
+  long getClientCreditOverdrawnCount();
+
+  /**
+   * @return for each client, the invokes and payload bytes it has outstanding, the invokes it has
+   *         had outstanding at most, how many of its invokes were admitted, how many of those ran
+   *         past its grant and how many messages are held back until its invokes retire
+   */
+  Map<String, Map<String, Long>> getClientCredits();
   
   int getBufferCount();
   
@@ -0,0 +1,189 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.classloader;
+
+import com.tc.util.ManagedServiceLoader.ServiceEntry;
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PluginIndexTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testIndexIsReadBackForSameJars() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("plugin.index");
+    Path jar = zip("plugin.jar", "one");
+    String location = location(jar);
+    List<Path> jars = Collections.singletonList(jar);
+    PluginIndex index = PluginIndex.open(file, jars);
+    assertNull(index.getServices("com.tc.Service"));
+    index.putServices("com.tc.Service", Arrays.asList(
+        new ServiceEntry("com.tc.First", location, new String[0]),
+        new ServiceEntry("com.tc.Second", location, new String[] {"com.tc.First", "com.tc.Other"})));
+    index.putServices("com.tc.Unused", Collections.emptyList());
+    index.isolated(location, "com.tc.First");
+    index.store();
+
+    PluginIndex read = PluginIndex.open(file, jars);
+    List<ServiceEntry> services = read.getServices("com.tc.Service");
+    assertEquals(2, services.size());
+    assertEquals("com.tc.First", services.get(0).getClassName());
+    assertEquals(location, services.get(0).getLocation());
+    assertEquals(0, services.get(0).getOverrides().length);
+    assertEquals("com.tc.Second", services.get(1).getClassName());
+    assertArrayEquals(new String[] {"com.tc.First", "com.tc.Other"}, services.get(1).getOverrides());
+    assertTrue(read.getServices("com.tc.Unused").isEmpty());
+    assertTrue(read.isIsolated(location, "com.tc.First"));
+    assertFalse(read.isIsolated(location, "com.tc.Second"));
+    assertFalse(read.isIsolated("file:/plugins/other.jar", "com.tc.First"));
+  }
+
+  @Test
+  public void testChangedJarsDiscardIndex() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("plugin.index");
+    Path jar = jar("plugin.jar", "one");
+    PluginIndex index = PluginIndex.open(file, Collections.singletonList(jar));
+    index.putServices("com.tc.Service", Collections.emptyList());
+    index.store();
+
+    Files.write(jar, "a new version".getBytes());
+    assertNull(PluginIndex.open(file, Collections.singletonList(jar)).getServices("com.tc.Service"));
+    assertNull(PluginIndex.open(file, Arrays.asList(jar, jar("added.jar", "two"))).getServices("com.tc.Service"));
+  }
+
+  @Test
+  public void testChangedJarKeepsEntriesOfTheOthers() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("plugin.index");
+    Path kept = zip("kept.jar", "one");
+    Path changed = zip("changed.jar", "two");
+    List<Path> jars = Arrays.asList(kept, changed);
+    PluginIndex index = PluginIndex.open(file, jars);
+    index.putServices("com.tc.Service", Arrays.asList(
+        new ServiceEntry("com.tc.Kept", location(kept), new String[0]),
+        new ServiceEntry("com.tc.Changed", location(changed), new String[0])));
+    index.isolated(location(kept), "com.tc.Kept");
+    index.isolated(location(changed), "com.tc.Changed");
+    index.store();
+
+    zip("changed.jar", "three");
+    PluginIndex read = PluginIndex.open(file, jars);
+    // the changed jar is scanned again, what the other jar isolated is still known
+    assertNull(read.getServices("com.tc.Service"));
+    assertTrue(read.isIsolated(location(kept), "com.tc.Kept"));
+    assertFalse(read.isIsolated(location(changed), "com.tc.Changed"));
+    read.putServices("com.tc.Service", Arrays.asList(
+        new ServiceEntry("com.tc.Kept", location(kept), new String[0]),
+        new ServiceEntry("com.tc.Replaced", location(changed), new String[0])));
+    read.store();
+    List<ServiceEntry> services = PluginIndex.open(file, jars).getServices("com.tc.Service");
+    assertEquals(2, services.size());
+    assertEquals("com.tc.Replaced", services.get(1).getClassName());
+  }
+
+  @Test
+  public void testJarReplacedInPlaceDiscardsIndex() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("plugin.index");
+    Path jar = zip("plugin.jar", "one");
+    long size = Files.size(jar);
+    FileTime modified = Files.getLastModifiedTime(jar);
+    PluginIndex index = PluginIndex.open(file, Collections.singletonList(jar));
+    index.putServices("com.tc.Service", Collections.emptyList());
+    index.store();
+
+    // same size and modification time, different contents
+    zip("plugin.jar", "two");
+    Files.setLastModifiedTime(jar, modified);
+    assertEquals(size, Files.size(jar));
+    assertNull(PluginIndex.open(file, Collections.singletonList(jar)).getServices("com.tc.Service"));
+  }
+
+  @Test
+  public void testServicesFromOutsideTheJarsAreNotIndexed() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("plugin.index");
+    PluginIndex index = PluginIndex.open(file, Collections.singletonList(zip("plugin.jar", "one")));
+    index.putServices("com.tc.Service", Collections.singletonList(
+        new ServiceEntry("com.tc.First", "file:/classes/", new String[0])));
+    assertNull(index.getServices("com.tc.Service"));
+  }
+
+  @Test
+  public void testComponentLoaderRecordsIsolatedClasses() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("plugin.index");
+    PluginIndex index = PluginIndex.open(file, Collections.emptyList());
+    URL[] classes = new URL[] {new File(System.getProperty("testClassesDir")).toURI().toURL()};
+    CommonComponentChecker checker = c->c.getName().endsWith("CommonComponentClass");
+    StrictURLClassLoader strict = new StrictURLClassLoader(classes, null, checker);
+    ClassLoader loader = new ComponentURLClassLoader(classes, strict, checker, index, "component");
+    assertEquals(strict, loader.loadClass("com.tc.classloader.CommonComponentClass").getClassLoader());
+    assertEquals(loader, loader.loadClass("com.tc.classloader.SpecificComponentClass").getClassLoader());
+    assertFalse(index.isIsolated("component", "com.tc.classloader.CommonComponentClass"));
+    assertTrue(index.isIsolated("component", "com.tc.classloader.SpecificComponentClass"));
+
+    // a loader using the index defines the isolated class itself
+    ClassLoader indexed = new ComponentURLClassLoader(classes, new StrictURLClassLoader(classes, null, checker), checker, index, "component");
+    assertEquals(indexed, indexed.loadClass("com.tc.classloader.SpecificComponentClass").getClassLoader());
+  }
+
+  private Path zip(String name, String content) throws Exception {
+    Path jar = folder.getRoot().toPath().resolve(name);
+    byte[] bytes = content.getBytes();
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+      ZipEntry entry = new ZipEntry("content");
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(bytes.length);
+      entry.setCrc(crc.getValue());
+      entry.setTime(0);
+      out.putNextEntry(entry);
+      out.write(bytes);
+      out.closeEntry();
+    }
+    return jar;
+  }
+
+  private static String location(Path jar) throws Exception {
+    return jar.toUri().toURL().toExternalForm();
+  }
+
+  private Path jar(String name, String content) throws Exception {
+    Path jar = folder.getRoot().toPath().resolve(name);
+    Files.write(jar, content.getBytes());
+    return jar;
+  }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ package com.tc.classloader;
 import static com.tc.server.Directories.TC_INSTALL_ROOT_PROPERTY_NAME;
 
 import com.tc.util.Assert;
+import com.tc.util.ManagedServiceLoader.ServiceEntry;
 import com.tc.util.ZipBuilder;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -30,6 +31,7 @@ import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.junit.After;
@@ -207,6 +209,25 @@ public class ServiceLocatorTest {
      }
    }
    
+   @Test
+   public void testServicesReadFromIndex() throws Exception {
+     // no service file, the implementation is only named in the index
+     File jar = writeZip(new File(folder.newFolder(), "plugin.jar"), "com.tc.classloader.TestInterfaceImpl", "com.tc.classloader.TestInterface");
+     PluginIndex index = PluginIndex.open(folder.getRoot().toPath().resolve("plugin.index"), Collections.singletonList(jar.toPath()));
+     index.putServices("com.tc.classloader.TestInterface", Collections.singletonList(
+         new ServiceEntry("com.tc.classloader.TestInterfaceImpl", jar.toURI().toURL().toExternalForm(), new String[0])));
+
+     ServiceLocator locator = new ServiceLocator(new URLClassLoader(new URL[] {jar.toURI().toURL()}), false, index);
+     Collection<Class<?>> map = locator.testingCheckUrls("com.tc.classloader.TestInterface");
+     Assert.assertEquals(1, map.size());
+     Assert.assertEquals("com.tc.classloader.TestInterfaceImpl", map.iterator().next().getName());
+
+     // an interface missing from the index is scanned for and added
+     Assert.assertNull(index.getServices("java.lang.Runnable"));
+     Assert.assertTrue(locator.testingCheckUrls("java.lang.Runnable").isEmpty());
+     Assert.assertNotNull(index.getServices("java.lang.Runnable"));
+   }
+
    private File writeZip(File api, String...classes) throws IOException {
      ZipBuilder builder = new ZipBuilder(api, true);
      for (String className : classes) {
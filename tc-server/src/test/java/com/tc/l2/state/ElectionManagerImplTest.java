@@ -0,0 +1,156 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.l2.state;
+
+import com.tc.async.api.EventHandlerException;
+import com.tc.l2.ha.WeightGeneratorFactory;
+import com.tc.l2.msg.L2StateMessage;
+import com.tc.net.NodeID;
+import com.tc.net.ServerID;
+import com.tc.net.groups.GroupManager;
+import com.tc.net.groups.GroupResponse;
+import com.tc.util.State;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ElectionManagerImplTest {
+
+  private static final int LONG_ELECTION = 30;
+  private static final int SHORT_ELECTION = 1;
+
+  private final ServerID local = new ServerID("local", "local".getBytes());
+  private final WeightGeneratorFactory weights = winningWeights();
+  private GroupManager<L2StateMessage> group;
+  private ElectionManagerImpl manager;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    group = mock(GroupManager.class);
+    when(group.getLocalNodeID()).thenReturn(local);
+    when(group.sendToAndWaitForResponse(anySet(), any())).thenReturn(new GroupResponse<L2StateMessage>() {
+      @Override
+      public List<L2StateMessage> getResponses() {
+        return Collections.emptyList();
+      }
+
+      @Override
+      public L2StateMessage getResponse(NodeID nodeID) {
+        return null;
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    if (manager != null) {
+      manager.shutdown();
+    }
+  }
+
+  @Test
+  public void testFailoverEndsOnceConnectedServersVote() throws Exception {
+    when(group.isServerConnected("b")).thenReturn(true);
+    manager = new ElectionManagerImpl(group, LONG_ELECTION, true, 0);
+    CompletableFuture<NodeID> winner = elect(servers("local", "b", "c"), StateManager.PASSIVE_STANDBY);
+    vote("b", StateManager.PASSIVE_STANDBY);
+    assertEquals(local, winner.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testStartupWaitsForEveryConfiguredServer() throws Exception {
+    when(group.isServerConnected("b")).thenReturn(true);
+    manager = new ElectionManagerImpl(group, SHORT_ELECTION, true, 2);
+    long start = System.nanoTime();
+    CompletableFuture<NodeID> winner = elect(servers("local", "b", "c"), StateManager.START_STATE);
+    vote("b", StateManager.START_STATE);
+    assertEquals(local, winner.get(10, TimeUnit.SECONDS));
+    assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) >= SHORT_ELECTION);
+  }
+
+  @Test
+  public void testQuorumIsNeverLessThanAMajority() throws Exception {
+    manager = new ElectionManagerImpl(group, LONG_ELECTION, false, 2);
+    CompletableFuture<NodeID> winner = elect(servers("local", "b", "c", "d", "e"), StateManager.PASSIVE_STANDBY);
+    vote("b", StateManager.PASSIVE_STANDBY);
+    Thread.sleep(500);
+    assertFalse(winner.isDone());
+    vote("c", StateManager.PASSIVE_STANDBY);
+    assertEquals(local, winner.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testEarlyCompletionNeedsAMajority() throws Exception {
+    // the other two servers are gone, this one alone may not elect itself before the timeout
+    manager = new ElectionManagerImpl(group, SHORT_ELECTION, true, 0);
+    long start = System.nanoTime();
+    CompletableFuture<NodeID> winner = elect(servers("local", "b", "c"), StateManager.PASSIVE_STANDBY);
+    assertEquals(local, winner.get(10, TimeUnit.SECONDS));
+    assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) >= SHORT_ELECTION);
+  }
+
+  private CompletableFuture<NodeID> elect(Set<String> servers, State state) {
+    CompletableFuture<NodeID> winner = new CompletableFuture<>();
+    ElectionContext context = new ElectionContext(local, servers, false, weights, state, winner::complete);
+    Thread election = new Thread(()->{
+      try {
+        manager.getEventHandler().handleEvent(context);
+      } catch (EventHandlerException e) {
+        winner.completeExceptionally(e);
+      }
+    }, "election");
+    election.setDaemon(true);
+    election.start();
+    return winner;
+  }
+
+  private void vote(String server, State state) throws InterruptedException {
+    Enrollment enrollment = new Enrollment(new ServerID(server, server.getBytes()), false, new long[] {0});
+    L2StateMessage msg = L2StateMessage.createElectionStartedMessage(enrollment, state);
+    // votes are only taken once the election is running
+    while (!manager.handleStartElectionRequest(msg, state)) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static Set<String> servers(String... names) {
+    return new HashSet<>(Arrays.asList(names));
+  }
+
+  private static WeightGeneratorFactory winningWeights() {
+    WeightGeneratorFactory factory = new WeightGeneratorFactory();
+    factory.add(()->Long.MAX_VALUE);
+    return factory.complete();
+  }
+}
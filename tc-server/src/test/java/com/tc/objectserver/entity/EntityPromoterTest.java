@@ -0,0 +1,92 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.entity;
+
+import com.tc.object.EntityID;
+import com.tc.objectserver.api.ManagedEntity;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EntityPromoterTest {
+
+  @Test
+  public void testSameTypeIsPromotedTogether() throws Exception {
+    CountDownLatch together = new CountDownLatch(3);
+    AtomicInteger promoted = new AtomicInteger();
+    Runnable[] reconnects = new Runnable[4];
+    ManagedEntity[] entities = new ManagedEntity[4];
+    for (int x = 0; x < 3; x++) {
+      Runnable reconnect = reconnects[x] = ()->{};
+      entities[x] = entity("A", "a" + x, (i)->{
+        together.countDown();
+        // only completes if the others are promoted at the same time
+        assertTrue(together.await(10, TimeUnit.SECONDS));
+        promoted.incrementAndGet();
+        return reconnect;
+      });
+    }
+    int[] seen = new int[1];
+    entities[3] = entity("B", "b", (i)->{
+      seen[0] = promoted.get();
+      return null;
+    });
+
+    List<Runnable> result = new EntityPromoter(3).promote(Arrays.asList(entities));
+    assertEquals(4, result.size());
+    for (int x = 0; x < 4; x++) {
+      assertSame(reconnects[x], result.get(x));
+    }
+    // the next type waits for the run before it
+    assertEquals(3, seen[0]);
+  }
+
+  @Test
+  public void testOneThreadPromotesInOrderOnCaller() throws Exception {
+    Thread caller = Thread.currentThread();
+    StringBuilder order = new StringBuilder();
+    ManagedEntity[] entities = new ManagedEntity[3];
+    for (int x = 0; x < 3; x++) {
+      String name = Integer.toString(x);
+      entities[x] = entity("A", name, (i)->{
+        assertSame(caller, Thread.currentThread());
+        order.append(name);
+        return null;
+      });
+    }
+    new EntityPromoter(1).promote(Arrays.asList(entities));
+    assertEquals("012", order.toString());
+  }
+
+  private static ManagedEntity entity(String type, String name, Answer<Runnable> promotion) throws Exception {
+    ManagedEntity entity = mock(ManagedEntity.class);
+    when(entity.getID()).thenReturn(new EntityID(type, name));
+    when(entity.promoteEntity()).then(promotion);
+    return entity;
+  }
+}
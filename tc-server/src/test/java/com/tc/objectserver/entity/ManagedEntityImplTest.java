@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -852,7 +852,7 @@ public class ManagedEntityImplTest {
       verify(activeServerEntity).prepareKeyForSynchronizeOnPassive(any(), eq(1));
       return null;
     }).when(activeServerEntity).synchronizeKeyToPassive(any(), eq(1));
-    managedEntity.sync(new SessionID(1L));
+    managedEntity.sync(new SessionID(1L), new PassiveSyncWindow(0));
   }
   
   @Test
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -23,6 +23,12 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import com.tc.bytes.TCByteBufferFactory;
+import java.io.DataOutput;
+import java.nio.ByteBuffer;
+import org.terracotta.entity.ByteBufferMessageCodec;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.MessageCodecException;
 
 /**
@@ -62,4 +68,48 @@ public class MessagePayloadTest {
             // expected
         }
     }
+
+    @Test
+    public void testByteBufferCodecDecodesFromView() throws Exception {
+        MessagePayload payload = MessagePayload.rawDataOnly(TCByteBufferFactory.wrap(new byte[] {1, 2, 3, 4}));
+        ByteBuffer[] seen = new ByteBuffer[1];
+        ByteBufferMessageCodec<EntityMessage, EntityResponse> codec = new ByteBufferMessageCodec<EntityMessage, EntityResponse>() {
+            @Override
+            public EntityMessage decodeMessage(ByteBuffer raw) {
+                seen[0] = raw;
+                int sum = 0;
+                while (raw.hasRemaining()) {
+                    sum += raw.get();
+                }
+                int result = sum;
+                return new EntityMessage() {
+                    @Override
+                    public String toString() {
+                        return Integer.toString(result);
+                    }
+                };
+            }
+
+            @Override
+            public void encodeMessage(EntityMessage message, DataOutput out) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void encodeResponse(EntityResponse response, DataOutput out) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public EntityResponse decodeResponse(ByteBuffer payload) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        assertEquals("10", payload.decodeMessage(codec).toString());
+        assertTrue(seen[0].isReadOnly());
+        // the payload is untouched by the codec reading the view
+        assertEquals(4, payload.getRawPayload().length);
+        // decoded once
+        assertSame(payload.decodeMessage(codec), payload.decodeMessage(codec));
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.entity;
+
+import com.tc.object.session.SessionID;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class PassiveSyncWindowTest {
+  private static final SessionID PASSIVE = new SessionID(1L);
+
+  @Test
+  public void testAddWithinWindowDoesNotWait() throws Exception {
+    PassiveSyncWindow window = new PassiveSyncWindow(2);
+    window.addCompleted(pending());
+    window.addReceived(pending());
+    assertEquals(2, window.size());
+  }
+
+  @Test
+  public void testFullWindowWaitsOnOldest() throws Exception {
+    PassiveSyncWindow window = new PassiveSyncWindow(1);
+    ActivePassiveAckWaiter oldest = pending();
+    window.addCompleted(oldest);
+    CountDownLatch added = new CountDownLatch(1);
+    Thread adder = new Thread(()->{
+      window.addCompleted(pending());
+      added.countDown();
+    });
+    adder.start();
+    assertFalse(added.await(200, TimeUnit.MILLISECONDS));
+    oldest.failedToSendToPassive(PASSIVE);
+    assertTrue(added.await(10, TimeUnit.SECONDS));
+    adder.join();
+    assertEquals(1, window.size());
+  }
+
+  @Test
+  public void testDrain() throws Exception {
+    PassiveSyncWindow window = new PassiveSyncWindow(8);
+    ActivePassiveAckWaiter first = pending();
+    ActivePassiveAckWaiter second = pending();
+    window.addCompleted(first);
+    window.addCompleted(second);
+    first.failedToSendToPassive(PASSIVE);
+    second.failedToSendToPassive(PASSIVE);
+    window.drain();
+    assertEquals(0, window.size());
+  }
+
+  private static ActivePassiveAckWaiter pending() {
+    return new ActivePassiveAckWaiter(Collections.emptyMap(), Collections.singleton(PASSIVE), null);
+  }
+}
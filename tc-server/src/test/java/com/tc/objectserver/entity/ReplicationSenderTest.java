@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import com.tc.io.TCByteBufferInputStream;
 import com.tc.io.TCByteBufferOutput;
 import com.tc.io.TCByteBufferOutputStream;
 import com.tc.l2.msg.ReplicationMessage;
+import com.tc.l2.msg.ReplicationMessageAck;
 import com.tc.l2.msg.SyncReplicationActivity;
 import com.tc.net.ClientID;
 import com.tc.net.NodeID;
@@ -40,6 +41,7 @@ import com.tc.util.Assert;
 import com.tc.util.concurrent.SetOnceFlag;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -310,6 +312,104 @@ public class ReplicationSenderTest {
     validateCollector(validation);
   }
   
+  @Test
+  public void filterInterleavedSync() throws Exception {
+    entity = new EntityID("TEST", "test");
+    FetchID other = new FetchID(2L);
+    List<SyncReplicationActivity> origin = new LinkedList<>();
+    List<SyncReplicationActivity> validation = new LinkedList<>();
+    buildTest(origin, validation, SyncReplicationActivity.createStartMessage(), true);
+    buildTest(origin, validation, makeMessage(SyncReplicationActivity.ActivityType.SYNC_BEGIN), false);
+    buildTest(origin, validation, SyncReplicationActivity.createStartEntityMessage(entity, 1, fetch, TCByteBufferFactory.wrap(new byte[0]), 0), false);
+    buildTest(origin, validation, SyncReplicationActivity.createStartEntityMessage(entity, 1, other, TCByteBufferFactory.wrap(new byte[0]), 0), false);
+    buildTest(origin, validation, SyncReplicationActivity.createStartEntityKeyMessage(entity, 1, fetch, 1), false);
+    buildTest(origin, validation, SyncReplicationActivity.createStartEntityKeyMessage(entity, 1, fetch, 2), false);
+    buildTest(origin, validation, SyncReplicationActivity.createStartEntityKeyMessage(entity, 1, other, 1), false);
+    // the passive applies invokes on a syncing key once the key is synced
+    buildTest(origin, validation, makeInvoke(fetch, 1), false);
+    // keys that have not started syncing are captured by the sync
+    buildTest(origin, validation, makeInvoke(fetch, 3), true);
+    buildTest(origin, validation, SyncReplicationActivity.createPayloadMessage(entity, 1, fetch, 2, TCByteBufferFactory.wrap(new byte[0]), ""), false);
+    buildTest(origin, validation, SyncReplicationActivity.createPayloadMessage(entity, 1, other, 1, TCByteBufferFactory.wrap(new byte[0]), ""), false);
+    buildTest(origin, validation, SyncReplicationActivity.createEndEntityKeyMessage(entity, 1, fetch, 1), false);
+    buildTest(origin, validation, makeInvoke(fetch, 1), false);
+    buildTest(origin, validation, makeInvoke(other, 2), true);
+    buildTest(origin, validation, SyncReplicationActivity.createEndEntityKeyMessage(entity, 1, other, 1), false);
+    buildTest(origin, validation, SyncReplicationActivity.createEndEntityMessage(entity, 1, other), false);
+    buildTest(origin, validation, makeInvoke(other, 2), false);
+    buildTest(origin, validation, makeInvoke(fetch, 3), true);
+    buildTest(origin, validation, SyncReplicationActivity.createEndEntityKeyMessage(entity, 1, fetch, 2), false);
+    buildTest(origin, validation, SyncReplicationActivity.createEndEntityMessage(entity, 1, fetch), false);
+    buildTest(origin, validation, makeMessage(SyncReplicationActivity.ActivityType.SYNC_END), false);
+
+    origin.stream().forEach(msg-> {
+      testSender.replicateMessage(new SessionID(1L), msg, null);
+      });
+
+    validateCollector(validation);
+  }
+
+  @Test
+  public void cumulativeAcksResolveInSendOrder() throws Exception {
+    SessionID passive = new SessionID(1L);
+    SyncReplicationActivity start = SyncReplicationActivity.createStartMessage(ReplicationMessageAck.SYNC_CUMULATIVE);
+    List<SyncReplicationActivity.ActivityID> sent = new ArrayList<>();
+    testSender.addPassive(node, passive, 1, start);
+    sent.add(start.getActivityID());
+    for (int x = 0; x < 4; x++) {
+      SyncReplicationActivity invoke = makeInvoke(fetch, 1);
+      testSender.replicateMessage(passive, invoke, null);
+      sent.add(invoke.getActivityID());
+    }
+    Assert.assertEquals(5, testSender.unresolvedSendOrder(passive));
+
+    List<SyncReplicationActivity.ActivityID> received = new ArrayList<>();
+    testSender.receivedThrough(passive, 3, sent.get(2), received::add);
+    Assert.assertEquals(sent.subList(0, 3), received);
+    testSender.receivedThrough(passive, 2, sent.get(4), received::add);
+    Assert.assertEquals(sent, received);
+
+    List<SyncReplicationActivity.ActivityID> completed = new ArrayList<>();
+    testSender.completedThrough(passive, 5, sent.get(4), completed::add);
+    Assert.assertEquals(sent, completed);
+    Assert.assertEquals(0, testSender.unresolvedSendOrder(passive));
+  }
+
+  @Test
+  public void perActivityAcksWhenCumulativeNotAccepted() throws Exception {
+    SessionID passive = new SessionID(1L);
+    testSender.addPassive(node, passive, 1, SyncReplicationActivity.createStartMessage());
+    SyncReplicationActivity invoke = makeInvoke(fetch, 1);
+    testSender.replicateMessage(passive, invoke, null);
+    // the send order is not recorded so a watermark can not be resolved
+    Assert.assertEquals(0, testSender.unresolvedSendOrder(passive));
+    boolean resolved;
+    try {
+      testSender.completedThrough(passive, 1, invoke.getActivityID(), id->{});
+      resolved = true;
+    } catch (AssertionError expected) {
+      resolved = false;
+    }
+    Assert.assertFalse("watermark resolved without cumulative acks accepted", resolved);
+  }
+
+  @Test
+  public void perActivityAcksDropTheSendOrder() throws Exception {
+    SessionID passive = new SessionID(1L);
+    testSender.addPassive(node, passive, 1, SyncReplicationActivity.createStartMessage(ReplicationMessageAck.SYNC_CUMULATIVE));
+    testSender.replicateMessage(passive, makeInvoke(fetch, 1), null);
+    Assert.assertEquals(2, testSender.unresolvedSendOrder(passive));
+    // the passive outgrew its tracking and acks each activity from now on
+    testSender.perActivityAcks(passive);
+    Assert.assertEquals(0, testSender.unresolvedSendOrder(passive));
+    testSender.replicateMessage(passive, makeInvoke(fetch, 1), null);
+    Assert.assertEquals(0, testSender.unresolvedSendOrder(passive));
+  }
+
+  private SyncReplicationActivity makeInvoke(FetchID target, int key) {
+    return SyncReplicationActivity.createInvokeMessage(target, new ClientID(1), new ClientInstanceID(1), TransactionID.NULL_ID, TransactionID.NULL_ID, SyncReplicationActivity.ActivityType.INVOKE_ACTION, TCByteBufferFactory.wrap(new byte[0]), key, "");
+  }
+
   private void validateCollector(Collection<SyncReplicationActivity> valid) {
     Iterator<SyncReplicationActivity> next = valid.iterator();
     collector.stream().forEach(msg->{
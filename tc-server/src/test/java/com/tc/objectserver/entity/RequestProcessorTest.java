@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -17,14 +17,20 @@
  */
 package com.tc.objectserver.entity;
 
+import com.tc.async.api.DirectExecutionMode;
+import com.tc.async.api.EventHandler;
 import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.async.api.Sink;
 import com.tc.async.api.Stage;
 import com.tc.async.api.StageManager;
+import com.tc.async.impl.ConfigurationContextImpl;
+import com.tc.async.impl.StageManagerImpl;
 import com.tc.bytes.TCByteBuffer;
 import com.tc.bytes.TCByteBufferFactory;
+import com.tc.l2.msg.SyncReplicationActivity;
 import com.tc.net.ClientID;
 import com.tc.net.NodeID;
+import com.tc.object.ClientInstanceID;
 import com.tc.object.EntityID;
 import com.tc.object.FetchID;
 import com.tc.object.session.SessionID;
@@ -35,9 +41,19 @@ import com.tc.objectserver.api.ServerEntityRequest;
 import com.tc.objectserver.entity.RequestProcessor.EntityRequest;
 import com.tc.properties.TCPropertiesConsts;
 import com.tc.properties.TCPropertiesImpl;
+import com.tc.util.concurrent.QueueFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -227,6 +243,161 @@ public class RequestProcessorTest {
 //    verify(broker).replicateMessage(Matchers.any(), Matchers.any(), Matchers.any(), Matchers.any(), Matchers.any(), Matchers.any(),Matchers.any(), Matchers.any());
   }
   
+  /**
+   * Many threads schedule to the same entities and keys so they contend on scheduling stripes and executor lanes.
+   * For every concurrency key, replication order must match execution order and each thread's requests must run
+   * in the order that thread scheduled them.
+   */
+  @Test
+  public void testPerKeyOrderingUnderContention() throws Exception {
+    int threads = 8;
+    int entities = 32;
+    int keys = 4;
+    int perThread = 5000;
+    Map<String, List<Long>> replicated = new ConcurrentHashMap<>();
+    Map<String, List<Long>> executed = new ConcurrentHashMap<>();
+    CountDownLatch complete = new CountDownLatch(threads * perThread);
+    SessionID passive = new SessionID(1);
+    PassiveReplicationBroker broker = new PassiveReplicationBroker() {
+      @Override
+      public ActivePassiveAckWaiter replicateActivity(SyncReplicationActivity activity, Set<SessionID> passives) {
+        record(replicated, activity.getFetchID().toLong(), activity.getConcurrency(), activity.getTransactionID().toLong());
+        return NoReplicationBroker.NOOP_WAITER;
+      }
+
+      @Override
+      public void zapAndWait(NodeID node) {
+      }
+
+      @Override
+      public Set<SessionID> passives() {
+        return Collections.singleton(passive);
+      }
+    };
+
+    StageManagerImpl stageManager = new StageManagerImpl(new ThreadGroup("ordering"), new QueueFactory());
+    Stage<EntityRequest> stage = stageManager.createStage("ordering", EntityRequest.class, EventHandler.consumer(EntityRequest::run), 8, 1024, true, false);
+    stageManager.startAll(new ConfigurationContextImpl("ordering", stageManager), Collections.emptyList());
+    RequestProcessor instance = new RequestProcessor(stage.getSink());
+    instance.setReplication(broker);
+    instance.enterActiveState();
+    Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+    AtomicInteger overlaps = new AtomicInteger();
+
+    List<Thread> schedulers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int owner = t;
+      Thread scheduler = new Thread(()->{
+        // the first scheduler runs requests itself whenever their lane is idle, racing the
+        // others for the same keys against the lane workers
+        DirectExecutionMode.activate(owner == 0);
+        Random r = new Random(owner);
+        for (int x = 0; x < perThread; x++) {
+          int entity = r.nextInt(entities);
+          // key zero is the management key, which flushes every lane
+          int key = (x % 50 == 0) ? ConcurrencyStrategy.MANAGEMENT_KEY : 1 + r.nextInt(keys);
+          long tid = ((long)owner << 32) | x;
+          ServerEntityRequest request = new ServerEntityRequestImpl(ClientInstanceID.NULL_ID, ServerEntityAction.INVOKE_ACTION,
+              new ClientID(1), new TransactionID(tid), TransactionID.NULL_ID, true);
+          instance.scheduleRequest(false, new EntityID("OrderedEntity", Integer.toString(entity)), 1L, new FetchID(entity), request,
+              MessagePayload.emptyPayload(), (w)->{
+                AtomicInteger active = running.computeIfAbsent(entity + ":" + key, k->new AtomicInteger());
+                if (active.incrementAndGet() != 1) {
+                  overlaps.incrementAndGet();
+                }
+                record(executed, entity, key, tid);
+                active.decrementAndGet();
+                complete.countDown();
+              }, true, key);
+        }
+        DirectExecutionMode.activate(false);
+      });
+      schedulers.add(scheduler);
+      scheduler.start();
+    }
+    for (Thread scheduler : schedulers) {
+      scheduler.join();
+    }
+    Assert.assertTrue(complete.await(60, TimeUnit.SECONDS));
+    stageManager.stopAll();
+
+    Assert.assertEquals(0, overlaps.get());
+    Assert.assertEquals(executed.keySet(), replicated.keySet());
+    for (Map.Entry<String, List<Long>> e : executed.entrySet()) {
+      List<Long> order = e.getValue();
+      Assert.assertEquals(e.getKey(), order, replicated.get(e.getKey()));
+      long[] last = new long[threads];
+      Arrays.fill(last, -1L);
+      for (long tid : order) {
+        int owner = (int)(tid >>> 32);
+        Assert.assertTrue(e.getKey(), (tid & 0xffffffffL) > last[owner]);
+        last[owner] = tid & 0xffffffffL;
+      }
+    }
+  }
+
+  @Test
+  public void testDirectRunHoldsNoStripe() throws Exception {
+    StageManagerImpl stageManager = new StageManagerImpl(new ThreadGroup("direct"), new QueueFactory());
+    Stage<EntityRequest> stage = stageManager.createStage("direct", EntityRequest.class, EventHandler.consumer(EntityRequest::run), 4, 1024, true, false);
+    stageManager.startAll(new ConfigurationContextImpl("direct", stageManager), Collections.emptyList());
+    RequestProcessor instance = new RequestProcessor(stage.getSink());
+    EntityID eid = new EntityID("DirectEntity", "a");
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch inline = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(3);
+
+    Thread direct = new Thread(()->{
+      DirectExecutionMode.activate(true);
+      instance.scheduleRequest(false, eid, 1L, new FetchID(1), request(), MessagePayload.emptyPayload(), (w)->{
+        executed.add("direct:" + Thread.currentThread().getName());
+        inline.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException ie) {
+          throw new AssertionError(ie);
+        }
+        done.countDown();
+      }, true, 1);
+      DirectExecutionMode.activate(false);
+    }, "scheduler");
+    direct.start();
+    Assert.assertTrue(inline.await(10, TimeUnit.SECONDS));
+
+    // the inline run holds its lane but not the stripe, the same key and a flush can still be scheduled
+    Thread other = new Thread(()->{
+      instance.scheduleRequest(false, eid, 1L, new FetchID(1), request(), MessagePayload.emptyPayload(), (w)->{
+        executed.add("queued");
+        done.countDown();
+      }, true, 1);
+      instance.scheduleRequest(false, eid, 1L, new FetchID(1), request(), MessagePayload.emptyPayload(), (w)->{
+        executed.add("flush");
+        done.countDown();
+      }, true, ConcurrencyStrategy.MANAGEMENT_KEY);
+    });
+    other.start();
+    other.join(10000);
+    Assert.assertFalse(other.isAlive());
+    // and the request queued behind the inline run waits for it
+    Thread.sleep(100);
+    Assert.assertEquals(Collections.singletonList("direct:scheduler"), executed);
+
+    release.countDown();
+    Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    direct.join();
+    stageManager.stopAll();
+    Assert.assertEquals(Arrays.asList("direct:scheduler", "queued", "flush"), executed);
+  }
+
+  private static ServerEntityRequest request() {
+    return new ServerEntityRequestImpl(ClientInstanceID.NULL_ID, ServerEntityAction.INVOKE_ACTION, new ClientID(1), new TransactionID(1), TransactionID.NULL_ID, true);
+  }
+
+  private static void record(Map<String, List<Long>> order, long entity, int key, long tid) {
+    order.computeIfAbsent(entity + ":" + key, k->Collections.synchronizedList(new ArrayList<>())).add(tid);
+  }
+
   private static byte[] intToArray(int val) {
     byte[] four = new byte[4];
     for (int x=0;x<four.length;x++) {
@@ -0,0 +1,150 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.handler;
+
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.entity.VoltronEntityMessage;
+import com.tc.net.ClientID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClientCreditsTest {
+
+  private final List<VoltronEntityMessage> forwarded = new ArrayList<>();
+  private final List<VoltronEntityMessage> released = new ArrayList<>();
+
+  @Test
+  public void testDisabledAdmitsEverything() {
+    ClientCredits credits = new ClientCredits(0, 0);
+    for (int x = 0; x < 100; x++) {
+      assertTrue(credits.admit(invoke(1, 10), forwarded::add));
+    }
+    assertEquals(100, forwarded.size());
+    assertTrue(credits.getClientMetrics().isEmpty());
+  }
+
+  @Test
+  public void testOnlyTheOverdrawnClientIsHeld() throws Exception {
+    ClientCredits credits = credits(2, 0);
+    ClientID flooding = new ClientID(1);
+    VoltronEntityMessage third = invoke(1, 10);
+    assertTrue(credits.admit(invoke(1, 10), forwarded::add));
+    assertTrue(credits.admit(invoke(1, 10), forwarded::add));
+    assertFalse(credits.admit(third, forwarded::add));
+    assertTrue(credits.admit(invoke(2, 10), forwarded::add));
+    assertEquals(1, credits.getOverdrawnCount());
+    assertEquals(3, forwarded.size());
+
+    // the retire sends the held invoke back around the fast path with its credit taken
+    credits.retiring(flooding, 10).retired().toCompletableFuture().get();
+    assertEquals(1, released.size());
+    assertSame(third, released.get(0));
+    assertTrue(credits.admit(third, forwarded::add));
+    assertSame(third, forwarded.get(3));
+
+    Map<String, Long> metrics = credits.getClientMetrics().get(flooding.toString());
+    assertEquals(2L, (long)metrics.get("outstanding"));
+    assertEquals(20L, (long)metrics.get("outstandingBytes"));
+    assertEquals(2L, (long)metrics.get("maxOutstanding"));
+    assertEquals(3L, (long)metrics.get("admitted"));
+    assertEquals(1L, (long)metrics.get("overdrawn"));
+    assertEquals(0L, (long)metrics.get("held"));
+  }
+
+  @Test
+  public void testBytesAreAccounted() {
+    ClientCredits credits = credits(10, 100);
+    ClientID client = new ClientID(1);
+    assertTrue(credits.admit(invoke(1, 60), forwarded::add));
+    assertFalse(credits.admit(invoke(1, 60), forwarded::add));
+    assertEquals(1, forwarded.size());
+    credits.retire(client, 60);
+    assertEquals(1, released.size());
+    // a single invoke over the byte grant still goes once nothing else is outstanding
+    credits.admit(released.get(0), forwarded::add);
+    credits.retire(client, 60);
+    assertTrue(credits.admit(invoke(1, 500), forwarded::add));
+    assertEquals(3, forwarded.size());
+  }
+
+  @Test
+  public void testLaterMessagesKeepTheirPlace() {
+    ClientCredits credits = credits(1, 0);
+    ClientID client = new ClientID(1);
+    VoltronEntityMessage held = invoke(1, 10);
+    VoltronEntityMessage disconnect = message(1, VoltronEntityMessage.Type.DISCONNECT_CLIENT, false, 0);
+    assertTrue(credits.admit(invoke(1, 10), forwarded::add));
+    assertFalse(credits.admit(held, forwarded::add));
+    assertTrue(credits.admit(disconnect, forwarded::add));
+    assertEquals(1, forwarded.size());
+
+    credits.remove(client);
+    assertSame(held, released.get(0));
+    credits.admit(held, forwarded::add);
+    assertEquals(3, forwarded.size());
+    assertSame(held, forwarded.get(1));
+    assertSame(disconnect, forwarded.get(2));
+    assertTrue(credits.getClientMetrics().isEmpty());
+  }
+
+  @Test
+  public void testAdmitAndRetireCountTheSameMessages() {
+    assertEquals(10L, ClientCredits.creditSize(invoke(1, 10)));
+    assertEquals(-1L, ClientCredits.creditSize(message(1, VoltronEntityMessage.Type.INVOKE_ACTION, false, 10)));
+    assertEquals(-1L, ClientCredits.creditSize(message(1, VoltronEntityMessage.Type.FETCH_ENTITY, true, 10)));
+
+    ClientCredits credits = credits(1, 0);
+    ClientID client = new ClientID(1);
+    assertTrue(credits.admit(invoke(1, 10), forwarded::add));
+    credits.retiring(client, -1L).retired();
+    credits.retire(client, 10);
+    credits.retire(client, 10);
+    assertTrue(credits.admit(invoke(1, 10), forwarded::add));
+    assertFalse(credits.admit(invoke(1, 10), forwarded::add));
+    credits.remove(client);
+    assertEquals(1, released.size());
+  }
+
+  private ClientCredits credits(int messages, long bytes) {
+    ClientCredits credits = new ClientCredits(messages, bytes);
+    credits.setReleaseSink(released::add);
+    return credits;
+  }
+
+  private static VoltronEntityMessage invoke(long client, int size) {
+    return message(client, VoltronEntityMessage.Type.INVOKE_ACTION, true, size);
+  }
+
+  private static VoltronEntityMessage message(long client, VoltronEntityMessage.Type type, boolean clientRequest, int size) {
+    VoltronEntityMessage message = mock(VoltronEntityMessage.class);
+    when(message.getSource()).thenReturn(new ClientID(client));
+    when(message.getVoltronType()).thenReturn(type);
+    when(message.isClientRequest()).thenReturn(clientRequest);
+    when(message.getExtendedData()).thenReturn(TCByteBufferFactory.wrap(new byte[size]));
+    return message;
+  }
+}
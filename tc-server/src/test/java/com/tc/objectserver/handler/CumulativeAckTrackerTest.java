@@ -0,0 +1,104 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.handler;
+
+import com.tc.l2.msg.ReplicationAckTuple;
+import com.tc.l2.msg.ReplicationMessageAck;
+import com.tc.l2.msg.ReplicationResultCode;
+import com.tc.l2.msg.SyncReplicationActivity.ActivityID;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CumulativeAckTrackerTest {
+
+  @Test
+  public void testInOrderAcksCollapseToWatermarks() {
+    CumulativeAckTracker tracker = arrivals(1, 2, 3);
+    ReplicationMessageAck ack = message(
+        tuple(1, ReplicationResultCode.RECEIVED), tuple(2, ReplicationResultCode.RECEIVED), tuple(3, ReplicationResultCode.RECEIVED),
+        tuple(1, ReplicationResultCode.SUCCESS), tuple(2, ReplicationResultCode.SUCCESS));
+    tracker.compress(ack);
+    assertEquals(3, ack.getReceivedCount());
+    assertEquals(new ActivityID(3), ack.getReceivedThrough());
+    assertEquals(2, ack.getCompletedCount());
+    assertEquals(new ActivityID(2), ack.getCompletedThrough());
+    assertTrue(ack.getBatch().isEmpty());
+    assertEquals(1, tracker.size());
+
+    // 3 was already covered as received, only the completion moves
+    ack = message(tuple(3, ReplicationResultCode.SUCCESS));
+    tracker.compress(ack);
+    assertEquals(0, ack.getReceivedCount());
+    assertEquals(1, ack.getCompletedCount());
+    assertEquals(new ActivityID(3), ack.getCompletedThrough());
+    assertTrue(ack.getBatch().isEmpty());
+    assertEquals(0, tracker.size());
+  }
+
+  @Test
+  public void testOutOfOrderCompletionIsSentExplicitly() {
+    CumulativeAckTracker tracker = arrivals(1, 2);
+    ReplicationMessageAck ack = message(tuple(2, ReplicationResultCode.SUCCESS));
+    tracker.compress(ack);
+    assertEquals(0, ack.getReceivedCount());
+    assertEquals(0, ack.getCompletedCount());
+    assertEquals(1, ack.getBatch().size());
+    assertEquals(2L, ack.getBatch().get(0).respondTo.id);
+
+    ack = message(tuple(1, ReplicationResultCode.SUCCESS));
+    tracker.compress(ack);
+    assertEquals(2, ack.getReceivedCount());
+    assertEquals(new ActivityID(2), ack.getReceivedThrough());
+    assertEquals(2, ack.getCompletedCount());
+    assertEquals(new ActivityID(2), ack.getCompletedThrough());
+    assertTrue(ack.getBatch().isEmpty());
+  }
+
+  @Test
+  public void testFailuresAndUnknownAcksAreSentExplicitly() {
+    CumulativeAckTracker tracker = arrivals(1);
+    ReplicationMessageAck ack = message(tuple(1, ReplicationResultCode.FAIL), tuple(7, ReplicationResultCode.SUCCESS));
+    tracker.compress(ack);
+    assertEquals(1, ack.getCompletedCount());
+    assertEquals(2, ack.getBatch().size());
+    assertEquals(ReplicationResultCode.FAIL, ack.getBatch().get(0).result);
+    assertEquals(7L, ack.getBatch().get(1).respondTo.id);
+  }
+
+  private static CumulativeAckTracker arrivals(long... ids) {
+    CumulativeAckTracker tracker = new CumulativeAckTracker();
+    for (long id : ids) {
+      tracker.arrived(new ActivityID(id));
+    }
+    return tracker;
+  }
+
+  private static ReplicationMessageAck message(ReplicationAckTuple... tuples) {
+    ReplicationMessageAck ack = ReplicationMessageAck.createCumulativeAck();
+    for (ReplicationAckTuple tuple : tuples) {
+      ack.addToBatch(tuple);
+    }
+    return ack;
+  }
+
+  private static ReplicationAckTuple tuple(long id, ReplicationResultCode code) {
+    return new ReplicationAckTuple(new ActivityID(id), code);
+  }
+}
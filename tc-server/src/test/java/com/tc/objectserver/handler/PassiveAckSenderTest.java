@@ -36,6 +36,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
@@ -271,6 +273,66 @@ public class PassiveAckSenderTest {
     verify(groupManager, atLeastOnce()).sendToWithSentCallback(eq(active2), any(ReplicationMessageAck.class), any());
   }
 
+  @Test
+  public void testCumulativeAcksOnlyOnceAccepted() throws GroupException {
+    List<ReplicationMessageAck> sent = captureSent();
+    PassiveAckSender sender = new PassiveAckSender(groupManager, sendConfirm, sentToActive, true, 8192);
+
+    // the active did not accept cumulative acks in SYNC_START
+    SyncReplicationActivity start = SyncReplicationActivity.createStartMessage();
+    sender.activityArrived(activeServer, start);
+    sender.acknowledge(activeServer, start, ReplicationResultCode.SUCCESS);
+    assertEquals(1, sent.size());
+    assertEquals(ReplicationMessageAck.BATCH, sent.get(0).getType());
+
+    // a new SYNC_START that accepts them
+    start = SyncReplicationActivity.createStartMessage(ReplicationMessageAck.SYNC_CUMULATIVE);
+    sender.activityArrived(activeServer, start);
+    sender.acknowledge(activeServer, start, ReplicationResultCode.SUCCESS);
+    assertEquals(2, sent.size());
+    assertEquals(ReplicationMessageAck.CUMULATIVE, sent.get(1).getType());
+    assertEquals(1, sent.get(1).getCompletedCount());
+    assertEquals(start.getActivityID(), sent.get(1).getCompletedThrough());
+  }
+
+  @Test
+  public void testPerActivityAcksPastPendingCap() throws GroupException {
+    List<ReplicationMessageAck> sent = captureSent();
+    PassiveAckSender sender = new PassiveAckSender(groupManager, sendConfirm, sentToActive, true, 2);
+
+    SyncReplicationActivity start = SyncReplicationActivity.createStartMessage(ReplicationMessageAck.SYNC_CUMULATIVE);
+    sender.activityArrived(activeServer, start);
+    SyncReplicationActivity[] invokes = new SyncReplicationActivity[3];
+    for (int x = 0; x < invokes.length; x++) {
+      invokes[x] = createTestActivity();
+      sender.activityArrived(activeServer, invokes[x]);
+    }
+    // SYNC_START has not completed so it holds back the watermarks
+    sender.acknowledge(activeServer, invokes[0], ReplicationResultCode.SUCCESS);
+    assertEquals(1, sent.size());
+    assertEquals(ReplicationMessageAck.CUMULATIVE, sent.get(0).getType());
+    assertEquals(0, sent.get(0).getCompletedCount());
+
+    // the tracker outgrew its cap, acks go out one by one from now on
+    sender.acknowledge(activeServer, start, ReplicationResultCode.SUCCESS);
+    sender.acknowledge(activeServer, invokes[1], ReplicationResultCode.SUCCESS);
+    assertEquals(3, sent.size());
+    assertEquals(ReplicationMessageAck.BATCH, sent.get(1).getType());
+    assertEquals(start.getActivityID(), sent.get(1).getBatch().get(0).respondTo);
+    assertEquals(ReplicationMessageAck.BATCH, sent.get(2).getType());
+  }
+
+  private List<ReplicationMessageAck> captureSent() throws GroupException {
+    List<ReplicationMessageAck> sent = new ArrayList<>();
+    doAnswer(invocation -> {
+      sent.add(invocation.getArgument(1));
+      Runnable done = invocation.getArgument(2);
+      done.run();
+      return null;
+    }).when(groupManager).sendToWithSentCallback(eq(activeServer), any(ReplicationMessageAck.class), any(Runnable.class));
+    return sent;
+  }
+
   private SyncReplicationActivity createTestActivity() {
     return SyncReplicationActivity.createInvokeMessage(
         new FetchID(1L),
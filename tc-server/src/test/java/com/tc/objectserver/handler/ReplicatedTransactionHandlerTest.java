@@ -58,7 +58,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import org.junit.After;
@@ -341,6 +346,66 @@ public class ReplicatedTransactionHandlerTest {
     mockPassiveSync(rth);
   }
 
+  @Test
+  public void testDefermentDuringInterleavedSync() throws Exception {
+    MessageCodec codec = mock(MessageCodec.class);
+    Map<FetchID, ManagedEntity> entities = new HashMap<>();
+    List<String> applied = new ArrayList<>();
+    when(this.entityManager.getEntity(any())).then(invoke->{
+      EntityDescriptor descriptor = (EntityDescriptor)invoke.getArguments()[0];
+      return Optional.ofNullable(descriptor.isIndexed() ? entities.get(descriptor.getFetchID()) : null);
+    });
+    when(this.entityManager.createEntity(any(), anyLong(), anyLong())).then(invoke->{
+      FetchID fetch = new FetchID((Long)invoke.getArguments()[2]);
+      ManagedEntity entity = mock(ManagedEntity.class);
+      when(entity.getCodec()).thenReturn(codec);
+      when(entity.canDelete()).thenReturn(true);
+      doAnswer(add->{
+        ServerEntityRequest req = (ServerEntityRequest)add.getArguments()[0];
+        MessagePayload payload = (MessagePayload)add.getArguments()[1];
+        if (req.getAction() == ServerEntityAction.INVOKE_ACTION) {
+          applied.add(fetch.toLong() + ":" + ByteBuffer.wrap(payload.getRawPayload()).getInt());
+        } else if (req.getAction() == ServerEntityAction.RECEIVE_SYNC_ENTITY_KEY_END) {
+          applied.add(fetch.toLong() + ":end" + payload.getConcurrency());
+        }
+        return null;
+      }).when(entity).addRequestMessage(any(), any(), any());
+      entities.put(fetch, entity);
+      return entity;
+    });
+    when(this.entityManager.getMessageCodec(any())).thenReturn(codec);
+
+    EntityID first = new EntityID("foo", "first");
+    EntityID second = new EntityID("foo", "second");
+    FetchID firstFetch = new FetchID(10L);
+    FetchID secondFetch = new FetchID(11L);
+    byte[] config = new byte[0];
+    SyncReplicationActivity.EntityCreationTuple[] entitiesToSync = {
+        new SyncReplicationActivity.EntityCreationTuple(first, 1, 10L, config, true),
+        new SyncReplicationActivity.EntityCreationTuple(second, 1, 11L, config, true)
+    };
+    send(SyncReplicationActivity.createStartSyncMessage(entitiesToSync));
+    send(SyncReplicationActivity.createStartEntityMessage(first, 1, firstFetch, TCByteBufferFactory.wrap(config), 0));
+    send(SyncReplicationActivity.createStartEntityMessage(second, 1, secondFetch, TCByteBufferFactory.wrap(config), 0));
+    send(SyncReplicationActivity.createStartEntityKeyMessage(first, 1, firstFetch, 1));
+    send(SyncReplicationActivity.createStartEntityKeyMessage(first, 1, firstFetch, 2));
+    send(SyncReplicationActivity.createStartEntityKeyMessage(second, 1, secondFetch, 1));
+//  invokes on every syncing key wait for their own key
+    send(createMockReplicationMessage(firstFetch, ByteBuffer.wrap(new byte[Integer.BYTES]).putInt(1).array(), 1));
+    send(createMockReplicationMessage(firstFetch, ByteBuffer.wrap(new byte[Integer.BYTES]).putInt(2).array(), 2));
+    send(createMockReplicationMessage(secondFetch, ByteBuffer.wrap(new byte[Integer.BYTES]).putInt(3).array(), 1));
+    send(SyncReplicationActivity.createPayloadMessage(first, 1, firstFetch, 2, TCByteBufferFactory.wrap(config), ""));
+    send(SyncReplicationActivity.createEndEntityKeyMessage(first, 1, firstFetch, 1));
+    send(createMockReplicationMessage(firstFetch, ByteBuffer.wrap(new byte[Integer.BYTES]).putInt(4).array(), 1));
+    send(SyncReplicationActivity.createEndEntityKeyMessage(second, 1, secondFetch, 1));
+    send(SyncReplicationActivity.createEndEntityMessage(second, 1, secondFetch));
+    send(SyncReplicationActivity.createEndEntityKeyMessage(first, 1, firstFetch, 2));
+    send(SyncReplicationActivity.createEndEntityMessage(first, 1, firstFetch));
+    send(SyncReplicationActivity.createEndSyncMessage(TCByteBufferFactory.wrap(new byte[0])));
+
+    Assert.assertEquals(Arrays.asList("10:end1", "10:1", "10:4", "11:end1", "11:3", "10:end2", "10:2"), applied);
+  }
+
   private ServerEntityRequest last;
   private int lastSid = 0;
   private int concurrency = 0;
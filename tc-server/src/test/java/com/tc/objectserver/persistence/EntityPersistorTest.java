@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import com.tc.net.ClientID;
 import com.tc.object.EntityID;
 import com.tc.object.tx.TransactionID;
 import com.tc.test.TCTestCase;
+import java.io.File;
 import java.util.Collections;
 
 import org.junit.Assert;
@@ -247,4 +248,43 @@ public class EntityPersistorTest extends TCTestCase {
       // expected
     }
   }    
+
+  /**
+   * Test that entity churn against a journaling storage is replayed on restart, across compactions.
+   */
+  public void testJournalReplayAfterRestart() throws Exception {
+    File dir = getTempDirectory();
+    FilePlatformPersistentStorage storage = new FilePlatformPersistentStorage(dir.toPath());
+    EntityPersistor persistor = new EntityPersistor(storage);
+    persistor.addTrackingForClient(client);
+    // enough churn to force several compactions
+    long tid = 1;
+    for (int x = 0; x < 3000; x++) {
+      EntityID eid = new EntityID("test", "entity-" + x);
+      persistor.entityCreated(client, tid, tid, eid, 1L, persistor.getNextConsumerID(), true, new byte[] {(byte)x});
+      tid += 1;
+      if (x % 3 != 0) {
+        persistor.entityDestroyed(client, tid, tid, eid);
+        tid += 1;
+      }
+    }
+    EntityID reconfigured = new EntityID("test", "entity-0");
+    persistor.entityReconfigureSucceeded(client, tid, tid, reconfigured, 1L, new byte[] {42});
+    long lastTid = tid;
+    long nextConsumer = persistor.getNextConsumerID() + 1;
+    storage.close();
+
+    EntityPersistor restarted = new EntityPersistor(new FilePlatformPersistentStorage(dir.toPath()));
+    Assert.assertEquals(1000, restarted.loadEntityData().size());
+    Assert.assertTrue(restarted.containsEntity(new EntityID("test", "entity-2997")));
+    Assert.assertFalse(restarted.containsEntity(new EntityID("test", "entity-2998")));
+    // the journal answers the resend with the configuration that was replaced
+    Assert.assertArrayEquals(new byte[] {0}, restarted.reconfiguredResultInJournal(reconfigured, client, lastTid));
+    for (EntityData.Value value : restarted.loadEntityData()) {
+      if (value.entityName.equals("entity-0")) {
+        Assert.assertArrayEquals(new byte[] {42}, value.configuration);
+      }
+    }
+    Assert.assertEquals(nextConsumer, restarted.getNextConsumerID());
+  }
 }
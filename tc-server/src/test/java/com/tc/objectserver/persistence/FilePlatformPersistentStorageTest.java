@@ -0,0 +1,169 @@
+/*
+ *  Copyright Terracotta, Inc.
+ *  Copyright IBM Corp. 2024, 2026
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.tc.objectserver.persistence;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.entity.BasicServiceConfiguration;
+import org.terracotta.persistence.IPlatformJournalPersistence.JournalContents;
+import org.terracotta.persistence.IPlatformPersistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FilePlatformPersistentStorageTest {
+  private Path dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("platform-storage");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path file : (Iterable<Path>)files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Test
+  public void testTornTailRecordIsDropped() throws Exception {
+    FilePlatformPersistentStorage storage = new FilePlatformPersistentStorage(dir);
+    storage.appendToJournal("j", "one");
+    storage.appendToJournal("j", "two");
+    storage.appendToJournal("j", "three");
+    storage.close();
+    // a crash part way through writing the last record
+    Path journal = dir.resolve("j.0.journal");
+    truncate(journal, Files.size(journal) - 3);
+
+    storage = new FilePlatformPersistentStorage(dir);
+    JournalContents contents = storage.loadJournal("j");
+    assertNull(contents.snapshot);
+    assertEquals(Arrays.asList("one", "two"), contents.records);
+    // the torn bytes are gone so the next record starts on a boundary
+    storage.appendToJournal("j", "four");
+    storage.close();
+    assertEquals(Arrays.asList("one", "two", "four"), new FilePlatformPersistentStorage(dir).loadJournal("j").records);
+  }
+
+  @Test
+  public void testPartialLengthPrefixIsDropped() throws Exception {
+    FilePlatformPersistentStorage storage = new FilePlatformPersistentStorage(dir);
+    storage.appendToJournal("j", "one");
+    storage.close();
+    Path journal = dir.resolve("j.0.journal");
+    long whole = Files.size(journal);
+    try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0}));
+    }
+
+    storage = new FilePlatformPersistentStorage(dir);
+    assertEquals(Arrays.asList("one"), storage.loadJournal("j").records);
+    assertEquals(whole, Files.size(journal));
+    storage.close();
+  }
+
+  @Test
+  public void testCrashBeforeSnapshotIsMoved() throws Exception {
+    FilePlatformPersistentStorage storage = new FilePlatformPersistentStorage(dir);
+    storage.appendToJournal("j", "one");
+    storage.appendToJournal("j", "two");
+    storage.close();
+    // the new snapshot was being written when the server died, it never replaced anything
+    Files.write(dir.resolve("j.snapshot.tmp"), new byte[] {0, 0, 0});
+
+    storage = new FilePlatformPersistentStorage(dir);
+    JournalContents contents = storage.loadJournal("j");
+    assertNull(contents.snapshot);
+    assertEquals(Arrays.asList("one", "two"), contents.records);
+    // and the next compaction goes through over the leftover
+    storage.compactJournal("j", "snap");
+    storage.appendToJournal("j", "three");
+    storage.close();
+    contents = new FilePlatformPersistentStorage(dir).loadJournal("j");
+    assertEquals("snap", contents.snapshot);
+    assertEquals(Arrays.asList("three"), contents.records);
+  }
+
+  @Test
+  public void testCrashAfterSnapshotIsMoved() throws Exception {
+    FilePlatformPersistentStorage storage = new FilePlatformPersistentStorage(dir);
+    storage.appendToJournal("j", "one");
+    storage.appendToJournal("j", "two");
+    storage.close();
+    Path folded = dir.resolve("j.0.journal");
+    Path kept = dir.resolve("kept");
+    Files.copy(folded, kept);
+
+    storage = new FilePlatformPersistentStorage(dir);
+    storage.compactJournal("j", "snap");
+    storage.close();
+    // the server died after moving the snapshot in but before deleting the journal it folded
+    Files.move(kept, folded, StandardCopyOption.REPLACE_EXISTING);
+
+    storage = new FilePlatformPersistentStorage(dir);
+    JournalContents contents = storage.loadJournal("j");
+    assertEquals("snap", contents.snapshot);
+    assertTrue(contents.records.isEmpty());
+    assertFalse(Files.exists(folded));
+    storage.appendToJournal("j", "three");
+    storage.close();
+    contents = new FilePlatformPersistentStorage(dir).loadJournal("j");
+    assertEquals("snap", contents.snapshot);
+    assertEquals(Arrays.asList("three"), contents.records);
+  }
+
+  @Test
+  public void testProviderKeepsConsumersApart() throws Exception {
+    FilePlatformStorageServiceProvider provider = new FilePlatformStorageServiceProvider();
+    assertTrue(provider.initialize(new FilePlatformStorageProviderConfiguration(dir.resolve("root")), null));
+    IPlatformPersistence first = provider.getService(0, new BasicServiceConfiguration<>(IPlatformPersistence.class));
+    IPlatformPersistence second = provider.getService(1, new BasicServiceConfiguration<>(IPlatformPersistence.class));
+    first.storeDataElement("value", "first");
+    second.storeDataElement("value", "second");
+    assertEquals("first", first.loadDataElement("value"));
+    assertEquals("second", second.loadDataElement("value"));
+    provider.prepareForSynchronization();
+    IPlatformPersistence synced = provider.getService(0, new BasicServiceConfiguration<>(IPlatformPersistence.class));
+    assertNull(synced.loadDataElement("value"));
+    provider.close();
+  }
+
+  private static void truncate(Path file, long size) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(size);
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  *  Copyright Terracotta, Inc.
- *  Copyright IBM Corp. 2024, 2025
+ *  Copyright IBM Corp. 2024, 2026
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -33,6 +33,8 @@ import com.tc.object.net.DSOChannelManager;
 import com.tc.objectserver.api.ManagedEntity;
 import com.tc.objectserver.entity.ClientDescriptorImpl;
 
+import java.util.Arrays;
+
 import org.mockito.Mockito;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
@@ -131,4 +133,27 @@ public class CommunicatorServiceTest {
     verify(clientMessageSender).send(clientID, instance2, payload2);
     verify(clientMessageSender, never()).send(eq(clientID), eq(instance1), any(byte[].class));
   }
+
+  @Test
+  public void testBroadcastEncodesOnceAndGroupsByClient() throws Exception {
+    ClientID otherID = new ClientID(2);
+    MessageChannel otherChannel = mock(MessageChannel.class);
+    when(otherChannel.getRemoteNodeID()).thenReturn(otherID);
+    communicatorService.channelCreated(otherChannel);
+
+    ClientInstanceID instance1 = new ClientInstanceID(1);
+    ClientInstanceID instance2 = new ClientInstanceID(2);
+    ClientInstanceID instance3 = new ClientInstanceID(3);
+    ClientCommunicator clientCommunicator = communicatorService.getService(consumerID, this.owningEntity, new CommunicatorServiceConfiguration());
+    clientCommunicator.broadcast(Arrays.asList(
+        new ClientDescriptorImpl(clientID, instance1),
+        new ClientDescriptorImpl(otherID, instance3),
+        new ClientDescriptorImpl(clientID, instance2),
+        new ClientDescriptorImpl(new ClientID(3), instance1)), response);
+
+    verify(codec).encodeResponse(response);
+    verify(clientMessageSender).send(clientID, Arrays.asList(instance1, instance2), payload);
+    verify(clientMessageSender).send(otherID, Arrays.asList(instance3), payload);
+    verify(clientMessageSender, never()).send(eq(clientID), any(ClientInstanceID.class), any(byte[].class));
+  }
 }
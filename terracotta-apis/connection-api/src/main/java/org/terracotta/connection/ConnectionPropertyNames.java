@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,4 +35,6 @@ public interface ConnectionPropertyNames {
   String CONNECTION_TYPE = "connection.type";
   /*  request an async connection */
   String CONNECTION_ASYNC = "connection.async";
+  /*  request blocking socket transport serviced by virtual threads rather than the shared NIO selectors */
+  String CONNECTION_VIRTUAL_THREADS = "connection.virtualthreads";
 }
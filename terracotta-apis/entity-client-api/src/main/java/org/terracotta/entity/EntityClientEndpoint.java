@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.terracotta.entity;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Future;
 
 
@@ -53,6 +55,21 @@ public interface EntityClientEndpoint<M extends EntityMessage, R extends EntityR
    */
   Invocation<R> message(M message);
 
+  /**
+   * Sends a batch of messages to the remote server-side entity, in order.
+   * Endpoints which can will pack the batch into as few network writes as possible.
+   *
+   * @param messages the messages to send
+   * @return futures representing the completion of each invocation, in the order of {@code messages}
+   */
+  default List<Future<R>> invokeAll(List<? extends M> messages) {
+    List<Future<R>> futures = new ArrayList<>(messages.size());
+    for (M message : messages) {
+      futures.add(message(message).invoke());
+    }
+    return futures;
+  }
+
   /**
    * The instance will be unusable after this call.
    */
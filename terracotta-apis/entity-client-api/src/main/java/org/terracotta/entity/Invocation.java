@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -51,6 +51,21 @@ public interface Invocation<R> {
    */
   Task invoke(InvocationCallback<R> callback, Set<InvocationCallback.Types> interests);
 
+  /**
+   * Sends the configured message to the server if it can be sent without waiting.
+   *
+   * An endpoint may bound the number of invocations it has in flight.  Where {@link #invoke(InvocationCallback, Set)}
+   * waits for an earlier invocation to retire when that window is full, this method returns {@code null} instead and
+   * the invocation can be tried again later.
+   *
+   * @param callback the callback on which to notify the acknowledgements.
+   * @param interests the set of acknowledgements the invocation is interested in
+   * @return a task representing the invocation of the message, or {@code null} if the message was not sent
+   */
+  default Task tryInvoke(InvocationCallback<R> callback, Set<InvocationCallback.Types> interests) {
+    return invoke(callback, interests);
+  }
+
   /*
    * Sends the configured message to the server returning a future representing the completion of the invocation.
    *
@@ -0,0 +1,102 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ *
+ * Optional extension of {@link MessageCodec} which works against buffers rather than byte[].  When an entity's codec
+ * implements this interface the platform decodes straight from a read-only view of the network buffer, avoiding a
+ * copy of the payload.  Responses are still carried to the client as arrays, so the platform encodes them through
+ * {@link #encodeResponse(EntityResponse)}; override it to produce an exactly sized array without the copy the
+ * default makes.
+ *
+ * The buffers passed to the decode methods are only valid for the duration of the call.  They are recycled once the
+ * call returns so an implementation must copy any bytes the decoded object keeps.
+ *
+ * The byte[] methods of {@link MessageCodec} are provided in terms of the buffer methods so an implementation only
+ * needs to supply the four methods below.  The same state-less rules as {@link MessageCodec} apply.
+ *
+ * @param <M> An {@link EntityMessage} to be encoded/decoded
+ * @param <R> An {@link EntityResponse} to be encoded/decoded
+ */
+public interface ByteBufferMessageCodec<M extends EntityMessage, R extends EntityResponse> extends MessageCodec<M, R> {
+
+  /**
+   * Encodes the given {@link EntityMessage} into the provided output
+   *
+   * @param message The request object to be encoded
+   * @param out The destination of the encoded data
+   * @throws MessageCodecException The message could not be serialized or was considered invalid.
+   */
+  void encodeMessage(M message, DataOutput out) throws MessageCodecException;
+
+  /**
+   * Decodes a given payload into a high-level {@link EntityMessage} instance
+   *
+   * @param payload read-only view of the raw wire message, from position to limit
+   * @return A high-level message instance
+   * @throws MessageCodecException The message could not be deserialized or was considered invalid.
+   */
+  M decodeMessage(ByteBuffer payload) throws MessageCodecException;
+
+  /**
+   * Encodes the given {@link EntityResponse} into the provided output
+   *
+   * @param response The response object to be encoded
+   * @param out The destination of the encoded data
+   * @throws MessageCodecException The message could not be serialized or was considered invalid.
+   */
+  void encodeResponse(R response, DataOutput out) throws MessageCodecException;
+
+  /**
+   * Decodes a given payload into a high-level {@link EntityResponse} instance
+   *
+   * @param payload read-only view of the raw wire message, from position to limit
+   * @return A high-level message instance
+   * @throws MessageCodecException The message could not be deserialized or was considered invalid.
+   */
+  R decodeResponse(ByteBuffer payload) throws MessageCodecException;
+
+  @Override
+  default byte[] encodeMessage(M message) throws MessageCodecException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    encodeMessage(message, new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  @Override
+  default M decodeMessage(byte[] payload) throws MessageCodecException {
+    return decodeMessage(ByteBuffer.wrap(payload).asReadOnlyBuffer());
+  }
+
+  @Override
+  default byte[] encodeResponse(R response) throws MessageCodecException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    encodeResponse(response, new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  @Override
+  default R decodeResponse(byte[] payload) throws MessageCodecException {
+    return decodeResponse(ByteBuffer.wrap(payload).asReadOnlyBuffer());
+  }
+}
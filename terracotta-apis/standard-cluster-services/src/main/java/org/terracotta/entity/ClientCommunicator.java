@@ -1,6 +1,6 @@
 /*
  * Copyright Terracotta, Inc.
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 
 package org.terracotta.entity;
 
+import java.util.Collection;
 
 /**
  * Communicator allowing server-side entities to push messages to client-side entities.
@@ -33,6 +34,22 @@ public interface ClientCommunicator {
    * @throws MessageCodecException If the message could not be serialized by the provided codec
    */
   void sendNoResponse(ClientDescriptor clientDescriptor, EntityResponse message) throws MessageCodecException;
+
+  /**
+   * Send the same message to the client-side of an entity on each of the given clients.
+   * The message is encoded once and client side instances which share a connection receive it
+   * in a single network message.
+   *
+   * @param clientDescriptors The client side instances to send to
+   * @param message The message to send
+   * @throws MessageCodecException If the message could not be serialized by the provided codec
+   */
+  default void broadcast(Collection<ClientDescriptor> clientDescriptors, EntityResponse message) throws MessageCodecException {
+    for (ClientDescriptor clientDescriptor : clientDescriptors) {
+      sendNoResponse(clientDescriptor, message);
+    }
+  }
+
   /**
    * Unilaterally closes the server-side connection associated with entity ClientDescriptor.
    * Any other entity ClientDescriptors associated with the connection will also be invalidated
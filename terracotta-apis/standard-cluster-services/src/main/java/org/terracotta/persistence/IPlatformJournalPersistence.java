@@ -0,0 +1,76 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.persistence;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+
+
+/**
+ * Optional extension of {@link IPlatformPersistence} for data which changes a little at a time.  Rather than re-writing
+ *  a whole data element for every change, small records are appended to a named journal and the journal is periodically
+ *  compacted into a snapshot.  On restart the snapshot is loaded and the records appended after it are replayed, in
+ *  order, by the caller.
+ * The platform uses this extension when the storage back-end provides it and falls back to whole data elements when it
+ *  does not.
+ */
+public interface IPlatformJournalPersistence extends IPlatformPersistence {
+  /**
+   * Appends a record to the named journal.  The record is durable once this method returns.
+   *
+   * @param name The name of the journal (must be filesystem-safe)
+   * @param record The record to append
+   * @throws IOException If something went wrong while interacting with the persistence medium
+   */
+  public void appendToJournal(String name, Serializable record) throws IOException;
+
+  /**
+   * Atomically replaces the snapshot of the named journal and discards all the records appended before this call.
+   * A null snapshot deletes the journal.
+   *
+   * @param name The name of the journal (must be filesystem-safe)
+   * @param snapshot The complete state the journal records have been folded into
+   * @throws IOException If something went wrong while interacting with the persistence medium
+   */
+  public void compactJournal(String name, Serializable snapshot) throws IOException;
+
+  /**
+   * Loads the last snapshot of the named journal and every record appended after it.
+   * NOTE:  Any required classes will be loaded into the system class loader.
+   *
+   * @param name The name of the journal (must be filesystem-safe)
+   * @return The snapshot and records, both empty if the journal does not exist
+   * @throws IOException If something went wrong while interacting with the persistence medium
+   */
+  public JournalContents loadJournal(String name) throws IOException;
+
+
+  /**
+   * The contents of a journal, as loaded on restart.
+   */
+  public class JournalContents {
+    /**
+     * The last snapshot written by {@link #compactJournal(String, Serializable)}, null if there was none.
+     */
+    public Serializable snapshot;
+    /**
+     * The records appended after the snapshot, in the order they were appended.
+     */
+    public List<Serializable> records;
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,4 +23,11 @@ public interface Event {
   void end();
   void commit();
   void setDescription(String description);
+  /**
+   * Whether committing this event would record it.  Lets a description that is costly to render
+   * be set only for events the recording keeps.
+   */
+  default boolean shouldCommit() {
+    return true;
+  }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,4 +34,9 @@ class NullEvent implements org.terracotta.tripwire.Event {
   @Override
   public void setDescription(String description) {
   }
+
+  @Override
+  public boolean shouldCommit() {
+    return false;
+  }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright IBM Corp. 2024, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.tripwire;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One point a sampled request passed on its way through the server.  Points are buffered where
+ * they happen and exported in batches, so the event time is the export and {@code elapsed} places
+ * the point relative to the start of its trace.
+ */
+@Category("Tripwire")
+@StackTrace(false)
+@Label("Pipeline Trace")
+class PipelineTraceEvent extends Event implements org.terracotta.tripwire.Event {
+
+  private final long trace;
+  private final String point;
+  private final String type;
+  private final String thread;
+  @Timespan(Timespan.NANOSECONDS)
+  private final long elapsed;
+  private String description;
+
+  PipelineTraceEvent(long trace, String point, String type, String thread, long elapsed) {
+    this.trace = trace;
+    this.point = point;
+    this.type = type;
+    this.thread = thread;
+    this.elapsed = elapsed;
+  }
+
+  @Override
+  public void setDescription(String description) {
+    this.description = description;
+  }
+}
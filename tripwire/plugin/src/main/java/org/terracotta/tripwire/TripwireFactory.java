@@ -1,5 +1,5 @@
 /*
- * Copyright IBM Corp. 2024, 2025
+ * Copyright IBM Corp. 2024, 2026
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,10 @@ public class TripwireFactory {
     return (ENABLED) ? new MonitoringEvent(stage, debug.toString()) : new NullEvent();
   }
 
+  public static org.terracotta.tripwire.Event createTraceEvent(long trace, String point, String type, String thread, long elapsed) {
+    return (ENABLED) ? new PipelineTraceEvent(trace, point, type, thread, elapsed) : new NullEvent();
+  }
+
   public static org.terracotta.tripwire.Event createPrimeEvent(String name, byte[] uid, long session, long id) {
     return (ENABLED) ? new PrimeEvent(name, uid, session, id) : new NullEvent();
   }